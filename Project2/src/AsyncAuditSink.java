@@ -0,0 +1,273 @@
+/**
+ * AsyncAuditSink.java
+ * This class hands the audit file content to a background writer thread, so an election never waits on the
+ * audit file's disk. The election publishes every write into a bounded ring buffer and the writer thread drains
+ * the buffer into another AuditSink in the same order. When the buffer is full, the back-pressure policy decides
+ * whether the election waits for space or fails. Flushes and the ends of phases are published like writes, so the
+ * election never waits for them; a failure of the writer thread is reported by the next write, flush or close.
+ * close() waits until every write has reached the other sink and then closes it, so a closed audit file is
+ * complete and in order.
+ */
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class AsyncAuditSink extends AuditSink {
+    /**
+     * What a write does when the ring buffer is full.
+     */
+    public enum BackPressure {
+        BLOCK, // Wait until the writer thread frees space in the buffer
+        FAIL // Throw an UncheckedIOException right away
+    }
+
+    public static final int DEFAULT_CAPACITY = 1024; // Number of writes the ring buffer holds by default
+    private static final Object FLUSH = new Object(); // Marks the position of a flush() in the ring buffer
+
+    private final AuditSink delegate; // Sink the writer thread writes to
+    private final BackPressure backPressure; // What a write does when the ring buffer is full
+    private final Object[] records; // Ring buffer of published writes, flush markers and the rounds of ended phases
+    private int head; // Position of the oldest record in the ring buffer
+    private int size; // Number of records in the ring buffer
+    private boolean closed; // True once close() was called
+    private RuntimeException failure; // First failure of the writer thread, or null if there was none
+    private final ReentrantLock lock; // Guards the ring buffer and the counters
+    private final Condition notFull; // Signalled when the writer thread frees space in the ring buffer
+    private final Condition notEmpty; // Signalled when a record is published or the sink is closed
+    private final Thread writerThread; // Background thread draining the ring buffer
+
+    /**
+     * Constructor that starts the writer thread with a ring buffer of DEFAULT_CAPACITY writes that blocks when full.
+     * @param delegate - The sink the writer thread writes to.
+     */
+    public AsyncAuditSink(AuditSink delegate){
+        this(delegate, DEFAULT_CAPACITY, BackPressure.BLOCK);
+    }
+
+    /**
+     * Constructor that starts the writer thread.
+     * @param delegate - The sink the writer thread writes to.
+     * @param capacity - The number of writes the ring buffer holds.
+     * @param backPressure - What a write does when the ring buffer is full.
+     */
+    public AsyncAuditSink(AuditSink delegate, int capacity, BackPressure backPressure){
+        if (capacity <= 0){
+            throw new IllegalArgumentException("The audit buffer capacity must be positive.");
+        }
+
+        this.delegate = delegate;
+        this.backPressure = backPressure;
+        this.records = new Object[capacity];
+        this.lock = new ReentrantLock();
+        this.notFull = lock.newCondition();
+        this.notEmpty = lock.newCondition();
+        this.writerThread = new Thread(this::drain, "audit-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * This function publishes content to the ring buffer and returns without waiting for the disk.
+     * @param content - The content to be written to the audit file.
+     * @throws UncheckedIOException - If the buffer is full under the FAIL policy, or the writer thread failed.
+     */
+    @Override
+    public void write(CharSequence content){
+        publish(content.toString());
+    }
+
+    /**
+     * This function publishes a flush to the ring buffer and returns without waiting for the disk. The writer
+     * thread flushes the delegate once it has written every write published before it.
+     * @throws UncheckedIOException - If the buffer is full under the FAIL policy, or the writer thread failed.
+     */
+    @Override
+    public void flush(){
+        publish(FLUSH);
+    }
+
+    /**
+     * This function publishes the end of a phase to the ring buffer and returns without waiting for the disk. The
+     * writer thread ends the phase in the delegate once it has written every write published before it.
+     * @param round - The last round written in the phase, or NO_ROUND if the phase holds no round.
+     * @throws UncheckedIOException - If the buffer is full under the FAIL policy, or the writer thread failed.
+     */
+    @Override
+    public void endPhase(int round){
+        publish(Integer.valueOf(round));
+    }
+
+    /**
+     * This function waits until the writer thread has written every published record, then closes the
+     * delegate. Closing the sink more than once has no effect.
+     * @throws UncheckedIOException - If the writer thread failed to write, flush or close the delegate.
+     */
+    @Override
+    public void close(){
+        lock.lock();
+        try {
+            if (closed){
+                return;
+            }
+            closed = true;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        boolean interrupted = false;
+        while (writerThread.isAlive()){
+            try {
+                writerThread.join();
+            } catch (InterruptedException e){
+                interrupted = true; // Keep waiting so the audit file is complete, then restore the interrupt
+            }
+        }
+        if (interrupted){
+            Thread.currentThread().interrupt();
+        }
+
+        lock.lock();
+        try {
+            checkFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * This function lists the files the delegate has written. The delegate is written by the writer thread, so its
+     * files are only listed once the sink is closed.
+     * @return - The names and paths of the files, or an empty list if the sink is still open.
+     */
+    @Override
+    public List<String> getFiles(){
+        return writerThread.isAlive() ? Collections.<String>emptyList() : delegate.getFiles();
+    }
+
+    /**
+     * This function adds a record to the ring buffer, applying the back-pressure policy if it is full.
+     * @param record - The content of a write, FLUSH, or the round of a phase that ends.
+     */
+    private void publish(Object record){
+        lock.lock();
+        try {
+            checkOpen();
+            while (size == records.length){
+                if (backPressure == BackPressure.FAIL){
+                    throw new UncheckedIOException(new IOException("The audit buffer is full."));
+                }
+                awaitOrFail(notFull);
+                checkOpen();
+            }
+
+            records[(head + size) % records.length] = record;
+            size++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * This function is run by the writer thread. It takes every record in the ring buffer at once, writes
+     * them to the delegate outside of the lock, and repeats until the sink is closed and the buffer is empty.
+     */
+    private void drain(){
+        Object[] batch = new Object[records.length];
+        try {
+            while (true){
+                int numRecords;
+                lock.lock();
+                try {
+                    while (size == 0 && !closed){
+                        notEmpty.awaitUninterruptibly();
+                    }
+                    if (size == 0){ // Closed and every record was written
+                        break;
+                    }
+
+                    numRecords = size;
+                    for (int i = 0; i < numRecords; i++){
+                        int idx = (head + i) % records.length;
+                        batch[i] = records[idx];
+                        records[idx] = null;
+                    }
+                    head = (head + numRecords) % records.length;
+                    size = 0;
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+
+                for (int i = 0; i < numRecords; i++){
+                    if (batch[i] == FLUSH){
+                        delegate.flush();
+                    } else if (batch[i] instanceof Integer){
+                        delegate.endPhase((Integer) batch[i]);
+                    } else {
+                        delegate.write((String) batch[i]);
+                    }
+                    batch[i] = null;
+                }
+            }
+
+            delegate.close();
+        } catch (RuntimeException e){
+            lock.lock();
+            try {
+                failure = e;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                delegate.close();
+            } catch (RuntimeException closeFailure){
+                e.addSuppressed(closeFailure);
+            }
+        }
+    }
+
+    /**
+     * This function waits on a condition of the lock, turning an interrupt into an UncheckedIOException.
+     * @param condition - The condition to wait on.
+     */
+    private void awaitOrFail(Condition condition){
+        try {
+            condition.await();
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for the audit writer."));
+        }
+    }
+
+    /**
+     * This function checks that records can still be published to the sink.
+     */
+    private void checkOpen(){
+        checkFailure();
+        if (closed){
+            throw new UncheckedIOException(new IOException("The audit file is already closed."));
+        }
+    }
+
+    /**
+     * This function rethrows the writer thread's failure to the election.
+     */
+    private void checkFailure(){
+        if (failure == null){
+            return;
+        }
+        if (failure instanceof UncheckedIOException){
+            throw new UncheckedIOException(failure.getMessage(), ((UncheckedIOException) failure).getCause());
+        }
+        throw new UncheckedIOException(new IOException("The audit writer failed.", failure));
+    }
+}
@@ -0,0 +1,147 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import org.junit.*;
+
+public class AsyncAuditSinkTests {
+    /**
+     * Audit sink that waits for a latch before every write and can be told to fail.
+     */
+    private static class SlowAuditSink extends AuditSink {
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final StringBuilder content = new StringBuilder();
+        private volatile boolean failWrites = false;
+        private volatile int numFlushes = 0;
+        private volatile boolean closed = false;
+
+        @Override
+        public void write(CharSequence content) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failWrites) {
+                throw new UncheckedIOException(new IOException("Disk full"));
+            }
+            this.content.append(content);
+        }
+
+        @Override
+        public void flush() {
+            numFlushes++;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    /**
+     * This test checks that every write reaches the audit file in order when the ring buffer is much smaller
+     * than the number of writes.
+     */
+    @Test
+    public void testWritesAreInOrder() throws IOException {
+        File auditFile = File.createTempFile("async_audit_sink", ".txt");
+        auditFile.deleteOnExit();
+
+        AuditSink sink = new AsyncAuditSink(AuditSink.open(auditFile.getPath()), 4, AsyncAuditSink.BackPressure.BLOCK);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sink.write("Round " + i + "\n");
+            expected.append("Round " + i + "\n");
+        }
+        sink.close();
+
+        String content = new String(Files.readAllBytes(auditFile.toPath()), StandardCharsets.UTF_8);
+        Assert.assertEquals(expected.toString(), content);
+    }
+
+    /**
+     * This test checks that flush() and the end of a phase return while the writer thread is still blocked on the
+     * disk, and that close() waits until the writes, the flush and the phase reached the other sink.
+     */
+    @Test
+    public void testFlushDoesNotWaitForWriter() {
+        SlowAuditSink slowSink = new SlowAuditSink();
+        AsyncAuditSink sink = new AsyncAuditSink(slowSink, 8, AsyncAuditSink.BackPressure.BLOCK);
+        sink.write("Round 1\n");
+        sink.flush();
+        sink.endPhase(1);
+        Assert.assertEquals("", slowSink.content.toString()); // The writer thread is still waiting on the latch
+
+        slowSink.release.countDown();
+        sink.close();
+        Assert.assertEquals("Round 1\n", slowSink.content.toString());
+        Assert.assertEquals(2, slowSink.numFlushes); // The end of a phase flushes the other sink as well
+        Assert.assertTrue(slowSink.closed);
+    }
+
+    /**
+     * This test checks that the FAIL policy reports a full ring buffer instead of waiting.
+     */
+    @Test
+    public void testFailWhenFull() {
+        SlowAuditSink slowSink = new SlowAuditSink();
+        AsyncAuditSink sink = new AsyncAuditSink(slowSink, 2, AsyncAuditSink.BackPressure.FAIL);
+
+        try {
+            for (int i = 0; i < 10; i++) { // The writer thread holds at most one batch while it waits on the latch
+                sink.write("Round " + i + "\n");
+            }
+            Assert.fail("Expected the audit buffer to be full");
+        } catch (UncheckedIOException e) {
+            // Expected
+        } finally {
+            slowSink.release.countDown();
+            sink.close();
+        }
+    }
+
+    /**
+     * This test checks that a failure of the writer thread is reported to the election when the sink is closed.
+     */
+    @Test
+    public void testWriterFailureIsReported() {
+        SlowAuditSink slowSink = new SlowAuditSink();
+        slowSink.failWrites = true;
+        slowSink.release.countDown();
+        AsyncAuditSink sink = new AsyncAuditSink(slowSink);
+        sink.write("Round 1\n");
+
+        try {
+            sink.close();
+            Assert.fail("Expected the writer failure to be reported");
+        } catch (UncheckedIOException e) {
+            // Expected
+        }
+        Assert.assertTrue(slowSink.closed);
+    }
+
+    /**
+     * This test checks that an election gives the same audit file with the async audit mode.
+     */
+    @Test
+    public void testElectionWithAsyncAudit() throws IOException {
+        File syncAuditFile = File.createTempFile("sync_audit", ".txt");
+        File asyncAuditFile = File.createTempFile("async_audit", ".txt");
+        syncAuditFile.deleteOnExit();
+        asyncAuditFile.deleteOnExit();
+
+        final FileParser file = new FileParser("./../testing/MPO_test_multiple_winners_with_no_tie_breakers.csv");
+        final MPOVoting syncMpo = new MPOVoting(file.getCandidateLine(), file.getBallotList(), file.getNumberOfSeats(), syncAuditFile.getPath());
+        syncMpo.performSeatAllocations();
+        final MPOVoting asyncMpo = new MPOVoting(file.getCandidateLine(), file.getBallotList(), file.getNumberOfSeats(), asyncAuditFile.getPath());
+        asyncMpo.setAsyncAudit(true);
+        asyncMpo.performSeatAllocations();
+
+        byte[] syncContent = Files.readAllBytes(syncAuditFile.toPath());
+        byte[] asyncContent = Files.readAllBytes(asyncAuditFile.toPath());
+        Assert.assertArrayEquals(syncContent, asyncContent);
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * AuditDeltaTable.java
+ * This class keeps the rows of a round table last written to the audit, such as the candidates of an IR
+ * redistribution round or the parties of an OPL seat allocation round, so that later rounds only record the
+ * rows that changed. A full table (a snapshot) is still recorded every few rounds, and merge() rebuilds the full
+ * table of any round from the last snapshot and the changed rows after it. Rows are matched by their "name".
+ */
+
+import java.util.*;
+
+public class AuditDeltaTable {
+    private final int snapshotInterval; // Number of rounds from one full table to the next, or 0 to record every table in full
+    private final HashMap<Object, Object> lastRows; // Row of every name as of the last round recorded
+    private int roundsSinceSnapshot; // Number of rounds recorded since the last full table
+
+    /**
+     * Constructs an AuditDeltaTable.
+     * @param snapshotInterval - The number of rounds from one full table to the next, e.g. 10 records rounds 1, 11, 21, ...
+     * in full and only the changed rows in between. 0 or less records every table in full.
+     */
+    public AuditDeltaTable(int snapshotInterval){
+        this.snapshotInterval = snapshotInterval;
+        this.lastRows = new HashMap<>();
+        this.roundsSinceSnapshot = 0;
+    }
+
+    /**
+     * This function adds the rows of the next round to an event. If the round is a snapshot, every row is added and
+     * the "snapshot" field is true; otherwise only the rows that changed since the previous round are added, the
+     * "snapshot" field is false and the "unchanged" field holds the number of rows left out. Neither field is added
+     * if every table is recorded in full.
+     * @param event - The event of the round.
+     * @param name - The name of the field holding the rows, e.g. "candidates".
+     * @param rows - Every row of the round, each a field map with a "name".
+     */
+    public void addRows(AuditEvent event, String name, ArrayList<Object> rows){
+        if (snapshotInterval <= 0){
+            event.with(name, rows);
+            return;
+        }
+
+        boolean snapshot = lastRows.isEmpty() || roundsSinceSnapshot >= snapshotInterval;
+        ArrayList<Object> recordedRows = snapshot ? rows : new ArrayList<>();
+        for (Object row : rows){
+            Object previousRow = lastRows.put(AuditEvent.asFields(row).get("name"), row);
+            if (!snapshot && !row.equals(previousRow)){
+                recordedRows.add(row);
+            }
+        }
+        roundsSinceSnapshot = snapshot ? 1 : roundsSinceSnapshot + 1;
+
+        event.with("snapshot", snapshot);
+        if (!snapshot){
+            event.with("unchanged", rows.size() - recordedRows.size());
+        }
+        event.with(name, recordedRows);
+    }
+
+    /**
+     * This function rebuilds the full table of a round from the full table of the previous round and the rows
+     * recorded for the round. Rows keep the order of the previous table, and rows of new names are added at the end.
+     * @param previousRows - The full table of the previous round.
+     * @param changedRows - The rows recorded for the round.
+     * @return - The full table of the round.
+     */
+    public static ArrayList<Object> merge(List<Object> previousRows, List<Object> changedRows){
+        LinkedHashMap<Object, Object> rows = new LinkedHashMap<>();
+        for (Object row : previousRows){
+            rows.put(AuditEvent.asFields(row).get("name"), row);
+        }
+        for (Object row : changedRows){
+            rows.put(AuditEvent.asFields(row).get("name"), row);
+        }
+        return new ArrayList<>(rows.values());
+    }
+}
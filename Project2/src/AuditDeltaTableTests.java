@@ -0,0 +1,91 @@
+import java.io.*;
+import java.util.*;
+import org.junit.*;
+
+public class AuditDeltaTableTests {
+    /**
+     * This function builds the rows of a round table from pairs of party names and seats.
+     */
+    private static ArrayList<Object> rows(Object... namesAndSeats) {
+        ArrayList<Object> rows = new ArrayList<>();
+        for (int i = 0; i < namesAndSeats.length; i += 2) {
+            LinkedHashMap<String, Object> row = new LinkedHashMap<>();
+            row.put("name", namesAndSeats[i]);
+            row.put("seats", namesAndSeats[i + 1]);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * This test checks that every table is recorded in full and without delta fields when the mode is off.
+     */
+    @Test
+    public void testDeltasOff() {
+        AuditDeltaTable table = new AuditDeltaTable(0);
+        table.addRows(new AuditEvent(AuditEvent.Type.SEAT_AWARD, "OPL"), "parties", rows("D", 1, "R", 0));
+        AuditEvent event = new AuditEvent(AuditEvent.Type.SEAT_AWARD, "OPL");
+        table.addRows(event, "parties", rows("D", 1, "R", 1));
+
+        Assert.assertFalse(event.has("snapshot"));
+        Assert.assertEquals(2, event.getList("parties").size());
+    }
+
+    /**
+     * This test checks that only changed rows are recorded between snapshots, and that a snapshot is recorded every interval rounds.
+     */
+    @Test
+    public void testChangedRowsAndSnapshots() {
+        AuditDeltaTable table = new AuditDeltaTable(2);
+        AuditEvent[] events = new AuditEvent[3];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new AuditEvent(AuditEvent.Type.SEAT_AWARD, "OPL");
+        }
+        table.addRows(events[0], "parties", rows("D", 1, "R", 0, "I", 0));
+        table.addRows(events[1], "parties", rows("D", 1, "R", 1, "I", 0));
+        table.addRows(events[2], "parties", rows("D", 1, "R", 1, "I", 1));
+
+        Assert.assertTrue(AuditEvent.booleanValue(events[0].getFields(), "snapshot"));
+        Assert.assertEquals(3, events[0].getList("parties").size());
+
+        Assert.assertFalse(AuditEvent.booleanValue(events[1].getFields(), "snapshot"));
+        Assert.assertEquals(2, events[1].getInt("unchanged"));
+        Assert.assertEquals(rows("R", 1), events[1].getList("parties"));
+
+        Assert.assertTrue(AuditEvent.booleanValue(events[2].getFields(), "snapshot"));
+        Assert.assertEquals(3, events[2].getList("parties").size());
+    }
+
+    /**
+     * This test checks that merging the changed rows into the previous table keeps the order of the table.
+     */
+    @Test
+    public void testMerge() {
+        Assert.assertEquals(rows("D", 1, "R", 2, "I", 0, "L", 1), AuditDeltaTable.merge(rows("D", 1, "R", 1, "I", 0), rows("R", 2, "L", 1)));
+    }
+
+    /**
+     * This test checks that replaying the event log of an IR election written in delta audit mode
+     * rebuilds the same audit as an election written with full tables.
+     */
+    @Test
+    public void testReplayRebuildsFullTables() throws IOException {
+        final FileParser file = new FileParser("./../testing/IR_test_majority_winner_after_one_round_redistribution.csv");
+
+        final IRVoting full = new IRVoting(file.getCandidateLine(), new ArrayList<>(file.getBallotList()), "");
+        RecordingAuditSink fullAudit = new RecordingAuditSink();
+        full.setAuditSink(fullAudit);
+        full.calculateBallots();
+
+        final IRVoting delta = new IRVoting(file.getCandidateLine(), new ArrayList<>(file.getBallotList()), "");
+        RecordingAuditSink eventLog = new RecordingAuditSink();
+        delta.setAuditEventSink(eventLog);
+        delta.setAuditDeltas(5);
+        delta.calculateBallots();
+
+        RecordingAuditSink replayed = new RecordingAuditSink();
+        AuditReplay.replay(new BufferedReader(new StringReader(eventLog.getContent())), 0, new TextAuditRenderer(replayed));
+
+        Assert.assertEquals(fullAudit.getContent(), replayed.getContent());
+    }
+}
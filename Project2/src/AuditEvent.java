@@ -0,0 +1,275 @@
+/**
+ * AuditEvent.java
+ * This class is one step of an election written to the audit, such as a tally, an elimination or a tie breaker.
+ * The Voting classes emit AuditEvent objects instead of text, and every AuditRenderer turns the same events into
+ * its own output, e.g. the human-readable audit file or a JSON Lines event log. The details of an event are kept
+ * as named fields whose values are strings, numbers, booleans, lists or nested field maps, so an event can be
+ * written to and read back from JSON without losing anything.
+ */
+
+import java.util.*;
+
+public class AuditEvent {
+    /**
+     * The kinds of steps written to the audit.
+     */
+    public enum Type {
+        ELECTION_START, // The protocol and the size of the election
+        ROUND_START, // A new round of redistribution begins
+        TALLY, // Votes counted before any candidate is eliminated or seat is allocated
+        ELIMINATION, // Candidates removed from the election
+        TRANSFER, // Votes moved from eliminated candidates to the voters' next preference
+        TIE_DRAW, // A "coin flip" between tied candidates or parties
+        SEAT_AWARD, // Seats given to parties or candidates
+        SEAT_SENSITIVITY, // How close every party was to gaining or losing a seat
+        RESULT // The final result of the election
+    }
+
+    private final Type type; // Kind of step
+    private final String protocol; // Protocol of the election, e.g. "IR", "OPL" or "MPO"
+    private final LinkedHashMap<String, Object> fields; // Details of the step, in the order they were added
+
+    /**
+     * Constructs an audit event without any details.
+     * @param type - The kind of step.
+     * @param protocol - The protocol of the election, e.g. "IR", "OPL" or "MPO".
+     */
+    public AuditEvent(Type type, String protocol){
+        this.type = type;
+        this.protocol = protocol;
+        this.fields = new LinkedHashMap<>();
+    }
+
+    /**
+     * This function adds a detail to the event.
+     * @param name - The name of the detail.
+     * @param value - A string, number, boolean, list or field map.
+     * @return - This event, so details can be chained.
+     */
+    public AuditEvent with(String name, Object value){
+        fields.put(name, value);
+        return this;
+    }
+
+    /**
+     * This function builds the fields describing a candidate: their name, party and number of votes.
+     * @param candidate - The candidate to describe.
+     * @return - A field map that more details can be added to.
+     */
+    public static LinkedHashMap<String, Object> candidateFields(Candidate candidate){
+        LinkedHashMap<String, Object> row = new LinkedHashMap<>();
+        row.put("name", candidate.getName());
+        row.put("party", candidate.getParty());
+        row.put("votes", candidate.getNumVotes());
+        return row;
+    }
+
+    /**
+     * This function builds the fields describing a party: its name, initial number of votes and number of seats.
+     * @param party - The party to describe.
+     * @return - A field map that more details can be added to.
+     */
+    public static LinkedHashMap<String, Object> partyFields(Party party){
+        LinkedHashMap<String, Object> row = new LinkedHashMap<>();
+        row.put("name", party.getPartyName());
+        row.put("votes", party.getInitialPartyVotes());
+        row.put("seats", party.getNumSeatsAllocated());
+        return row;
+    }
+
+    /**
+     * This function lists the names of candidates.
+     * @param candidates - The candidates.
+     * @return - The names of the candidates, in the same order.
+     */
+    public static ArrayList<Object> candidateNames(Collection<Candidate> candidates){
+        ArrayList<Object> names = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates){
+            names.add(candidate.getName());
+        }
+        return names;
+    }
+
+    /**
+     * This function lists the names of parties.
+     * @param parties - The parties.
+     * @return - The names of the parties, in the same order.
+     */
+    public static ArrayList<Object> partyNames(Collection<Party> parties){
+        ArrayList<Object> names = new ArrayList<>(parties.size());
+        for (Party party : parties){
+            names.add(party.getPartyName());
+        }
+        return names;
+    }
+
+    /**
+     * This function reads an event back from one line of a JSON Lines audit event log.
+     * @param line - A line written by JsonLinesAuditRenderer.
+     * @return - The event, with its fields in the order they were written.
+     * @throws IllegalArgumentException - If the line is not an audit event.
+     */
+    public static AuditEvent fromJson(String line){
+        Object value = JsonReader.parse(line);
+        if (!(value instanceof Map) || !((Map<?, ?>) value).containsKey("type")){
+            throw new IllegalArgumentException("The line is not an audit event.");
+        }
+
+        Map<String, Object> fields = asFields(value);
+        AuditEvent event = new AuditEvent(Type.valueOf(stringValue(fields, "type")), stringValue(fields, "protocol"));
+        for (Map.Entry<String, Object> field : fields.entrySet()){
+            if (!field.getKey().equals("type") && !field.getKey().equals("protocol")){
+                event.with(field.getKey(), field.getValue());
+            }
+        }
+        return event;
+    }
+
+    /**
+     * Retrieves the kind of step.
+     * @return - The type of the event.
+     */
+    public Type getType(){
+        return type;
+    }
+
+    /**
+     * Retrieves the protocol of the election.
+     * @return - The protocol, e.g. "IR", "OPL" or "MPO".
+     */
+    public String getProtocol(){
+        return protocol;
+    }
+
+    /**
+     * Retrieves every detail of the event.
+     * @return - The details, in the order they were added.
+     */
+    public Map<String, Object> getFields(){
+        return fields;
+    }
+
+    /**
+     * This function checks whether the event has a detail.
+     * @param name - The name of the detail.
+     * @return - True if the detail was added; otherwise, False
+     */
+    public boolean has(String name){
+        return fields.containsKey(name);
+    }
+
+    /**
+     * Retrieves a detail of the event.
+     * @param name - The name of the detail.
+     * @return - The value of the detail, or null if it was not added.
+     */
+    public Object get(String name){
+        return fields.get(name);
+    }
+
+    /**
+     * Retrieves a numeric detail of the event.
+     * @param name - The name of the detail.
+     * @return - The value of the detail.
+     */
+    public int getInt(String name){
+        return intValue(fields, name);
+    }
+
+    /**
+     * Retrieves a text detail of the event.
+     * @param name - The name of the detail.
+     * @return - The value of the detail, or null if it was not added.
+     */
+    public String getString(String name){
+        return stringValue(fields, name);
+    }
+
+    /**
+     * Retrieves a list detail of the event.
+     * @param name - The name of the detail.
+     * @return - The value of the detail, or an empty list if it was not added.
+     */
+    public List<Object> getList(String name){
+        return listValue(fields, name);
+    }
+
+    /**
+     * Retrieves a nested field map of the event, such as the fields describing the winner.
+     * @param name - The name of the detail.
+     * @return - The field map.
+     */
+    public Map<String, Object> getFields(String name){
+        return fieldsValue(fields, name);
+    }
+
+    /**
+     * This function reads a numeric value from a field map.
+     * @param fields - The field map.
+     * @param name - The name of the value.
+     * @return - The value.
+     */
+    public static int intValue(Map<String, Object> fields, String name){
+        if (fields instanceof CandidateRow){ // Read without boxing the value
+            return ((CandidateRow) fields).getInt(name);
+        }
+        return ((Number) fields.get(name)).intValue();
+    }
+
+    /**
+     * This function reads a text value from a field map.
+     * @param fields - The field map.
+     * @param name - The name of the value.
+     * @return - The value, or null if the field map does not have it.
+     */
+    public static String stringValue(Map<String, Object> fields, String name){
+        Object value = fields.get(name);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * This function reads a boolean value from a field map.
+     * @param fields - The field map.
+     * @param name - The name of the value.
+     * @return - The value, or False if the field map does not have it.
+     */
+    public static boolean booleanValue(Map<String, Object> fields, String name){
+        if (fields instanceof CandidateRow && name.equals("eliminated")){
+            return ((CandidateRow) fields).isEliminated();
+        }
+        return Boolean.TRUE.equals(fields.get(name));
+    }
+
+    /**
+     * This function reads a list value from a field map.
+     * @param fields - The field map.
+     * @param name - The name of the value.
+     * @return - The value, or an empty list if the field map does not have it.
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Object> listValue(Map<String, Object> fields, String name){
+        Object value = fields.get(name);
+        return value == null ? Collections.emptyList() : (List<Object>) value;
+    }
+
+    /**
+     * This function reads a nested field map from a field map.
+     * @param fields - The field map.
+     * @param name - The name of the nested field map.
+     * @return - The nested field map.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> fieldsValue(Map<String, Object> fields, String name){
+        return (Map<String, Object>) fields.get(name);
+    }
+
+    /**
+     * This function casts an element of a list value to a field map.
+     * @param element - An element of a list value.
+     * @return - The element as a field map.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> asFields(Object element){
+        return (Map<String, Object>) element;
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * AuditEventReader.java
+ * This class reads the events of a JSON Lines audit event log one at a time, so a log of any size is read in a
+ * single pass without holding it in memory. Round tables written in delta audit mode are rebuilt in full, so every
+ * event returned holds the complete table of its round.
+ */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+public class AuditEventReader {
+    private final BufferedReader in; // Event log being read
+    private int lineNumber; // Line of the event log holding the last event returned
+    private List<Object> lastRows; // Full table of the previous round
+
+    /**
+     * Constructs a reader over an event log.
+     * @param in - The event log.
+     */
+    public AuditEventReader(BufferedReader in){
+        this.in = in;
+        this.lineNumber = 0;
+        this.lastRows = Collections.emptyList();
+    }
+
+    /**
+     * This function opens an event log for reading, whether it was written as plain text or gzip-compressed.
+     * @param path - Name and path of the event log.
+     * @return - The event log.
+     * @throws IOException - If the event log could not be read.
+     * @throws IllegalArgumentException - If the index of a compressed event log is not valid.
+     */
+    public static BufferedReader open(String path) throws IOException {
+        return new BufferedReader(new InputStreamReader(GzipAuditSink.openAuditFile(path), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /**
+     * This function reads the next event of the event log, rebuilding its full round table if the event only lists
+     * the rows that changed.
+     * @return - The next event, or null at the end of the event log.
+     * @throws IOException - If the event log could not be read.
+     * @throws IllegalArgumentException - If a line of the event log is not an audit event.
+     */
+    public AuditEvent next() throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+            if (line == null){
+                return null;
+            }
+            lineNumber++;
+        } while (line.trim().isEmpty());
+
+        AuditEvent event;
+        try {
+            event = AuditEvent.fromJson(line);
+        } catch (IllegalArgumentException e){
+            throw new IllegalArgumentException("Line " + lineNumber + " of the event log is not valid: " + e.getMessage(), e);
+        }
+
+        if (event.has("snapshot")){
+            String name = event.has("candidates") ? "candidates" : "parties";
+            List<Object> rows = event.getList(name);
+            lastRows = AuditEvent.booleanValue(event.getFields(), "snapshot") ? rows : AuditDeltaTable.merge(lastRows, rows);
+            event = fullTableEvent(event, name, lastRows);
+        }
+        return event;
+    }
+
+    /**
+     * Retrieves the line of the event log holding the last event returned by next().
+     * @return - The line number, starting at 1.
+     */
+    public int getLineNumber(){
+        return lineNumber;
+    }
+
+    /**
+     * This function copies an event of a round, replacing its rows with the full table of the round.
+     */
+    private static AuditEvent fullTableEvent(AuditEvent event, String name, List<Object> rows){
+        AuditEvent full = new AuditEvent(event.getType(), event.getProtocol());
+        for (Map.Entry<String, Object> field : event.getFields().entrySet()){
+            String key = field.getKey();
+            if (key.equals(name)){
+                full.with(key, rows);
+            } else if (!key.equals("snapshot") && !key.equals("unchanged")){
+                full.with(key, field.getValue());
+            }
+        }
+        return full;
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.*;
+import org.junit.*;
+
+public class AuditEventTests {
+    /**
+     * This test checks that the fields of an event keep their order and can be read back.
+     */
+    @Test
+    public void testFields() {
+        Candidate candidate = new Candidate("Pike", "D", 0);
+        candidate.addVotes(3);
+
+        AuditEvent event = new AuditEvent(AuditEvent.Type.RESULT, "MPO")
+            .with("remainingSeats", 0)
+            .with("winner", AuditEvent.candidateFields(candidate))
+            .with("tied", AuditEvent.candidateNames(Collections.singletonList(candidate)));
+
+        Assert.assertEquals(AuditEvent.Type.RESULT, event.getType());
+        Assert.assertEquals("MPO", event.getProtocol());
+        Assert.assertEquals(Arrays.asList("remainingSeats", "winner", "tied"), new ArrayList<>(event.getFields().keySet()));
+        Assert.assertEquals(0, event.getInt("remainingSeats"));
+        Assert.assertEquals(3, AuditEvent.intValue(event.getFields("winner"), "votes"));
+        Assert.assertEquals("Pike", event.getList("tied").get(0));
+        Assert.assertTrue(event.getList("missing").isEmpty());
+        Assert.assertFalse(event.has("missing"));
+    }
+
+    /**
+     * This test checks that one election run writes both the human-readable audit file and the JSON Lines event log.
+     */
+    @Test
+    public void testOneRunFeedsBothOutputs() {
+        final FileParser file = new FileParser("./../testing/IR_test_majority_winner_after_one_round_redistribution.csv");
+        final IRVoting ir = new IRVoting(file.getCandidateLine(), file.getBallotList(), "");
+        RecordingAuditSink textSink = new RecordingAuditSink();
+        RecordingAuditSink eventSink = new RecordingAuditSink();
+        ir.setAuditSink(textSink);
+        ir.setAuditEventSink(eventSink);
+        ir.calculateBallots();
+
+        String text = textSink.getContent();
+        Assert.assertTrue(text.startsWith("Voting Protocol Name: Instant Runoff (IR) \n\n"));
+        Assert.assertTrue(text.contains("Current Redistribution Round Results"));
+        Assert.assertTrue(text.contains("Winning candidate is " + ir.getWinningCandidate().getName()));
+
+        String[] lines = eventSink.getContent().split("\n");
+        Assert.assertTrue(lines[0].startsWith("{\"type\":\"ELECTION_START\",\"protocol\":\"IR\""));
+        Assert.assertTrue(lines[1].startsWith("{\"type\":\"TALLY\",\"protocol\":\"IR\",\"round\":1"));
+        Assert.assertTrue(eventSink.getContent().contains("{\"type\":\"ROUND_START\",\"protocol\":\"IR\",\"round\":2}"));
+        Assert.assertTrue(lines[lines.length - 1].startsWith("{\"type\":\"RESULT\""));
+        Assert.assertTrue(lines[lines.length - 1].contains("\"winner\":{\"name\":\"" + ir.getWinningCandidate().getName() + "\""));
+    }
+
+    /**
+     * This test checks that only the event log is written when an election has no audit file.
+     */
+    @Test
+    public void testEventLogWithoutAuditFile() {
+        final FileParser file = new FileParser("./../testing/MPO_test_multiple_winners_with_no_tie_breakers.csv");
+        final MPOVoting mpo = new MPOVoting(file.getCandidateLine(), file.getBallotList(), file.getNumberOfSeats(), "");
+        RecordingAuditSink eventSink = new RecordingAuditSink();
+        mpo.setAuditEventSink(eventSink);
+        mpo.performSeatAllocations();
+
+        String[] lines = eventSink.getContent().split("\n");
+        Assert.assertEquals(4, lines.length);
+        Assert.assertTrue(lines[2].startsWith("{\"type\":\"SEAT_AWARD\",\"protocol\":\"MPO\",\"kind\":\"selection\""));
+        Assert.assertTrue(lines[3].contains("\"parties\":[{\"name\":\"D\",\"votes\":5,\"seats\":2}"));
+    }
+
+    /**
+     * This test checks that a CandidateRow reads, writes and compares like the field map of the same candidate.
+     */
+    @Test
+    public void testCandidateRow() {
+        Candidate candidate = new Candidate("Pike", "D", 0);
+        candidate.addVotes(300);
+        CandidateRow row = new CandidateRow(candidate, false);
+
+        LinkedHashMap<String, Object> fields = AuditEvent.candidateFields(candidate);
+        fields.put("eliminated", false);
+        Assert.assertEquals(fields, row);
+        Assert.assertEquals(row, fields);
+        Assert.assertEquals(fields.hashCode(), row.hashCode());
+        Assert.assertEquals(300, AuditEvent.intValue(row, "votes"));
+        Assert.assertFalse(AuditEvent.booleanValue(row, "eliminated"));
+        Assert.assertFalse(row.containsKey("redistributedVotes"));
+
+        StringBuilder json = new StringBuilder();
+        new JsonWriter(json).value((Object) row);
+        Assert.assertEquals("{\"name\":\"Pike\",\"party\":\"D\",\"votes\":300,\"eliminated\":false}", json.toString());
+        Assert.assertEquals(300, AuditEvent.intValue(AuditEvent.asFields(JsonReader.parse(json.toString())), "votes"));
+
+        candidate.setElimination(true);
+        CandidateRow eliminatedRow = new CandidateRow(candidate, true);
+        Assert.assertNotEquals(row, eliminatedRow);
+        Assert.assertTrue(AuditEvent.booleanValue(eliminatedRow, "eliminated"));
+        Assert.assertEquals(0, AuditEvent.intValue(eliminatedRow, "redistributedVotes"));
+    }
+}
@@ -0,0 +1,21 @@
+/**
+ * AuditLevel.java
+ * This enum lists how much detail the Voting classes write to the audit file. Every level includes the content of
+ * the levels before it, and the text of a level that is not written is never built.
+ */
+
+public enum AuditLevel {
+    OFF, // No audit file is written
+    SUMMARY, // The first round and final results, the seat allocations and the tie breakers that decide the winner
+    ROUND, // Adds the results of every redistribution or seat allocation round and the ties within those rounds
+    TRACE; // Adds every individual step, such as candidates eliminated for receiving no votes
+
+    /**
+     * This function checks whether content of the given level is written at this level.
+     * @param level - The level of the content.
+     * @return - True if the content is written; otherwise, False
+     */
+    public boolean includes(AuditLevel level){
+        return level != OFF && this.compareTo(level) >= 0;
+    }
+}
@@ -0,0 +1,106 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import org.junit.*;
+
+public class AuditLevelTests {
+    /**
+     * Runs the OPL test file with many rounds at the given audit level and returns the audit content.
+     */
+    private String runOPL(AuditLevel auditLevel) {
+        final FileParser file = new FileParser("./../testing/OPL_test_more_than_two_rounds_allocations.csv");
+        final OPLVoting opl = new OPLVoting(file.getCandidateLine(), file.getBallotList(), file.getNumberOfSeats(), file.getNumberOfBallots(), "");
+        RecordingAuditSink sink = new RecordingAuditSink();
+        opl.setAuditSink(sink);
+        opl.setAuditLevel(auditLevel);
+        opl.performSeatAllocations();
+        return sink.getContent();
+    }
+
+    /**
+     * Runs the IR test file with redistribution at the given audit level and returns the audit content.
+     */
+    private String runIR(AuditLevel auditLevel) {
+        final FileParser file = new FileParser("./../testing/IR_test_majority_winner_after_one_round_redistribution.csv");
+        final IRVoting ir = new IRVoting(file.getCandidateLine(), file.getBallotList(), "");
+        RecordingAuditSink sink = new RecordingAuditSink();
+        ir.setAuditSink(sink);
+        ir.setAuditLevel(auditLevel);
+        ir.calculateBallots();
+        return sink.getContent();
+    }
+
+    /**
+     * This test checks that every level includes the levels before it and that nothing is included when off.
+     */
+    @Test
+    public void testIncludes() {
+        Assert.assertTrue(AuditLevel.TRACE.includes(AuditLevel.SUMMARY));
+        Assert.assertTrue(AuditLevel.ROUND.includes(AuditLevel.ROUND));
+        Assert.assertFalse(AuditLevel.SUMMARY.includes(AuditLevel.ROUND));
+        Assert.assertFalse(AuditLevel.OFF.includes(AuditLevel.SUMMARY));
+        Assert.assertFalse(AuditLevel.TRACE.includes(AuditLevel.OFF));
+    }
+
+    /**
+     * This test checks that the summary level leaves out the round results but keeps the final results.
+     */
+    @Test
+    public void testSummaryLeavesOutRounds() {
+        String summary = runOPL(AuditLevel.SUMMARY);
+        String round = runOPL(AuditLevel.ROUND);
+
+        Assert.assertTrue(summary.contains("Final result of the election"));
+        Assert.assertFalse(summary.contains("After round of seat allocation"));
+        Assert.assertTrue(round.contains("After round of seat allocation"));
+
+        Assert.assertFalse(runIR(AuditLevel.SUMMARY).contains("Current Redistribution Round Results"));
+        Assert.assertTrue(runIR(AuditLevel.ROUND).contains("Current Redistribution Round Results"));
+    }
+
+    /**
+     * This test checks that nothing is written when the level is off, and that the election result does not change.
+     */
+    @Test
+    public void testOffWritesNothing() {
+        Assert.assertEquals("", runOPL(AuditLevel.OFF));
+        Assert.assertEquals("", runIR(AuditLevel.OFF));
+
+        final FileParser file = new FileParser("./../testing/MPO_test_multiple_winners_with_no_tie_breakers.csv");
+        final MPOVoting mpo = new MPOVoting(file.getCandidateLine(), file.getBallotList(), file.getNumberOfSeats(), "");
+        mpo.setAuditLevel(AuditLevel.OFF);
+        mpo.performSeatAllocations();
+        ArrayList<Candidate> winners = mpo.getWinningCandidates();
+        Assert.assertEquals(3, winners.size());
+    }
+
+    /**
+     * This test checks that the audit file of an earlier election, plain or compressed, is deleted when the level is off.
+     */
+    @Test
+    public void testOffDeletesEarlierAudit() throws IOException {
+        Path directory = Files.createTempDirectory("audit_level");
+        try {
+            final Path auditFile = directory.resolve("audit_file.txt");
+            Files.write(auditFile, "Audit of an earlier election".getBytes());
+            Files.write(directory.resolve("audit_file.txt.1.gz"), new byte[0]);
+            Files.write(directory.resolve("audit_file.txt" + GzipAuditSink.INDEX_SUFFIX), new byte[0]);
+
+            final FileParser file = new FileParser("./../testing/OPL_test_more_than_two_rounds_allocations.csv");
+            final OPLVoting opl = new OPLVoting(file.getCandidateLine(), file.getBallotList(), file.getNumberOfSeats(), file.getNumberOfBallots(), auditFile.toString());
+            opl.setAuditLevel(AuditLevel.OFF);
+            opl.performSeatAllocations();
+
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)){
+                Assert.assertFalse(files.iterator().hasNext());
+            }
+        } finally {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)){
+                for (Path auditFile : files){
+                    Files.delete(auditFile);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * AuditRenderer.java
+ * This abstract class turns the AuditEvent objects emitted by an election into one output, such as the
+ * human-readable audit file or a JSON Lines event log, and writes it to an AuditSink.
+ */
+
+public abstract class AuditRenderer {
+    protected final AuditSink sink; // Destination of the rendered output
+
+    /**
+     * Constructs a renderer that writes to a sink.
+     * @param sink - The destination of the rendered output.
+     */
+    protected AuditRenderer(AuditSink sink){
+        this.sink = sink;
+    }
+
+    /**
+     * This function renders an event and writes it to the sink.
+     * @param event - The event to be rendered.
+     * @throws java.io.UncheckedIOException - If the output could not be written.
+     */
+    public abstract void render(AuditEvent event);
+
+    /**
+     * This function writes any buffered output. It is called at the end of every phase of the election.
+     * @param round - The last round written in the phase, or AuditSink.NO_ROUND if the phase holds no round.
+     */
+    public void flush(int round){
+        sink.endPhase(round);
+    }
+
+    /**
+     * This function flushes and closes the sink once the election is complete.
+     */
+    public void close(){
+        sink.close();
+    }
+}
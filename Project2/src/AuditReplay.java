@@ -0,0 +1,90 @@
+/**
+ * AuditReplay.java
+ * This class reads a JSON Lines audit event log and writes it to the console as the human-readable audit,
+ * rebuilding the full table of every round that was written in delta audit mode.
+ * Usage: java AuditReplay <event log> [round]
+ * Passing a round only writes the full table(s) of that round.
+ */
+
+import java.io.*;
+
+public class AuditReplay {
+    /**
+     * Audit sink that writes to the console.
+     */
+    private static class ConsoleAuditSink extends AuditSink {
+        @Override
+        public void write(CharSequence content){
+            System.out.print(content);
+        }
+
+        @Override
+        public void flush(){
+            System.out.flush();
+        }
+
+        @Override
+        public void close(){
+            System.out.flush();
+        }
+    }
+
+    /**
+     * The entry point of the replay tool.
+     * @param args - The path of the event log, optionally followed by a round number.
+     */
+    public static void main(String[] args){
+        if (args.length < 1 || args.length > 2){
+            System.out.println("[SYSTEM]: Usage: java AuditReplay <event log> [round]");
+            return;
+        }
+
+        int round = 0;
+        if (args.length == 2){
+            try {
+                round = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e){
+                System.out.println("[SYSTEM]: The round " + args[1] + " is not a number.");
+                return;
+            }
+        }
+
+        AuditRenderer renderer = new TextAuditRenderer(new ConsoleAuditSink());
+        try (BufferedReader in = AuditEventReader.open(args[0])){
+            replay(in, round, renderer);
+        } catch (IOException e){
+            System.out.println("[SYSTEM]: The event log " + args[0] + " could not be read.");
+        } catch (IllegalArgumentException e){
+            System.out.println("[SYSTEM]: " + e.getMessage());
+        } finally {
+            renderer.close();
+        }
+    }
+
+    /**
+     * This function reads every event of an event log and renders it, rebuilding the full table of every round
+     * that only lists the rows that changed.
+     * @param in - The event log.
+     * @param round - The round whose table(s) are rendered, or 0 to render every event.
+     * @param renderer - The renderer the events are written to.
+     * @throws IOException - If the event log could not be read.
+     * @throws IllegalArgumentException - If a line of the event log is not an audit event.
+     */
+    public static void replay(BufferedReader in, int round, AuditRenderer renderer) throws IOException {
+        AuditEventReader events = new AuditEventReader(in);
+        AuditEvent event;
+        while ((event = events.next()) != null){
+            if (round == 0 || (isRoundTable(event) && event.has("round") && event.getInt("round") == round)){
+                renderer.render(event);
+            }
+        }
+    }
+
+    /**
+     * This function checks whether an event holds the table of a round.
+     */
+    private static boolean isRoundTable(AuditEvent event){
+        return event.getType() == AuditEvent.Type.TALLY || event.getType() == AuditEvent.Type.TRANSFER
+            || (event.getType() == AuditEvent.Type.SEAT_AWARD && "round".equals(event.getString("kind")));
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * AuditSink.java
+ * This abstract class is the destination of the audit file content written by the Voting classes. A sink is opened
+ * once per election and written through a buffer, instead of opening and closing the audit file for every write.
+ * Write failures are reported to the caller as an UncheckedIOException.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+public abstract class AuditSink implements Closeable {
+    public static final int NO_ROUND = -1; // Round of a phase of the election that holds no round, such as the final result
+
+    /**
+     * This function opens the sink for an audit file. An empty path gives a sink that discards everything
+     * written to it, which the unit tests use so that no audit file is created.
+     * @param auditFilePath - Name and path of the audit file, or an empty string if no audit file is written.
+     * @return - The AuditSink writing to the audit file.
+     * @throws UncheckedIOException - If the audit file could not be created.
+     */
+    public static AuditSink open(String auditFilePath){
+        if (auditFilePath == null || auditFilePath.length() == 0){
+            return new DiscardAuditSink();
+        }
+        return new FileAuditSink(auditFilePath);
+    }
+
+    /**
+     * This function deletes an audit file left by an earlier election, whether it was written as plain text or by a
+     * GzipAuditSink, along with its hash chain manifest, so it is not mistaken for the audit of this election.
+     * @param auditFilePath - Name and path of the audit file, or an empty string if no audit file is written.
+     * @throws UncheckedIOException - If the audit file could not be deleted.
+     */
+    public static void delete(String auditFilePath){
+        if (auditFilePath == null || auditFilePath.length() == 0){
+            return;
+        }
+        try {
+            Files.deleteIfExists(Paths.get(auditFilePath));
+            Files.deleteIfExists(Paths.get(auditFilePath + HashChainAuditSink.MANIFEST_SUFFIX));
+            GzipAuditSink.deleteSegments(auditFilePath);
+        } catch (IOException e){
+            throw new UncheckedIOException("Could not delete audit file " + auditFilePath, e);
+        }
+    }
+
+    /**
+     * This function appends content to the audit file. The content may stay in the sink's buffer until
+     * the next flush() or close().
+     * @param content - The content to be written to the audit file.
+     * @throws UncheckedIOException - If the content could not be written.
+     */
+    public abstract void write(CharSequence content);
+
+    /**
+     * This function writes any buffered content to the audit file. The Voting classes call it at the end
+     * of every phase of the election, so the audit file is complete up to the last finished phase.
+     * @throws UncheckedIOException - If the buffered content could not be written.
+     */
+    public abstract void flush();
+
+    /**
+     * This function ends a phase of the election, such as the first round or a redistribution round, and writes
+     * any buffered content like flush(). Sinks that record where each round of the audit was written override it.
+     * @param round - The last round written in the phase, or NO_ROUND if the phase holds no round.
+     * @throws UncheckedIOException - If the buffered content could not be written.
+     */
+    public void endPhase(int round){
+        flush();
+    }
+
+    /**
+     * This function flushes any buffered content and closes the audit file. Closing a sink more than once has no effect.
+     * @throws UncheckedIOException - If the buffered content could not be written or the audit file could not be closed.
+     */
+    @Override
+    public abstract void close();
+
+    /**
+     * This function lists the files the sink has written, e.g. the audit file, or the compressed segments and index
+     * of a GzipAuditSink, so they can be reported by the names they actually have. The list is complete once the
+     * sink is closed.
+     * @return - The names and paths of the files, in the order they were created.
+     */
+    public List<String> getFiles(){
+        return Collections.emptyList();
+    }
+
+    /**
+     * This sink is used when no audit file is written and ignores everything written to it.
+     */
+    private static class DiscardAuditSink extends AuditSink {
+        @Override
+        public void write(CharSequence content){}
+
+        @Override
+        public void flush(){}
+
+        @Override
+        public void close(){}
+    }
+}
@@ -0,0 +1,81 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.*;
+
+public class AuditSinkTests {
+    /**
+     * This test checks that a file sink replaces an old audit file and keeps every write in order.
+     */
+    @Test
+    public void testFileSinkWritesInOrder() throws IOException {
+        File auditFile = File.createTempFile("audit_sink", ".txt");
+        auditFile.deleteOnExit();
+        Files.write(auditFile.toPath(), "Previous run\n".getBytes(StandardCharsets.UTF_8));
+
+        AuditSink sink = AuditSink.open(auditFile.getPath());
+        sink.write("Round 1\n");
+        sink.flush();
+        sink.write(new StringBuilder("Round 2\n"));
+        sink.close();
+        sink.close();
+
+        String content = new String(Files.readAllBytes(auditFile.toPath()), StandardCharsets.UTF_8);
+        Assert.assertEquals("Round 1\nRound 2\n", content);
+    }
+
+    /**
+     * This test checks that an empty audit file path discards everything and creates no file.
+     */
+    @Test
+    public void testEmptyPathDiscards() {
+        AuditSink sink = AuditSink.open("");
+        sink.write("Round 1\n");
+        sink.flush();
+        sink.close();
+
+        Assert.assertFalse(new File("").exists());
+    }
+
+    /**
+     * This test checks that failures are reported to the caller instead of exiting.
+     */
+    @Test
+    public void testFailuresAreReported() throws IOException {
+        try {
+            AuditSink.open("./../missing_directory/audit_file.txt");
+            Assert.fail("Expected the audit file to fail to open");
+        } catch (UncheckedIOException e) {
+            // Expected
+        }
+
+        File auditFile = File.createTempFile("audit_sink", ".txt");
+        auditFile.deleteOnExit();
+        AuditSink sink = AuditSink.open(auditFile.getPath());
+        sink.close();
+        try {
+            sink.write("Round 1\n");
+            Assert.fail("Expected writing to a closed audit file to fail");
+        } catch (UncheckedIOException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * This test checks that an election writes its audit through the sink it was given and closes it when done.
+     */
+    @Test
+    public void testElectionClosesSink() {
+        final FileParser file = new FileParser("./../testing/MPO_test_multiple_winners_with_no_tie_breakers.csv");
+        final MPOVoting mpo = new MPOVoting(file.getCandidateLine(), file.getBallotList(), file.getNumberOfSeats(), "");
+        RecordingAuditSink sink = new RecordingAuditSink();
+        mpo.setAuditSink(sink);
+        mpo.performSeatAllocations();
+
+        Assert.assertTrue(sink.isClosed());
+        Assert.assertTrue(sink.getNumFlushes() >= 1);
+        Assert.assertTrue(sink.getContent().contains("Pike from the D party."));
+    }
+}
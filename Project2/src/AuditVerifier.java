@@ -0,0 +1,698 @@
+/**
+ * AuditVerifier.java
+ * This class checks that the round tables of an audit event log are consistent with each other, without re-running
+ * the election from its ballots. It reads the event log in one pass, keeping only the latest table of the election,
+ * and checks the invariants IRVoting, OPLVoting, MPOVoting and MultiDistrictOPLVoting rely on, such as votes being
+ * conserved when they are transferred, the OPL quota arithmetic and seat totals adding up. If a hash chain manifest
+ * was written next to the event log, the event log is also checked against it.
+ * Usage: java AuditVerifier <event log>
+ */
+
+import java.io.*;
+import java.util.*;
+
+public class AuditVerifier {
+    private final ArrayList<String> violations; // Description of every invariant that does not hold
+    private int lineNumber; // Line of the event log holding the event being checked
+    private int numEvents; // Number of events checked
+
+    private int numBallots; // Number of ballots of the latest table
+    private int numSeats; // Number of seats of the election
+    private int quota; // OPL quota of the election
+    private LinkedHashMap<String, Map<String, Object>> lastRows; // Latest row of every candidate (IR and MPO) or party (OPL) by name
+    private HashSet<String> eliminatedThisRound; // IR candidates eliminated for the lowest votes in the current round
+    private String tieWinner; // Winner of the last tie between candidates for the win, or null if there was none
+    private int allocationRounds; // Number of OPL seat allocation rounds checked
+    private LinkedHashMap<String, Object> districtTotals; // Number of ballots and seats across all districts of a multi-district election
+
+    /**
+     * Constructs a verifier for one event log.
+     */
+    public AuditVerifier(){
+        this.violations = new ArrayList<>();
+        this.lastRows = new LinkedHashMap<>();
+        this.eliminatedThisRound = new HashSet<>();
+    }
+
+    /**
+     * The entry point of the verifier.
+     * @param args - The path of the event log.
+     */
+    public static void main(String[] args){
+        if (args.length != 1){
+            System.out.println("[SYSTEM]: Usage: java AuditVerifier <event log>");
+            return;
+        }
+
+        AuditVerifier verifier = new AuditVerifier();
+        try (BufferedReader in = AuditEventReader.open(args[0])){
+            verifier.verify(in);
+        } catch (IOException e){
+            System.out.println("[SYSTEM]: The event log " + args[0] + " could not be read.");
+            return;
+        } catch (IllegalArgumentException e){
+            System.out.println("[SYSTEM]: " + e.getMessage());
+            return;
+        }
+
+        String manifestPath = args[0] + HashChainAuditSink.MANIFEST_SUFFIX;
+        if (new File(manifestPath).exists()){
+            try {
+                int alteredRecord = HashChainAuditSink.verify(args[0], manifestPath);
+                if (alteredRecord == 0){
+                    System.out.println("[SYSTEM]: The event log matches its hash chain manifest.");
+                } else {
+                    verifier.violations.add("Record " + alteredRecord + " of the event log does not match its hash chain manifest.");
+                }
+            } catch (IOException | IllegalArgumentException e){
+                verifier.violations.add("The hash chain manifest " + manifestPath + " could not be read.");
+            }
+        }
+
+        for (String violation : verifier.getViolations()){
+            System.out.println(violation);
+        }
+        System.out.println("[SYSTEM]: Checked " + verifier.numEvents + " events, " + verifier.getViolations().size() + " problem(s) found.");
+    }
+
+    /**
+     * This function checks every event of an event log.
+     * @param in - The event log.
+     * @return - The description of every invariant that does not hold, or an empty list if the event log is consistent.
+     * @throws IOException - If the event log could not be read.
+     * @throws IllegalArgumentException - If a line of the event log is not an audit event.
+     */
+    public List<String> verify(BufferedReader in) throws IOException {
+        AuditEventReader events = new AuditEventReader(in);
+        AuditEvent event;
+        while ((event = events.next()) != null){
+            check(event, events.getLineNumber());
+        }
+        return violations;
+    }
+
+    /**
+     * This function checks one event against the events before it.
+     * @param event - The event, with the full table of its round.
+     * @param lineNumber - The line of the event log holding the event.
+     */
+    public void check(AuditEvent event, int lineNumber){
+        this.lineNumber = lineNumber;
+        numEvents++;
+        if (!hasRequiredFields(event)){
+            return;
+        }
+        if (event.has("districts")){
+            checkDistricts(event);
+        } else if ("IR".equals(event.getProtocol())){
+            checkIR(event);
+        } else if ("OPL".equals(event.getProtocol())){
+            checkOPL(event);
+        } else if ("MPO".equals(event.getProtocol())){
+            checkMPO(event);
+        }
+    }
+
+    /**
+     * This function checks that an event has every field its checks read, with the right type, so an event log
+     * that was cut short or edited by hand is reported as a violation instead of failing the verifier.
+     * @return - True if the event can be checked; otherwise, False
+     */
+    private boolean hasRequiredFields(AuditEvent event){
+        Map<String, Object> fields = event.getFields();
+        boolean ir = "IR".equals(event.getProtocol());
+        boolean opl = "OPL".equals(event.getProtocol());
+        boolean mpo = "MPO".equals(event.getProtocol());
+
+        if (event.has("districts")){
+            switch (event.getType()){
+                case TALLY:
+                    return requireRows(event, fields, "districts", "ballots", "seats");
+                case RESULT:
+                    return requireNumbers(event, fields, "", "ballots", "seats") && requireRows(event, fields, "parties", "votes", "seats")
+                        && requireWinningParty(event, fields);
+                case TIE_DRAW:
+                    return requireLists(event, fields, "tied", "winners");
+                default:
+                    return true;
+            }
+        }
+
+        switch (event.getType()){
+            case ELECTION_START:
+                return requireNumbers(event, fields, "", ir ? new String[] {"ballots"} : opl ? new String[] {"ballots", "seats", "quota"} : mpo ? new String[] {"seats"} : new String[0]);
+            case TALLY:
+                if (ir){
+                    return requireNumbers(event, fields, "", "ballots") && requireRows(event, fields, "candidates", "votes");
+                }
+                return opl ? requireRows(event, fields, "parties", "votes", "seats")
+                    : !mpo || (requireNumbers(event, fields, "", "remainingSeats") && requireRows(event, fields, "candidates", "votes"));
+            case ELIMINATION:
+                return !ir || event.has("candidate") || requireLists(event, fields, "candidates");
+            case TRANSFER:
+                return !ir || (requireNumbers(event, fields, "", "ballots") && requireRows(event, fields, "candidates", "votes", "redistributedVotes"));
+            case TIE_DRAW:
+                return requireLists(event, fields, "tied", "winners");
+            case SEAT_AWARD:
+                if (opl && "round".equals(event.getString("kind"))){
+                    return requireRows(event, fields, "parties", "votes", "seats", "remainingVotes");
+                } else if (opl && "seat holders".equals(event.getString("kind"))){
+                    if (!requireRows(event, fields, "parties", "seats")){
+                        return false;
+                    }
+                    for (Object party : event.getList("parties")){
+                        if (!requireRows(event, AuditEvent.asFields(party), "seatHolders", "votes")){
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                return !mpo || (requireNumbers(event, fields, "", "remainingSeats") && requireLists(event, fields, "winners", "tieWinners", "tied"));
+            case RESULT:
+                if (ir){
+                    return requireNumbers(event, fields, "", "ballots") && requireFields(event, fields, "winner") && requireNumbers(event, event.getFields("winner"), "winner.", "votes");
+                } else if (opl){
+                    return requireRows(event, fields, "parties", "votes", "seats") && requireWinningParty(event, fields);
+                }
+                return !mpo || (requireNumbers(event, fields, "", "remainingSeats") && requireRows(event, fields, "candidates", "votes", "seats")
+                    && (event.getInt("remainingSeats") != 0 // The winners and parties are only written once every seat is filled
+                        || (requireRows(event, fields, "parties", "votes", "seats") && requireLists(event, fields, "winners"))));
+            case SEAT_SENSITIVITY:
+                return !opl || requireNumbers(event, fields, "", "quota");
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * This function checks that fields of an event are numbers.
+     * @param prefix - Where the fields are in the event, e.g. "winner.", or an empty string for the event itself.
+     */
+    private boolean requireNumbers(AuditEvent event, Map<String, Object> fields, String prefix, String... names){
+        for (String name : names){
+            if (!(fields.get(name) instanceof Number)){
+                return missingField(event, prefix + name, "a number");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This function checks that fields of an event are lists, if they are there.
+     */
+    private boolean requireLists(AuditEvent event, Map<String, Object> fields, String... names){
+        for (String name : names){
+            Object value = fields.get(name);
+            if (value != null && !(value instanceof List)){
+                return missingField(event, name, "a list");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This function checks that a field of an event is a field map.
+     */
+    private boolean requireFields(AuditEvent event, Map<String, Object> fields, String name){
+        return fields.get(name) instanceof Map || missingField(event, name, "an object");
+    }
+
+    /**
+     * This function checks that a field of an event is a list of rows that each have the given numbers.
+     */
+    private boolean requireRows(AuditEvent event, Map<String, Object> fields, String name, String... numbers){
+        if (!(fields.get(name) instanceof List)){
+            return missingField(event, name, "a list");
+        }
+        List<Object> rows = AuditEvent.listValue(fields, name);
+        for (int i = 0; i < rows.size(); i++){
+            if (!(rows.get(i) instanceof Map)){
+                return missingField(event, name + "[" + i + "]", "an object");
+            }
+            if (!requireNumbers(event, AuditEvent.asFields(rows.get(i)), name + "[" + i + "].", numbers)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This function checks the winning party of an OPL result, if it is there.
+     */
+    private boolean requireWinningParty(AuditEvent event, Map<String, Object> fields){
+        return !event.has("winningParty") || (requireFields(event, fields, "winningParty") && requireNumbers(event, event.getFields("winningParty"), "winningParty.", "seats"));
+    }
+
+    /**
+     * This function records an event missing a field its checks read, or holding a field of the wrong type.
+     * @return - False, so the event is not checked.
+     */
+    private boolean missingField(AuditEvent event, String field, String type){
+        fail(event.getType() + " event is missing the field " + field + " or it is not " + type);
+        return false;
+    }
+
+    /**
+     * Retrieves the invariants found not to hold so far.
+     * @return - The description of every violation, in the order they were found.
+     */
+    public List<String> getViolations(){
+        return violations;
+    }
+
+    /**
+     * This function checks an event of an IR election.
+     */
+    private void checkIR(AuditEvent event){
+        switch (event.getType()){
+            case ELECTION_START:
+                numBallots = event.getInt("ballots");
+                break;
+            case TALLY: // The first round
+                numBallots = event.getInt("ballots");
+                int firstRoundVotes = 0;
+                for (Object element : event.getList("candidates")){
+                    firstRoundVotes += AuditEvent.intValue(AuditEvent.asFields(element), "votes");
+                }
+                expect(firstRoundVotes == numBallots, "first round votes add up to " + firstRoundVotes + " but there are " + numBallots + " ballots");
+                storeRows(event.getList("candidates"));
+                break;
+            case ELIMINATION:
+                checkIRElimination(event);
+                break;
+            case TIE_DRAW:
+                checkTieDraw(event);
+                break;
+            case TRANSFER:
+                checkIRTransfer(event);
+                break;
+            case RESULT:
+                checkIRResult(event);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * This function checks that eliminated IR candidates had no votes or the lowest number of votes.
+     */
+    private void checkIRElimination(AuditEvent event){
+        if (event.has("candidate")){ // Eliminated for receiving no votes
+            Map<String, Object> row = lastRows.get(event.getString("candidate"));
+            if (expect(row != null, "candidate " + event.getString("candidate") + " was eliminated but is not in the election")){
+                expect(AuditEvent.intValue(row, "votes") == 0, "candidate " + event.getString("candidate") + " was eliminated for receiving no votes but has " + AuditEvent.intValue(row, "votes"));
+                row.put("eliminated", true);
+            }
+            return;
+        }
+
+        int lowestVotes = Integer.MAX_VALUE;
+        for (Map<String, Object> row : lastRows.values()){
+            int votes = AuditEvent.intValue(row, "votes");
+            if (!AuditEvent.booleanValue(row, "eliminated") && votes != 0){
+                lowestVotes = Math.min(lowestVotes, votes);
+            }
+        }
+
+        eliminatedThisRound.clear();
+        for (Object name : event.getList("candidates")){
+            Map<String, Object> row = lastRows.get(String.valueOf(name));
+            if (!expect(row != null, "candidate " + name + " was eliminated but is not in the election")){
+                continue;
+            }
+            expect(!AuditEvent.booleanValue(row, "eliminated"), "candidate " + name + " was eliminated twice");
+            expect(AuditEvent.intValue(row, "votes") == lowestVotes, "candidate " + name + " was eliminated with " + AuditEvent.intValue(row, "votes") + " votes but the lowest number of votes was " + lowestVotes);
+            eliminatedThisRound.add(String.valueOf(name));
+        }
+    }
+
+    /**
+     * This function checks that the votes of an IR redistribution round are the votes of the previous round plus the
+     * transferred votes, and that every remaining ballot counts for exactly one candidate still in the election. The
+     * transferred votes of a candidate eliminated in an earlier round are those of their last round, which are not
+     * reset, e.g. when a ballot moved between two candidates eliminated in the same round.
+     */
+    private void checkIRTransfer(AuditEvent event){
+        int ballots = event.getInt("ballots");
+        expect(ballots <= numBallots, "the number of ballots grew from " + numBallots + " to " + ballots);
+
+        int activeVotes = 0;
+        for (Object element : event.getList("candidates")){
+            Map<String, Object> row = AuditEvent.asFields(element);
+            String name = AuditEvent.stringValue(row, "name");
+            Map<String, Object> previousRow = lastRows.get(name);
+            if (!expect(previousRow != null, "candidate " + name + " is not in the election")){
+                continue;
+            }
+
+            int votes = AuditEvent.intValue(row, "votes");
+            int previousVotes = AuditEvent.intValue(previousRow, "votes");
+            int transferred = AuditEvent.intValue(row, "redistributedVotes");
+            boolean eliminated = AuditEvent.booleanValue(row, "eliminated");
+
+            if (AuditEvent.booleanValue(previousRow, "eliminated")){ // Eliminated in an earlier round
+                int previousTransferred = previousRow.containsKey("redistributedVotes") ? AuditEvent.intValue(previousRow, "redistributedVotes") : 0;
+                expect(eliminated && votes == previousVotes && transferred == previousTransferred, "candidate " + name + " received votes after being eliminated");
+                continue;
+            }
+
+            expect(votes == previousVotes + transferred, "candidate " + name + " went from " + previousVotes + " to " + votes + " votes but received " + transferred + " transferred votes");
+            if (eliminatedThisRound.contains(name)){
+                expect(eliminated, "candidate " + name + " was eliminated this round but is not marked as eliminated");
+            } else if (eliminated){
+                expect(previousVotes == 0, "candidate " + name + " is marked as eliminated without being eliminated");
+            } else {
+                activeVotes += votes;
+            }
+        }
+        expect(activeVotes == ballots, "votes were not conserved: the candidates still in the election have " + activeVotes + " votes but there are " + ballots + " ballots left");
+
+        numBallots = ballots;
+        eliminatedThisRound.clear();
+        storeRows(event.getList("candidates"));
+    }
+
+    /**
+     * This function checks that the IR winner is still in the election and won with a majority or a tie breaker.
+     */
+    private void checkIRResult(AuditEvent event){
+        String winner = AuditEvent.stringValue(event.getFields("winner"), "name");
+        int winnerVotes = AuditEvent.intValue(event.getFields("winner"), "votes");
+        int ballots = event.getInt("ballots");
+        Map<String, Object> row = lastRows.get(winner);
+        if (expect(row != null, "the winner " + winner + " is not in the election")){
+            expect(!AuditEvent.booleanValue(row, "eliminated"), "the winner " + winner + " was eliminated");
+            expect(AuditEvent.intValue(row, "votes") == winnerVotes, "the winner " + winner + " has " + winnerVotes + " votes but had " + AuditEvent.intValue(row, "votes") + " in the last round");
+        }
+        expect(2 * winnerVotes > ballots || (winner != null && winner.equals(tieWinner)), "the winner " + winner + " has no majority (" + winnerVotes + " of " + ballots + " votes) and did not win a tie breaker");
+    }
+
+    /**
+     * This function checks an event of a single-district OPL election.
+     */
+    private void checkOPL(AuditEvent event){
+        switch (event.getType()){
+            case ELECTION_START:
+                numBallots = event.getInt("ballots");
+                numSeats = event.getInt("seats");
+                quota = event.getInt("quota");
+                expect(numSeats > 0 && quota == (numBallots + numSeats - 1) / numSeats, "the quota is " + quota + " but " + numBallots + " ballots / " + numSeats + " seats rounded up is " + (numSeats > 0 ? (numBallots + numSeats - 1) / numSeats : 0));
+                break;
+            case TALLY:
+                int votes = 0;
+                for (Object element : event.getList("parties")){
+                    Map<String, Object> party = AuditEvent.asFields(element);
+                    votes += AuditEvent.intValue(party, "votes");
+                    expect(AuditEvent.intValue(party, "seats") == 0, "party " + AuditEvent.stringValue(party, "name") + " has seats before any were allocated");
+                }
+                expect(votes == numBallots, "party votes add up to " + votes + " but there are " + numBallots + " ballots");
+                storeRows(event.getList("parties"));
+                break;
+            case TIE_DRAW:
+                checkTieDraw(event);
+                break;
+            case SEAT_AWARD:
+                if ("round".equals(event.getString("kind"))){
+                    checkOPLRound(event);
+                } else if ("seat holders".equals(event.getString("kind"))){
+                    checkOPLSeatHolders(event);
+                }
+                break;
+            case RESULT:
+                checkPartyResult(event, true);
+                break;
+            case SEAT_SENSITIVITY:
+                expect(event.getInt("quota") == quota, "the seat sensitivity analysis uses a quota of " + event.getInt("quota") + " instead of " + quota);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * This function checks the quota arithmetic of the first OPL seat allocation round, and that every later round
+     * gives at most one remaining seat without changing the remaining votes.
+     */
+    private void checkOPLRound(AuditEvent event){
+        allocationRounds++;
+        List<Object> parties = event.getList("parties");
+        int partiesWithVotes = 0;
+        for (Map<String, Object> party : lastRows.values()){
+            if (AuditEvent.intValue(party, "votes") != 0){
+                partiesWithVotes++;
+            }
+        }
+
+        int totalSeats = 0;
+        int seatsGained = 0;
+        for (Object element : parties){
+            Map<String, Object> party = AuditEvent.asFields(element);
+            String name = AuditEvent.stringValue(party, "name");
+            Map<String, Object> previousParty = lastRows.get(name);
+            if (!expect(previousParty != null, "party " + name + " is not in the election")){
+                continue;
+            }
+
+            int votes = AuditEvent.intValue(party, "votes");
+            int seats = AuditEvent.intValue(party, "seats");
+            int remainingVotes = AuditEvent.intValue(party, "remainingVotes");
+            expect(votes == AuditEvent.intValue(previousParty, "votes"), "the votes of party " + name + " changed during seat allocation");
+            totalSeats += seats;
+
+            if (allocationRounds == 1){
+                if (partiesWithVotes == 1){ // A party with every vote takes the seats in one round
+                    expect(remainingVotes == 0 && (votes != 0 || seats == 0), "party " + name + " does not match a party receiving every vote");
+                } else {
+                    expect(remainingVotes == votes % quota, "party " + name + " has " + remainingVotes + " remaining votes but " + votes + " % " + quota + " is " + (votes % quota));
+                    expect(seats <= votes / quota, "party " + name + " received " + seats + " seats from " + votes + " votes with a quota of " + quota);
+                }
+            } else {
+                int seatChange = seats - AuditEvent.intValue(previousParty, "seats");
+                expect(seatChange == 0 || seatChange == 1, "party " + name + " went from " + AuditEvent.intValue(previousParty, "seats") + " to " + seats + " seats in one round");
+                expect(remainingVotes == AuditEvent.intValue(previousParty, "remainingVotes"), "the remaining votes of party " + name + " changed after the first round");
+                seatsGained += seatChange;
+            }
+        }
+
+        expect(seatsGained <= 1, seatsGained + " remaining seats were allocated in one round");
+        expect(totalSeats <= numSeats, totalSeats + " seats were allocated but the election only has " + numSeats);
+        storeRows(parties);
+    }
+
+    /**
+     * This function checks that every OPL party is filled by as many candidates as it has seats, in order of their votes.
+     */
+    private void checkOPLSeatHolders(AuditEvent event){
+        for (Object element : event.getList("parties")){
+            Map<String, Object> party = AuditEvent.asFields(element);
+            String name = AuditEvent.stringValue(party, "name");
+            List<Object> seatHolders = AuditEvent.listValue(party, "seatHolders");
+            expect(seatHolders.size() == AuditEvent.intValue(party, "seats"), "party " + name + " has " + AuditEvent.intValue(party, "seats") + " seats but " + seatHolders.size() + " seat holders");
+
+            int previousVotes = Integer.MAX_VALUE;
+            for (Object seatHolder : seatHolders){
+                int votes = AuditEvent.intValue(AuditEvent.asFields(seatHolder), "votes");
+                expect(votes <= previousVotes, "the seat holders of party " + name + " are not in order of their votes");
+                previousVotes = votes;
+            }
+        }
+    }
+
+    /**
+     * This function checks an event of an MPO election.
+     */
+    private void checkMPO(AuditEvent event){
+        switch (event.getType()){
+            case ELECTION_START:
+                numSeats = event.getInt("seats");
+                break;
+            case TALLY: // The votes are not checked against the ballots, which MPO takes from the header of the ballot file
+                expect(event.getInt("remainingSeats") == numSeats, "seats were allocated before the votes were counted");
+                storeRows(event.getList("candidates"));
+                break;
+            case SEAT_AWARD:
+                checkMPOSelection(event);
+                break;
+            case RESULT:
+                checkMPOResult(event);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * This function checks that every MPO winner received at least as many votes as every candidate who did not win.
+     */
+    private void checkMPOSelection(AuditEvent event){
+        List<Object> winners = event.getList("winners");
+        expect(winners.size() + event.getInt("remainingSeats") == numSeats, winners.size() + " candidates won but " + event.getInt("remainingSeats") + " of " + numSeats + " seats are left");
+        expect(winners.containsAll(event.getList("tieWinners")) && event.getList("tied").containsAll(event.getList("tieWinners")), "a tie winner was not one of the tied candidates and winners");
+
+        int lowestWinnerVotes = Integer.MAX_VALUE;
+        for (Object name : winners){
+            Map<String, Object> row = lastRows.get(String.valueOf(name));
+            if (expect(row != null, "the winner " + name + " is not in the election")){
+                lowestWinnerVotes = Math.min(lowestWinnerVotes, AuditEvent.intValue(row, "votes"));
+            }
+        }
+        for (Map<String, Object> row : lastRows.values()){
+            String name = AuditEvent.stringValue(row, "name");
+            expect(winners.contains(name) || AuditEvent.intValue(row, "votes") <= lowestWinnerVotes, "candidate " + name + " received more votes than a winner but did not win a seat");
+        }
+    }
+
+    /**
+     * This function checks that the seats of the MPO candidates and parties add up and match the winners.
+     */
+    private void checkMPOResult(AuditEvent event){
+        int allocatedSeats = numSeats - event.getInt("remainingSeats");
+        int candidateSeats = 0;
+        LinkedHashMap<String, int[]> partyTotals = new LinkedHashMap<>(); // Votes and seats of every party's candidates
+        for (Object element : event.getList("candidates")){
+            Map<String, Object> row = AuditEvent.asFields(element);
+            String name = AuditEvent.stringValue(row, "name");
+            int votes = AuditEvent.intValue(row, "votes");
+            int seats = AuditEvent.intValue(row, "seats");
+            Map<String, Object> previousRow = lastRows.get(name);
+            expect(previousRow != null && AuditEvent.intValue(previousRow, "votes") == votes, "the votes of candidate " + name + " changed during seat allocation");
+            expect(seats == 0 || seats == 1, "candidate " + name + " won " + seats + " seats");
+            candidateSeats += seats;
+
+            int[] totals = partyTotals.computeIfAbsent(AuditEvent.stringValue(row, "party"), party -> new int[2]);
+            totals[0] += votes;
+            totals[1] += seats;
+        }
+        expect(candidateSeats == allocatedSeats, "candidates won " + candidateSeats + " seats but " + allocatedSeats + " were allocated");
+
+        if (event.has("winners")){
+            expect(event.getList("winners").size() == allocatedSeats, event.getList("winners").size() + " winners are listed but " + allocatedSeats + " seats were allocated");
+        }
+        for (Object element : event.getList("parties")){ // Only listed once every seat is filled
+            Map<String, Object> party = AuditEvent.asFields(element);
+            String name = AuditEvent.stringValue(party, "name");
+            int[] totals = partyTotals.getOrDefault(name, new int[2]);
+            expect(AuditEvent.intValue(party, "votes") == totals[0], "party " + name + " has " + AuditEvent.intValue(party, "votes") + " votes but its candidates have " + totals[0]);
+            expect(AuditEvent.intValue(party, "seats") == totals[1], "party " + name + " has " + AuditEvent.intValue(party, "seats") + " seats but its candidates won " + totals[1]);
+        }
+    }
+
+    /**
+     * This function checks an event of a multi-district OPL election. Every district has its own event log.
+     */
+    private void checkDistricts(AuditEvent event){
+        switch (event.getType()){
+            case TALLY:
+                int ballots = 0;
+                int seats = 0;
+                for (Object element : event.getList("districts")){
+                    Map<String, Object> district = AuditEvent.asFields(element);
+                    ballots += AuditEvent.intValue(district, "ballots");
+                    seats += AuditEvent.intValue(district, "seats");
+                }
+                districtTotals = new LinkedHashMap<>();
+                districtTotals.put("ballots", ballots);
+                districtTotals.put("seats", seats);
+                break;
+            case RESULT:
+                numBallots = event.getInt("ballots");
+                numSeats = event.getInt("seats");
+                if (districtTotals != null){
+                    expect(numBallots == AuditEvent.intValue(districtTotals, "ballots"), "the national result has " + numBallots + " ballots but the districts have " + AuditEvent.intValue(districtTotals, "ballots"));
+                    expect(numSeats == AuditEvent.intValue(districtTotals, "seats"), "the national result has " + numSeats + " seats but the districts have " + AuditEvent.intValue(districtTotals, "seats"));
+                }
+                checkPartyResult(event, false);
+                break;
+            case TIE_DRAW:
+                checkTieDraw(event);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * This function checks the party table of an OPL result: the votes add up to the ballots, the seats do not exceed
+     * the seats of the election, and the winning party has the most seats.
+     * @param matchLastRound - True to also check that the table matches the last round of seat allocation.
+     */
+    private void checkPartyResult(AuditEvent event, boolean matchLastRound){
+        int votes = 0;
+        int seats = 0;
+        int mostSeats = 0;
+        for (Object element : event.getList("parties")){
+            Map<String, Object> party = AuditEvent.asFields(element);
+            String name = AuditEvent.stringValue(party, "name");
+            votes += AuditEvent.intValue(party, "votes");
+            seats += AuditEvent.intValue(party, "seats");
+            mostSeats = Math.max(mostSeats, AuditEvent.intValue(party, "seats"));
+
+            Map<String, Object> lastRow = lastRows.get(name);
+            if (matchLastRound && allocationRounds > 0 && expect(lastRow != null, "party " + name + " is not in the election")){
+                expect(AuditEvent.intValue(party, "seats") == AuditEvent.intValue(lastRow, "seats"), "party " + name + " has " + AuditEvent.intValue(party, "seats") + " seats in the result but " + AuditEvent.intValue(lastRow, "seats") + " after the last round");
+            }
+        }
+        expect(votes == numBallots, "party votes add up to " + votes + " but there are " + numBallots + " ballots");
+        expect(seats <= numSeats, seats + " seats were allocated but the election only has " + numSeats);
+
+        if (event.has("winningParty")){
+            Map<String, Object> winningParty = event.getFields("winningParty");
+            expect(AuditEvent.intValue(winningParty, "seats") == mostSeats, "the winning party " + AuditEvent.stringValue(winningParty, "name") + " does not have the most seats");
+        }
+    }
+
+    /**
+     * This function checks that the winners of a tie breaker were among the tied candidates or parties, and remembers
+     * the winner of a tie between candidates for the win. A tie for the lowest votes only decides who is eliminated,
+     * so its winner has not won the election.
+     */
+    private void checkTieDraw(AuditEvent event){
+        List<Object> tied = event.getList("tied");
+        List<Object> winners = event.getList("winners");
+        expect(!winners.isEmpty() && tied.containsAll(winners), "the winner of a tie breaker was not one of the tied " + ("party".equals(event.getString("kind")) ? "parties" : "candidates"));
+        if (!winners.isEmpty() && "candidate".equals(event.getString("kind"))){
+            tieWinner = String.valueOf(winners.get(0));
+        }
+
+        if ("lowest votes".equals(event.getString("kind"))){ // IR candidates tied for elimination must have the same votes
+            HashSet<Integer> votes = new HashSet<>();
+            for (Object name : tied){
+                Map<String, Object> row = lastRows.get(String.valueOf(name));
+                if (row != null){
+                    votes.add(AuditEvent.intValue(row, "votes"));
+                }
+            }
+            expect(votes.size() <= 1, "candidates tied for the lowest votes have different numbers of votes");
+        }
+    }
+
+    /**
+     * This function keeps the rows of the latest table, by name.
+     */
+    private void storeRows(List<Object> rows){
+        lastRows.clear();
+        for (Object element : rows){
+            Map<String, Object> row = AuditEvent.asFields(element);
+            lastRows.put(AuditEvent.stringValue(row, "name"), new LinkedHashMap<>(row));
+        }
+    }
+
+    /**
+     * This function records a violation if an invariant does not hold.
+     * @return - The value of the invariant, so dependent checks can be skipped.
+     */
+    private boolean expect(boolean invariant, String message){
+        if (!invariant){
+            violations.add("Line " + lineNumber + ": " + message + ".");
+        }
+        return invariant;
+    }
+
+    /**
+     * This function records a violation that does not depend on an invariant.
+     */
+    private void fail(String message){
+        expect(false, message);
+    }
+}
@@ -0,0 +1,166 @@
+import java.io.*;
+import java.util.*;
+import org.junit.*;
+
+public class AuditVerifierTests {
+    /**
+     * This function runs the verifier over an event log.
+     */
+    private static List<String> verify(String eventLog) throws IOException {
+        return new AuditVerifier().verify(new BufferedReader(new StringReader(eventLog)));
+    }
+
+    /**
+     * This function writes the event log of an IR election.
+     */
+    private static String irEventLog(String path, int auditDeltas) throws IOException {
+        final FileParser file = new FileParser(path);
+        final IRVoting ir = new IRVoting(file.getCandidateLine(), new ArrayList<>(file.getBallotList()), "");
+        RecordingAuditSink eventLog = new RecordingAuditSink();
+        ir.setAuditEventSink(eventLog);
+        ir.setAuditDeltas(auditDeltas);
+        ir.calculateBallots();
+        return eventLog.getContent();
+    }
+
+    /**
+     * This test checks that the event logs of IR elections with and without delta round tables have no violations.
+     */
+    @Test
+    public void testIRElectionIsConsistent() throws IOException {
+        Assert.assertEquals(Collections.emptyList(), verify(irEventLog("./../testing/IR_test_two_leading_candidate_loss_after_redistribution.csv", 0)));
+        Assert.assertEquals(Collections.emptyList(), verify(irEventLog("./../testing/IR_test_candidate_tie_after_multiple_rounds_of_redistribution.csv", 2)));
+    }
+
+    /**
+     * This test checks that the event logs of OPL and MPO elections have no violations.
+     */
+    @Test
+    public void testOPLAndMPOElectionsAreConsistent() throws IOException {
+        final FileParser oplFile = new FileParser("./../testing/OPL_test_more_than_two_rounds_allocations.csv");
+        final OPLVoting opl = new OPLVoting(oplFile.getCandidateLine(), oplFile.getBallotList(), oplFile.getNumberOfSeats(), oplFile.getNumberOfBallots(), "");
+        RecordingAuditSink oplEventLog = new RecordingAuditSink();
+        opl.setAuditEventSink(oplEventLog);
+        opl.performSeatAllocations();
+        Assert.assertEquals(Collections.emptyList(), verify(oplEventLog.getContent()));
+
+        final FileParser mpoFile = new FileParser("./../testing/MPO_test_multiple_winners_with_no_tie_breakers.csv");
+        final MPOVoting mpo = new MPOVoting(mpoFile.getCandidateLine(), mpoFile.getBallotList(), mpoFile.getNumberOfSeats(), "");
+        RecordingAuditSink mpoEventLog = new RecordingAuditSink();
+        mpo.setAuditEventSink(mpoEventLog);
+        mpo.performSeatAllocations();
+        Assert.assertEquals(Collections.emptyList(), verify(mpoEventLog.getContent()));
+    }
+
+    /**
+     * This test checks that a three-way tie for last place, where a ballot moves between two candidates eliminated in
+     * the same round, has no violations in the later rounds, whichever candidate wins the tie breaker.
+     */
+    @Test
+    public void testThreeWayEliminationTieIsConsistent() throws IOException {
+        StringBuilder ballots = new StringBuilder("IR\n6\nA (D), B (R), C (I), D (L), E (G), F (D)\n15\n");
+        for (int i = 0; i < 5; i++){
+            ballots.append("1,,,,,\n");
+        }
+        for (int i = 0; i < 4; i++){
+            ballots.append(",1,,,,\n");
+        }
+        for (int i = 0; i < 3; i++){
+            ballots.append(",,,,,1\n");
+        }
+        ballots.append(",,1,2,,\n,,,1,,\n,,,,1,\n");
+
+        for (long seed = 0; seed < 8; seed++){
+            final FileParser file = new FileParser(new ByteArrayInputStream(ballots.toString().getBytes("UTF-8")));
+            final IRVoting ir = new IRVoting(file.getCandidateLine(), file.getBallotList(), "");
+            RecordingAuditSink eventLog = new RecordingAuditSink();
+            ir.setAuditEventSink(eventLog);
+            ir.setTieBreakSeed(seed);
+            ir.calculateBallots();
+            Assert.assertEquals("seed " + seed, Collections.emptyList(), verify(eventLog.getContent()));
+        }
+    }
+
+    /**
+     * This test checks that an MPO election that leaves seats empty, because fewer candidates received votes than
+     * there are seats, has no violations, although its result lists no winners or parties.
+     */
+    @Test
+    public void testMPOWithEmptySeatsIsConsistent() throws IOException {
+        final String ballots = "MPO\n3\n3\n[Pike, D], [Foster, D], [Borg, R]\n3\n1,,\n1,,\n,1,\n";
+        final FileParser file = new FileParser(new ByteArrayInputStream(ballots.getBytes("UTF-8")));
+        final MPOVoting mpo = new MPOVoting(file.getCandidateLine(), file.getBallotTallies(), file.getNumberOfSeats(), file.getNumberOfBallots(), "");
+        RecordingAuditSink eventLog = new RecordingAuditSink();
+        mpo.setAuditEventSink(eventLog);
+        mpo.performSeatAllocations();
+        Assert.assertEquals(Collections.emptyList(), verify(eventLog.getContent()));
+    }
+
+    /**
+     * This test checks that votes changed in a redistribution round are reported on the line of that round.
+     */
+    @Test
+    public void testAlteredTransferIsDetected() throws IOException {
+        String[] lines = irEventLog("./../testing/IR_test_majority_winner_after_one_round_redistribution.csv", 0).split("\n");
+        int transferLine = 0;
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].startsWith("{\"type\":\"TRANSFER\"")) {
+                lines[i] = lines[i].replaceFirst("\"redistributedVotes\":(\\d+)", "\"redistributedVotes\":1$1");
+                transferLine = i + 1;
+                break;
+            }
+        }
+
+        List<String> violations = verify(String.join("\n", lines));
+        Assert.assertFalse(violations.isEmpty());
+        Assert.assertTrue(violations.get(0).startsWith("Line " + transferLine + ": "));
+    }
+
+    /**
+     * This test checks that a wrong OPL quota and a seat table that does not match the seat holders are reported.
+     */
+    @Test
+    public void testAlteredOPLSeatsAreDetected() throws IOException {
+        String eventLog = "{\"type\":\"ELECTION_START\",\"protocol\":\"OPL\",\"ballots\":9,\"seats\":3,\"quota\":4}\n"
+            + "{\"type\":\"SEAT_AWARD\",\"protocol\":\"OPL\",\"kind\":\"seat holders\",\"parties\":[{\"name\":\"D\",\"seats\":2,\"seatHolders\":[{\"name\":\"Pike\",\"votes\":3}]}]}\n";
+
+        List<String> violations = verify(eventLog);
+        Assert.assertEquals(2, violations.size());
+        Assert.assertTrue(violations.get(0).startsWith("Line 1: the quota is 4"));
+        Assert.assertTrue(violations.get(1).startsWith("Line 2: party D has 2 seats but 1 seat holders"));
+    }
+
+    /**
+     * This function writes the event log of an IR election of 4 ballots where B wins a tie for the lowest votes
+     * against C and then ties A without a majority, with the given candidate rows of the redistribution round.
+     */
+    private static String tiedIREventLog(String transferRows){
+        return "{\"type\":\"ELECTION_START\",\"protocol\":\"IR\",\"ballots\":4}\n"
+            + "{\"type\":\"TALLY\",\"protocol\":\"IR\",\"round\":1,\"ballots\":4,\"candidates\":[{\"name\":\"A\",\"votes\":2},{\"name\":\"B\",\"votes\":1},{\"name\":\"C\",\"votes\":1}]}\n"
+            + "{\"type\":\"TIE_DRAW\",\"protocol\":\"IR\",\"round\":2,\"kind\":\"lowest votes\",\"tied\":[\"B\",\"C\"],\"winners\":[\"B\"]}\n"
+            + "{\"type\":\"ELIMINATION\",\"protocol\":\"IR\",\"round\":2,\"reason\":\"lowest votes\",\"candidates\":[\"C\"]}\n"
+            + "{\"type\":\"TRANSFER\",\"protocol\":\"IR\",\"round\":2,\"ballots\":4,\"candidates\":[" + transferRows + "]}\n"
+            + "{\"type\":\"RESULT\",\"protocol\":\"IR\",\"ballots\":4,\"winner\":{\"name\":\"B\",\"votes\":2}}\n";
+    }
+
+    /**
+     * This test checks that winning a tie for the lowest votes does not count as winning the election without a majority.
+     */
+    @Test
+    public void testEliminationTieDoesNotDecideWinner() throws IOException {
+        List<String> violations = verify(tiedIREventLog("{\"name\":\"A\",\"votes\":2,\"redistributedVotes\":0},"
+            + "{\"name\":\"B\",\"votes\":2,\"redistributedVotes\":1},{\"name\":\"C\",\"votes\":1,\"redistributedVotes\":0,\"eliminated\":true}"));
+        Assert.assertEquals(1, violations.size());
+        Assert.assertEquals("Line 6: the winner B has no majority (2 of 4 votes) and did not win a tie breaker.", violations.get(0));
+    }
+
+    /**
+     * This test checks that an event missing a field its checks read is reported as a violation.
+     */
+    @Test
+    public void testMissingFieldIsReported() throws IOException {
+        List<String> violations = verify(tiedIREventLog("{\"name\":\"A\",\"votes\":2,\"redistributedVotes\":0},"
+            + "{\"name\":\"B\",\"redistributedVotes\":1},{\"name\":\"C\",\"votes\":1,\"redistributedVotes\":0,\"eliminated\":true}"));
+        Assert.assertEquals("Line 5: TRANSFER event is missing the field candidates[1].votes or it is not a number.", violations.get(0));
+    }
+}
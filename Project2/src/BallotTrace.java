@@ -0,0 +1,145 @@
+/**
+ * BallotTrace.java
+ * This class reads a ballot trace written by BallotTraceWriter and follows individual ballots through the rounds of
+ * an IR election, e.g. to show where a challenged ballot went after its first choice was eliminated. The records are
+ * read through a file channel in large blocks in a single pass, so a trace of millions of ballots is searched quickly.
+ * Usage: java BallotTrace <trace file> <ballot number>
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+public class BallotTrace {
+    private final ArrayList<String> candidates; // "name (party)" of every candidate, by id
+    private final String path; // Name and path of the trace file
+    private final long recordsOffset; // Byte offset of the first record in the trace file
+
+    /**
+     * Constructs a BallotTrace by reading the header of a trace file.
+     * @param path - Name and path of the trace file.
+     * @throws IOException - If the trace file could not be read.
+     * @throws IllegalArgumentException - If the file is not a ballot trace.
+     */
+    public BallotTrace(String path) throws IOException {
+        this.path = path;
+        this.candidates = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)){
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            try {
+                if (in.readInt() != BallotTraceWriter.MAGIC || in.readShort() != BallotTraceWriter.VERSION
+                    || in.readShort() != BallotTraceWriter.RECORD_LENGTH){
+                    throw new IllegalArgumentException(path + " is not a ballot trace.");
+                }
+                int numCandidates = in.readInt();
+                for (int i = 0; i < numCandidates; i++){
+                    String name = in.readUTF();
+                    candidates.add(name + " (" + in.readUTF() + ")");
+                }
+            } catch (EOFException e){
+                throw new IllegalArgumentException(path + " is not a ballot trace.", e);
+            }
+            this.recordsOffset = channel.position();
+        }
+    }
+
+    /**
+     * The entry point of the query tool.
+     * @param args - The path of the trace file and the number of the ballot to follow.
+     */
+    public static void main(String[] args){
+        int ballot;
+        try {
+            ballot = args.length == 2 ? Integer.parseInt(args[1]) : 0;
+        } catch (NumberFormatException e){
+            ballot = 0;
+        }
+        if (ballot < 1){
+            System.out.println("[SYSTEM]: Usage: java BallotTrace <trace file> <ballot number>");
+            return;
+        }
+
+        try {
+            BallotTrace trace = new BallotTrace(args[0]);
+            List<int[]> movements = trace.follow(ballot);
+            if (movements.isEmpty()){
+                System.out.println("[SYSTEM]: Ballot " + ballot + " is not in the trace.");
+                return;
+            }
+            for (int[] movement : movements){
+                System.out.println(trace.describe(ballot, movement));
+            }
+        } catch (IOException e){
+            System.out.println("[SYSTEM]: The ballot trace " + args[0] + " could not be read.");
+        } catch (IllegalArgumentException e){
+            System.out.println("[SYSTEM]: " + e.getMessage());
+        }
+    }
+
+    /**
+     * This function finds every movement of a ballot, in the order they happened.
+     * @param ballot - The number of the ballot, starting at 1.
+     * @return - The round, the id of the candidate the ballot moved from and the id of the candidate it moved to of
+     * every movement, with BallotTraceWriter.NO_CANDIDATE for no candidate.
+     * @throws IOException - If the trace file could not be read.
+     */
+    public List<int[]> follow(int ballot) throws IOException {
+        ArrayList<int[]> movements = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BallotTraceWriter.RECORD_LENGTH * (1 << 14));
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)){
+            channel.position(recordsOffset);
+            while (channel.read(buffer) >= 0 || buffer.position() > 0){
+                buffer.flip();
+                if (buffer.remaining() < BallotTraceWriter.RECORD_LENGTH){
+                    break; // The trace ends with a partial record
+                }
+                while (buffer.remaining() >= BallotTraceWriter.RECORD_LENGTH){
+                    int recordBallot = buffer.getInt();
+                    if (recordBallot != ballot){
+                        buffer.position(buffer.position() + BallotTraceWriter.RECORD_LENGTH - 4);
+                        continue;
+                    }
+                    movements.add(new int[]{buffer.getInt(), buffer.getInt(), buffer.getInt()});
+                }
+                buffer.compact();
+            }
+        }
+        return movements;
+    }
+
+    /**
+     * This function describes a movement of a ballot, e.g. "Ballot 7, round 3: moved from Royce (L) to Rosen (D)".
+     * @param ballot - The number of the ballot.
+     * @param movement - The round, from and to of the movement, as returned by follow().
+     * @return - The description.
+     */
+    public String describe(int ballot, int[] movement){
+        StringBuilder sb = new StringBuilder("Ballot ").append(ballot).append(", round ").append(movement[0]).append(": ");
+        if (movement[1] == BallotTraceWriter.NO_CANDIDATE){
+            sb.append(movement[2] == BallotTraceWriter.NO_CANDIDATE ? "counted for no candidate" : "counted for " + candidateName(movement[2]));
+        } else if (movement[2] == BallotTraceWriter.NO_CANDIDATE){
+            sb.append("exhausted after ").append(candidateName(movement[1])).append(" was eliminated");
+        } else {
+            sb.append("moved from ").append(candidateName(movement[1])).append(" to ").append(candidateName(movement[2]));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Retrieves the candidates named in the header of the trace.
+     * @return - "name (party)" of every candidate, by id.
+     */
+    public List<String> getCandidates(){
+        return candidates;
+    }
+
+    /**
+     * This function returns "name (party)" of a candidate id, or the id itself if it is not in the header.
+     */
+    private String candidateName(int id){
+        return id >= 0 && id < candidates.size() ? candidates.get(id) : "candidate #" + id;
+    }
+}
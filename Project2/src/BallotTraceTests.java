@@ -0,0 +1,125 @@
+import java.io.*;
+import java.util.*;
+import org.junit.*;
+
+public class BallotTraceTests {
+    /**
+     * This function runs an IR election with a ballot trace written to a temporary file.
+     */
+    private static IRVoting runTracedElection(String path, File traceFile) throws IOException {
+        final FileParser file = new FileParser(path);
+        final IRVoting ir = new IRVoting(file.getCandidateLine(), new ArrayList<>(file.getBallotList()), "");
+        ir.setBallotTrace(traceFile.getPath());
+        ir.calculateBallots();
+        return ir;
+    }
+
+    /**
+     * This test checks that the last movement of every ballot in the trace adds up to the final votes of every
+     * candidate still in the election.
+     */
+    @Test
+    public void testTraceMatchesFinalVotes() throws IOException {
+        File traceFile = File.createTempFile("ballot_trace", ".bin");
+        traceFile.deleteOnExit();
+        final IRVoting ir = runTracedElection("./../testing/IR_test_two_leading_candidate_loss_after_redistribution.csv", traceFile);
+
+        Assert.assertEquals(Collections.singletonList(traceFile.getPath()), ir.getAuditFiles()); // No audit file, only the trace
+
+        BallotTrace trace = new BallotTrace(traceFile.getPath());
+        Assert.assertEquals(ir.getCandidates().size(), trace.getCandidates().size());
+        Assert.assertEquals("Rosen (D)", trace.getCandidates().get(0));
+
+        int[] finalVotes = new int[ir.getCandidates().size()];
+        for (int ballot = 1; ballot <= 10; ballot++){
+            List<int[]> movements = trace.follow(ballot);
+            Assert.assertEquals(1, movements.get(0)[0]);
+            Assert.assertEquals(BallotTraceWriter.NO_CANDIDATE, movements.get(0)[1]);
+            int[] last = movements.get(movements.size() - 1);
+            if (last[2] != BallotTraceWriter.NO_CANDIDATE){
+                finalVotes[last[2]]++;
+            }
+        }
+        Assert.assertTrue(trace.follow(11).isEmpty());
+
+        for (Candidate candidate : ir.getCandidates()){
+            if (!candidate.isEliminated()){
+                Assert.assertEquals(candidate.getNumVotes(), finalVotes[candidate.getId()]);
+            }
+        }
+    }
+
+    /**
+     * This test checks that a moved ballot continues from the candidate it was last counted for.
+     */
+    @Test
+    public void testMovementsAreChained() throws IOException {
+        File traceFile = File.createTempFile("ballot_trace", ".bin");
+        traceFile.deleteOnExit();
+        runTracedElection("./../testing/IR_test_majority_winner_after_one_round_redistribution.csv", traceFile);
+
+        BallotTrace trace = new BallotTrace(traceFile.getPath());
+        boolean moved = false;
+        for (int ballot = 1; ballot <= 6; ballot++){
+            List<int[]> movements = trace.follow(ballot);
+            for (int i = 1; i < movements.size(); i++){
+                Assert.assertEquals(movements.get(i - 1)[2], movements.get(i)[1]);
+                Assert.assertTrue(movements.get(i)[0] > movements.get(i - 1)[0]);
+                moved = true;
+            }
+        }
+        Assert.assertTrue(moved);
+    }
+
+    /**
+     * This test checks the descriptions of the movements of a ballot.
+     */
+    @Test
+    public void testDescribe() throws IOException {
+        File traceFile = File.createTempFile("ballot_trace", ".bin");
+        traceFile.deleteOnExit();
+        Candidate rosen = new Candidate("Rosen", "D", 0);
+        Candidate royce = new Candidate("Royce", "L", 1);
+        BallotTraceWriter writer = new BallotTraceWriter(traceFile.getPath(), Arrays.asList(rosen, royce));
+        writer.record(7, 1, BallotTraceWriter.NO_CANDIDATE, 1);
+        writer.record(7, 2, 1, 0);
+        writer.record(7, 3, 0, BallotTraceWriter.NO_CANDIDATE);
+        writer.close();
+        Assert.assertEquals(3, writer.getNumRecords());
+
+        BallotTrace trace = new BallotTrace(traceFile.getPath());
+        List<int[]> movements = trace.follow(7);
+        Assert.assertEquals("Ballot 7, round 1: counted for Royce (L)", trace.describe(7, movements.get(0)));
+        Assert.assertEquals("Ballot 7, round 2: moved from Royce (L) to Rosen (D)", trace.describe(7, movements.get(1)));
+        Assert.assertEquals("Ballot 7, round 3: exhausted after Rosen (D) was eliminated", trace.describe(7, movements.get(2)));
+    }
+
+    /**
+     * This test checks that candidate ids above the range of a short are recorded and read back unchanged.
+     */
+    @Test
+    public void testLargeCandidateIds() throws IOException {
+        File traceFile = File.createTempFile("ballot_trace", ".bin");
+        traceFile.deleteOnExit();
+        ArrayList<Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < 40000; i++){
+            candidates.add(new Candidate("Candidate " + i, "I", i));
+        }
+        BallotTraceWriter writer = new BallotTraceWriter(traceFile.getPath(), candidates);
+        writer.record(1, 1, BallotTraceWriter.NO_CANDIDATE, 39999);
+        writer.record(1, 2, 39999, 32768);
+        writer.close();
+
+        List<int[]> movements = new BallotTrace(traceFile.getPath()).follow(1);
+        Assert.assertArrayEquals(new int[] {1, BallotTraceWriter.NO_CANDIDATE, 39999}, movements.get(0));
+        Assert.assertArrayEquals(new int[] {2, 39999, 32768}, movements.get(1));
+    }
+
+    /**
+     * This test checks that a file that is not a ballot trace is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotATrace() throws IOException {
+        new BallotTrace("./../testing/IR_test_two_candidate_tie.csv");
+    }
+}
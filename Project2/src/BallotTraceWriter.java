@@ -0,0 +1,125 @@
+/**
+ * BallotTraceWriter.java
+ * This class writes the optional ballot trace of an IR election, which records where every individual ballot went
+ * in every round so a challenged result can be explained ballot by ballot. The audit file only holds the number of
+ * votes of every candidate per round.
+ *
+ * The trace is a binary file: a header naming the candidates, followed by one fixed-width record per ballot
+ * movement. A record is the ballot number (starting at 1, in the order of the ballot file), the round, the candidate
+ * the ballot moved from and the candidate it moved to, as candidate ids (ballot columns) or NO_CANDIDATE. Round 1
+ * records every ballot's first choice; a ballot moving to NO_CANDIDATE in a later round was exhausted. Records are
+ * collected in a buffer and written to a file channel whenever it is full, so tracing only adds a few stores per
+ * ballot movement. BallotTrace reads the trace back and follows a ballot through the election.
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.List;
+
+public class BallotTraceWriter {
+    public static final int MAGIC = 0x49525452; // "IRTR", the first bytes of every ballot trace
+    public static final short VERSION = 2; // Version of the trace format, 2 since candidate ids are ints
+    public static final short RECORD_LENGTH = 16; // Number of bytes of a record: int ballot, int round, int from, int to
+    public static final int NO_CANDIDATE = -1; // Candidate id of a ballot counted for no candidate
+
+    private final String path; // Name and path of the trace file
+    private final FileChannel channel; // Channel the trace file is written through
+    private final ByteBuffer buffer; // Records not yet written to the channel
+    private long numRecords; // Number of records written
+
+    /**
+     * Constructs a BallotTraceWriter, creating the trace file and writing its header.
+     * @param path - Name and path of the trace file.
+     * @param candidates - The candidates of the election, in the order of their ids.
+     * @throws UncheckedIOException - If the trace file could not be created.
+     */
+    public BallotTraceWriter(String path, List<Candidate> candidates){
+        this.path = path;
+        this.buffer = ByteBuffer.allocateDirect(1 << 16);
+        try {
+            this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            writeHeader(candidates);
+        } catch (IOException e){
+            throw new UncheckedIOException("Could not create ballot trace " + path, e);
+        }
+    }
+
+    /**
+     * This function records a ballot moving from one candidate to another.
+     * @param ballot - The number of the ballot, starting at 1.
+     * @param round - The round the ballot moved in.
+     * @param from - The id of the candidate the ballot was counted for, or NO_CANDIDATE in round 1.
+     * @param to - The id of the candidate the ballot is now counted for, or NO_CANDIDATE if it is exhausted.
+     * @throws UncheckedIOException - If the buffered records could not be written.
+     */
+    public void record(int ballot, int round, int from, int to){
+        if (buffer.remaining() < RECORD_LENGTH){
+            drain();
+        }
+        buffer.putInt(ballot).putInt(round).putInt(from).putInt(to);
+        numRecords++;
+    }
+
+    /**
+     * This function writes the remaining records and closes the trace file.
+     * @throws UncheckedIOException - If the trace file could not be written or closed.
+     */
+    public void close(){
+        try {
+            drain();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e){
+                throw new UncheckedIOException("Could not close ballot trace " + path, e);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of records written so far.
+     * @return - The number of records.
+     */
+    public long getNumRecords(){
+        return numRecords;
+    }
+
+    /**
+     * This function writes the magic number, version, record length and the name and party of every candidate.
+     */
+    private void writeHeader(List<Candidate> candidates) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(header);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(RECORD_LENGTH);
+        out.writeInt(candidates.size());
+        for (Candidate candidate : candidates){
+            out.writeUTF(candidate.getName());
+            out.writeUTF(candidate.getParty());
+        }
+        out.flush();
+
+        ByteBuffer bytes = ByteBuffer.wrap(header.toByteArray());
+        while (bytes.hasRemaining()){
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * This function writes the buffered records to the channel and empties the buffer.
+     */
+    private void drain(){
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+        } catch (IOException e){
+            throw new UncheckedIOException("Could not write ballot trace " + path, e);
+        }
+        buffer.clear();
+    }
+}
@@ -4,8 +4,11 @@
  * The Candidate class represents a candidate participating in an election.
  */
 
+import java.util.Objects;
+
 public class Candidate {
     private String name; // Name of the candidate
+    private int id; // Ballot column of the candidate within its election, or -1 if the candidate was created without one
     private String party; // Political party of the candidate
     private int numVotes; // Number of votes received by the candidate
     private int redistributedVotes; // Number of votes redistributed to this candidate
@@ -19,6 +22,20 @@ public class Candidate {
      * @param party The political party of the candidate.
      */
     public Candidate(String name, String party) {
+        this(name, party, -1);
+    }
+
+    /**
+     * Constructs a Candidate with a given name, party and stable id. The id is the candidate's
+     * column on the ballot, which lets the voting classes index candidates directly by the
+     * position of a vote in a ballot line.
+     *
+     * @param name  The name of the candidate.
+     * @param party The political party of the candidate.
+     * @param id    The ballot column of the candidate within its election.
+     */
+    public Candidate(String name, String party, int id) {
+        this.id = id; // Set the id attribute
         this.name = name; // Set the name attribute
         this.party = party; // Set the party attribute
         this.numVotes = 0; // Initializing the number of votes to zero
@@ -35,6 +52,15 @@ public class Candidate {
         return this.name;
     }
 
+    /**
+     * Retrieves the stable id (ballot column) of the candidate within its election.
+     *
+     * @return The id of the candidate, or -1 if it was created without one.
+     */
+    public int getId() {
+        return this.id;
+    }
+
     /**
      * Retrieves the political party affiliation of the candidate.
      *
@@ -60,6 +86,15 @@ public class Candidate {
         this.numVotes++;
     }
 
+    /**
+     * Increases the number of votes received by the candidate by a given amount.
+     *
+     * @param votes The number of votes to add.
+     */
+    public void addVotes(int votes) {
+        this.numVotes += votes;
+    }
+
     /**
      * Increases the count of redistributed votes for the candidate by 1.
      */
@@ -112,4 +147,32 @@ public class Candidate {
     public int getNumSeats(){
         return numSeats;
     }
+
+    /**
+     * Override equals() method. Two candidates are equal if they have the same id, name and party.
+     *
+     * @param obj The object that is being compared.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Candidate)) {
+            return false;
+        }
+
+        Candidate otherCandidate = (Candidate) obj;
+        return this.id == otherCandidate.id && this.name.equals(otherCandidate.name) && Objects.equals(this.party, otherCandidate.party);
+    }
+
+    /**
+     * Override hashCode() method so that it is consistent with equals().
+     *
+     * @return The hash code of the candidate's id, name and party.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id, this.name, this.party);
+    }
 }
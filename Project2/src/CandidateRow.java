@@ -0,0 +1,121 @@
+/**
+ * CandidateRow.java
+ * This class is the row of one candidate in an IR round table of the audit: their name, party, number of votes,
+ * the votes they received in the round and whether they were eliminated. An IR election writes a row for every
+ * candidate in every round, so the row keeps its values as fields instead of a field map of boxed values. It can
+ * still be read as a field map like every other row of an AuditEvent, and AuditEvent.intValue(), booleanValue()
+ * and JsonWriter read its values without boxing them.
+ */
+
+import java.util.*;
+
+public class CandidateRow extends AbstractMap<String, Object> {
+    public static final int NO_REDISTRIBUTED_VOTES = -1; // Redistributed votes of a row that does not list them, e.g. the first round
+
+    private final String name; // Name of the candidate
+    private final String party; // Party of the candidate
+    private final int votes; // Number of votes of the candidate
+    private final int redistributedVotes; // Votes the candidate received in the round, or NO_REDISTRIBUTED_VOTES
+    private final boolean eliminated; // True if the candidate was eliminated
+
+    /**
+     * Constructs the row of a candidate as they are now.
+     * @param candidate - The candidate to describe.
+     * @param withRedistributedVotes - True to also list the votes the candidate received in the current round.
+     */
+    public CandidateRow(Candidate candidate, boolean withRedistributedVotes){
+        this.name = candidate.getName();
+        this.party = candidate.getParty();
+        this.votes = candidate.getNumVotes();
+        this.redistributedVotes = withRedistributedVotes ? candidate.getRedistributedVotes() : NO_REDISTRIBUTED_VOTES;
+        this.eliminated = candidate.isEliminated();
+    }
+
+    /**
+     * This function reads a numeric value of the row.
+     * @param key - "votes" or "redistributedVotes".
+     * @return - The value.
+     * @throws NullPointerException - If the row has no such numeric value, like a field map without it.
+     */
+    public int getInt(String key){
+        if (key.equals("votes")){
+            return votes;
+        } else if (key.equals("redistributedVotes") && redistributedVotes != NO_REDISTRIBUTED_VOTES){
+            return redistributedVotes;
+        }
+        throw new NullPointerException("The candidate row has no " + key + ".");
+    }
+
+    /**
+     * This function checks whether the candidate was eliminated.
+     * @return - True if the candidate was eliminated; otherwise, False
+     */
+    public boolean isEliminated(){
+        return eliminated;
+    }
+
+    /**
+     * This function writes the row as a JSON object, in the order the fields are listed.
+     * @param json - The writer of the JSON.
+     */
+    public void writeTo(JsonWriter json){
+        json.beginObject();
+        json.name("name").value(name);
+        json.name("party").value(party);
+        json.name("votes").value(votes);
+        if (redistributedVotes != NO_REDISTRIBUTED_VOTES){
+            json.name("redistributedVotes").value(redistributedVotes);
+        }
+        json.name("eliminated").value(eliminated);
+        json.endObject();
+    }
+
+    @Override
+    public Object get(Object key){
+        if ("name".equals(key)){
+            return name;
+        } else if ("party".equals(key)){
+            return party;
+        } else if ("votes".equals(key)){
+            return votes;
+        } else if ("redistributedVotes".equals(key)){
+            return redistributedVotes == NO_REDISTRIBUTED_VOTES ? null : redistributedVotes;
+        } else if ("eliminated".equals(key)){
+            return eliminated;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key){
+        return get(key) != null;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet(){
+        LinkedHashMap<String, Object> fields = new LinkedHashMap<>();
+        fields.put("name", name);
+        fields.put("party", party);
+        fields.put("votes", votes);
+        if (redistributedVotes != NO_REDISTRIBUTED_VOTES){
+            fields.put("redistributedVotes", redistributedVotes);
+        }
+        fields.put("eliminated", eliminated);
+        return Collections.unmodifiableMap(fields).entrySet();
+    }
+
+    @Override
+    public boolean equals(Object other){
+        if (!(other instanceof CandidateRow)){
+            return super.equals(other);
+        }
+        CandidateRow row = (CandidateRow) other;
+        return votes == row.votes && redistributedVotes == row.redistributedVotes && eliminated == row.eliminated
+            && Objects.equals(name, row.name) && Objects.equals(party, row.party);
+    }
+
+    @Override
+    public int hashCode(){
+        return super.hashCode();
+    }
+}
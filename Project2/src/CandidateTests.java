@@ -51,4 +51,21 @@ public class CandidateTests {
         testCandidate.setElimination(false);
         Assert.assertFalse(testCandidate.isEliminated());
     }
+
+    @Test
+    public void testGetId() {
+        Candidate testCandidate = new Candidate("Kleinberg", "Party A", 3);
+        Assert.assertEquals(testCandidate.getId(), 3);
+        Assert.assertEquals(new Candidate("Kleinberg", "Party A").getId(), -1);
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        Candidate testCandidate = new Candidate("Kleinberg", "Party A", 0);
+        Candidate sameCandidate = new Candidate("Kleinberg", "Party A", 0);
+        Candidate otherColumnCandidate = new Candidate("Kleinberg", "Party A", 1);
+        Assert.assertEquals(testCandidate, sameCandidate);
+        Assert.assertEquals(testCandidate.hashCode(), sameCandidate.hashCode());
+        Assert.assertNotEquals(testCandidate, otherColumnCandidate);
+    }
 }
@@ -0,0 +1,98 @@
+/**
+ * CsvResultExporter.java
+ * This class exports the results of an election as one CSV table with a row per candidate or party of every round
+ * and of the final result, written line by line:
+ *
+ * round,table,name,party,votes,seats,remaining_votes,status
+ * ,election,IR,,6,0,,
+ * 1,candidates,Rosen,D,3,0,,
+ * final,candidates,Rosen,D,4,0,,winner
+ *
+ * The first row describes the election: its protocol, number of ballots and number of seats. Fields holding a comma,
+ * quote or line break are quoted.
+ */
+
+import java.io.Writer;
+
+public class CsvResultExporter extends ResultExporter {
+    public static final String HEADER = "round,table,name,party,votes,seats,remaining_votes,status"; // First line of the export
+
+    private final StringBuilder line; // Line being built, reused for every row
+    private String round; // Round of the current table, or "final"
+    private String table; // Kind of the current table, "candidates" or "parties"
+
+    /**
+     * Constructs an exporter that writes CSV to out.
+     * @param out - The destination of the CSV, which is closed with the exporter.
+     */
+    public CsvResultExporter(Writer out){
+        super(out);
+        this.line = new StringBuilder();
+    }
+
+    @Override
+    public void beginElection(String protocol, int numBallots, int numSeats){
+        write(HEADER + "\n");
+        line.setLength(0);
+        line.append(",election,");
+        appendField(protocol);
+        line.append(",,").append(numBallots).append(',').append(numSeats).append(",,\n");
+        write(line.toString());
+    }
+
+    @Override
+    protected void beginTable(int round, String kind){
+        this.round = round == FINAL_ROUND ? "final" : String.valueOf(round);
+        this.table = kind;
+    }
+
+    @Override
+    protected void candidateRow(Candidate candidate, int votes, String status){
+        beginRow(candidate.getName());
+        appendField(candidate.getParty());
+        line.append(',').append(votes).append(',').append(candidate.getNumSeats()).append(",,");
+        endRow(status);
+    }
+
+    @Override
+    protected void partyRow(Party party, String status){
+        beginRow(party.getPartyName());
+        line.append(',').append(party.getInitialPartyVotes()).append(',').append(party.getNumSeatsAllocated())
+            .append(',').append(party.getTotalPartyVotes()).append(',');
+        endRow(status);
+    }
+
+    @Override
+    protected void endTable(){
+        // Every row already holds its round and table
+    }
+
+    /**
+     * This function starts a row with its round, table and name, followed by a comma.
+     */
+    private void beginRow(String name){
+        line.setLength(0);
+        line.append(round).append(',').append(table).append(',');
+        appendField(name);
+        line.append(',');
+    }
+
+    /**
+     * This function ends a row with its status and writes it.
+     */
+    private void endRow(String status){
+        line.append(status).append('\n');
+        write(line.toString());
+    }
+
+    /**
+     * This function appends a field to the line, quoting it if it holds a comma, quote or line break.
+     */
+    private void appendField(String field){
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0){
+            line.append(field);
+            return;
+        }
+        line.append('"').append(field.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Digests.java
+ * This class creates the SHA-256 digests shared by the audit hash chain and the result cache, and writes a digest
+ * as the hexadecimal text both of them store.
+ */
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public final class Digests {
+    public static final String ALGORITHM = "SHA-256"; // Digest algorithm of the audit hash chain and the result cache
+    public static final int DIGEST_LENGTH = 32; // Number of bytes of a SHA-256 digest
+
+    private Digests(){
+        // Holds the digest functions only
+    }
+
+    /**
+     * This function creates a SHA-256 digest, which every Java platform provides.
+     * @return - A new digest.
+     */
+    public static MessageDigest newDigest(){
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e){
+            throw new IllegalStateException(ALGORITHM + " is not available.", e);
+        }
+    }
+
+    /**
+     * This function writes bytes as lowercase hexadecimal.
+     * @param digest - The bytes, e.g. a finished digest.
+     * @return - Two hexadecimal digits for every byte.
+     */
+    public static String toHex(byte[] digest){
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++){
+            hex[2 * i] = Character.forDigit((digest[i] >> 4) & 0xF, 16);
+            hex[2 * i + 1] = Character.forDigit(digest[i] & 0xF, 16);
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,261 @@
+/**
+ * ElectionEvents.java
+ * This class holds the JDK Flight Recorder events of VoteEasy, so a recording of a slow run shows where its time
+ * went: parsing the file, counting each round, transferring an eliminated candidate's ballots, drawing ties and
+ * writing the audit. The events are recorded whenever VoteEasy runs with a recording, e.g.
+ *
+ * java -XX:StartFlightRecording=filename=voteeasy.jfr,settings=profile VoteEasy
+ * jfr print --categories VoteEasy voteeasy.jfr
+ *
+ * and cost next to nothing otherwise. Events are only recorded per file, round, candidate or tie, never per ballot,
+ * and without stack traces, so they are cheap enough to leave on in production runs. The parse, round and audit
+ * flush events are begun and committed by an ElectionPhase, along with the metrics and profile of the phase.
+ */
+
+import java.util.List;
+import jdk.jfr.*;
+
+public final class ElectionEvents {
+    private ElectionEvents(){
+        // Holds the event classes only
+    }
+
+    /**
+     * This function joins the names of the candidates that won a draw, e.g. for several seats at once.
+     * @param candidates - The candidates.
+     * @return - The names separated by ", ".
+     */
+    public static String candidateNames(List<Candidate> candidates){
+        StringBuilder sb = new StringBuilder();
+        for (Candidate candidate : candidates){
+            if (sb.length() != 0){
+                sb.append(", ");
+            }
+            sb.append(candidate.getName());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * This event records the parse of an election file, from opening it to its last ballot.
+     */
+    @Name("voteeasy.Parse")
+    @Label("Parse Election File")
+    @Category({"VoteEasy", "Parsing"})
+    @Description("Reading and parsing an election file, tallying OPL and MPO ballots as they are read")
+    @StackTrace(false)
+    public static class Parse extends Event {
+        @Label("File")
+        String fileName; // Name of the election file, or an empty string if it was read from a stream
+
+        @Label("Protocol")
+        String protocol; // Header of the file, e.g. "IR"
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes; // Size of the file, or 0 if it was read from a stream
+
+        @Label("Ballots")
+        long ballots; // Number of ballots given in the header
+
+        /**
+         * This function starts the event of a parse.
+         * @param fileName - The name of the election file, or an empty string if it is read from a stream.
+         * @return - The started event.
+         */
+        public static Parse begin(String fileName){
+            Parse event = new Parse();
+            event.fileName = fileName;
+            event.begin();
+            return event;
+        }
+
+        /**
+         * This function sets the result of a parse, which is recorded when its ElectionPhase ends.
+         * @param protocol - The header of the file, or null if the file is empty.
+         * @param bytes - The size of the file, or 0 if not known.
+         * @param ballots - The number of ballots given in the header.
+         */
+        public void setResult(String protocol, long bytes, long ballots){
+            this.protocol = protocol == null ? "" : protocol;
+            this.bytes = bytes;
+            this.ballots = ballots;
+        }
+    }
+
+    /**
+     * This event records one round of an election: counting the first choices or votes, a redistribution round
+     * of IR, or a round of seat allocation.
+     */
+    @Name("voteeasy.Round")
+    @Label("Election Round")
+    @Category({"VoteEasy", "Counting"})
+    @Description("One round of counting ballots, redistributing votes or allocating seats")
+    @StackTrace(false)
+    public static class Round extends Event {
+        @Label("Protocol")
+        String protocol; // Protocol of the election, e.g. "IR"
+
+        @Label("Phase")
+        String phase; // What the round does, e.g. "Redistributing votes"
+
+        @Label("Round")
+        int round; // Number of the round, or 0 if the phase has no rounds
+
+        @Label("Ballots")
+        long ballots; // Ballots counted or moved in the round
+
+        @Label("Seats")
+        int seats; // Seats allocated in the round
+
+        /**
+         * This function starts the event of a round.
+         * @param protocol - The protocol of the election.
+         * @param phase - What the round does, e.g. "Allocating seats".
+         * @param round - The number of the round, or 0 if the phase has no rounds.
+         * @return - The started event.
+         */
+        public static Round begin(String protocol, String phase, int round){
+            Round event = new Round();
+            event.protocol = protocol;
+            event.phase = phase;
+            event.round = round;
+            event.begin();
+            return event;
+        }
+
+        /**
+         * This function sets the result of a round, which is recorded when its ElectionPhase ends.
+         * @param ballots - The ballots counted or moved in the round.
+         * @param seats - The seats allocated in the round.
+         */
+        public void setResult(long ballots, int seats){
+            this.ballots = ballots;
+            this.seats = seats;
+        }
+    }
+
+    /**
+     * This event records an eliminated IR candidate's ballots being transferred to the next choice on every ballot.
+     */
+    @Name("voteeasy.Transfer")
+    @Label("Ballot Transfer")
+    @Category({"VoteEasy", "Counting"})
+    @Description("Finding an eliminated candidate's ballots and transferring them to their next choices")
+    @StackTrace(false)
+    public static class Transfer extends Event {
+        @Label("Round")
+        int round; // Number of the redistribution round
+
+        @Label("Eliminated Candidate")
+        String candidate; // Name of the eliminated candidate
+
+        @Label("Ballots Moved")
+        long ballotsMoved; // Ballots moved to another candidate
+
+        @Label("Ballots Exhausted")
+        long ballotsExhausted; // Ballots without another choice, which are removed
+
+        /**
+         * This function starts the event of a transfer.
+         * @param round - The number of the redistribution round.
+         * @param candidate - The name of the eliminated candidate.
+         * @return - The started event.
+         */
+        public static Transfer begin(int round, String candidate){
+            Transfer event = new Transfer();
+            event.round = round;
+            event.candidate = candidate;
+            event.begin();
+            return event;
+        }
+
+        /**
+         * This function ends the event of a transfer and records it.
+         * @param ballotsMoved - The ballots moved to another candidate.
+         * @param ballotsExhausted - The ballots without another choice.
+         */
+        public void finish(long ballotsMoved, long ballotsExhausted){
+            if (shouldCommit()){
+                this.ballotsMoved = ballotsMoved;
+                this.ballotsExhausted = ballotsExhausted;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * This event records a tie broken by a coin flip.
+     */
+    @Name("voteeasy.Tie")
+    @Label("Tie Draw")
+    @Category({"VoteEasy", "Counting"})
+    @Description("A tie between candidates or parties broken by a coin flip")
+    @StackTrace(false)
+    public static class Tie extends Event {
+        @Label("Protocol")
+        String protocol; // Protocol of the election, e.g. "OPL"
+
+        @Label("Kind")
+        String kind; // What the tie was for, e.g. "elimination" or "remaining seat"
+
+        @Label("Tied")
+        int numTied; // Number of candidates or parties tied
+
+        @Label("Winner")
+        String winner; // Name of the candidate(s) or party that won the draw
+
+        /**
+         * This function records a tie that was just broken.
+         * @param protocol - The protocol of the election.
+         * @param kind - What the tie was for, e.g. "winning party".
+         * @param numTied - The number of candidates or parties tied.
+         * @param winner - The name of the candidate(s) or party that won the draw.
+         */
+        public static void record(String protocol, String kind, int numTied, String winner){
+            Tie event = new Tie();
+            if (event.shouldCommit()){
+                event.protocol = protocol;
+                event.kind = kind;
+                event.numTied = numTied;
+                event.winner = winner;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * This event records the audit being flushed at the end of a phase, or flushed and closed at the end of the election.
+     */
+    @Name("voteeasy.AuditFlush")
+    @Label("Audit Flush")
+    @Category({"VoteEasy", "Audit"})
+    @Description("Writing the buffered audit content to the audit file and the audit event log")
+    @StackTrace(false)
+    public static class AuditFlush extends Event {
+        @Label("Audit File")
+        String auditFile; // Name and path of the audit file, or an empty string if only an event log is written
+
+        @Label("Round")
+        int round; // Last round written to the audit in the phase, or -1 if none
+
+        @Label("Close")
+        boolean close; // True if the audit was also closed
+
+        /**
+         * This function starts the event of a flush.
+         * @param auditFile - The name and path of the audit file.
+         * @param round - The last round written to the audit in the phase.
+         * @param close - True if the audit is also closed.
+         * @return - The started event.
+         */
+        public static AuditFlush begin(String auditFile, int round, boolean close){
+            AuditFlush event = new AuditFlush();
+            event.auditFile = auditFile == null ? "" : auditFile;
+            event.round = round;
+            event.close = close;
+            event.begin();
+            return event;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.*;
+
+public class ElectionEventsTests {
+    private static final String[] EVENT_NAMES = {"voteeasy.Parse", "voteeasy.Round", "voteeasy.Transfer", "voteeasy.Tie", "voteeasy.AuditFlush"}; // Every event of VoteEasy
+
+    /**
+     * This function runs an election under a flight recording and returns the VoteEasy events it recorded, in order.
+     */
+    private List<RecordedEvent> record(Runnable election) throws IOException {
+        Path recordingFile = Files.createTempFile("election_events", ".jfr");
+        try (Recording recording = new Recording()){
+            for (String name : EVENT_NAMES){
+                recording.enable(name).withoutThreshold();
+            }
+            recording.start();
+            election.run();
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        ArrayList<RecordedEvent> events = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile)){
+            if (event.getEventType().getName().startsWith("voteeasy.")){
+                events.add(event);
+            }
+        }
+        events.sort(Comparator.comparing(RecordedEvent::getStartTime));
+        Files.delete(recordingFile);
+        return events;
+    }
+
+    /**
+     * This function returns the events of the given name.
+     */
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name){
+        ArrayList<RecordedEvent> matching = new ArrayList<>();
+        for (RecordedEvent event : events){
+            if (event.getEventType().getName().equals(name)){
+                matching.add(event);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * This test checks that parsing and running an IR election records the parse, every round and a transfer for
+     * every eliminated candidate, whose ballots add up to the ballots moved in its round.
+     */
+    @Test
+    public void testIREvents() throws IOException {
+        final String fileName = "./../testing/IR_test_majority_winner_after_one_round_redistribution.csv";
+        final IRVoting[] ir = new IRVoting[1];
+        List<RecordedEvent> events = record(() -> {
+            final FileParser file = new FileParser(fileName, true);
+            ir[0] = new IRVoting(file.getCandidateLine(), file.getBallotList(), "");
+            ir[0].calculateBallots();
+        });
+
+        List<RecordedEvent> parses = named(events, "voteeasy.Parse");
+        Assert.assertEquals(1, parses.size());
+        Assert.assertEquals("IR", parses.get(0).getString("protocol"));
+        Assert.assertEquals(new File(fileName).length(), parses.get(0).getLong("bytes"));
+        Assert.assertEquals(6, parses.get(0).getLong("ballots"));
+
+        List<RecordedEvent> rounds = named(events, "voteeasy.Round");
+        Assert.assertEquals(2, rounds.size());
+        Assert.assertEquals("Counting first choices", rounds.get(0).getString("phase"));
+        Assert.assertEquals(6, rounds.get(0).getLong("ballots"));
+        Assert.assertEquals(2, rounds.get(1).getInt("round"));
+
+        long numMoved = 0;
+        for (RecordedEvent transfer : named(events, "voteeasy.Transfer")){
+            Assert.assertEquals(2, transfer.getInt("round"));
+            numMoved += transfer.getLong("ballotsMoved");
+        }
+        Assert.assertEquals(rounds.get(1).getLong("ballots"), numMoved);
+        Assert.assertEquals(1, named(events, "voteeasy.Transfer").size()); // Kleinberg had no votes, so only Royce's ballots are transferred
+        Assert.assertEquals(1, named(events, "voteeasy.Transfer").get(0).getLong("ballotsExhausted"));
+    }
+
+    /**
+     * This test checks that an OPL election records its vote count, rounds of seat allocation adding up to every seat,
+     * and a flush of the audit file after every phase followed by a close.
+     */
+    @Test
+    public void testOPLEvents() throws IOException {
+        final Path auditFile = Files.createTempFile("election_events_audit", ".txt");
+        final FileParser file = new FileParser("./../testing/OPL_test_more_than_two_rounds_allocations.csv", true);
+        List<RecordedEvent> events = record(() -> {
+            final OPLVoting opl = new OPLVoting(file.getCandidateLine(), file.getBallotTallies(), file.getNumberOfSeats(), file.getNumberOfBallots(), auditFile.toString());
+            opl.performSeatAllocations();
+        });
+        Files.delete(auditFile);
+
+        List<RecordedEvent> rounds = named(events, "voteeasy.Round");
+        Assert.assertEquals("Counting votes", rounds.get(0).getString("phase"));
+        Assert.assertEquals(file.getNumberOfBallots(), rounds.get(0).getLong("ballots"));
+        int numSeats = 0;
+        for (RecordedEvent round : rounds.subList(1, rounds.size())){
+            Assert.assertEquals("Allocating seats", round.getString("phase"));
+            numSeats += round.getInt("seats");
+        }
+        Assert.assertEquals(file.getNumberOfSeats(), numSeats);
+
+        List<RecordedEvent> flushes = named(events, "voteeasy.AuditFlush");
+        Assert.assertEquals(rounds.size() + 1, flushes.size()); // One flush after every round, then the close
+        Assert.assertEquals(auditFile.toString(), flushes.get(0).getString("auditFile"));
+        Assert.assertTrue(flushes.get(flushes.size() - 1).getBoolean("close"));
+    }
+
+    /**
+     * This test checks that a tie broken by a coin flip is recorded with the number of tied candidates and the winner.
+     */
+    @Test
+    public void testTieEvent() throws IOException {
+        final IRVoting[] ir = new IRVoting[1];
+        List<RecordedEvent> events = record(() -> {
+            final FileParser file = new FileParser("./../testing/IR_test_four_candidate_tie.csv");
+            ir[0] = new IRVoting(file.getCandidateLine(), file.getBallotList(), "");
+            ir[0].calculateBallots();
+        });
+
+        List<RecordedEvent> ties = named(events, "voteeasy.Tie");
+        Assert.assertEquals(1, ties.size());
+        Assert.assertEquals("winner", ties.get(0).getString("kind"));
+        Assert.assertEquals(4, ties.get(0).getInt("numTied"));
+        Assert.assertEquals(ir[0].getWinningCandidate().getName(), ties.get(0).getString("winner"));
+    }
+}
@@ -0,0 +1,291 @@
+/**
+ * ElectionFolderWatcher.java
+ * This class watches a directory that election files are dropped into, e.g. by counties throughout the night, and
+ * runs every election file as soon as it is complete. A file counts as complete once it has not been written to for
+ * the settle time, so files that are still being copied in are not run early. The result of "county.csv" is written
+ * next to it as "county.result.json" (see ElectionResult), along with its audit file "county.audit.txt". The result
+ * lists the audit files by the names they were written under, e.g. the segments of a gzip-compressed audit.
+ *
+ * The result is given the modification time of the file it was run from. A file whose result has the same
+ * modification time is up to date and is not run again, whether it was run by this watcher or an earlier one, while
+ * a file that is changed or replaced is run again. Elections run on a fixed pool of worker threads. Settled files
+ * wait in the watcher's own queue and are handed to a worker as one becomes free, so the watcher thread never runs an
+ * election itself and keeps noticing new files while every worker is busy.
+ */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class ElectionFolderWatcher implements Closeable {
+    public static final String RESULT_SUFFIX = ".result.json"; // Replaces ".csv" in the name of an election file to name its result
+    public static final String AUDIT_SUFFIX = ".audit.txt"; // Replaces ".csv" in the name of an election file to name its audit file
+    public static final String EVENT_LOG_SUFFIX = ".audit_events.jsonl"; // Replaces ".csv" in the name of an election file to name its audit event log
+    public static final String EXPORT_SUFFIX = ".export."; // Replaces ".csv" in the name of an election file, followed by the export format, to name its result export
+
+    private final Path directory; // Directory the election files are dropped into
+    private final long settleMillis; // Milliseconds a file must not be written to before it is run
+    private final boolean auditEventLogs; // True if every election also writes an audit event log
+    private final Consumer<Voting> auditSettings; // Applies the other audit settings, e.g. the audit level, to every election
+    private static final long QUEUE_POLL_MILLIS = 50; // Milliseconds between checks for a free worker while settled files are queued
+
+    private final int numThreads; // Number of elections that can be run at the same time
+    private final ExecutorService executor; // Pool of worker threads the elections run on
+    private final HashMap<Path, Long> pending; // Election files waiting to settle, with the time they settle at, used by the watcher thread only
+    private final LinkedHashSet<Path> queued; // Settled election files waiting for a free worker, in the order they settled, used by the watcher thread only
+    private final Set<Path> running; // Election files being run
+    private final AtomicLong numRun; // Number of elections run, including ones whose file is not valid
+    private volatile boolean closed; // True once the watcher was closed
+    private volatile String exportFormat = ""; // Format every result is also exported in, "json" or "csv", or an empty string if the results are not exported
+
+    /**
+     * Constructs a watcher over a directory. It starts watching when run() is called.
+     * @param directory - The directory election files are dropped into.
+     * @param numThreads - The number of elections that can be run at the same time.
+     * @param settleMillis - The milliseconds a file must not be written to before it is run.
+     * @param auditEventLogs - True to also write an audit event log next to every election file.
+     * @param auditSettings - Applies the other audit settings, e.g. the audit level, to the engine of every election.
+     */
+    public ElectionFolderWatcher(Path directory, int numThreads, long settleMillis, boolean auditEventLogs, Consumer<Voting> auditSettings){
+        this.directory = directory;
+        this.settleMillis = settleMillis;
+        this.auditEventLogs = auditEventLogs;
+        this.auditSettings = auditSettings;
+        this.numThreads = Math.max(1, numThreads);
+        this.executor = Executors.newFixedThreadPool(this.numThreads, runnable -> new Thread(runnable, "election-worker"));
+        this.pending = new HashMap<>();
+        this.queued = new LinkedHashSet<>();
+        this.running = ConcurrentHashMap.newKeySet();
+        this.numRun = new AtomicLong();
+        this.closed = false;
+    }
+
+    /**
+     * This function also exports the rounds and final result of every election next to its file, named after it,
+     * e.g. "election.export.csv". It must be called before the watcher is run.
+     * @param exportFormat - "json" or "csv", or an empty string to not export the results.
+     */
+    public void setExportFormat(String exportFormat){
+        this.exportFormat = exportFormat.toLowerCase();
+    }
+
+    /**
+     * This function runs every election file already in the directory that is not up to date, then watches the
+     * directory and runs every election file that is added or changed. It returns once the watcher is closed.
+     * @throws IOException - If the directory could not be watched.
+     */
+    public void run() throws IOException {
+        try (WatchService watchService = directory.getFileSystem().newWatchService()){
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            scan(); // Files dropped before the directory was watched
+
+            while (!closed){
+                long timeoutMillis = !queued.isEmpty() ? Math.min(QUEUE_POLL_MILLIS, settleMillis) : pending.isEmpty() ? 1000 : settleMillis;
+                WatchKey key = watchService.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+                if (key != null){
+                    for (WatchEvent<?> event : key.pollEvents()){
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW){ // Events were lost, so look at every file again
+                            scan();
+                        } else {
+                            addPending(directory.resolve((Path) event.context()));
+                        }
+                    }
+                    key.reset();
+                }
+                submitSettled();
+            }
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e){
+            // Closed while waiting for events
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * This function stops watching the directory. Elections that are running are finished.
+     */
+    @Override
+    public void close(){
+        closed = true;
+    }
+
+    /**
+     * This function waits for the elections that are running to finish once the watcher is closed.
+     * @param timeoutMillis - The longest time to wait, in milliseconds.
+     * @return - True if every election finished.
+     * @throws InterruptedException - If the thread was interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeoutMillis) throws InterruptedException {
+        return executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Retrieves the number of elections run, including ones whose file was not a valid election file.
+     * @return - The number of elections run.
+     */
+    public long getNumRun(){
+        return numRun.get();
+    }
+
+    /**
+     * This function checks whether an election file was already run since it was last changed.
+     * @param electionFile - The election file.
+     * @return - True if the file has a result with the same modification time as the file.
+     */
+    public static boolean isUpToDate(Path electionFile){
+        try {
+            return Files.getLastModifiedTime(getOutputPath(electionFile, RESULT_SUFFIX)).equals(Files.getLastModifiedTime(electionFile));
+        } catch (IOException e){ // No result yet, or the file was removed
+            return false;
+        }
+    }
+
+    /**
+     * This function builds the name of a file written next to an election file, e.g. "county.csv" becomes
+     * "county.result.json" for its result.
+     * @param electionFile - The election file.
+     * @param suffix - The suffix replacing ".csv", e.g. RESULT_SUFFIX.
+     * @return - The name and path of the file.
+     */
+    public static Path getOutputPath(Path electionFile, String suffix){
+        String name = electionFile.getFileName().toString();
+        return electionFile.resolveSibling(name.substring(0, name.length() - ".csv".length()) + suffix);
+    }
+
+    /**
+     * This function adds every election file in the directory that is not up to date to the files waiting to settle.
+     */
+    private void scan() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.csv")){
+            for (Path file : files){
+                addPending(file);
+            }
+        }
+    }
+
+    /**
+     * This function adds an election file that was added or changed to the files waiting to settle, or restarts its
+     * settle time if it is already waiting. Other files, such as results, audit files and CSV result exports, are ignored.
+     */
+    private void addPending(Path file){
+        String name = file.getFileName().toString();
+        if (name.endsWith(".csv") && !name.endsWith(EXPORT_SUFFIX + "csv")){
+            pending.put(file, System.currentTimeMillis() + settleMillis);
+        }
+    }
+
+    /**
+     * This function queues every election file that has settled and is not up to date, then hands queued files to
+     * the workers that are free. A file that is still being run waits for another settle time, so a file changed
+     * during its election is run again once the election is done.
+     */
+    private void submitSettled(){
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, Long>> files = pending.entrySet().iterator();
+        while (files.hasNext()){
+            Map.Entry<Path, Long> file = files.next();
+            if (file.getValue() > now){
+                continue;
+            }
+            if (running.contains(file.getKey())){
+                file.setValue(now + settleMillis);
+                continue;
+            }
+            files.remove();
+            if (Files.isRegularFile(file.getKey()) && !isUpToDate(file.getKey())){
+                queued.add(file.getKey());
+            }
+        }
+
+        Iterator<Path> waiting = queued.iterator();
+        while (waiting.hasNext() && running.size() < numThreads){
+            Path file = waiting.next();
+            waiting.remove();
+            running.add(file);
+            executor.execute(() -> {
+                try {
+                    runElection(file);
+                } finally {
+                    running.remove(file);
+                }
+            });
+        }
+    }
+
+    /**
+     * This function runs one election file and writes its result next to it. The result of a file that is not a
+     * valid election file holds the error, so the file is not run again until it is changed.
+     */
+    private void runElection(Path electionFile){
+        final long start = System.nanoTime();
+        LinkedHashMap<String, Object> fields;
+        try {
+            final FileTime lastModified = Files.getLastModifiedTime(electionFile); // Read before the file, so a change while it is read is run again
+            final String auditFilePath = getOutputPath(electionFile, AUDIT_SUFFIX).toString();
+            final String auditEventLogPath = auditEventLogs ? getOutputPath(electionFile, EVENT_LOG_SUFFIX).toString() : "";
+            final String exportPath = exportFormat.length() != 0 ? getOutputPath(electionFile, EXPORT_SUFFIX + exportFormat).toString() : "";
+            try {
+                final ResultExporter exporter = exportPath.length() != 0 ? ResultExporter.open(exportPath, exportFormat) : null;
+                final ElectionResult result;
+                try {
+                    result = ElectionResult.run(new FileParser(electionFile.toString(), true), auditFilePath, voting -> {
+                        auditSettings.accept(voting);
+                        voting.setAuditEventLog(auditEventLogPath);
+                        voting.setResultExporter(exporter);
+                    });
+                } catch (RuntimeException e){
+                    if (exporter != null){
+                        exporter.abort(); // A partial export is not left next to the file
+                    }
+                    throw e;
+                }
+                if (exporter != null){
+                    exporter.close();
+                }
+                fields = result.getFields();
+                if (!result.getAuditFiles().isEmpty()){
+                    fields.put("auditFiles", new ArrayList<Object>(result.getAuditFiles()));
+                }
+                if (exportPath.length() != 0){
+                    fields.put("exportFile", exportPath);
+                }
+                fields.put("elapsedMillis", (System.nanoTime() - start) / 1000000);
+                System.out.println("[SYSTEM]: Ran " + electionFile.getFileName() + " (" + result.getProtocol() + ") in " + fields.get("elapsedMillis") + " ms.");
+            } catch (UncheckedIOException e){
+                System.out.println("[SYSTEM]: Error occurred while writing the audit file of " + electionFile.getFileName() + ": " + e.getMessage());
+                return; // Not a problem with the file, so it is run again once it changes or the watcher restarts
+            } catch (RuntimeException e){ // FileParser and the engines report malformed files as runtime exceptions
+                fields = new LinkedHashMap<>();
+                fields.put("error", "The election file is not valid: " + e);
+                System.out.println("[SYSTEM]: " + electionFile.getFileName() + " is not a valid election file.");
+            }
+            writeResult(electionFile, fields, lastModified);
+        } catch (IOException e){
+            System.out.println("[SYSTEM]: Error occurred while writing the result of " + electionFile.getFileName() + ": " + e.getMessage());
+        } finally {
+            numRun.incrementAndGet();
+        }
+    }
+
+    /**
+     * This function writes the result of an election file next to it and gives it the modification time of the
+     * election file. The result is written under a temporary name first, so a complete result replaces the old one at once.
+     */
+    private static void writeResult(Path electionFile, LinkedHashMap<String, Object> fields, FileTime lastModified) throws IOException {
+        Path resultPath = getOutputPath(electionFile, RESULT_SUFFIX);
+        Path temporaryPath = resultPath.resolveSibling(resultPath.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temporaryPath, StandardCharsets.UTF_8)){
+            new JsonWriter(out).value((Object) fields);
+            out.write('\n');
+        }
+        Files.setLastModifiedTime(temporaryPath, lastModified);
+        Files.move(temporaryPath, resultPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,191 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.function.Consumer;
+import org.junit.*;
+
+public class ElectionFolderWatcherTests {
+    private Path directory; // Directory watched by the test
+    private ElectionFolderWatcher watcher; // Watcher of the directory
+    private Thread watcherThread; // Thread the watcher runs on
+
+    /**
+     * This function creates an empty directory for the test.
+     */
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("election_folder");
+    }
+
+    /**
+     * This function stops the watcher and removes the directory once the test is run.
+     */
+    @After
+    public void stopWatcher() throws Exception {
+        if (watcher != null){
+            watcher.close();
+            watcherThread.join(5000);
+            watcher.awaitTermination(5000);
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)){
+            for (Path file : files){
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * This function starts watching the directory on a background thread.
+     */
+    private void startWatcher(){
+        startWatcher(voting -> voting.setAuditLevel(AuditLevel.SUMMARY));
+    }
+
+    /**
+     * This function starts watching the directory on a background thread, with audit settings of the test.
+     */
+    private void startWatcher(Consumer<Voting> auditSettings){
+        startWatcher(2, auditSettings);
+    }
+
+    /**
+     * This function starts watching the directory on a background thread, with the number of worker threads and
+     * audit settings of the test.
+     */
+    private void startWatcher(int numThreads, Consumer<Voting> auditSettings){
+        watcher = new ElectionFolderWatcher(directory, numThreads, 100, false, auditSettings);
+        watcherThread = new Thread(() -> {
+            try {
+                watcher.run();
+            } catch (IOException e){
+                throw new UncheckedIOException(e);
+            }
+        });
+        watcherThread.start();
+    }
+
+    /**
+     * This function waits until the watcher has run a number of elections, for at most 10 seconds.
+     */
+    private void awaitRuns(long numRuns) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (watcher.getNumRun() < numRuns && System.currentTimeMillis() < deadline){
+            Thread.sleep(20);
+        }
+        Assert.assertEquals(numRuns, watcher.getNumRun());
+    }
+
+    /**
+     * This function reads the result written next to an election file.
+     */
+    private static Map<String, Object> readResult(Path electionFile) throws IOException {
+        Path resultPath = ElectionFolderWatcher.getOutputPath(electionFile, ElectionFolderWatcher.RESULT_SUFFIX);
+        return AuditEvent.asFields(JsonReader.parse(new String(Files.readAllBytes(resultPath), StandardCharsets.UTF_8).trim()));
+    }
+
+    /**
+     * This test checks that a file already in the directory and a file dropped into it are both run, with their
+     * results and audit files written next to them.
+     */
+    @Test
+    public void testRunsDroppedFiles() throws Exception {
+        Path existing = Files.copy(Paths.get("./../testing/OPL_test_first_round_winner.csv"), directory.resolve("county1.csv"));
+        startWatcher();
+        awaitRuns(1);
+
+        Path dropped = Files.copy(Paths.get("./../testing/IR_test_first_round_majority_winner.csv"), directory.resolve("county2.csv"));
+        awaitRuns(2);
+
+        Assert.assertEquals("D", AuditEvent.stringValue(readResult(existing), "winningParty"));
+        Map<String, Object> result = readResult(dropped);
+        Assert.assertEquals("Rosen", AuditEvent.stringValue(AuditEvent.fieldsValue(result, "winner"), "name"));
+        Assert.assertEquals(Collections.singletonList(directory.resolve("county2.audit.txt").toString()), AuditEvent.listValue(result, "auditFiles"));
+        Assert.assertTrue(Files.exists(directory.resolve("county2.audit.txt")));
+        Assert.assertTrue(ElectionFolderWatcher.isUpToDate(dropped));
+    }
+
+    /**
+     * This test checks that the result of an election with a gzip-compressed audit lists the compressed audit and
+     * its index, which are the files actually written.
+     */
+    @Test
+    public void testReportsCompressedAuditFiles() throws Exception {
+        Path dropped = Files.copy(Paths.get("./../testing/IR_test_first_round_majority_winner.csv"), directory.resolve("county1.csv"));
+        startWatcher(voting -> voting.setAuditGzip(true, 0));
+        awaitRuns(1);
+
+        List<Object> auditFiles = AuditEvent.listValue(readResult(dropped), "auditFiles");
+        Assert.assertEquals(Arrays.asList(directory.resolve("county1.audit.txt.gz").toString(), directory.resolve("county1.audit.txt" + GzipAuditSink.INDEX_SUFFIX).toString()), auditFiles);
+        for (Object auditFile : auditFiles){
+            Assert.assertTrue(Files.exists(Paths.get(auditFile.toString())));
+        }
+        Assert.assertFalse(Files.exists(directory.resolve("county1.audit.txt")));
+    }
+
+    /**
+     * This test checks that when more files settle at once than there are workers, the files wait in the watcher's
+     * queue and every election still runs on a worker thread, never on the watcher thread.
+     */
+    @Test
+    public void testQueuesFilesForFreeWorkers() throws Exception {
+        final int numFiles = 8;
+        for (int i = 1; i <= numFiles; i++){
+            Files.copy(Paths.get("./../testing/OPL_test_first_round_winner.csv"), directory.resolve("county" + i + ".csv"));
+        }
+        final Set<String> threadNames = Collections.synchronizedSet(new HashSet<>());
+        startWatcher(1, voting -> {
+            threadNames.add(Thread.currentThread().getName());
+            voting.setAuditLevel(AuditLevel.SUMMARY);
+        });
+        awaitRuns(numFiles);
+
+        Assert.assertEquals(Collections.singleton("election-worker"), threadNames);
+        for (int i = 1; i <= numFiles; i++){
+            Assert.assertTrue(ElectionFolderWatcher.isUpToDate(directory.resolve("county" + i + ".csv")));
+        }
+    }
+
+    /**
+     * This test checks that an unchanged file is not run again when the watcher restarts, and that a changed
+     * file is run again.
+     */
+    @Test
+    public void testSkipsUnchangedFiles() throws Exception {
+        Path unchanged = Files.copy(Paths.get("./../testing/OPL_test_first_round_winner.csv"), directory.resolve("county1.csv"));
+        Path changed = Files.copy(Paths.get("./../testing/MPO_test_one_winner.csv"), directory.resolve("county2.csv"));
+        startWatcher();
+        awaitRuns(2);
+        watcher.close();
+        watcherThread.join(5000);
+
+        Files.setLastModifiedTime(changed, FileTime.fromMillis(Files.getLastModifiedTime(changed).toMillis() + 1000));
+        Assert.assertTrue(ElectionFolderWatcher.isUpToDate(unchanged));
+        Assert.assertFalse(ElectionFolderWatcher.isUpToDate(changed));
+
+        startWatcher();
+        awaitRuns(1);
+        Thread.sleep(300); // Longer than the settle time, so the unchanged file would have been run by now
+        Assert.assertEquals(1, watcher.getNumRun());
+        Assert.assertTrue(ElectionFolderWatcher.isUpToDate(changed));
+    }
+
+    /**
+     * This test checks that a file that is not a valid election file gets a result holding the error, and other
+     * files in the directory are ignored.
+     */
+    @Test
+    public void testInvalidFile() throws Exception {
+        Path invalid = Files.write(directory.resolve("county1.csv"), "STV\n3\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("notes.txt"), "IR\n".getBytes(StandardCharsets.UTF_8));
+        startWatcher();
+        awaitRuns(1);
+
+        Assert.assertTrue(AuditEvent.stringValue(readResult(invalid), "error").contains("STV"));
+        Assert.assertTrue(ElectionFolderWatcher.isUpToDate(invalid));
+        Thread.sleep(300);
+        Assert.assertEquals(1, watcher.getNumRun());
+    }
+}
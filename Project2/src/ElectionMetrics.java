@@ -0,0 +1,309 @@
+/**
+ * ElectionMetrics.java
+ * This class holds the metrics of every election the process runs: ballots parsed, rejected ballot lines, rounds,
+ * transfers, tie draws and audit bytes written, plus a LatencyHistogram of every phase of an election. The metrics
+ * are shared by the whole process, so monitoring sees the totals of a resident election server or folder watcher,
+ * and can be shown over JMX with registerMBeans() and written to a file with writeTo().
+ *
+ * The counters are LongAdders, which stripe their updates over several cells, so elections running on several
+ * threads never contend on one counter. The parser and the engines update them once per file, round, transfer or
+ * tie, never per ballot, so they cost nothing measurable whether or not anything reads them. Only the audit bytes
+ * written need the position of the audit file on disk, so the audit sinks only read it once the metrics are enabled.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class ElectionMetrics implements ElectionMetricsMBean {
+    public static final String DOMAIN = "voteeasy"; // JMX domain the MBeans are registered under
+    private static final ElectionMetrics METRICS = new ElectionMetrics(); // Metrics of the process
+
+    private final LongAdder ballotsParsed = new LongAdder(); // Ballot lines parsed
+    private final LongAdder rejectedLines = new LongAdder(); // Ballot lines that gave no candidate a vote
+    private final LongAdder rounds = new LongAdder(); // Rounds counted
+    private final LongAdder transfers = new LongAdder(); // Eliminated candidates whose ballots were transferred
+    private final LongAdder tieDraws = new LongAdder(); // Ties broken by a coin flip
+    private final LongAdder auditBytesWritten = new LongAdder(); // Bytes written to audit files on disk
+    private final ConcurrentHashMap<String, LatencyHistogram> phaseLatencies = new ConcurrentHashMap<>(); // Histogram of every phase recorded, by name
+    private MBeanServer mBeanServer; // Server the MBeans are registered with, or null if they are not shown over JMX
+    private volatile boolean enabled; // True if the audit sinks count the bytes they write, e.g. with --metrics
+
+    /**
+     * Constructs empty metrics. The process shares the metrics returned by get().
+     */
+    private ElectionMetrics(){
+    }
+
+    /**
+     * This function returns the metrics of the process.
+     * @return - The ElectionMetrics every election records to.
+     */
+    public static ElectionMetrics get(){
+        return METRICS;
+    }
+
+    /**
+     * This function sets whether the audit sinks count the bytes they write to disk, which costs reading the
+     * position of the audit file at every flush. The other counters are always updated.
+     * @param enabled - True to count the audit bytes written.
+     */
+    public void setEnabled(boolean enabled){
+        this.enabled = enabled;
+    }
+
+    /**
+     * This function checks whether the audit sinks count the bytes they write to disk.
+     * @return - True if the audit bytes written are counted; otherwise, False
+     */
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    /**
+     * This function adds to the ballot lines parsed.
+     * @param numBallots - The number of ballot lines parsed from a file.
+     */
+    public void addBallotsParsed(long numBallots){
+        ballotsParsed.add(numBallots);
+    }
+
+    /**
+     * This function adds to the ballot lines that gave no candidate a vote.
+     * @param numLines - The number of ballot lines rejected in a file or round.
+     */
+    public void addRejectedLines(long numLines){
+        rejectedLines.add(numLines);
+    }
+
+    /**
+     * This function records a round of an election and how long it took.
+     * @param phase - What the round does, e.g. "Redistributing votes".
+     * @param nanos - The time the round took, in nanoseconds.
+     */
+    public void recordRound(String phase, long nanos){
+        rounds.increment();
+        recordPhase(phase, nanos);
+    }
+
+    /**
+     * This function records a phase of an election that is not a round, such as parsing a file, and how long it took.
+     * @param phase - The name of the phase, e.g. "Parsing ballots".
+     * @param nanos - The time the phase took, in nanoseconds.
+     */
+    public void recordPhase(String phase, long nanos){
+        getPhaseLatency(phase).record(nanos);
+    }
+
+    /**
+     * This function records an eliminated candidate's ballots being transferred.
+     */
+    public void recordTransfer(){
+        transfers.increment();
+    }
+
+    /**
+     * This function records a tie broken by a coin flip.
+     */
+    public void recordTieDraw(){
+        tieDraws.increment();
+    }
+
+    /**
+     * This function adds to the bytes written to audit files on disk.
+     * @param numBytes - The number of bytes written.
+     */
+    public void addAuditBytesWritten(long numBytes){
+        auditBytesWritten.add(numBytes);
+    }
+
+    @Override
+    public long getBallotsParsed(){
+        return ballotsParsed.sum();
+    }
+
+    @Override
+    public long getRejectedLines(){
+        return rejectedLines.sum();
+    }
+
+    @Override
+    public long getRounds(){
+        return rounds.sum();
+    }
+
+    @Override
+    public long getTransfers(){
+        return transfers.sum();
+    }
+
+    @Override
+    public long getTieDraws(){
+        return tieDraws.sum();
+    }
+
+    @Override
+    public long getAuditBytesWritten(){
+        return auditBytesWritten.sum();
+    }
+
+    /**
+     * This function returns the histogram of a phase, creating it the first time the phase is recorded. A new
+     * histogram is shown over JMX straight away if the MBeans are registered.
+     * @param phase - The name of the phase.
+     * @return - The LatencyHistogram of the phase.
+     */
+    public LatencyHistogram getPhaseLatency(String phase){
+        LatencyHistogram histogram = phaseLatencies.get(phase);
+        if (histogram == null){
+            histogram = createPhaseLatency(phase);
+        }
+        return histogram;
+    }
+
+    /**
+     * This function creates the histogram of a phase, unless another thread just did.
+     */
+    private synchronized LatencyHistogram createPhaseLatency(String phase){
+        LatencyHistogram histogram = phaseLatencies.get(phase);
+        if (histogram == null){
+            histogram = new LatencyHistogram(phase);
+            phaseLatencies.put(phase, histogram);
+            if (mBeanServer != null){
+                registerMBean(histogram, phaseLatencyName(phase));
+            }
+        }
+        return histogram;
+    }
+
+    @Override
+    public synchronized void reset(){
+        ballotsParsed.reset();
+        rejectedLines.reset();
+        rounds.reset();
+        transfers.reset();
+        tieDraws.reset();
+        auditBytesWritten.reset();
+        for (String phase : phaseLatencies.keySet()){ // Every phase is created again the next time it is recorded
+            if (mBeanServer != null){
+                unregisterMBean(phaseLatencyName(phase));
+            }
+        }
+        phaseLatencies.clear();
+    }
+
+    /**
+     * This function shows the metrics over JMX in the platform MBean server, as "voteeasy:type=ElectionMetrics" and
+     * a "voteeasy:type=PhaseLatency,name=<phase>" for every phase. Registering them more than once has no effect.
+     * @throws IllegalStateException - If the MBeans could not be registered, e.g. because other metrics already were.
+     */
+    public synchronized void registerMBeans(){
+        if (mBeanServer != null){
+            return;
+        }
+        mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        registerMBean(this, objectName("type=ElectionMetrics"));
+        for (LatencyHistogram histogram : phaseLatencies.values()){
+            registerMBean(histogram, phaseLatencyName(histogram.getPhase()));
+        }
+    }
+
+    /**
+     * This function removes the MBeans of the metrics from the platform MBean server, if they were registered.
+     */
+    public synchronized void unregisterMBeans(){
+        if (mBeanServer == null){
+            return;
+        }
+        unregisterMBean(objectName("type=ElectionMetrics"));
+        for (String phase : phaseLatencies.keySet()){
+            unregisterMBean(phaseLatencyName(phase));
+        }
+        mBeanServer = null;
+    }
+
+    /**
+     * This function registers one MBean with the MBean server.
+     */
+    private void registerMBean(Object mBean, ObjectName name){
+        try {
+            mBeanServer.registerMBean(mBean, name);
+        } catch (JMException e){
+            throw new IllegalStateException("Could not register MBean " + name, e);
+        }
+    }
+
+    /**
+     * This function removes one MBean from the MBean server, if it is registered.
+     */
+    private void unregisterMBean(ObjectName name){
+        try {
+            if (mBeanServer.isRegistered(name)){
+                mBeanServer.unregisterMBean(name);
+            }
+        } catch (JMException e){
+            throw new IllegalStateException("Could not unregister MBean " + name, e);
+        }
+    }
+
+    /**
+     * This function returns the JMX name of the histogram of a phase, quoting the phase in case it holds characters
+     * that are not allowed in a name.
+     */
+    public static ObjectName phaseLatencyName(String phase){
+        return objectName("type=PhaseLatency,name=" + ObjectName.quote(phase));
+    }
+
+    /**
+     * This function returns a JMX name in the VoteEasy domain.
+     */
+    private static ObjectName objectName(String properties){
+        try {
+            return new ObjectName(DOMAIN + ":" + properties);
+        } catch (JMException e){
+            throw new IllegalArgumentException("Not a valid MBean name: " + properties, e);
+        }
+    }
+
+    /**
+     * This function returns the metrics as fields, in the layout of the metrics file.
+     * @return - Every counter, and a "phases" object with the histogram of every phase.
+     */
+    public LinkedHashMap<String, Object> toFields(){
+        LinkedHashMap<String, Object> fields = new LinkedHashMap<>();
+        fields.put("ballotsParsed", getBallotsParsed());
+        fields.put("rejectedLines", getRejectedLines());
+        fields.put("rounds", getRounds());
+        fields.put("transfers", getTransfers());
+        fields.put("tieDraws", getTieDraws());
+        fields.put("auditBytesWritten", getAuditBytesWritten());
+        TreeMap<String, Object> phases = new TreeMap<>(); // Sorted, so the file does not depend on the order phases were first recorded
+        for (LatencyHistogram histogram : phaseLatencies.values()){
+            phases.put(histogram.getPhase(), histogram.toFields());
+        }
+        fields.put("phases", phases);
+        return fields;
+    }
+
+    /**
+     * This function writes the metrics to a file as one JSON object, replacing the file if it exists.
+     * @param path - The name and path of the metrics file.
+     * @throws IOException - If the file could not be written.
+     */
+    public void writeTo(Path path) throws IOException {
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)){
+            new JsonWriter(out).value((Object) toFields());
+            out.write('\n');
+        }
+    }
+}
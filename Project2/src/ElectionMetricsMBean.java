@@ -0,0 +1,42 @@
+/**
+ * ElectionMetricsMBean.java
+ * This interface holds the attributes of the ElectionMetrics that are shown over JMX, e.g. in JConsole under
+ * "voteeasy" > "ElectionMetrics". Every counter adds up every election the process ran.
+ */
+
+public interface ElectionMetricsMBean {
+    /**
+     * @return - The number of ballot lines parsed from election files.
+     */
+    long getBallotsParsed();
+
+    /**
+     * @return - The number of ballot lines that gave no candidate a vote, e.g. blank lines or IR ballots without a first choice.
+     */
+    long getRejectedLines();
+
+    /**
+     * @return - The number of rounds counted, i.e. first rounds, redistribution rounds and seat allocation rounds.
+     */
+    long getRounds();
+
+    /**
+     * @return - The number of eliminated IR candidates whose ballots were transferred.
+     */
+    long getTransfers();
+
+    /**
+     * @return - The number of ties broken by a coin flip.
+     */
+    long getTieDraws();
+
+    /**
+     * @return - The number of bytes written to audit files and audit event logs on disk, after compression.
+     */
+    long getAuditBytesWritten();
+
+    /**
+     * This function sets every counter back to 0 and removes every phase latency histogram.
+     */
+    void reset();
+}
@@ -0,0 +1,177 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.*;
+
+public class ElectionMetricsTests {
+    private final ElectionMetrics metrics = ElectionMetrics.get(); // Metrics of the process, set back to 0 before every test
+
+    @Before
+    public void resetMetrics(){
+        metrics.reset();
+    }
+
+    /**
+     * This function parses an election file held in a string.
+     */
+    private static FileParser parse(String content) throws IOException {
+        return new FileParser(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * This test checks that an IR election records its ballots, both rounds, the transfer of the eliminated
+     * candidate's ballots and a latency for every phase.
+     */
+    @Test
+    public void testIRCounters(){
+        final FileParser file = new FileParser("./../testing/IR_test_majority_winner_after_one_round_redistribution.csv", true);
+        final IRVoting ir = new IRVoting(file.getCandidateLine(), file.getBallotList(), "");
+        ir.calculateBallots();
+
+        Assert.assertEquals(6, metrics.getBallotsParsed());
+        Assert.assertEquals(0, metrics.getRejectedLines());
+        Assert.assertEquals(2, metrics.getRounds());
+        Assert.assertEquals(1, metrics.getTransfers()); // Kleinberg had no votes, so only Royce's ballots are transferred
+        Assert.assertEquals(0, metrics.getTieDraws());
+        Assert.assertEquals(1, metrics.getPhaseLatency("Parsing ballots").getCount());
+        Assert.assertEquals(1, metrics.getPhaseLatency("Counting first choices").getCount());
+        Assert.assertEquals(1, metrics.getPhaseLatency("Redistributing votes").getCount());
+    }
+
+    /**
+     * This test checks that ballot lines without a vote are counted as rejected, for plurality ballots tallied by the
+     * parser and for IR ballots without a first choice, and that a tie drawn is counted.
+     */
+    @Test
+    public void testRejectedLinesAndTies() throws IOException {
+        FileParser file = parse("OPL\n2\nA (D), B (R)\n1\n4\n1,\n,\n\n,1");
+        Assert.assertEquals(4, metrics.getBallotsParsed());
+        Assert.assertEquals(2, metrics.getRejectedLines());
+        Assert.assertArrayEquals(new int[] {1, 1}, file.getBallotTallies());
+
+        file = parse("IR\n2\nA (D), B (R)\n3\n1,2\n,\n2,1\n");
+        final IRVoting ir = new IRVoting(file.getCandidateLine(), file.getBallotList(), "");
+        ir.calculateBallots();
+        Assert.assertEquals(7, metrics.getBallotsParsed());
+        Assert.assertEquals(3, metrics.getRejectedLines());
+        Assert.assertEquals(1, metrics.getTieDraws()); // A and B have one first choice each
+    }
+
+    /**
+     * This test checks that the bytes written to a plain and a compressed audit file are counted as they are on disk
+     * once the metrics are enabled, and not counted before.
+     */
+    @Test
+    public void testAuditBytesWritten() throws IOException {
+        Path directory = Files.createTempDirectory("election_metrics");
+        try {
+            final FileParser notCounted = new FileParser("./../testing/OPL_test_more_than_two_rounds_allocations.csv", true);
+            new OPLVoting(notCounted.getCandidateLine(), notCounted.getBallotTallies(), notCounted.getNumberOfSeats(), notCounted.getNumberOfBallots(), directory.resolve("not_counted_audit_file.txt").toString()).performSeatAllocations();
+            Assert.assertEquals(0, metrics.getAuditBytesWritten());
+
+            metrics.setEnabled(true);
+            final FileParser file = new FileParser("./../testing/OPL_test_more_than_two_rounds_allocations.csv", true);
+            final Path auditFile = directory.resolve("audit_file.txt");
+            OPLVoting opl = new OPLVoting(file.getCandidateLine(), file.getBallotTallies(), file.getNumberOfSeats(), file.getNumberOfBallots(), auditFile.toString());
+            opl.performSeatAllocations();
+            Assert.assertEquals(Files.size(auditFile), metrics.getAuditBytesWritten());
+
+            metrics.reset();
+            final Path gzipAuditFile = directory.resolve("gzip_audit_file.txt");
+            opl = new OPLVoting(file.getCandidateLine(), file.getBallotTallies(), file.getNumberOfSeats(), file.getNumberOfBallots(), gzipAuditFile.toString());
+            opl.setAuditGzip(true, 0);
+            opl.performSeatAllocations();
+            Assert.assertEquals(Files.size(directory.resolve("gzip_audit_file.txt.gz")), metrics.getAuditBytesWritten());
+            Assert.assertTrue(metrics.getPhaseLatency("Flushing audit").getCount() > 0);
+            Assert.assertEquals(1, metrics.getPhaseLatency("Closing audit").getCount());
+        } finally {
+            metrics.setEnabled(false);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)){
+                for (Path auditFile : files){
+                    Files.delete(auditFile);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * This test checks that a phase that throws an exception is still recorded, in the metrics and in the profile.
+     */
+    @Test
+    public void testPhaseEndedOnException(){
+        final ElectionProfile profile = ElectionProfile.start();
+        try (ElectionPhase<ElectionEvents.Round> phase = ElectionPhase.round("IR", "Counting first choices", 1)){
+            phase.getEvent().setResult(0, 0);
+            throw new IllegalStateException("The round failed.");
+        } catch (IllegalStateException e){
+            Assert.assertEquals("The round failed.", e.getMessage());
+        } finally {
+            profile.stop();
+        }
+
+        Assert.assertEquals(1, metrics.getRounds());
+        Assert.assertEquals(1, metrics.getPhaseLatency("Counting first choices").getCount());
+        Assert.assertEquals(1, profile.getPhases().get("Counting first choices, round 1").getCount());
+    }
+
+    /**
+     * This test checks the mean, maximum and percentiles of a latency histogram, which are exact to within a factor of 2.
+     */
+    @Test
+    public void testLatencyHistogram(){
+        LatencyHistogram histogram = new LatencyHistogram("Allocating seats");
+        Assert.assertEquals(0, histogram.get50thPercentileMillis(), 0);
+
+        for (int i = 0; i < 98; i++){
+            histogram.record(1000000L);
+        }
+        histogram.record(100000000L);
+        histogram.record(100000000L);
+
+        Assert.assertEquals(100, histogram.getCount());
+        Assert.assertEquals(298, histogram.getTotalMillis(), 1e-9);
+        Assert.assertEquals(2.98, histogram.getMeanMillis(), 1e-9);
+        Assert.assertEquals(100, histogram.getMaxMillis(), 1e-9);
+        Assert.assertTrue(histogram.get50thPercentileMillis() >= 1 && histogram.get50thPercentileMillis() < 2);
+        Assert.assertTrue(histogram.get90thPercentileMillis() >= 1 && histogram.get90thPercentileMillis() < 2);
+        Assert.assertEquals(100, histogram.get99thPercentileMillis(), 1e-9); // The bucket of 100 ms is capped at the longest time
+    }
+
+    /**
+     * This test checks that the metrics are shown over JMX, including a phase first recorded after the MBeans were
+     * registered, and that the metrics file holds every counter and phase.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMBeansAndMetricsFile() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        metrics.registerMBeans();
+        try {
+            final FileParser file = new FileParser("./../testing/MPO_test_multiple_winners_with_no_tie_breakers.csv", true);
+            final MPOVoting mpo = new MPOVoting(file.getCandidateLine(), file.getBallotTallies(), file.getNumberOfSeats(), file.getNumberOfBallots(), "");
+            mpo.performSeatAllocations();
+
+            ObjectName name = new ObjectName(ElectionMetrics.DOMAIN + ":type=ElectionMetrics");
+            Assert.assertEquals((long) file.getNumberOfBallots(), server.getAttribute(name, "BallotsParsed"));
+            Assert.assertEquals(1L, server.getAttribute(name, "Rounds"));
+            Assert.assertEquals(1L, server.getAttribute(ElectionMetrics.phaseLatencyName("Allocating seats"), "Count"));
+
+            Path metricsFile = Files.createTempFile("election_metrics", ".json");
+            metrics.writeTo(metricsFile);
+            Map<String, Object> fields = (Map<String, Object>) JsonReader.parse(new String(Files.readAllBytes(metricsFile), StandardCharsets.UTF_8));
+            Files.delete(metricsFile);
+            Assert.assertEquals(file.getNumberOfBallots(), ((Number) fields.get("ballotsParsed")).intValue());
+            Map<String, Object> phases = (Map<String, Object>) fields.get("phases");
+            Assert.assertEquals(Arrays.asList("Allocating seats", "Parsing ballots"), new ArrayList<>(phases.keySet()));
+            Assert.assertEquals(1, ((Number) ((Map<String, Object>) phases.get("Allocating seats")).get("count")).intValue());
+        } finally {
+            metrics.unregisterMBeans();
+        }
+        Assert.assertFalse(server.isRegistered(ElectionMetrics.phaseLatencyName("Allocating seats")));
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * ElectionPhase.java
+ * This class is one phase of an election, such as parsing the file, a round or an audit flush, as seen by every
+ * way VoteEasy measures it: the JDK Flight Recorder event of the phase, its latency in the ElectionMetrics and its
+ * phase in the ElectionProfile of the thread if the election is profiled. The parser and the engines open a phase
+ * with try-with-resources, so all three are ended together, including when the phase throws an exception, e.g.
+ *
+ * try (ElectionPhase<ElectionEvents.Round> phase = ElectionPhase.round("IR", "Counting first choices", 1)){
+ *     ...
+ *     phase.getEvent().setResult(numBallots, 0);
+ * }
+ */
+
+import jdk.jfr.Event;
+
+public final class ElectionPhase<E extends Event> implements AutoCloseable {
+    public static final String PARSE_PHASE = "Parsing ballots"; // Name of the parse in the ElectionMetrics and the ElectionProfile
+
+    private final E event; // Flight Recorder event of the phase, begun with it
+    private final String metricsPhase; // Name of the phase in the ElectionMetrics
+    private final boolean round; // True if the phase is counted as a round in the ElectionMetrics
+    private final long startNanos; // Time the phase started
+    private final ElectionProfile.Sample profileSample; // Phase in the ElectionProfile, or null if the thread is not profiled
+    private boolean closed; // True once the phase was ended
+
+    /**
+     * Constructs a phase that starts now. The event must already be begun.
+     * @param event - The Flight Recorder event of the phase.
+     * @param metricsPhase - The name of the phase in the ElectionMetrics.
+     * @param round - True if the phase is counted as a round.
+     * @param profilePhase - The name of the phase in the ElectionProfile.
+     * @param profileRound - The number of the round in the ElectionProfile, or 0 if the phase has no rounds.
+     */
+    private ElectionPhase(E event, String metricsPhase, boolean round, String profilePhase, int profileRound){
+        this.event = event;
+        this.metricsPhase = metricsPhase;
+        this.round = round;
+        this.startNanos = System.nanoTime();
+        this.profileSample = ElectionProfile.beginPhase(profilePhase, profileRound);
+    }
+
+    /**
+     * This function starts the parse of an election file.
+     * @param fileName - The name of the election file, or an empty string if it is read from a stream.
+     * @return - The started phase.
+     */
+    public static ElectionPhase<ElectionEvents.Parse> parse(String fileName){
+        return new ElectionPhase<>(ElectionEvents.Parse.begin(fileName), PARSE_PHASE, false, PARSE_PHASE, 0);
+    }
+
+    /**
+     * This function starts a round of an election.
+     * @param protocol - The protocol of the election.
+     * @param phase - What the round does, e.g. "Allocating seats".
+     * @param round - The number of the round, or 0 if the phase has no rounds.
+     * @return - The started phase.
+     */
+    public static ElectionPhase<ElectionEvents.Round> round(String protocol, String phase, int round){
+        return new ElectionPhase<>(ElectionEvents.Round.begin(protocol, phase, round), phase, true, phase, round);
+    }
+
+    /**
+     * This function starts a flush of the audit at the end of a phase, or its flush and close at the end of the election.
+     * @param auditFile - The name and path of the audit file.
+     * @param round - The last round written to the audit in the phase.
+     * @param close - True if the audit is also closed.
+     * @return - The started phase.
+     */
+    public static ElectionPhase<ElectionEvents.AuditFlush> auditFlush(String auditFile, int round, boolean close){
+        return new ElectionPhase<>(ElectionEvents.AuditFlush.begin(auditFile, round, close), close ? "Closing audit" : "Flushing audit",
+            false, ElectionProfile.AUDIT_PHASE, 0);
+    }
+
+    /**
+     * Retrieves the Flight Recorder event of the phase, so the result of the phase can be set on it.
+     * @return - The event.
+     */
+    public E getEvent(){
+        return event;
+    }
+
+    /**
+     * This function ends the phase in the ElectionProfile, records its latency to the ElectionMetrics and commits
+     * its event if a recording wants it. Ending a phase more than once has no effect.
+     */
+    @Override
+    public void close(){
+        if (closed){
+            return;
+        }
+        closed = true;
+
+        long nanos = System.nanoTime() - startNanos;
+        ElectionProfile.endPhase(profileSample);
+        if (round){
+            ElectionMetrics.get().recordRound(metricsPhase, nanos);
+        } else {
+            ElectionMetrics.get().recordPhase(metricsPhase, nanos);
+        }
+        if (event.shouldCommit()){
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/**
+ * ElectionProfile.java
+ * This class profiles an election run with --profile, so a regression in the time or memory of the parser or an
+ * engine shows up in an ordinary run without attaching a profiler. Every phase of the election, such as parsing
+ * the file, the first round, each redistribution or seat allocation round and writing the audit, records its wall
+ * time, CPU time, bytes allocated and garbage collection time, read from the thread and garbage collector MXBeans.
+ *
+ * A profile belongs to the thread running the election. The parser and the engines begin and end phases through
+ * ElectionPhase, which costs one ThreadLocal lookup when no profile is running. A phase running inside
+ * another, such as an audit write during a seat allocation round, is only counted in the inner phase, so the
+ * phases add up to the whole election. Work done on other threads, such as the writer thread of --async-audit,
+ * is not counted, except for garbage collection time, which is counted for the whole process.
+ */
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+public class ElectionProfile {
+    public static final String AUDIT_PHASE = "Writing audit"; // Phase of rendering, writing and flushing the audit
+    private static final ThreadLocal<ElectionProfile> CURRENT = new ThreadLocal<>(); // Profile running on each thread
+
+    private final ThreadMXBean threadBean; // Source of the CPU time and bytes allocated of the thread
+    private final boolean measureCpuTime; // True if the JVM measures the CPU time of a thread
+    private final boolean measureAllocations; // True if the JVM measures the bytes a thread allocates
+    private final List<GarbageCollectorMXBean> collectors; // Garbage collectors of the process, looked up once
+    private final LinkedHashMap<String, Phase> phases; // Totals of every phase, in the order they first ran
+    private final ArrayDeque<Sample> openSamples; // Phases begun and not yet ended, the innermost last
+    private final Sample run; // Counters at the start of the profile
+    private Phase total; // Totals of the whole profile, set once it is stopped
+    private long numBallots; // Ballots in the election, for the bytes allocated per ballot
+
+    /**
+     * This class holds the totals of a phase.
+     */
+    public static class Phase {
+        private final String name; // Name of the phase, e.g. "Redistributing votes, round 2"
+        private int count; // Number of times the phase ran
+        private long wallNanos; // Wall time spent in the phase
+        private long cpuNanos; // CPU time spent in the phase, or 0 if not measured
+        private long allocatedBytes; // Bytes allocated in the phase, or 0 if not measured
+        private long gcMillis; // Garbage collection time of the process during the phase
+
+        private Phase(String name){
+            this.name = name;
+        }
+
+        public String getName(){
+            return name;
+        }
+
+        public int getCount(){
+            return count;
+        }
+
+        public long getWallNanos(){
+            return wallNanos;
+        }
+
+        public long getCpuNanos(){
+            return cpuNanos;
+        }
+
+        public long getAllocatedBytes(){
+            return allocatedBytes;
+        }
+
+        public long getGcMillis(){
+            return gcMillis;
+        }
+    }
+
+    /**
+     * This class holds the counters at the start of a phase, and the costs of the phases run inside it.
+     */
+    public static class Sample {
+        private final ElectionProfile profile; // Profile the phase belongs to
+        private final String name; // Name of the phase
+        private final long wallNanos, cpuNanos, allocatedBytes, gcMillis; // Counters at the start of the phase
+        private long childWallNanos, childCpuNanos, childAllocatedBytes, childGcMillis; // Costs of the phases run inside it
+
+        private Sample(ElectionProfile profile, String name){
+            this.profile = profile;
+            this.name = name;
+            this.wallNanos = System.nanoTime();
+            this.cpuNanos = profile.measureCpuTime ? profile.threadBean.getCurrentThreadCpuTime() : 0;
+            this.allocatedBytes = profile.measureAllocations ? profile.allocatedBytes() : 0;
+            this.gcMillis = profile.gcMillis();
+        }
+    }
+
+    /**
+     * Constructs a profile that starts now.
+     */
+    private ElectionProfile(){
+        this.threadBean = ManagementFactory.getThreadMXBean();
+        this.measureCpuTime = threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
+        this.measureAllocations = threadBean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()
+            && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemoryEnabled();
+        this.collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        this.phases = new LinkedHashMap<>();
+        this.openSamples = new ArrayDeque<>();
+        this.run = new Sample(this, "Total");
+    }
+
+    /**
+     * This function starts profiling the election run on the current thread.
+     * @return - The profile, which must be stopped on the same thread.
+     */
+    public static ElectionProfile start(){
+        ElectionProfile profile = new ElectionProfile();
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    /**
+     * This function stops the profile, ending any phase still running, e.g. because the election failed.
+     */
+    public void stop(){
+        if (total != null){
+            return;
+        }
+        while (!openSamples.isEmpty()){
+            end(openSamples.peekFirst());
+        }
+        total = new Phase(run.name);
+        total.count = 1;
+        measure(run, total);
+        if (CURRENT.get() == this){
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * This function begins a phase of the election run on the current thread, if it is profiled.
+     * @param phase - What the phase does, e.g. "Allocating seats".
+     * @param round - The number of the round, or 0 if the phase has no rounds.
+     * @return - The sample to end the phase with, or null if the thread is not profiled.
+     */
+    public static Sample beginPhase(String phase, int round){
+        ElectionProfile profile = CURRENT.get();
+        if (profile == null){
+            return null;
+        }
+        Sample sample = new Sample(profile, round > 0 ? phase + ", round " + round : phase);
+        profile.openSamples.addLast(sample);
+        return sample;
+    }
+
+    /**
+     * This function ends a phase begun with beginPhase(), along with any phase begun inside it that was not ended.
+     * @param sample - The sample of the phase, or null if the thread was not profiled.
+     */
+    public static void endPhase(Sample sample){
+        if (sample != null){
+            sample.profile.end(sample);
+        }
+    }
+
+    /**
+     * This function ends a phase, adding its cost less the cost of the phases run inside it to its totals.
+     */
+    private void end(Sample sample){
+        if (!openSamples.contains(sample)){ // Already ended along with an outer phase
+            return;
+        }
+        while (openSamples.peekLast() != sample){
+            end(openSamples.peekLast());
+        }
+        openSamples.removeLast();
+
+        Phase phase = phases.get(sample.name);
+        if (phase == null){
+            phase = new Phase(sample.name);
+            phases.put(sample.name, phase);
+        }
+        phase.count++;
+        Phase cost = new Phase(sample.name);
+        measure(sample, cost);
+        phase.wallNanos += cost.wallNanos - sample.childWallNanos;
+        phase.cpuNanos += cost.cpuNanos - sample.childCpuNanos;
+        phase.allocatedBytes += cost.allocatedBytes - sample.childAllocatedBytes;
+        phase.gcMillis += cost.gcMillis - sample.childGcMillis;
+
+        Sample parent = openSamples.peekLast();
+        if (parent != null){
+            parent.childWallNanos += cost.wallNanos;
+            parent.childCpuNanos += cost.cpuNanos;
+            parent.childAllocatedBytes += cost.allocatedBytes;
+            parent.childGcMillis += cost.gcMillis;
+        }
+    }
+
+    /**
+     * This function sets the costs of a phase to the counters now less the counters at the start of the phase.
+     */
+    private void measure(Sample sample, Phase cost){
+        cost.wallNanos = System.nanoTime() - sample.wallNanos;
+        cost.cpuNanos = measureCpuTime ? threadBean.getCurrentThreadCpuTime() - sample.cpuNanos : 0;
+        cost.allocatedBytes = measureAllocations ? allocatedBytes() - sample.allocatedBytes : 0;
+        cost.gcMillis = gcMillis() - sample.gcMillis;
+    }
+
+    /**
+     * This function returns the bytes the current thread allocated since it started.
+     */
+    @SuppressWarnings("deprecation")
+    private long allocatedBytes(){
+        return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * This function returns the time every garbage collector of the process has spent collecting, in milliseconds.
+     */
+    private long gcMillis(){
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : collectors){
+            millis += Math.max(collector.getCollectionTime(), 0);
+        }
+        return millis;
+    }
+
+    /**
+     * This function sets the number of ballots in the election, which the bytes allocated per ballot are based on.
+     * @param numBallots - The number of ballots.
+     */
+    public void setNumBallots(long numBallots){
+        this.numBallots = numBallots;
+    }
+
+    /**
+     * This function returns the totals of every phase the election ran, in the order they first ran.
+     * @return - The phases by name.
+     */
+    public LinkedHashMap<String, Phase> getPhases(){
+        return phases;
+    }
+
+    /**
+     * This function returns the totals of the whole profile.
+     * @return - The totals, or null if the profile was not stopped.
+     */
+    public Phase getTotal(){
+        return total;
+    }
+
+    /**
+     * This function builds the breakdown of the profile, with a row for every phase, a row for the time spent
+     * outside of them, e.g. displaying the result, and a row for the whole election.
+     * @return - The breakdown as a table, ending in a line break.
+     */
+    public String buildReport(){
+        stop();
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n[SYSTEM]: Profile of the election (").append(String.format("%,d", numBallots)).append(" ballots")
+            .append(measureCpuTime ? "" : ", CPU time not measured by this JVM")
+            .append(measureAllocations ? "" : ", allocations not measured by this JVM").append("):\n");
+        TableRenderer table = new TableRenderer(sb);
+        table.row().text("Phase").pad(36).text("Count").pad(6).text("Wall ms").pad(10).text("CPU ms").pad(10)
+            .text("Allocated").pad(10).text("Bytes/ballot").pad(12).text("GC ms").endRow();
+
+        Phase other = new Phase("Other");
+        other.count = 1;
+        other.wallNanos = total.wallNanos;
+        other.cpuNanos = total.cpuNanos;
+        other.allocatedBytes = total.allocatedBytes;
+        other.gcMillis = total.gcMillis;
+        for (Phase phase : phases.values()){
+            appendRow(table, phase);
+            other.wallNanos -= phase.wallNanos;
+            other.cpuNanos -= phase.cpuNanos;
+            other.allocatedBytes -= phase.allocatedBytes;
+            other.gcMillis -= phase.gcMillis;
+        }
+        appendRow(table, other);
+        appendRow(table, total);
+        return sb.toString();
+    }
+
+    /**
+     * This function appends the row of a phase to the breakdown.
+     */
+    private void appendRow(TableRenderer table, Phase phase){
+        table.row().text(phase.name).pad(36).number(phase.count).pad(6)
+            .text(String.format("%.1f", phase.wallNanos / 1e6)).pad(10)
+            .text(measureCpuTime ? String.format("%.1f", phase.cpuNanos / 1e6) : "-").pad(10)
+            .text(measureAllocations ? ProgressReporter.formatBytes(Math.max(phase.allocatedBytes, 0)) : "-").pad(10)
+            .text(measureAllocations && numBallots > 0 ? String.format("%.1f", (double) phase.allocatedBytes / numBallots) : "-").pad(12)
+            .number(phase.gcMillis).endRow();
+    }
+}
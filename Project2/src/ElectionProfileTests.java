@@ -0,0 +1,98 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.*;
+
+public class ElectionProfileTests {
+    /**
+     * This test checks that a profiled IR election records the parse, every round and the audit writes as phases,
+     * and that the phases add up to no more than the whole election.
+     */
+    @Test
+    public void testIRPhases() throws IOException {
+        final Path auditFile = Files.createTempFile("election_profile_audit", ".txt");
+        final ElectionProfile profile = ElectionProfile.start();
+        try {
+            final FileParser file = new FileParser("./../testing/IR_test_majority_winner_after_one_round_redistribution.csv", true);
+            final IRVoting ir = new IRVoting(file.getCandidateLine(), file.getBallotList(), auditFile.toString());
+            ir.calculateBallots();
+            profile.setNumBallots(file.getNumberOfBallots());
+        } finally {
+            profile.stop();
+            Files.delete(auditFile);
+        }
+
+        Map<String, ElectionProfile.Phase> phases = profile.getPhases();
+        Assert.assertEquals(Arrays.asList("Parsing ballots", "Counting first choices, round 1", ElectionProfile.AUDIT_PHASE, "Redistributing votes, round 2"), new ArrayList<>(phases.keySet()));
+        Assert.assertTrue(phases.get(ElectionProfile.AUDIT_PHASE).getCount() > 1); // Every audit event and flush, plus the close
+
+        long wallNanos = 0;
+        for (ElectionProfile.Phase phase : phases.values()){
+            Assert.assertTrue(phase.getName(), phase.getWallNanos() >= 0);
+            wallNanos += phase.getWallNanos();
+        }
+        Assert.assertTrue(wallNanos <= profile.getTotal().getWallNanos());
+        Assert.assertTrue(phases.get("Parsing ballots").getAllocatedBytes() > 0);
+    }
+
+    /**
+     * This test checks that a phase run inside another is only counted in the inner phase, and that a phase left
+     * running is ended along with the phase around it.
+     */
+    @Test
+    public void testNestedPhases() throws InterruptedException {
+        final ElectionProfile profile = ElectionProfile.start();
+        ElectionProfile.Sample outer = ElectionProfile.beginPhase("Allocating seats", 1);
+        ElectionProfile.Sample inner = ElectionProfile.beginPhase(ElectionProfile.AUDIT_PHASE, 0);
+        Thread.sleep(50);
+        ElectionProfile.endPhase(inner);
+        ElectionProfile.beginPhase(ElectionProfile.AUDIT_PHASE, 0); // Never ended
+        ElectionProfile.endPhase(outer);
+        ElectionProfile.endPhase(inner); // Already ended, so it has no effect
+        profile.stop();
+
+        ElectionProfile.Phase seats = profile.getPhases().get("Allocating seats, round 1");
+        ElectionProfile.Phase audit = profile.getPhases().get(ElectionProfile.AUDIT_PHASE);
+        Assert.assertEquals(1, seats.getCount());
+        Assert.assertEquals(2, audit.getCount());
+        Assert.assertTrue(audit.getWallNanos() >= 50000000L);
+        Assert.assertTrue(seats.getWallNanos() < audit.getWallNanos());
+        Assert.assertTrue(seats.getWallNanos() + audit.getWallNanos() <= profile.getTotal().getWallNanos());
+    }
+
+    /**
+     * This test checks that nothing is recorded on a thread that is not profiled, including after a profile stopped.
+     */
+    @Test
+    public void testNotProfiled(){
+        Assert.assertNull(ElectionProfile.beginPhase("Parsing ballots", 0));
+        ElectionProfile.endPhase(null);
+
+        final ElectionProfile profile = ElectionProfile.start();
+        profile.stop();
+        Assert.assertNull(ElectionProfile.beginPhase("Parsing ballots", 0));
+        Assert.assertTrue(profile.getPhases().isEmpty());
+    }
+
+    /**
+     * This test checks that the breakdown lists every phase, the time outside of them and the whole election.
+     */
+    @Test
+    public void testReport(){
+        final ElectionProfile profile = ElectionProfile.start();
+        final FileParser file = new FileParser("./../testing/OPL_test_more_than_two_rounds_allocations.csv", true);
+        final OPLVoting opl = new OPLVoting(file.getCandidateLine(), file.getBallotTallies(), file.getNumberOfSeats(), file.getNumberOfBallots(), "");
+        opl.performSeatAllocations();
+        profile.setNumBallots(file.getNumberOfBallots());
+
+        String report = profile.buildReport();
+        Assert.assertTrue(report, report.startsWith("\n[SYSTEM]: Profile of the election (" + file.getNumberOfBallots() + " ballots"));
+        String[] lines = report.split("\n");
+        Assert.assertTrue(lines[2], lines[2].startsWith("Phase "));
+        Assert.assertTrue(lines[3], lines[3].startsWith("Parsing ballots "));
+        Assert.assertTrue(lines[4], lines[4].startsWith("Counting votes "));
+        Assert.assertTrue(lines[5], lines[5].startsWith("Allocating seats, round 1 "));
+        Assert.assertTrue(lines[lines.length - 2], lines[lines.length - 2].startsWith("Other "));
+        Assert.assertTrue(lines[lines.length - 1], lines[lines.length - 1].startsWith("Total "));
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * ElectionProgress.java
+ * This class holds the counters of a running election that a ProgressReporter reads: the current phase and round,
+ * the bytes of the election file read, and the ballots counted in the current phase. The parser and the engines
+ * update the counters from the thread running the election, and the reporter reads them from its own thread.
+ *
+ * Every counter has one writer at a time, so it is a plain volatile field: updates are never lost, readers always
+ * see a recent value and nothing on the tally path takes a lock. The loops over ballots keep their own count and
+ * publish it every PUBLISH_INTERVAL ballots, or once per buffer of the file, so the cost per ballot is a local increment.
+ */
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class ElectionProgress {
+    public static final int PUBLISH_INTERVAL = 4096; // Number of ballots a loop counts before it publishes its count, a power of two
+
+    private final long startNanos; // Time the election started, from System.nanoTime()
+    private volatile String phase = "Starting"; // Name of the current phase, e.g. "Parsing ballots"
+    private volatile int round; // Number of the current round, or 0 if the phase has no rounds
+    private volatile long phaseStartNanos; // Time the current phase started
+    private volatile long ballotsCounted; // Ballots counted in the current phase
+    private volatile long totalBallots; // Ballots the current phase will count, or 0 if not known
+    private volatile long bytesRead; // Bytes of the election file read
+    private volatile long totalBytes; // Size of the election file in bytes, or 0 if not known
+    private volatile long readStartNanos; // Time the election file started being read
+
+    /**
+     * Constructs the counters of an election that starts now.
+     */
+    public ElectionProgress(){
+        this.startNanos = System.nanoTime();
+        this.phaseStartNanos = startNanos;
+        this.readStartNanos = startNanos;
+    }
+
+    /**
+     * This function starts a phase of the election, setting the ballots counted back to 0.
+     * @param phase - The name of the phase, e.g. "Redistributing votes".
+     * @param round - The number of the round, or 0 if the phase has no rounds.
+     * @param totalBallots - The ballots the phase will count, or 0 if not known.
+     */
+    public void startPhase(String phase, int round, long totalBallots){
+        this.ballotsCounted = 0;
+        this.totalBallots = totalBallots;
+        this.round = round;
+        this.phaseStartNanos = System.nanoTime();
+        this.phase = phase; // Written last, so a reader seeing the new phase sees its counters too
+    }
+
+    /**
+     * This function publishes the ballots counted in the current phase so far.
+     * @param ballotsCounted - The ballots counted since the phase started.
+     */
+    public void setBallotsCounted(long ballotsCounted){
+        this.ballotsCounted = ballotsCounted;
+    }
+
+    /**
+     * This function adds to the ballots counted in the current phase. It must only be called by the thread running
+     * the election.
+     * @param numBallots - The ballots counted since the last call.
+     */
+    public void addBallotsCounted(long numBallots){
+        this.ballotsCounted = ballotsCounted + numBallots;
+    }
+
+    /**
+     * This function wraps the stream of an election file so every block read from it is added to the bytes read.
+     * @param in - The stream of the election file, positioned at its start.
+     * @param totalBytes - The size of the file in bytes, or 0 if not known.
+     * @return - The stream counting the bytes read, which closes in when it is closed.
+     */
+    public InputStream countBytes(InputStream in, long totalBytes){
+        this.bytesRead = 0;
+        this.totalBytes = totalBytes;
+        this.readStartNanos = System.nanoTime();
+        return new CountingInputStream(in, this);
+    }
+
+    /**
+     * Retrieves the name of the current phase.
+     * @return - The name of the phase.
+     */
+    public String getPhase(){
+        return phase;
+    }
+
+    /**
+     * Retrieves the number of the current round.
+     * @return - The number of the round, or 0 if the phase has no rounds.
+     */
+    public int getRound(){
+        return round;
+    }
+
+    /**
+     * Retrieves the ballots counted in the current phase.
+     * @return - The number of ballots.
+     */
+    public long getBallotsCounted(){
+        return ballotsCounted;
+    }
+
+    /**
+     * Retrieves the ballots the current phase will count.
+     * @return - The number of ballots, or 0 if not known.
+     */
+    public long getTotalBallots(){
+        return totalBallots;
+    }
+
+    /**
+     * Retrieves the bytes of the election file read.
+     * @return - The number of bytes.
+     */
+    public long getBytesRead(){
+        return bytesRead;
+    }
+
+    /**
+     * Retrieves the size of the election file.
+     * @return - The size in bytes, or 0 if not known.
+     */
+    public long getTotalBytes(){
+        return totalBytes;
+    }
+
+    /**
+     * Retrieves the time the election started.
+     * @return - The time from System.nanoTime().
+     */
+    public long getStartNanos(){
+        return startNanos;
+    }
+
+    /**
+     * Retrieves the time the current phase started.
+     * @return - The time from System.nanoTime().
+     */
+    public long getPhaseStartNanos(){
+        return phaseStartNanos;
+    }
+
+    /**
+     * Retrieves the time the election file started being read.
+     * @return - The time from System.nanoTime().
+     */
+    public long getReadStartNanos(){
+        return readStartNanos;
+    }
+
+    /**
+     * This class adds every block read from an election file to the bytes read of an ElectionProgress. The file is
+     * read through a BufferedInputStream, so the count is published once per buffer rather than once per byte.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private final ElectionProgress progress; // Counters the bytes read are published to
+        private long numBytes; // Bytes read so far
+
+        CountingInputStream(InputStream in, ElectionProgress progress){
+            super(in);
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b != -1){
+                progress.bytesRead = ++numBytes;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int numRead = in.read(buffer, offset, length);
+            if (numRead > 0){
+                numBytes += numRead;
+                progress.bytesRead = numBytes;
+            }
+            return numRead;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long numSkipped = in.skip(n);
+            numBytes += numSkipped;
+            progress.bytesRead = numBytes;
+            return numSkipped;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * ElectionResult.java
+ * This class runs the election held in a parsed election file with the engine its header names, and keeps the
+ * result as JSON-ready fields: the protocol, number of ballots and seats, every candidate or party with their votes
+ * and seats, and the winners. It lets callers other than the command line, such as the election server, run any
+ * kind of election and report its result the same way.
+ */
+
+import java.util.*;
+import java.util.function.Consumer;
+
+public class ElectionResult {
+    private final LinkedHashMap<String, Object> fields; // Fields of the result, in the order they are written
+    private final List<String> auditFiles; // Files the election wrote for its audit
+
+    /**
+     * Constructs an ElectionResult from its fields.
+     * @param fields - The fields of the result.
+     * @param auditFiles - The files the election wrote for its audit.
+     */
+    private ElectionResult(LinkedHashMap<String, Object> fields, List<String> auditFiles){
+        this.fields = fields;
+        this.auditFiles = auditFiles;
+    }
+
+    /**
+     * This function runs the election held in a parsed election file. OPL and MPO files must have been parsed with
+     * their ballots tallied.
+     * @param file - The parsed election file.
+     * @param auditFilePath - Name and path of the audit file, or an empty string if no audit file is written.
+     * @param auditSettings - Applies the audit settings, e.g. the audit level, to the engine before it is run.
+     * @return - The result of the election.
+     * @throws IllegalArgumentException - If the file is not an IR, OPL or MPO election file.
+     * @throws java.io.UncheckedIOException - If the audit could not be written.
+     */
+    public static ElectionResult run(FileParser file, String auditFilePath, Consumer<Voting> auditSettings){
+        final String fileHeader = file.getFileHeader();
+        if (fileHeader == null){
+            throw new IllegalArgumentException("The election file is empty.");
+        }
+
+        final LinkedHashMap<String, Object> fields = new LinkedHashMap<>();
+        final List<String> auditFiles;
+        fields.put("protocol", fileHeader);
+        if (fileHeader.equals("IR")){
+            final IRVoting ir = new IRVoting(file.getCandidateLine(), file.getBallotList(), auditFilePath);
+            auditSettings.accept(ir);
+            ir.calculateBallots();
+            auditFiles = ir.getAuditFiles();
+
+            ArrayList<Object> candidates = new ArrayList<>();
+            for (Candidate candidate : ir.getCandidates()){
+                LinkedHashMap<String, Object> row = AuditEvent.candidateFields(candidate);
+                row.put("eliminated", candidate.isEliminated());
+                candidates.add(row);
+            }
+            fields.put("ballots", ir.getBallots().size());
+            fields.put("candidates", candidates);
+            fields.put("winner", AuditEvent.candidateFields(ir.getWinningCandidate()));
+        } else if (fileHeader.equals("OPL")){
+            final OPLVoting opl = new OPLVoting(file.getCandidateLine(), file.getBallotTallies(), file.getNumberOfSeats(), file.getNumberOfBallots(), auditFilePath);
+            auditSettings.accept(opl);
+            opl.performSeatAllocations();
+            auditFiles = opl.getAuditFiles();
+
+            ArrayList<Object> parties = new ArrayList<>();
+            for (Party party : opl.getParties()){
+                LinkedHashMap<String, Object> row = AuditEvent.partyFields(party);
+                row.put("seatHolders", AuditEvent.candidateNames(party.getSeatHolders()));
+                parties.add(row);
+            }
+            fields.put("ballots", opl.getNumBallots());
+            fields.put("seats", opl.getNumSeats());
+            fields.put("parties", parties);
+            fields.put("winningParty", opl.getWinningParty().getPartyName());
+            fields.put("winner", AuditEvent.candidateFields(opl.getWinningCandidate()));
+        } else if (fileHeader.equals("MPO")){
+            final MPOVoting mpo = new MPOVoting(file.getCandidateLine(), file.getBallotTallies(), file.getNumberOfSeats(), file.getNumberOfBallots(), auditFilePath);
+            auditSettings.accept(mpo);
+            mpo.performSeatAllocations();
+            auditFiles = mpo.getAuditFiles();
+
+            ArrayList<Object> candidates = new ArrayList<>();
+            for (Candidate candidate : mpo.getCandidates()){
+                LinkedHashMap<String, Object> row = AuditEvent.candidateFields(candidate);
+                row.put("seats", candidate.getNumSeats());
+                candidates.add(row);
+            }
+            fields.put("ballots", file.getNumberOfBallots());
+            fields.put("seats", file.getNumberOfSeats());
+            fields.put("candidates", candidates);
+            fields.put("winners", AuditEvent.candidateNames(mpo.getWinningCandidates()));
+        } else {
+            throw new IllegalArgumentException("The election file header " + fileHeader + " is not IR, OPL or MPO.");
+        }
+        return new ElectionResult(fields, auditFiles);
+    }
+
+    /**
+     * Retrieves the protocol of the election.
+     * @return - IR, OPL or MPO.
+     */
+    public String getProtocol(){
+        return (String) fields.get("protocol");
+    }
+
+    /**
+     * Retrieves the files the election wrote for its audit file and audit event log, by the names they actually
+     * have, e.g. the compressed segments and index of a gzip-compressed audit.
+     * @return - The names and paths of the files, or an empty list if no audit was written.
+     */
+    public List<String> getAuditFiles(){
+        return auditFiles;
+    }
+
+    /**
+     * Retrieves the fields of the result. More fields, e.g. where the audit was written, can be added to them.
+     * @return - The fields of the result, in the order they are written.
+     */
+    public LinkedHashMap<String, Object> getFields(){
+        return fields;
+    }
+
+    /**
+     * This function writes the result as one JSON object.
+     * @return - The JSON text of the result.
+     */
+    public String toJson(){
+        StringBuilder sb = new StringBuilder();
+        new JsonWriter(sb).value((Object) fields);
+        return sb.toString();
+    }
+}
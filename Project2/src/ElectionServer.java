@@ -0,0 +1,299 @@
+/**
+ * ElectionServer.java
+ * This class keeps VoteEasy resident as a daemon that runs elections through a local HTTP API, so an election
+ * official who counts many contests pays for starting the JVM and warming up the election engines once instead of
+ * once per contest. The server only listens on the loopback address.
+ *
+ * POST /elections?file=<path>   runs the election file at <path> on the server's machine
+ * POST /elections               runs the election file uploaded as the request body
+ * GET  /health                  reports that the server is up and how many elections it has run
+ *
+ * An election responds with its result as JSON (see ElectionResult), along with the audit file it wrote and the
+ * milliseconds it took. Every election writes its own audit file, named after the server's audit file, e.g.
+ * "./audit_file_election_1.txt" for the first. Elections run on a fixed pool of worker threads, which have run a
+ * set of generated IR, OPL and MPO elections before the server accepts its first request.
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class ElectionServer {
+    private static final int WARM_UP_ELECTIONS = 50; // Number of generated elections of each protocol run before the first request
+
+    private final int port; // Port the server listens on, or 0 for any free port
+    private final int numThreads; // Number of worker threads elections are run on
+    private final String auditFilePath; // Name and path the audit file of every election is named after, or an empty string if none is written
+    private final String auditEventLogPath; // Name and path the audit event log of every election is named after, or an empty string if none is written
+    private final Consumer<Voting> auditSettings; // Applies the other audit settings, e.g. the audit level, to every election
+    private final AtomicLong numElections; // Number of elections started, which numbers their audit files
+    private HttpServer server; // The HTTP server, or null until the server is started
+    private ExecutorService executor; // Worker threads requests are handled on
+
+    /**
+     * Constructs an election server. It must be started with start().
+     * @param port - The port to listen on, or 0 for any free port.
+     * @param numThreads - The number of elections that can be run at the same time.
+     * @param auditFilePath - Name and path the audit file of every election is named after, or an empty string if no audit files are written.
+     * @param auditEventLogPath - Name and path the audit event log of every election is named after, or an empty string if no event logs are written.
+     * @param auditSettings - Applies the other audit settings, e.g. the audit level, to the engine of every election.
+     */
+    public ElectionServer(int port, int numThreads, String auditFilePath, String auditEventLogPath, Consumer<Voting> auditSettings){
+        this.port = port;
+        this.numThreads = Math.max(1, numThreads);
+        this.auditFilePath = auditFilePath;
+        this.auditEventLogPath = auditEventLogPath;
+        this.auditSettings = auditSettings;
+        this.numElections = new AtomicLong();
+    }
+
+    /**
+     * This function warms up the worker threads, resets the ElectionMetrics so the warm-up elections are not counted,
+     * and starts listening for requests.
+     * @throws IOException - If the server could not listen on its port.
+     */
+    public void start() throws IOException {
+        executor = Executors.newFixedThreadPool(numThreads, runnable -> new Thread(runnable, "election-worker"));
+        warmUp();
+        ElectionMetrics.get().reset(); // The metrics only count the elections the server is asked to run
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/elections", this::handleElection);
+        server.createContext("/health", this::handleHealth);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * This function stops listening for requests and waits up to a second for the running elections to finish.
+     */
+    public void stop(){
+        if (server != null){
+            server.stop(1);
+        }
+        if (executor != null){
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Retrieves the port the server listens on, which is only known once the server is started if it was created with port 0.
+     * @return - The port of the server.
+     */
+    public int getPort(){
+        return server == null ? port : server.getAddress().getPort();
+    }
+
+    /**
+     * This function handles a request to run an election, given by the path of its file or uploaded as the request body.
+     */
+    private void handleElection(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("POST")){
+                sendError(exchange, 405, "Use POST to run an election.");
+                return;
+            }
+
+            final String path = queryParameter(exchange.getRequestURI(), "file");
+            final FileParser file;
+            if (path == null){
+                file = new FileParser(exchange.getRequestBody());
+            } else if (new File(path).isFile()){
+                file = new FileParser(path, true);
+            } else {
+                sendError(exchange, 404, "The election file " + path + " does not exist.");
+                return;
+            }
+
+            final long electionNumber = numElections.incrementAndGet();
+            final String electionAuditFilePath = getElectionFilePath(auditFilePath, electionNumber);
+            final String electionEventLogPath = getElectionFilePath(auditEventLogPath, electionNumber);
+            final long start = System.nanoTime();
+            ElectionResult result = ElectionResult.run(file, electionAuditFilePath, voting -> {
+                auditSettings.accept(voting);
+                voting.setAuditEventLog(electionEventLogPath);
+            });
+
+            LinkedHashMap<String, Object> fields = result.getFields();
+            fields.put("election", electionNumber);
+            if (!result.getAuditFiles().isEmpty()){
+                fields.put("auditFiles", new ArrayList<Object>(result.getAuditFiles()));
+            }
+            fields.put("elapsedMillis", (System.nanoTime() - start) / 1000000);
+            send(exchange, 200, result.toJson());
+        } catch (UncheckedIOException e){
+            sendError(exchange, 500, "The audit could not be written: " + e.getMessage());
+        } catch (IOException e){
+            sendError(exchange, 400, "The election file could not be read: " + e.getMessage());
+        } catch (RuntimeException e){ // FileParser and the engines report malformed files as runtime exceptions
+            sendError(exchange, 400, "The election file is not valid: " + e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * This function handles a request for the health of the server.
+     */
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try {
+            LinkedHashMap<String, Object> fields = new LinkedHashMap<>();
+            fields.put("status", "up");
+            fields.put("elections", numElections.get());
+            fields.put("threads", numThreads);
+            StringBuilder sb = new StringBuilder();
+            new JsonWriter(sb).value((Object) fields);
+            send(exchange, 200, sb.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * This function runs generated IR, OPL and MPO elections on every worker thread, without writing any audit files,
+     * so the engines are compiled before the first request is timed by an election official.
+     */
+    private void warmUp() throws IOException {
+        final Random random = new Random(1); // Fixed seed, so every start warms up on the same elections
+        final ArrayList<byte[]> elections = new ArrayList<>();
+        elections.add(generateElection("IR", random).getBytes(StandardCharsets.UTF_8));
+        elections.add(generateElection("OPL", random).getBytes(StandardCharsets.UTF_8));
+        elections.add(generateElection("MPO", random).getBytes(StandardCharsets.UTF_8));
+
+        ArrayList<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++){
+            futures.add(executor.submit(() -> {
+                for (int run = 0; run < WARM_UP_ELECTIONS; run++){
+                    for (byte[] election : elections){
+                        FileParser file = new FileParser(new ByteArrayInputStream(election));
+                        ElectionResult.run(file, "", voting -> voting.setAuditSink(AuditSink.open("")));
+                    }
+                }
+                return null;
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures){
+                future.get();
+            }
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while warming up the election engines.");
+        } catch (ExecutionException e){
+            throw new IOException("Failed to warm up the election engines.", e.getCause());
+        }
+    }
+
+    /**
+     * This function generates an election file of 6 candidates across 3 parties and 500 random ballots.
+     * @param protocol - IR, OPL or MPO.
+     * @param random - The source of the ballots.
+     * @return - The content of the election file.
+     */
+    private static String generateElection(String protocol, Random random){
+        final int numCandidates = 6;
+        final int numBallots = 500;
+        StringBuilder sb = new StringBuilder(protocol).append('\n');
+        StringBuilder candidateLine = new StringBuilder();
+        for (int i = 0; i < numCandidates; i++){
+            String party = String.valueOf((char) ('A' + i % 3));
+            candidateLine.append(i == 0 ? "" : ", ").append(protocol.equals("MPO") ? "[Candidate" + i + ", " + party + "]" : "Candidate" + i + " (" + party + ")");
+        }
+
+        if (protocol.equals("IR")){
+            sb.append(numCandidates).append('\n').append(candidateLine).append('\n');
+        } else if (protocol.equals("OPL")){
+            sb.append(numCandidates).append('\n').append(candidateLine).append('\n').append(3).append('\n');
+        } else {
+            sb.append(3).append('\n').append(numCandidates).append('\n').append(candidateLine).append('\n');
+        }
+        sb.append(numBallots).append('\n');
+
+        for (int ballot = 0; ballot < numBallots; ballot++){
+            int[] ranks = new int[numCandidates];
+            int numRanked = protocol.equals("IR") ? 1 + random.nextInt(numCandidates) : 1;
+            for (int rank = 1; rank <= numRanked; rank++){
+                int candidate;
+                do {
+                    candidate = random.nextInt(numCandidates);
+                } while (ranks[candidate] != 0);
+                ranks[candidate] = rank;
+            }
+            for (int i = 0; i < numCandidates; i++){
+                sb.append(i == 0 ? "" : ",").append(ranks[i] == 0 ? "" : String.valueOf(ranks[i]));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * This function builds the name of an election's audit file or audit event log from the server's one,
+     * e.g. "./audit_file.txt" becomes "./audit_file_election_1.txt" for the first election.
+     * @param serverPath - The name and path of the server's audit file or audit event log.
+     * @param electionNumber - The number of the election, starting at 1.
+     * @return - The name and path of the election's file, or an empty string if the server writes no such file.
+     */
+    private static String getElectionFilePath(String serverPath, long electionNumber){
+        if (serverPath.length() == 0){
+            return "";
+        }
+
+        int extensionIdx = serverPath.lastIndexOf('.');
+        int directoryIdx = Math.max(serverPath.lastIndexOf('/'), serverPath.lastIndexOf(File.separatorChar));
+        if (extensionIdx <= directoryIdx){ // The file has no extension
+            return serverPath + "_election_" + electionNumber;
+        }
+        return serverPath.substring(0, extensionIdx) + "_election_" + electionNumber + serverPath.substring(extensionIdx);
+    }
+
+    /**
+     * This function returns the decoded value of a query parameter of a request, or null if it is missing.
+     */
+    private static String queryParameter(URI uri, String name) throws UnsupportedEncodingException {
+        String query = uri.getRawQuery();
+        if (query == null){
+            return null;
+        }
+        for (String parameter : query.split("&")){
+            int equalsIdx = parameter.indexOf('=');
+            if (equalsIdx > 0 && parameter.substring(0, equalsIdx).equals(name)){
+                return URLDecoder.decode(parameter.substring(equalsIdx + 1), "UTF-8");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This function responds to a request with an error message as JSON.
+     */
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        LinkedHashMap<String, Object> fields = new LinkedHashMap<>();
+        fields.put("error", message);
+        StringBuilder sb = new StringBuilder();
+        new JsonWriter(sb).value((Object) fields);
+        send(exchange, status, sb.toString());
+    }
+
+    /**
+     * This function responds to a request with JSON text.
+     */
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = (json + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()){
+            out.write(body);
+        }
+    }
+}
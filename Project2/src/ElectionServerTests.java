@@ -0,0 +1,131 @@
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.*;
+
+public class ElectionServerTests {
+    private static ElectionServer server; // Server shared by every test, writing its audit files to a temporary directory
+    private static Path auditDirectory; // Directory of the server's audit files
+
+    /**
+     * This function starts a server on any free port before the tests are run.
+     */
+    @BeforeClass
+    public static void startServer() throws IOException {
+        auditDirectory = Files.createTempDirectory("election_server");
+        auditDirectory.toFile().deleteOnExit();
+        server = new ElectionServer(0, 2, auditDirectory.resolve("audit_file.txt").toString(), "", voting -> voting.setAuditLevel(AuditLevel.SUMMARY));
+        server.start();
+    }
+
+    /**
+     * This function stops the server once the tests are run.
+     */
+    @AfterClass
+    public static void stopServer(){
+        server.stop();
+    }
+
+    /**
+     * This function sends a request to the server and returns its status code and JSON response.
+     */
+    private static Map.Entry<Integer, Map<String, Object>> request(String method, String path, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null){
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()){
+                out.write(body);
+            }
+        }
+
+        int status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()){
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1 << 12];
+            int read;
+            while ((read = in.read(buffer)) > 0){
+                response.write(buffer, 0, read);
+            }
+            return new AbstractMap.SimpleEntry<>(status, AuditEvent.asFields(JsonReader.parse(response.toString("UTF-8").trim())));
+        }
+    }
+
+    /**
+     * This test checks that the warm-up elections run before the server accepts requests are not counted in the
+     * ElectionMetrics.
+     */
+    @Test
+    public void testWarmUpIsNotCounted() throws IOException {
+        ElectionServer warmedUp = new ElectionServer(0, 1, "", "", voting -> {});
+        try {
+            warmedUp.start();
+            Assert.assertEquals(0, ElectionMetrics.get().getBallotsParsed());
+            Assert.assertEquals(0, ElectionMetrics.get().getRounds());
+            Assert.assertEquals(Collections.emptyMap(), ElectionMetrics.get().toFields().get("phases"));
+        } finally {
+            warmedUp.stop();
+        }
+    }
+
+    /**
+     * This test checks that an IR election uploaded as the request body is run and its result and audit file returned.
+     */
+    @Test
+    public void testUploadedElection() throws IOException {
+        byte[] election = Files.readAllBytes(Paths.get("./../testing/IR_test_first_round_majority_winner.csv"));
+        Map.Entry<Integer, Map<String, Object>> response = request("POST", "/elections", election);
+        Assert.assertEquals(200, (int) response.getKey());
+
+        Map<String, Object> result = response.getValue();
+        Assert.assertEquals("IR", AuditEvent.stringValue(result, "protocol"));
+        Assert.assertEquals("Rosen", AuditEvent.stringValue(AuditEvent.fieldsValue(result, "winner"), "name"));
+        Assert.assertEquals(4, AuditEvent.listValue(result, "candidates").size());
+
+        List<Object> auditFiles = AuditEvent.listValue(result, "auditFiles");
+        Assert.assertEquals(1, auditFiles.size());
+        String auditFile = auditFiles.get(0).toString();
+        Assert.assertTrue(auditFile.endsWith("audit_file_election_" + AuditEvent.intValue(result, "election") + ".txt"));
+        Assert.assertTrue(new String(Files.readAllBytes(Paths.get(auditFile)), StandardCharsets.UTF_8).contains("Winning candidate is Rosen"));
+        new File(auditFile).deleteOnExit();
+    }
+
+    /**
+     * This test checks that an OPL election is run from the path of its file.
+     */
+    @Test
+    public void testElectionFromPath() throws IOException {
+        String path = URLEncoder.encode("./../testing/OPL_test_first_round_winner.csv", "UTF-8");
+        Map.Entry<Integer, Map<String, Object>> response = request("POST", "/elections?file=" + path, null);
+        Assert.assertEquals(200, (int) response.getKey());
+
+        Map<String, Object> result = response.getValue();
+        Assert.assertEquals("OPL", AuditEvent.stringValue(result, "protocol"));
+        Assert.assertEquals("D", AuditEvent.stringValue(result, "winningParty"));
+        Assert.assertEquals(3, AuditEvent.intValue(result, "seats"));
+        Map<String, Object> winningParty = AuditEvent.asFields(AuditEvent.listValue(result, "parties").get(0));
+        Assert.assertEquals(Arrays.asList("Pike", "Foster"), AuditEvent.listValue(winningParty, "seatHolders"));
+        for (Object auditFile : AuditEvent.listValue(result, "auditFiles")){
+            new File(auditFile.toString()).deleteOnExit();
+        }
+    }
+
+    /**
+     * This test checks that invalid requests are answered with an error instead of stopping the server.
+     */
+    @Test
+    public void testInvalidRequests() throws IOException {
+        Assert.assertEquals(400, (int) request("POST", "/elections", "STV\n3\n".getBytes(StandardCharsets.UTF_8)).getKey());
+        Assert.assertEquals(400, (int) request("POST", "/elections", "IR\nfour\n".getBytes(StandardCharsets.UTF_8)).getKey());
+        Assert.assertEquals(404, (int) request("POST", "/elections?file=missing.csv", null).getKey());
+        Assert.assertEquals(405, (int) request("GET", "/elections", null).getKey());
+
+        Map.Entry<Integer, Map<String, Object>> health = request("GET", "/health", null);
+        Assert.assertEquals(200, (int) health.getKey());
+        Assert.assertEquals("up", AuditEvent.stringValue(health.getValue(), "status"));
+    }
+}
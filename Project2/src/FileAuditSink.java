@@ -0,0 +1,111 @@
+/**
+ * FileAuditSink.java
+ * This class writes the audit file through a single buffered writer that stays open for the whole election.
+ * The audit file is replaced when the sink is opened, so content from a previous run is never appended to, and the
+ * compressed segments of a previous run written by a GzipAuditSink are deleted.
+ * Closing the sink forces the audit file to disk, so a closed audit file is complete even if the system crashes.
+ */
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+public class FileAuditSink extends AuditSink {
+    private static final int BUFFER_SIZE = 1 << 16; // Number of characters buffered before they are written to the audit file
+    private final String auditFilePath; // Name and path of the audit file
+    private final FileOutputStream outputStream; // Stream of the audit file, used to force the audit file to disk
+    private BufferedWriter writer; // Writer for the audit file, or null once the sink is closed
+    private long bytesCounted; // Bytes of the audit file already added to the ElectionMetrics
+
+    /**
+     * Constructor that creates the audit file, replacing any audit file left over from a previous run.
+     * @param auditFilePath - Name and path of the audit file.
+     * @throws UncheckedIOException - If the audit file could not be created.
+     */
+    public FileAuditSink(String auditFilePath){
+        this.auditFilePath = auditFilePath;
+        try {
+            GzipAuditSink.deleteSegments(auditFilePath); // A compressed audit of an earlier run is not read back instead
+            this.outputStream = new FileOutputStream(auditFilePath);
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch (IOException e){
+            throw new UncheckedIOException("Could not create audit file " + auditFilePath, e);
+        }
+    }
+
+    @Override
+    public void write(CharSequence content){
+        try {
+            ensureOpen().append(content);
+        } catch (IOException e){
+            throw new UncheckedIOException("Could not write to audit file " + auditFilePath, e);
+        }
+    }
+
+    @Override
+    public void flush(){
+        try {
+            ensureOpen().flush();
+            countBytesWritten();
+        } catch (IOException e){
+            throw new UncheckedIOException("Could not write to audit file " + auditFilePath, e);
+        }
+    }
+
+    @Override
+    public void close(){
+        if (writer == null){
+            return;
+        }
+
+        try {
+            try {
+                writer.flush();
+                countBytesWritten();
+                outputStream.getChannel().force(false);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e){
+            throw new UncheckedIOException("Could not close audit file " + auditFilePath, e);
+        } finally {
+            writer = null;
+        }
+    }
+
+    @Override
+    public List<String> getFiles(){
+        return Collections.singletonList(auditFilePath);
+    }
+
+    /**
+     * This function adds the bytes written to the audit file since the last flush to the ElectionMetrics, if they
+     * are enabled.
+     * @throws IOException - If the position in the audit file could not be read.
+     */
+    private void countBytesWritten() throws IOException {
+        if (!ElectionMetrics.get().isEnabled()){
+            return;
+        }
+        long position = outputStream.getChannel().position();
+        ElectionMetrics.get().addAuditBytesWritten(position - bytesCounted);
+        bytesCounted = position;
+    }
+
+    /**
+     * This function returns the writer for the audit file, as long as the sink has not been closed.
+     * @return - The writer for the audit file.
+     * @throws IOException - If the sink was already closed.
+     */
+    private BufferedWriter ensureOpen() throws IOException {
+        if (writer == null){
+            throw new IOException("Audit file " + auditFilePath + " is already closed");
+        }
+        return writer;
+    }
+}
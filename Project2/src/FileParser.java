@@ -8,6 +8,14 @@ import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.Scanner;
 import java.io.File;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.*;
 
 public class FileParser {
@@ -17,6 +25,11 @@ public class FileParser {
     private int numberOfSeats;  //Number of seats for the election
     private int numberOfBallots;  //Number of ballots in the election
     private ArrayList<String> ballotList;  //List of all the ballot's information in the election
+    private int[] ballotTallies;  //Number of votes in every ballot column, filled instead of ballotList when counting plurality ballots
+    private long numberOfRejectedLines;  //Number of plurality ballot lines that gave no candidate a vote
+    private ElectionProgress progress;  //Counters the bytes read and ballots parsed are published to, or null if the parse is not reported
+    private MessageDigest contentDigest;  //Digest of the file's bytes, updated as they are read, or null if the content is not hashed
+    private String contentHash;  //SHA-256 hash of the file's content, or null if the content is not hashed
 
     /** 
      * Constructs file parser object
@@ -26,13 +39,71 @@ public class FileParser {
         parseFile(filename);
     }
 
+    /** 
+     * Constructs file parser object that can count plurality ballots without storing them. OPL and MPO
+     * ballots have exactly one vote per line, so when countPluralityBallots is true the votes of those
+     * files are tallied per ballot column in one sequential read and no ballot line is ever built.
+     * IR ballots are ranked, so IR files are always parsed into a ballot list.
+     * @param filename Name of the election csv file
+     * @param countPluralityBallots True to tally OPL and MPO ballots instead of storing them
+     */
+    public FileParser(String filename, boolean countPluralityBallots){
+        this(filename, countPluralityBallots, null);
+    }
+
+    /** 
+     * Constructs file parser object that publishes the bytes read and ballots parsed to the counters of 
+     * an election while it parses, so a ProgressReporter can report the progress of a large file. The 
+     * counts are only published when countPluralityBallots is true.
+     * @param filename Name of the election csv file
+     * @param countPluralityBallots True to tally OPL and MPO ballots instead of storing them
+     * @param progress Counters of the election, or null if the parse is not reported
+     */
+    public FileParser(String filename, boolean countPluralityBallots, ElectionProgress progress){
+        this(filename, countPluralityBallots, progress, false);
+    }
+
+    /** 
+     * Constructs file parser object that also hashes the content of the election file with SHA-256 while it 
+     * parses, so the result cache can look up the file without reading it a second time. The content is only 
+     * hashed when countPluralityBallots is true.
+     * @param filename Name of the election csv file
+     * @param countPluralityBallots True to tally OPL and MPO ballots instead of storing them
+     * @param progress Counters of the election, or null if the parse is not reported
+     * @param hashContent True to hash the content of the file
+     */
+    public FileParser(String filename, boolean countPluralityBallots, ElectionProgress progress, boolean hashContent){
+        this.progress = progress;
+        this.contentDigest = hashContent ? Digests.newDigest() : null;
+        if (countPluralityBallots){
+            parseFileCountingBallots(filename);
+        }
+        else{
+            parseFile(filename);
+        }
+    }
+
+    /** 
+     * Constructs file parser object that reads an election file from a stream, such as a file uploaded to 
+     * the election server. OPL and MPO ballots are tallied as they are read, the same as 
+     * FileParser(filename, true). The stream is read to its end but not closed.
+     * @param in Stream positioned at the start of the election file
+     * @throws IOException if the stream cannot be read
+     */
+    public FileParser(InputStream in) throws IOException{
+        try (ElectionPhase<ElectionEvents.Parse> phase = ElectionPhase.parse("")){
+            parseCountingBallots(in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 1 << 16));
+            phase.getEvent().setResult(fileHeader, 0, numberOfBallots);
+        }
+    }
+
      /** 
      * Parses election file line by line and assigns data to associated variable 
      * @param filename Name of the election csv file
      * @throws FileNotFoundException if file is not in directory 
      */
     private void parseFile(String filename){
-        try{
+        try (ElectionPhase<ElectionEvents.Parse> phase = ElectionPhase.parse(filename)){
             //creates ArrayList to store every line in file
             ArrayList<String> fileLines = new ArrayList<>();
             File f = new File(filename);
@@ -72,10 +143,236 @@ public class FileParser {
 
             }
             scanner.close();
+            ElectionMetrics.get().addBallotsParsed(ballotList.size());
+            phase.getEvent().setResult(fileHeader, f.length(), numberOfBallots);
+        }
+        catch (FileNotFoundException f){
+            System.out.println("[SYSTEM]: File not found.");
+        }
+    }
+
+     /** 
+     * Parses the header of the election file and, for OPL and MPO files, counts the ballots straight from 
+     * the file's bytes. The column of a vote is the number of commas before the "1" on its line, so each 
+     * byte is looked at once and the ballot lines are never turned into Strings.
+     * @param filename Name of the election csv file
+     */
+    private void parseFileCountingBallots(String filename){
+        try (ElectionPhase<ElectionEvents.Parse> phase = ElectionPhase.parse(filename);
+             InputStream in = new BufferedInputStream(openFile(filename), 1 << 16)){
+            parseCountingBallots(in);
+            if (contentDigest != null){
+                byte[] buffer = new byte[1 << 16];
+                while (in.read(buffer) != -1){
+                    //Hash the rest of a file whose header is not an election's
+                }
+                this.contentHash = Digests.toHex(contentDigest.digest());
+            }
+            phase.getEvent().setResult(fileHeader, new File(filename).length(), numberOfBallots);
         }
         catch (FileNotFoundException f){
             System.out.println("[SYSTEM]: File not found.");
         }
+        catch (IOException e){
+            System.out.println("[SYSTEM]: Error occurred while reading file.");
+        }
+    }
+
+    /** 
+     * Opens the election file, counting the bytes read from it if the parse is reported and hashing them if 
+     * the content is hashed.
+     * @param filename Name of the election csv file
+     * @return Stream positioned at the start of the file
+     * @throws FileNotFoundException if file is not in directory
+     */
+    private InputStream openFile(String filename) throws FileNotFoundException{
+        InputStream in = new FileInputStream(filename);
+        if (contentDigest != null){
+            in = new DigestInputStream(in, contentDigest);
+        }
+        return progress == null ? in : progress.countBytes(in, new File(filename).length());
+    }
+
+    /** 
+     * Parses the header of an election file from a stream and, for OPL and MPO files, counts the ballots 
+     * from the rest of the stream.
+     * @param in Buffered stream positioned at the start of the election file
+     * @throws IOException if the stream cannot be read
+     */
+    private void parseCountingBallots(InputStream in) throws IOException{
+        this.fileHeader = readLine(in); //Set the file Header to first line
+        this.ballotList = new ArrayList<String>();
+
+        if (fileHeader == null){ //Empty file
+            return;
+        }
+        else if (fileHeader.equals("IR")){
+            this.numberOfCandidates = Integer.parseInt(readLine(in)); //Set the number of candidates to second line
+            this.candidateLine = readLine(in); //Set the line of candidates to third line
+            this.numberOfBallots = Integer.parseInt(readLine(in)); //Set the number of ballots to fourth line
+            startParsePhase();
+            for (String line = readLine(in); line != null; line = readLine(in)){ //Save list of ballots to every line starting from fifth line
+                this.ballotList.add(line);
+                if (progress != null && (ballotList.size() & (ElectionProgress.PUBLISH_INTERVAL - 1)) == 0){
+                    progress.setBallotsCounted(ballotList.size());
+                }
+            }
+            if (progress != null){
+                progress.setBallotsCounted(ballotList.size());
+            }
+            ElectionMetrics.get().addBallotsParsed(ballotList.size());
+            return;
+        }
+        else if (fileHeader.equals("OPL")){
+            this.numberOfCandidates = Integer.parseInt(readLine(in)); //Set the number of candidates to second line
+            this.candidateLine = readLine(in); //Set the line of candidates to third line
+            this.numberOfSeats = Integer.parseInt(readLine(in)); //Set the number of seats to fourth line
+            this.numberOfBallots = Integer.parseInt(readLine(in)); //Set the number of ballots to fifth line
+        }
+        else if (fileHeader.equals("MPO")){
+            this.numberOfSeats = Integer.parseInt(readLine(in)); //Set the number of seats to second line
+            this.numberOfCandidates = Integer.parseInt(readLine(in)); //Set the number of candidates to third line
+            this.candidateLine = readLine(in); //Set the line of candidates to fourth line
+            this.numberOfBallots = Integer.parseInt(readLine(in)); //Set the number of ballots to fifth line
+        }
+        else{ //Not an election file, which the caller reports from its header
+            return;
+        }
+
+        startParsePhase();
+        this.ballotTallies = countPluralityBallots(in, countBallotColumns(), progress); //Tally every line starting from sixth line
+    }
+
+    /** 
+     * Counts the candidates on the candidate line of an OPL or MPO file, which is the number of ballot columns 
+     * the ballot lines are counted against. It is not taken from the header, so a file whose header gives fewer 
+     * candidates than its candidate line is tallied the same as when its ballot lines are split.
+     * @return Number of candidates on the candidate line
+     */
+    private int countBallotColumns(){
+        if (fileHeader.equals("MPO")){
+            return candidateLine.split("], \\[").length; //Candidates have the form "[Foster, D]"
+        }
+        return candidateLine.split(", ").length; //Candidates have the form "Foster (D)"
+    }
+
+    /** 
+     * Starts the parse phase of the election once the header is read, if the parse is reported.
+     */
+    private void startParsePhase(){
+        if (progress != null){
+            progress.startPhase("Parsing ballots", 0, numberOfBallots);
+        }
+    }
+
+    /** 
+     * Reads one header line from the file, without the line break.
+     * @param in Stream positioned at the start of the line
+     * @return The line, or null if the end of the file was reached
+     * @throws IOException if the file cannot be read
+     */
+    private static String readLine(InputStream in) throws IOException{
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b = in.read();
+        if (b == -1){
+            return null;
+        }
+
+        while (b != -1 && b != '\n'){
+            if (b != '\r'){
+                line.write(b);
+            }
+            b = in.read();
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    /** 
+     * Tallies plurality ballots from the rest of the file. A vote is a field that is exactly "1", and only 
+     * the first vote on a line is counted, the same as when the ballot lines are split. A line is rejected 
+     * and gives no candidate a vote if it has no vote, a vote beyond the last candidate on the candidate 
+     * line, or a field that is neither empty nor "1". The lines read and the lines rejected are added to 
+     * the ElectionMetrics.
+     * @param in Stream positioned at the first ballot line
+     * @param numCandidates Number of candidates on the candidate line
+     * @param progress Counters the number of ballot lines read is published to after every buffer, or null
+     * @return Number of votes in every ballot column
+     * @throws IOException if the file cannot be read
+     */
+    private int[] countPluralityBallots(InputStream in, int numCandidates, ElectionProgress progress) throws IOException{
+        int[] tallies = new int[numCandidates];
+        byte[] buffer = new byte[1 << 16];
+        int column = 0;  //Number of commas seen so far on the current line
+        int voteColumn = -1;  //Column of the first vote on the current line, or -1 if none yet
+        boolean rejected = false;  //Whether the current line has a malformed field or a vote beyond the last candidate
+        byte previous = '\n';  //Byte read before the current one
+        long numLines = 0;  //Number of ballot lines read so far
+        long numRejected = 0;  //Number of ballot lines read so far without a counted vote
+
+        int length = in.read(buffer);
+        while (length != -1){
+            for (int i = 0; i < length; i++){
+                byte b = buffer[i];
+                if (b == ','){
+                    column++;
+                }
+                else if (b == '\n'){
+                    if (!rejected && voteColumn >= 0){
+                        tallies[voteColumn]++;
+                    }
+                    else{
+                        numRejected++;
+                    }
+                    numLines++;
+                    column = 0;
+                    voteColumn = -1;
+                    rejected = false;
+                }
+                else if (b == '1'){
+                    if (previous == '1' || column >= numCandidates){ //Part of a field such as "11", or beyond the last candidate
+                        rejected = true;
+                    }
+                    else if (voteColumn < 0){
+                        voteColumn = column;
+                    }
+                }
+                else if (b != '\r'){ //Part of a field that is neither empty nor "1"
+                    rejected = true;
+                }
+                previous = b;
+            }
+            if (progress != null){
+                progress.setBallotsCounted(numLines);
+            }
+
+            length = in.read(buffer);
+            if (length == -1 && previous != '\n'){ //The last line has no line break, so end it with one
+                buffer[0] = '\n';
+                length = 1;
+            }
+        }
+
+        this.numberOfRejectedLines = numRejected;
+        ElectionMetrics.get().addBallotsParsed(numLines);
+        ElectionMetrics.get().addRejectedLines(numRejected);
+        return tallies;
+    }
+
+    /** 
+    * Retrieves the SHA-256 hash of the election file's content, computed while the file was parsed
+    * @return The hash as a hexadecimal string, or null if the content was not hashed or could not be read
+    */
+    public String getContentHash(){
+        return this.contentHash;
+    }
+
+    /** 
+    * Retrieves the number of plurality ballot lines that gave no candidate a vote, e.g. blank lines, lines 
+    * with a vote beyond the last candidate or lines with a field that is neither empty nor "1"
+    * @return The number of rejected lines, or 0 if the ballots were not tallied while the file was read
+    */
+    public long getNumberOfRejectedLines(){
+        return this.numberOfRejectedLines;
     }
 
     /** 
@@ -125,4 +422,13 @@ public class FileParser {
     public ArrayList<String> getBallotList(){
         return this.ballotList;
     }
+
+    /** 
+    * Retrieves the number of votes in every ballot column of an OPL or MPO election. This is only 
+    * available when the file parser was constructed to count plurality ballots.
+    * @return The votes per ballot column, or null if the ballots were stored as a list instead
+    */  
+    public int[] getBallotTallies(){
+        return this.ballotTallies;
+    }
 }
\ No newline at end of file
@@ -129,4 +129,45 @@ public class FileParserTests {
         Assert.assertEquals(opl.getBallotList(), oplballotList);
         Assert.assertEquals(mpo.getBallotList(), mpoballotList);
     }
+
+    /**
+     * This function tests that counting plurality ballots gives the same header information as the ballot list
+     * and the same number of votes per ballot column, while IR ballots are still stored as a list
+     */
+    @Test
+    public void ballotTalliesTest(){
+        String filename1 = "./../testing/test_file_parser_IR_file.csv";
+        String filename2 = "./../testing/test_file_parser_OPL_file.csv";
+        String filename3 = "./../testing/test_file_parser_MPO_file.csv";
+
+        FileParser ir = new FileParser(filename1, true);
+        FileParser opl = new FileParser(filename2, true);
+        FileParser mpo = new FileParser(filename3, true);
+
+        Assert.assertEquals(ir.getBallotList(), new FileParser(filename1).getBallotList());
+        Assert.assertNull(ir.getBallotTallies());
+
+        Assert.assertEquals(opl.getCandidateLine(), "Pike (D), Foster (D), Deutsch (R), Borg (R), Jones (R), Smith (I)");
+        Assert.assertEquals(opl.getNumberOfSeats(), 3);
+        Assert.assertEquals(opl.getNumberOfBallots(), 9);
+        Assert.assertArrayEquals(opl.getBallotTallies(), new int[]{3, 2, 0, 2, 1, 1});
+
+        Assert.assertEquals(mpo.getCandidateLine(), "[Pike, D], [Foster, D], [Deutsch, R], [Borg, R], [Jones, R], [Smith, I]");
+        Assert.assertEquals(mpo.getNumberOfSeats(), 2);
+        Assert.assertEquals(mpo.getNumberOfBallots(), 8);
+        Assert.assertArrayEquals(mpo.getBallotTallies(), new int[]{2, 2, 0, 2, 0, 2});
+    }
+
+    /**
+     * This function tests that only a field that is exactly "1" counts as a vote, and that lines with a malformed 
+     * field or a vote beyond the last candidate are rejected instead of counted
+     */
+    @Test
+    public void rejectedBallotLinesTest() throws java.io.IOException{
+        String file = "OPL\n2\nPike (D), Foster (D)\n1\n7\n10,1\n,11\n1,,1\n,1\n1,1\n\r\n,1\r";
+        FileParser opl = new FileParser(new java.io.ByteArrayInputStream(file.getBytes(java.nio.charset.StandardCharsets.UTF_8)));
+
+        Assert.assertArrayEquals(new int[]{1, 2}, opl.getBallotTallies());
+        Assert.assertEquals(4, opl.getNumberOfRejectedLines());
+    }
 }
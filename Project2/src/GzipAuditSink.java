@@ -0,0 +1,304 @@
+/**
+ * GzipAuditSink.java
+ * This class writes the audit gzip-compressed, for elections whose audit would otherwise take gigabytes of plain
+ * text. The audit can be split into segments: once a segment reaches the segment size on disk, the next phase of
+ * the election starts a new segment, so a round is never split between two segments. Segments are named after the
+ * audit file, e.g. "audit_file.txt.1.gz", "audit_file.txt.2.gz", ..., or "audit_file.txt.gz" if the audit is not
+ * split. The compressor is only synced when a segment is finished, which keeps every phase from ending a deflate
+ * block early, so a segment can only be read once it is finished. Opening the sink deletes a plain audit file and
+ * the segments of an earlier run under the same name, so the audit is always read back in the format last written.
+ *
+ * An index next to the audit (e.g. "audit_file.txt.index.json") lists every segment with the first and last round
+ * it holds, its number of characters and its size on disk. The index is rewritten whenever a segment is finished.
+ * openSegments() reads the segments of an audit back as one stream, in order.
+ */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+
+public class GzipAuditSink extends AuditSink {
+    public static final String INDEX_SUFFIX = ".index.json"; // Added to the name of the audit file to name its index
+    private static final int BUFFER_SIZE = 1 << 16; // Number of characters or bytes buffered before they are compressed or written
+
+    private final String auditFilePath; // Name and path of the audit file the segments are named after
+    private final long segmentSize; // Size on disk from which the next phase starts a new segment, or 0 or less to write one segment
+    private final ArrayList<Object> segments; // Index entry of every segment, including the current one
+    private LinkedHashMap<String, Object> segment; // Index entry of the current segment, or null until the next write
+    private FileOutputStream outputStream; // Stream of the current segment file, used to force it to disk
+    private GZIPOutputStream gzip; // Compresses the current segment
+    private Writer writer; // Compressing writer of the current segment
+    private long numCharacters; // Number of characters written to the current segment
+    private long phaseStart; // Number of characters of the current segment written before the current phase
+    private long bytesCounted; // Bytes of the current segment file already added to the ElectionMetrics
+    private boolean closed; // True once the sink was closed
+    private boolean indexWritten; // True once the index was written
+
+    /**
+     * Constructs a sink that writes the audit gzip-compressed.
+     * @param auditFilePath - Name and path of the audit file, which the segments and index are named after.
+     * @param segmentSize - The size in bytes of a segment on disk from which the next phase of the election starts a
+     * new segment, or 0 to write the whole audit to one compressed file.
+     * @throws UncheckedIOException - If the audit file of an earlier run could not be deleted.
+     */
+    public GzipAuditSink(String auditFilePath, long segmentSize){
+        AuditSink.delete(auditFilePath);
+        this.auditFilePath = auditFilePath;
+        this.segmentSize = segmentSize;
+        this.segments = new ArrayList<>();
+        this.closed = false;
+    }
+
+    @Override
+    public void write(CharSequence content){
+        try {
+            ensureSegment().append(content);
+            numCharacters += content.length();
+        } catch (IOException e){
+            throw new UncheckedIOException("Could not write to audit file " + segmentPath(), e);
+        }
+    }
+
+    /**
+     * This function ends a phase that holds no round.
+     */
+    @Override
+    public void flush(){
+        endPhase(NO_ROUND);
+    }
+
+    /**
+     * This function hands the current phase to the compressor, records its round in the index, and finishes the
+     * segment if it has reached the segment size.
+     * @param round - The last round written in the phase, or NO_ROUND if the phase holds no round.
+     */
+    @Override
+    public void endPhase(int round){
+        if (closed){
+            throw new UncheckedIOException(new IOException("Audit file " + auditFilePath + " is already closed"));
+        }
+        if (segment == null){ // Nothing was written since the last segment was finished
+            return;
+        }
+
+        try {
+            writer.flush();
+            countBytesWritten();
+            endIndexPhase(round);
+            if (segmentSize > 0 && outputStream.getChannel().position() >= segmentSize){
+                finishSegment();
+                writeIndex();
+            }
+        } catch (IOException e){
+            throw new UncheckedIOException("Could not write to audit file " + segmentPath(), e);
+        }
+    }
+
+    /**
+     * This function finishes the last segment, forces it to disk and writes the index. Closing the sink more than
+     * once has no effect.
+     */
+    @Override
+    public void close(){
+        if (closed){
+            return;
+        }
+        closed = true;
+
+        try {
+            endIndexPhase(NO_ROUND);
+            finishSegment();
+        } catch (IOException e){
+            throw new UncheckedIOException("Could not close audit file " + segmentPath(), e);
+        }
+        writeIndex();
+    }
+
+    @Override
+    public List<String> getFiles(){
+        ArrayList<String> files = new ArrayList<>(segments.size() + 1);
+        for (int i = 0; i < segments.size(); i++){
+            files.add(segmentPath(i));
+        }
+        if (indexWritten){
+            files.add(auditFilePath + INDEX_SUFFIX);
+        }
+        return files;
+    }
+
+    /**
+     * This function opens an audit file for reading, whether it was written as plain text or by a GzipAuditSink. The
+     * segments of a compressed audit file are found through its index, so it is opened by its original name. Both
+     * sinks delete the other format when they open, so only the format last written is left.
+     * @param auditFilePath - Name and path of the audit file.
+     * @return - The uncompressed audit file.
+     * @throws IOException - If the audit file could not be read.
+     * @throws IllegalArgumentException - If the index of a compressed audit file is not valid.
+     */
+    public static InputStream openAuditFile(String auditFilePath) throws IOException {
+        if (!Files.exists(Paths.get(auditFilePath)) && Files.exists(Paths.get(auditFilePath + INDEX_SUFFIX))){
+            return openSegments(auditFilePath);
+        }
+        return new FileInputStream(auditFilePath);
+    }
+
+    /**
+     * This function deletes the segments and index of an audit written by a GzipAuditSink, if there are any.
+     * @param auditFilePath - Name and path of the audit file the segments are named after.
+     * @throws IOException - If a segment or the index could not be deleted.
+     */
+    public static void deleteSegments(String auditFilePath) throws IOException {
+        Files.deleteIfExists(Paths.get(auditFilePath + ".gz"));
+        for (int i = 1; Files.deleteIfExists(Paths.get(auditFilePath + "." + i + ".gz")); i++){
+        }
+        Files.deleteIfExists(Paths.get(auditFilePath + INDEX_SUFFIX));
+    }
+
+    /**
+     * This function opens the segments of an audit written by a GzipAuditSink as one stream of the uncompressed
+     * audit, reading the segments in the order of its index.
+     * @param auditFilePath - Name and path of the audit file the segments are named after.
+     * @return - The uncompressed audit.
+     * @throws IOException - If the index or a segment could not be read.
+     * @throws IllegalArgumentException - If the index is not valid.
+     */
+    public static InputStream openSegments(String auditFilePath) throws IOException {
+        String indexText = new String(Files.readAllBytes(Paths.get(auditFilePath + INDEX_SUFFIX)), StandardCharsets.UTF_8);
+        List<Object> segments = AuditEvent.listValue(AuditEvent.asFields(JsonReader.parse(indexText)), "segments");
+        Path directory = Paths.get(auditFilePath).toAbsolutePath().getParent();
+
+        Vector<InputStream> streams = new Vector<>();
+        try {
+            for (Object segment : segments){
+                Path path = directory.resolve(AuditEvent.stringValue(AuditEvent.asFields(segment), "file"));
+                streams.add(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE), BUFFER_SIZE));
+            }
+        } catch (IOException e){
+            for (InputStream stream : streams){
+                stream.close();
+            }
+            throw e;
+        }
+        return new SequenceInputStream(streams.elements());
+    }
+
+    /**
+     * This function returns the writer of the current segment, creating the segment if none is open.
+     */
+    private Writer ensureSegment() throws IOException {
+        if (closed){
+            throw new IOException("Audit file " + auditFilePath + " is already closed");
+        }
+        if (segment == null){
+            segment = new LinkedHashMap<>();
+            segment.put("file", Paths.get(auditFilePath).getFileName().toString() + (segmentSize > 0 ? "." + (segments.size() + 1) : "") + ".gz");
+            segment.put("phases", 0);
+            segments.add(segment);
+
+            outputStream = new FileOutputStream(segmentPath());
+            gzip = new GZIPOutputStream(outputStream, BUFFER_SIZE){ // Synced only when the segment is finished
+                {
+                    def.setLevel(Deflater.BEST_SPEED); // The repetitive audit tables compress well even at the fastest level
+                }
+            };
+            writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+            numCharacters = 0;
+            phaseStart = 0;
+            bytesCounted = 0;
+        }
+        return writer;
+    }
+
+    /**
+     * This function counts the phase written since the last one in the index entry of the current segment, along
+     * with its round.
+     */
+    private void endIndexPhase(int round){
+        if (segment == null || numCharacters == phaseStart){
+            return;
+        }
+        segment.put("phases", ((Integer) segment.get("phases")) + 1);
+        if (round != NO_ROUND){
+            segment.putIfAbsent("firstRound", round);
+            segment.put("lastRound", round);
+        }
+        phaseStart = numCharacters;
+    }
+
+    /**
+     * This function writes the end of the current segment, forces it to disk and records its size in the index.
+     */
+    private void finishSegment() throws IOException {
+        if (segment == null){
+            return;
+        }
+
+        try {
+            try {
+                writer.flush();
+                gzip.finish();
+                countBytesWritten();
+                outputStream.getChannel().force(false);
+                segment.put("characters", numCharacters);
+                segment.put("compressedBytes", outputStream.getChannel().position());
+            } finally {
+                writer.close();
+            }
+        } finally {
+            segment = null;
+            writer = null;
+            gzip = null;
+            outputStream = null;
+        }
+    }
+
+    /**
+     * This function adds the compressed bytes written to the current segment since the last phase to the
+     * ElectionMetrics, if they are enabled.
+     */
+    private void countBytesWritten() throws IOException {
+        if (!ElectionMetrics.get().isEnabled()){
+            return;
+        }
+        long position = outputStream.getChannel().position();
+        ElectionMetrics.get().addAuditBytesWritten(position - bytesCounted);
+        bytesCounted = position;
+    }
+
+    /**
+     * This function writes the index of the segments next to the audit file.
+     */
+    private void writeIndex(){
+        String indexPath = auditFilePath + INDEX_SUFFIX;
+        try (Writer out = Files.newBufferedWriter(Paths.get(indexPath), StandardCharsets.UTF_8)){
+            JsonWriter json = new JsonWriter(out);
+            json.beginObject();
+            json.name("file").value(Paths.get(auditFilePath).getFileName().toString());
+            json.name("segmentSize").value(Math.max(segmentSize, 0));
+            json.name("segments").value((Object) segments);
+            json.endObject();
+            out.write('\n');
+        } catch (IOException e){
+            throw new UncheckedIOException("Could not write audit index " + indexPath, e);
+        }
+        indexWritten = true;
+    }
+
+    /**
+     * This function returns the name and path of the current or last segment file.
+     */
+    private String segmentPath(){
+        return segments.isEmpty() ? auditFilePath + ".gz" : segmentPath(segments.size() - 1);
+    }
+
+    /**
+     * This function returns the name and path of a segment file, from the name in its index entry.
+     */
+    private String segmentPath(int segmentIdx){
+        Object file = AuditEvent.asFields(segments.get(segmentIdx)).get("file");
+        Path parent = Paths.get(auditFilePath).getParent();
+        return parent == null ? String.valueOf(file) : parent.resolve(String.valueOf(file)).toString();
+    }
+}
@@ -0,0 +1,142 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.*;
+
+public class GzipAuditSinkTests {
+    /**
+     * This function reads a whole audit file written by a GzipAuditSink.
+     */
+    private static String readAudit(String auditFilePath) throws IOException {
+        try (InputStream in = GzipAuditSink.openAuditFile(auditFilePath)){
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1 << 12];
+            int read;
+            while ((read = in.read(buffer)) > 0){
+                out.write(buffer, 0, read);
+            }
+            return out.toString("UTF-8");
+        }
+    }
+
+    /**
+     * This function reads the segments listed in the index of an audit file.
+     */
+    private static List<Object> readSegments(String auditFilePath) throws IOException {
+        String index = new String(Files.readAllBytes(Paths.get(auditFilePath + GzipAuditSink.INDEX_SUFFIX)), StandardCharsets.UTF_8);
+        return AuditEvent.listValue(AuditEvent.asFields(JsonReader.parse(index)), "segments");
+    }
+
+    /**
+     * This function creates an empty directory for the audit files of a test.
+     */
+    private static Path createAuditDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("gzip_audit");
+        directory.toFile().deleteOnExit();
+        return directory;
+    }
+
+    /**
+     * This test checks that an audit written to one compressed file reads back unchanged and is indexed by round.
+     */
+    @Test
+    public void testSingleFile() throws IOException {
+        String auditFilePath = createAuditDirectory().resolve("audit_file.txt").toString();
+        GzipAuditSink sink = new GzipAuditSink(auditFilePath, 0);
+        sink.write("First round\n");
+        sink.endPhase(1);
+        sink.write("Round 2 with Chou (I) ");
+        sink.write("and Royce (L)\n");
+        sink.endPhase(2);
+        sink.write("Final result\n");
+        sink.close();
+
+        Assert.assertTrue(new File(auditFilePath + ".gz").exists());
+        Assert.assertFalse(new File(auditFilePath).exists());
+        Assert.assertEquals("First round\nRound 2 with Chou (I) and Royce (L)\nFinal result\n", readAudit(auditFilePath));
+
+        List<Object> segments = readSegments(auditFilePath);
+        Assert.assertEquals(1, segments.size());
+        Map<String, Object> segment = AuditEvent.asFields(segments.get(0));
+        Assert.assertEquals("audit_file.txt.gz", AuditEvent.stringValue(segment, "file"));
+        Assert.assertEquals(3, AuditEvent.intValue(segment, "phases"));
+        Assert.assertEquals(1, AuditEvent.intValue(segment, "firstRound"));
+        Assert.assertEquals(2, AuditEvent.intValue(segment, "lastRound"));
+        Assert.assertEquals(61, AuditEvent.intValue(segment, "characters"));
+    }
+
+    /**
+     * This test checks that a new segment is started at the first phase after the segment size is reached, and
+     * that the segments read back in order as one audit.
+     */
+    @Test
+    public void testRotation() throws IOException {
+        String auditFilePath = createAuditDirectory().resolve("audit_file.txt").toString();
+        GzipAuditSink sink = new GzipAuditSink(auditFilePath, 1);
+        StringBuilder expected = new StringBuilder();
+        for (int round = 1; round <= 3; round++){
+            String content = "Round " + round + "\n";
+            sink.write(content);
+            sink.endPhase(round);
+            expected.append(content);
+        }
+        sink.close();
+
+        List<Object> segments = readSegments(auditFilePath);
+        Assert.assertEquals(3, segments.size());
+        for (int i = 0; i < segments.size(); i++){
+            Map<String, Object> segment = AuditEvent.asFields(segments.get(i));
+            Assert.assertEquals("audit_file.txt." + (i + 1) + ".gz", AuditEvent.stringValue(segment, "file"));
+            Assert.assertEquals(i + 1, AuditEvent.intValue(segment, "firstRound"));
+            Assert.assertEquals(i + 1, AuditEvent.intValue(segment, "lastRound"));
+        }
+        Assert.assertEquals(expected.toString(), readAudit(auditFilePath));
+    }
+
+    /**
+     * This test checks that each sink deletes the audit of an earlier run in the other format, so the audit is read
+     * back in the format last written.
+     */
+    @Test
+    public void testFormatOfLastRunIsRead() throws IOException {
+        String auditFilePath = createAuditDirectory().resolve("audit_file.txt").toString();
+        AuditSink plain = new FileAuditSink(auditFilePath);
+        plain.write("Plain audit\n");
+        plain.close();
+
+        GzipAuditSink gzip = new GzipAuditSink(auditFilePath, 0);
+        gzip.write("Compressed audit\n");
+        gzip.close();
+        Assert.assertFalse(new File(auditFilePath).exists());
+        Assert.assertEquals("Compressed audit\n", readAudit(auditFilePath));
+
+        plain = new FileAuditSink(auditFilePath);
+        plain.write("Plain audit again\n");
+        plain.close();
+        Assert.assertFalse(new File(auditFilePath + ".gz").exists());
+        Assert.assertFalse(new File(auditFilePath + GzipAuditSink.INDEX_SUFFIX).exists());
+        Assert.assertEquals("Plain audit again\n", readAudit(auditFilePath));
+    }
+
+    /**
+     * This test checks that an IR election writes a compressed audit through the async writer and the hash chain,
+     * and that the hash chain verifies against the uncompressed content.
+     */
+    @Test
+    public void testCompressedElectionAudit() throws IOException {
+        String auditFilePath = createAuditDirectory().resolve("audit_file.txt").toString();
+        final FileParser file = new FileParser("./../testing/IR_test_two_leading_candidate_loss_after_redistribution.csv");
+        final IRVoting ir = new IRVoting(file.getCandidateLine(), new ArrayList<>(file.getBallotList()), auditFilePath);
+        ir.setAsyncAudit(true);
+        ir.setAuditHashChain(true);
+        ir.setAuditGzip(true, 1);
+        ir.calculateBallots();
+
+        List<Object> segments = readSegments(auditFilePath);
+        Assert.assertTrue(segments.size() >= 3);
+        Assert.assertEquals(1, AuditEvent.intValue(AuditEvent.asFields(segments.get(0)), "firstRound"));
+        Assert.assertTrue(readAudit(auditFilePath).contains("Winning candidate is "));
+        Assert.assertEquals(0, HashChainAuditSink.verify(auditFilePath, auditFilePath + HashChainAuditSink.MANIFEST_SUFFIX));
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * HashChainAuditSink.java
+ * This class keeps a SHA-256 hash chain over an audit file while it is written, so its integrity can be certified
+ * without hashing the finished file in a separate pass. The content written between two flushes is one record,
+ * which is one phase of the election such as the initial results or a redistribution round. Every record gets its
+ * own digest, and the chain digest of a record is the digest of the previous chain digest followed by the record's
+ * digest, so altering any record changes every chain digest after it.
+ *
+ * On close, a trailer with the number of records and the final chain digest is appended to a human-readable audit
+ * file (but not to a JSON Lines event log, which must stay one event per line), and a JSON manifest listing the
+ * byte offset, length, digest and chain digest of every record is written next to it.
+ * verify() uses the manifest to find the first record of an audit file that was altered.
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.util.*;
+
+public class HashChainAuditSink extends AuditSink {
+    public static final String MANIFEST_SUFFIX = ".chain.json"; // Added to the name of the audit file to name its manifest
+
+    private final AuditSink delegate; // Sink the audit file content is written to
+    private final String auditFilePath; // Name and path of the audit file
+    private final boolean writeTrailer; // True if the trailer is appended to the audit file on close
+    private final MessageDigest recordDigest; // Digest of the current record, updated on every write
+    private final MessageDigest chainDigest; // Digest used to link a record to the chain
+    private final CharsetEncoder encoder; // Encodes the content as the UTF-8 bytes written to the audit file
+    private final ByteBuffer bytes; // Reused buffer holding the encoded content being hashed
+    private final ArrayList<Object> records; // Offset, length, digest and chain digest of every finished record
+    private byte[] chain; // Chain digest of the last finished record
+    private long recordOffset; // Byte offset of the current record in the audit file
+    private long recordLength; // Number of bytes written to the current record
+    private boolean closed; // True once the trailer and manifest were written
+    private boolean manifestWritten; // True once the manifest was written
+
+    /**
+     * Constructs a sink that hashes everything written to another sink.
+     * @param delegate - The sink of the audit file.
+     * @param auditFilePath - Name and path of the audit file, used to name the manifest.
+     * @param writeTrailer - True to append the trailer to the audit file on close.
+     */
+    public HashChainAuditSink(AuditSink delegate, String auditFilePath, boolean writeTrailer){
+        this.delegate = delegate;
+        this.auditFilePath = auditFilePath;
+        this.writeTrailer = writeTrailer;
+        this.recordDigest = Digests.newDigest();
+        this.chainDigest = Digests.newDigest();
+        this.encoder = StandardCharsets.UTF_8.newEncoder();
+        this.bytes = ByteBuffer.allocate(1 << 13);
+        this.records = new ArrayList<>();
+        this.chain = new byte[Digests.DIGEST_LENGTH];
+        this.recordOffset = 0;
+        this.recordLength = 0;
+        this.closed = false;
+    }
+
+    @Override
+    public void write(CharSequence content){
+        delegate.write(content);
+        CharBuffer chars = CharBuffer.wrap(content);
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, bytes, false);
+            hashBytes();
+        } while (result.isOverflow());
+    }
+
+    /**
+     * This function ends the current record and flushes the audit file.
+     */
+    @Override
+    public void flush(){
+        endRecord();
+        delegate.flush();
+    }
+
+    /**
+     * This function ends the current record and the phase of the audit file.
+     * @param round - The last round written in the phase, or NO_ROUND if the phase holds no round.
+     */
+    @Override
+    public void endPhase(int round){
+        endRecord();
+        delegate.endPhase(round);
+    }
+
+    /**
+     * This function ends the last record, appends the trailer, closes the audit file and writes the manifest.
+     */
+    @Override
+    public void close(){
+        if (closed){
+            return;
+        }
+        closed = true;
+
+        try {
+            endRecord();
+            if (writeTrailer){
+                delegate.write(trailer(records.size(), Digests.toHex(chain)));
+            }
+        } finally {
+            delegate.close();
+        }
+        writeManifest();
+    }
+
+    /**
+     * This function lists the files of the audit, followed by the manifest once it was written.
+     * @return - The names and paths of the files.
+     */
+    @Override
+    public List<String> getFiles(){
+        List<String> files = delegate.getFiles();
+        if (!manifestWritten){
+            return files;
+        }
+        ArrayList<String> withManifest = new ArrayList<>(files);
+        withManifest.add(auditFilePath + MANIFEST_SUFFIX);
+        return withManifest;
+    }
+
+    /**
+     * Retrieves the chain digest of the last finished record.
+     * @return - The chain digest in hexadecimal, or 64 zeros if no record was finished.
+     */
+    public String getChainDigest(){
+        return Digests.toHex(chain);
+    }
+
+    /**
+     * This function builds the trailer appended to an audit file after its last record.
+     * @param numRecords - The number of records of the audit file.
+     * @param finalDigest - The chain digest of the last record in hexadecimal.
+     * @return - The trailer.
+     */
+    public static String trailer(int numRecords, String finalDigest){
+        return "\n\n--- Audit hash chain (" + Digests.ALGORITHM + ") ---\nRecords: " + numRecords + "\nFinal chain digest: " + finalDigest + "\n";
+    }
+
+    /**
+     * This function checks an audit file against its manifest in one pass over the file. A gzip-compressed audit
+     * file is checked by its original name.
+     * @param auditFilePath - Name and path of the audit file.
+     * @param manifestPath - Name and path of the manifest written when the audit file was closed.
+     * @return - 0 if the audit file is intact, the number (starting at 1) of the first record that was altered, or the
+     * number of records + 1 if only the trailer or the content after the last record was altered.
+     * @throws IOException - If the audit file or manifest could not be read.
+     * @throws IllegalArgumentException - If the manifest is not valid.
+     */
+    public static int verify(String auditFilePath, String manifestPath) throws IOException {
+        Map<String, Object> manifest = AuditEvent.asFields(JsonReader.parse(new String(Files.readAllBytes(Paths.get(manifestPath)), StandardCharsets.UTF_8)));
+        List<Object> records = AuditEvent.listValue(manifest, "records");
+        MessageDigest recordDigest = Digests.newDigest();
+        MessageDigest chainDigest = Digests.newDigest();
+        byte[] chain = new byte[Digests.DIGEST_LENGTH];
+        byte[] buffer = new byte[1 << 16];
+
+        try (InputStream in = new BufferedInputStream(GzipAuditSink.openAuditFile(auditFilePath), 1 << 16)){
+            for (int i = 0; i < records.size(); i++){
+                Map<String, Object> record = AuditEvent.asFields(records.get(i));
+                long remaining = ((Number) record.get("length")).longValue();
+                while (remaining > 0){
+                    int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (read < 0){
+                        return i + 1; // The audit file was cut short
+                    }
+                    recordDigest.update(buffer, 0, read);
+                    remaining -= read;
+                }
+
+                byte[] digest = recordDigest.digest();
+                chainDigest.update(chain);
+                chainDigest.update(digest);
+                chain = chainDigest.digest();
+                if (!Digests.toHex(digest).equals(AuditEvent.stringValue(record, "digest")) || !Digests.toHex(chain).equals(AuditEvent.stringValue(record, "chain"))){
+                    return i + 1;
+                }
+            }
+
+            // The rest of the audit file must be exactly the trailer, if one was written
+            String finalDigest = Digests.toHex(chain);
+            String expectedRest = Boolean.TRUE.equals(manifest.get("trailer")) ? trailer(records.size(), finalDigest) : "";
+            ByteArrayOutputStream rest = new ByteArrayOutputStream();
+            int read;
+            while ((read = in.read(buffer)) > 0 && rest.size() <= 1 << 12){
+                rest.write(buffer, 0, read);
+            }
+            boolean intact = finalDigest.equals(AuditEvent.stringValue(manifest, "final"))
+                && rest.toString("UTF-8").equals(expectedRest);
+            return intact ? 0 : records.size() + 1;
+        }
+    }
+
+    /**
+     * This function hashes the encoded bytes in the buffer and empties it.
+     */
+    private void hashBytes(){
+        bytes.flip();
+        recordLength += bytes.remaining();
+        recordDigest.update(bytes);
+        bytes.clear();
+    }
+
+    /**
+     * This function finishes the current record and links it to the chain. Nothing is recorded if nothing was
+     * written since the last record.
+     */
+    private void endRecord(){
+        if (recordLength == 0){
+            return;
+        }
+
+        byte[] digest = recordDigest.digest();
+        chainDigest.update(chain);
+        chainDigest.update(digest);
+        chain = chainDigest.digest();
+
+        LinkedHashMap<String, Object> record = new LinkedHashMap<>();
+        record.put("offset", recordOffset);
+        record.put("length", recordLength);
+        record.put("digest", Digests.toHex(digest));
+        record.put("chain", Digests.toHex(chain));
+        records.add(record);
+
+        recordOffset += recordLength;
+        recordLength = 0;
+    }
+
+    /**
+     * This function writes the manifest listing every record next to the audit file.
+     */
+    private void writeManifest(){
+        String manifestPath = auditFilePath + MANIFEST_SUFFIX;
+        try (Writer out = Files.newBufferedWriter(Paths.get(manifestPath), StandardCharsets.UTF_8)){
+            JsonWriter json = new JsonWriter(out);
+            json.beginObject();
+            json.name("algorithm").value(Digests.ALGORITHM);
+            json.name("file").value(Paths.get(auditFilePath).getFileName().toString());
+            json.name("trailer").value(writeTrailer);
+            json.name("records").value((Object) records);
+            json.name("final").value(Digests.toHex(chain));
+            json.endObject();
+            out.write('\n');
+        } catch (IOException e){
+            throw new UncheckedIOException("Could not write audit manifest " + manifestPath, e);
+        }
+        manifestWritten = true;
+    }
+}
@@ -0,0 +1,104 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import org.junit.*;
+
+public class HashChainAuditSinkTests {
+    /**
+     * This function creates an empty temporary audit file whose manifest is also deleted when the tests exit.
+     */
+    private static File createAuditFile() throws IOException {
+        File auditFile = File.createTempFile("hash_chain", ".txt");
+        auditFile.deleteOnExit();
+        new File(auditFile.getPath() + HashChainAuditSink.MANIFEST_SUFFIX).deleteOnExit();
+        return auditFile;
+    }
+
+    /**
+     * This function writes three records to an audit file through a hash chain sink.
+     */
+    private static HashChainAuditSink writeRecords(File auditFile, boolean writeTrailer) {
+        HashChainAuditSink sink = new HashChainAuditSink(AuditSink.open(auditFile.getPath()), auditFile.getPath(), writeTrailer);
+        sink.write("Voting Protocol Name: Instant Runoff (IR) \n\n");
+        sink.write("Rosen (D) 2\n");
+        sink.flush();
+        sink.write("Current Redistribution Round Results: Chou (I) é\n");
+        sink.flush();
+        sink.flush(); // Nothing was written, so no record is added
+        sink.write("Winning candidate is Rosen.");
+        sink.close();
+        return sink;
+    }
+
+    /**
+     * This test checks that the manifest lists one record per flush with consecutive byte offsets, and that the
+     * trailer with the final chain digest is appended to the audit file.
+     */
+    @Test
+    public void testManifestAndTrailer() throws IOException {
+        File auditFile = createAuditFile();
+        HashChainAuditSink sink = writeRecords(auditFile, true);
+
+        Map<String, Object> manifest = AuditEvent.asFields(JsonReader.parse(new String(Files.readAllBytes(new File(auditFile.getPath() + HashChainAuditSink.MANIFEST_SUFFIX).toPath()), StandardCharsets.UTF_8)));
+        List<Object> records = AuditEvent.listValue(manifest, "records");
+        Assert.assertEquals(3, records.size());
+        Assert.assertEquals(0L, AuditEvent.asFields(records.get(0)).get("offset"));
+        Assert.assertEquals(AuditEvent.asFields(records.get(0)).get("length"), AuditEvent.asFields(records.get(1)).get("offset"));
+        Assert.assertEquals(sink.getChainDigest(), manifest.get("final"));
+        Assert.assertEquals(sink.getChainDigest(), AuditEvent.asFields(records.get(2)).get("chain"));
+
+        String content = new String(Files.readAllBytes(auditFile.toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(content.endsWith("Winning candidate is Rosen." + HashChainAuditSink.trailer(3, sink.getChainDigest())));
+        Assert.assertEquals(0, HashChainAuditSink.verify(auditFile.getPath(), auditFile.getPath() + HashChainAuditSink.MANIFEST_SUFFIX));
+    }
+
+    /**
+     * This test checks that the same content always gives the same chain, and different content a different chain.
+     */
+    @Test
+    public void testChainIsDeterministic() throws IOException {
+        File first = createAuditFile();
+        File second = createAuditFile();
+        Assert.assertEquals(writeRecords(first, true).getChainDigest(), writeRecords(second, true).getChainDigest());
+
+        HashChainAuditSink other = new HashChainAuditSink(AuditSink.open(second.getPath()), second.getPath(), true);
+        other.write("Voting Protocol Name: Instant Runoff (IR) \n\n");
+        other.close();
+        Assert.assertNotEquals(writeRecords(first, true).getChainDigest(), other.getChainDigest());
+    }
+
+    /**
+     * This test checks that verify() finds the record that was altered, and reports an altered trailer after the last record.
+     */
+    @Test
+    public void testVerifyFindsAlteredRecord() throws IOException {
+        File auditFile = createAuditFile();
+        writeRecords(auditFile, true);
+        String manifestPath = auditFile.getPath() + HashChainAuditSink.MANIFEST_SUFFIX;
+        String content = new String(Files.readAllBytes(auditFile.toPath()), StandardCharsets.UTF_8);
+
+        Files.write(auditFile.toPath(), content.replace("Chou", "Choi").getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(2, HashChainAuditSink.verify(auditFile.getPath(), manifestPath));
+
+        Files.write(auditFile.toPath(), content.replace("Records: 3", "Records: 2").getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(4, HashChainAuditSink.verify(auditFile.getPath(), manifestPath));
+
+        Files.write(auditFile.toPath(), content.substring(0, 20).getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(1, HashChainAuditSink.verify(auditFile.getPath(), manifestPath));
+    }
+
+    /**
+     * This test checks that no trailer is appended to an event log, so it stays one JSON object per line.
+     */
+    @Test
+    public void testNoTrailer() throws IOException {
+        File auditFile = createAuditFile();
+        writeRecords(auditFile, false);
+
+        String content = new String(Files.readAllBytes(auditFile.toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(content.endsWith("Winning candidate is Rosen."));
+        Assert.assertEquals(0, HashChainAuditSink.verify(auditFile.getPath(), auditFile.getPath() + HashChainAuditSink.MANIFEST_SUFFIX));
+    }
+}
@@ -6,16 +6,16 @@
  * election process details to an audit file.
  */
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
-import java.security.SecureRandom;
-import java.text.DecimalFormat;
 import java.util.*;
 
 public class IRVoting extends Voting {
+    private static final String PROTOCOL = "IR"; // Protocol name written with every audit event
     private ArrayList<Candidate> candidates; // List of Candidate objects for storing the candidate's name, party affiliation and number of votes information.
     private ArrayList<ArrayList<Candidate>> ballots; // List of ballots where each element is a list of Candidate objects ordered by a voter's preference
+    private String ballotTracePath = ""; // Name and path of the ballot trace, or an empty string if no ballot trace is written
+    private BallotTraceWriter ballotTrace; // Writer of the ballot trace, open while the election is run
+    private boolean ballotTraceWritten; // True once the ballot trace was created
+    private int[] ballotNumbers; // Number in the ballot file of the ballot at every position of ballots, kept while the ballot trace is written
 
     /**
      * Constructor that initializes the important variables needed for this class.
@@ -28,12 +28,6 @@ public class IRVoting extends Voting {
         this.candidates = processCandidateInfo(candidateLine);
         this.ballots = processBallotOrder(ballotList);
         this.auditFilePath = auditFilePath;
-
-        // Delete audit file created during a previous run
-        File auditFile = new File(auditFilePath);
-        if (auditFile.exists()){
-            auditFile.delete();
-        }
     }
 
     /**
@@ -45,14 +39,14 @@ public class IRVoting extends Voting {
         ArrayList<Candidate> candidates = new ArrayList<>();
         String[] candidatePartyInfo = candidateLine.split(", ");
         
-        for (String candidatePartyElement : candidatePartyInfo){
+        for (int column = 0; column < candidatePartyInfo.length; column++){
             // candidatePatyElement has the form: "Rosen (D)", so we split it to extract candidate and party name
-            String[] element_split = candidatePartyElement.split(" ");
+            String[] element_split = candidatePartyInfo[column].split(" ");
             String candidate = element_split[0];
             String party = String.valueOf(element_split[1].charAt(1));
 
-            // Add new candidate to list of candidates
-            candidates.add(new Candidate(candidate, party));
+            // Add new candidate to list of candidates, using their ballot column as their id
+            candidates.add(new Candidate(candidate, party, column));
         }
 
         return candidates;
@@ -88,25 +82,48 @@ public class IRVoting extends Voting {
     /**
      * This function is the entry point for our ballot calulcations and calls other private functions for checking
      * if a majority or tie has arrived after the first round of calulcations, or if redistribution needs to be performed
-     * to declare a winner
+     * to declare a winner. The audit file and ballot trace are closed once the winner is known.
+     * @throws java.io.UncheckedIOException - If the audit file or ballot trace could not be written.
      */
     public void calculateBallots(){
-        // perform first round of ballot calculation
-        performFirstRoundCalculations();
-        buildAndWriteInitialResultsToAuditFile();
+        try {
+            openBallotTrace();
 
-        // Check if majority occurred after first round of ballot calculations.
-        if (checkMajority()){
+            // perform first round of ballot calculation
+            try (ElectionPhase<ElectionEvents.Round> phase = ElectionPhase.round(PROTOCOL, "Counting first choices", 1)){
+                performFirstRoundCalculations();
+                phase.getEvent().setResult(ballots.size(), 0);
+            }
             buildAndWriteInitialResultsToAuditFile();
-        }
-        else if (checkTie()){
-            // Handle tie if it occurred after first round of ballot calculations.
-            handleTie();
-            buildAndWriteTieResultToAuditFile();
-        }
-        else {
-            // Redistribute votes if a tie or majority was not found during the first round of ballot calculations.
-            redistributeVotes();
+            flushAuditFile();
+            if (resultExporter != null){
+                resultExporter.beginElection("IR", ballots.size(), 0);
+                resultExporter.candidateRound(1, candidates);
+            }
+
+            // Check if majority occurred after first round of ballot calculations.
+            if (checkMajority()){
+                buildAndWriteInitialResultsToAuditFile();
+            }
+            else if (checkTie()){
+                // Handle tie if it occurred after first round of ballot calculations.
+                handleTie();
+                buildAndWriteTieResultToAuditFile();
+            }
+            else {
+                // Redistribute votes if a tie or majority was not found during the first round of ballot calculations.
+                redistributeVotes();
+            }
+
+            if (resultExporter != null){
+                resultExporter.result(this);
+            }
+        } finally {
+            try {
+                closeAuditFile();
+            } finally {
+                closeBallotTrace();
+            }
         }
     }
 
@@ -115,13 +132,32 @@ public class IRVoting extends Voting {
      * whether a candidate won in the first round or not, or if there's a tie.
      */
     private void performFirstRoundCalculations(){
-        for (ArrayList<Candidate> ballot : ballots){
+        if (progress != null){
+            progress.startPhase("Counting first choices", 1, ballots.size());
+        }
+
+        int numCounted = 0;
+        long numRejected = 0; // Ballots without a first choice
+        for (int position = 0; position < ballots.size(); position++){
+            ArrayList<Candidate> ballot = ballots.get(position);
             Candidate currentCandidate = ballot.get(0);
             // Ensure that we only increment votes for Candidates the voter set a preference for
             if (currentCandidate != null){
                 currentCandidate.incrementVote();
+            } else {
+                numRejected++;
             }
+            traceBallot(position, ballot, ballot, 1);
+
+            // Publish the count for the progress reporter every few thousand ballots
+            if (progress != null && (++numCounted & (ElectionProgress.PUBLISH_INTERVAL - 1)) == 0){
+                progress.setBallotsCounted(numCounted);
+            }
+        }
+        if (progress != null){
+            progress.setBallotsCounted(numCounted);
         }
+        ElectionMetrics.get().addRejectedLines(numRejected);
     }
 
     /**
@@ -129,6 +165,7 @@ public class IRVoting extends Voting {
      * function is called to perform the redistribution of votes using other private helper functions.
      */
     private void redistributeVotes(){
+        int round = 1; // The first round of calculations is round 1
         while (true) {
             // Check tie to ensure a previous redistribution didn't result in a tie
             if (checkTie()){
@@ -137,32 +174,51 @@ public class IRVoting extends Voting {
                 return;
             }
 
-            // Find all candidates who have the lowest number of votes
-            ArrayList<Candidate> eliminatedCandidates = findCandidateForElimination();
-
-            // If more than 1 candidate is tied for the lowest number of votes, then perform a tie breaker
-            Candidate tieWinnerCandidate = null;
-            if (eliminatedCandidates.size() > 1){
-                tieWinnerCandidate = handleIntermediateTie(eliminatedCandidates);
-
-                // Remove tie winner from elimination candidate list so that their votes are not accidentally redistributed.
-                eliminatedCandidates.remove(tieWinnerCandidate);
+            round++;
+            if (progress != null){
+                progress.startPhase("Redistributing votes", round, 0);
             }
+            ArrayList<Candidate> eliminatedCandidates; // Candidates eliminated in the round
+            Candidate tieWinnerCandidate = null; // Candidate who won a tie for the lowest number of votes, if any
+            try (ElectionPhase<ElectionEvents.Round> phase = ElectionPhase.round(PROTOCOL, "Redistributing votes", round)){
+                long numMoved = 0; // Ballots moved to another candidate in the round
+
+                // Find all candidates who have the lowest number of votes
+                eliminatedCandidates = findCandidateForElimination();
 
-            for (Candidate eliminatedCandidate : eliminatedCandidates){
-                eliminatedCandidate.setElimination(true);
+                // If more than 1 candidate is tied for the lowest number of votes, then perform a tie breaker
+                if (eliminatedCandidates.size() > 1){
+                    tieWinnerCandidate = handleIntermediateTie(eliminatedCandidates);
 
-                // Find all ballots that have the eliminated candidate as their first preference
-                ArrayList<ArrayList<Candidate>> eliminatedCandidateBallots = findEliminatedCandidateBallots(eliminatedCandidate);
+                    // Remove tie winner from elimination candidate list so that their votes are not accidentally redistributed.
+                    eliminatedCandidates.remove(tieWinnerCandidate);
+                }
 
-                // If we have at least 1 valid ballot, perform redistribution
-                if (eliminatedCandidateBallots.size() != 0){
-                    updateVotesForCandidate(eliminatedCandidateBallots);
+                for (Candidate eliminatedCandidate : eliminatedCandidates){
+                    eliminatedCandidate.setElimination(true);
+                    ElectionEvents.Transfer transferEvent = ElectionEvents.Transfer.begin(round, eliminatedCandidate.getName());
+                    int numBallots = ballots.size();
+
+                    // Find all ballots that have the eliminated candidate as their first preference
+                    int[] eliminatedCandidateBallots = findEliminatedCandidateBallots(eliminatedCandidate, round);
+
+                    // If we have at least 1 valid ballot, perform redistribution
+                    if (eliminatedCandidateBallots.length != 0){
+                        updateVotesForCandidate(eliminatedCandidateBallots, round);
+                    }
+                    transferEvent.finish(eliminatedCandidateBallots.length, numBallots - ballots.size());
+                    ElectionMetrics.get().recordTransfer();
+                    numMoved += eliminatedCandidateBallots.length;
                 }
+                phase.getEvent().setResult(numMoved, 0);
             }
 
             // Write redistribution round results to audit file
-            buildAndWriteRedistributedVotesToAuditFile(eliminatedCandidates, tieWinnerCandidate);
+            buildAndWriteRedistributedVotesToAuditFile(round, eliminatedCandidates, tieWinnerCandidate);
+            flushAuditFile();
+            if (resultExporter != null){
+                resultExporter.candidateRound(round, candidates);
+            }
 
             // Once redistribution is performed, reset each candidate's votes
             for (Candidate candidate : candidates) {
@@ -229,9 +285,9 @@ public class IRVoting extends Voting {
         }
 
         // Find random candidate to declare as the winner.
-        SecureRandom random = new SecureRandom();
-        int randomIdx = random.nextInt(activeCandidates.size());
+        int randomIdx = getTieBreakRandom().nextInt(activeCandidates.size());
         winningCandidate = activeCandidates.get(randomIdx);
+        recordTieDraw(PROTOCOL, "winner", activeCandidates.size(), winningCandidate.getName());
     }
 
     /**
@@ -250,9 +306,11 @@ public class IRVoting extends Voting {
                     candidate.setElimination(true);
 
                     // Write eliminated candidate's name to the audit file.
-                    StringBuilder sb = new StringBuilder();
-                    sb.append(String.format("\n\nCandidate %s has been eliminated since they recieved 0 votes.\n", candidate.getName()));
-                    writeToAuditFile(sb);
+                    if (isAuditEnabled(AuditLevel.TRACE)){
+                        writeAuditEvent(new AuditEvent(AuditEvent.Type.ELIMINATION, PROTOCOL)
+                            .with("reason", "no votes")
+                            .with("candidate", candidate.getName()));
+                    }
                 }
                 else {
                     // Find candidate who can be eliminated.
@@ -282,9 +340,9 @@ public class IRVoting extends Voting {
      */
     private Candidate handleIntermediateTie(ArrayList<Candidate> elimCandidates){
         // Perform tie breaker between lowest vote candidates
-        SecureRandom random = new SecureRandom();
-        int randomIdx = random.nextInt(elimCandidates.size());
+        int randomIdx = getTieBreakRandom().nextInt(elimCandidates.size());
         Candidate tieWinnerCandidate = elimCandidates.get(randomIdx);
+        recordTieDraw(PROTOCOL, "elimination", elimCandidates.size(), tieWinnerCandidate.getName());
         return tieWinnerCandidate;
     }
 
@@ -309,45 +367,58 @@ public class IRVoting extends Voting {
     /**
      * This function helps find the ballots that indicated our eliminated candidate as their 
      * first choice vote. Since there could be multiple ballots that indicated our candidate
-     * as their first choice, we return a subset of the “ballots” arraylist member variable; 
-     * hence the return type is ArrayList<Arraylist<Candidate>>
+     * as their first choice, we return the positions of all of them in the “ballots” arraylist
+     * member variable. Ballots without any other candidate ranked who votes can be redistributed
+     * to are removed from "ballots" first, so the positions are those after the removal.
      * @param eliminatedCandidate - The candidate object that has been eliminated from the election and
      * whose votes can be redistributed.
-     * @return - A list of all relevant ballots that have the eliminated candidate set as their first
-     * preference.
+     * @param round - The number of the redistribution round, recorded in the ballot trace for exhausted ballots.
+     * @return - The positions in "ballots" of all relevant ballots that have the eliminated candidate set as their
+     * first preference, in ascending order.
      */
-    private ArrayList<ArrayList<Candidate>> findEliminatedCandidateBallots(Candidate eliminatedCandidate){
-        ArrayList<ArrayList<Candidate>> relevantBallots = new ArrayList<>();
-        ArrayList<ArrayList<Candidate>> ballotsToRemove = new ArrayList<>();
-        
-        for (ArrayList<Candidate> ballot : ballots){
+    private int[] findEliminatedCandidateBallots(Candidate eliminatedCandidate, int round){
+        int[] relevantBallots = new int[ballots.size()];
+        int numRelevant = 0;
+        int numKept = 0;
+
+        for (int position = 0; position < ballots.size(); position++){
+            ArrayList<Candidate> ballot = ballots.get(position);
             // Ensure that the ballot's first choice is set to the eliminated candidate object
             // and the ballot is valid i.e., it has at least one candidate ranked who votes
             // can be redistributed to.
-            if ((ballot.get(0) == eliminatedCandidate)){
-                if (isValidBallot(ballot)) {
-                    relevantBallots.add(ballot);
-                }
-                else {
-                    // Invalid ballot
-                    ballotsToRemove.add(ballot);
+            if (ballot.get(0) == eliminatedCandidate){
+                if (!isValidBallot(ballot)){
+                    // Invalid ballot, so it is not kept
+                    traceBallot(position, ballot, null, round);
+                    continue;
                 }
+                relevantBallots[numRelevant++] = numKept;
+            }
+
+            // Move the ballot and its number down over the ballots removed before it
+            ballots.set(numKept, ballot);
+            if (ballotNumbers != null){
+                ballotNumbers[numKept] = ballotNumbers[position];
             }
+            numKept++;
         }
 
         // Remove all invalid ballots from our overall collection of ballots
-        ballots.removeAll(ballotsToRemove);
-        return relevantBallots;
+        ballots.subList(numKept, ballots.size()).clear();
+        return Arrays.copyOf(relevantBallots, numRelevant);
     }
 
     /**
      * This function simply loops through the candidate ballots that had the eliminated candidate
      *  as their first choice and redistibutes each voter’s ballot to their next valid choice candidate.
-     * @param eliminatedCandidateBallots - Candidate ballots that had the eliminated candidate listed as their
-     * first choice.
+     * @param eliminatedCandidateBallots - Positions in "ballots" of the candidate ballots that had the eliminated
+     * candidate listed as their first choice.
+     * @param round - The number of the redistribution round, recorded in the ballot trace.
      */
-    private void updateVotesForCandidate(ArrayList<ArrayList<Candidate>> eliminatedCandidateBallots){
-        for (ArrayList<Candidate> ballot : eliminatedCandidateBallots){
+    private void updateVotesForCandidate(int[] eliminatedCandidateBallots, int round){
+        int numMoved = 0;
+        for (int position : eliminatedCandidateBallots){
+            ArrayList<Candidate> ballot = ballots.get(position);
             int candidateIdx = 0;
             for (int i = 0; i < ballot.size(); i++){
                 Candidate candidate = ballot.get(i);
@@ -364,153 +435,207 @@ public class IRVoting extends Voting {
             // Royce gets eliminated so the ballot goes to Rosen and the new ballot
             // would look like [Rosen, Kleinberg, None, None] indicating that the
             // ballot has now been assigned to Rosen.
-            List<Candidate> reassignedBallot = ballot.subList(candidateIdx, ballot.size());
-            for (int i = 0; i < ballots.size() - candidateIdx; i++){
-                reassignedBallot.add(null);
+            // The new ballot is built on its own, so the old ballot is left as it was for the ballot trace.
+            ArrayList<Candidate> movedBallot = new ArrayList<>(ballot.size());
+            movedBallot.addAll(ballot.subList(candidateIdx, ballot.size()));
+            for (int i = 0; i < candidateIdx; i++){ // Pad the ballot back to its original length by the places it shifted
+                movedBallot.add(null);
             }
 
-            // Remove old ballot
-            ballots.remove(ballot);
+            // Replace the old ballot with the new ballot, which keeps its position
+            ballots.set(position, movedBallot);
+            traceBallot(position, ballot, movedBallot, round);
 
-            // Add new ballot
-            ballots.add(new ArrayList<>(reassignedBallot));
+            // Publish the ballots moved for the progress reporter every few thousand ballots
+            if (progress != null && (++numMoved & (ElectionProgress.PUBLISH_INTERVAL - 1)) == 0){
+                progress.addBallotsCounted(ElectionProgress.PUBLISH_INTERVAL);
+            }
+        }
+        if (progress != null){
+            progress.addBallotsCounted(numMoved & (ElectionProgress.PUBLISH_INTERVAL - 1));
         }
     }
 
     /**
-     * Write StringBuilder content to the audit file. This function is helpful for writing first round
-     * of calculation information, tie information and vote redistribution information to the audit file.
-     * @param sb - StringBuilder object containing the content to be written to the audit file.
+     * This function opens the ballot trace if one is written, numbering every ballot in the order of the ballot file.
      */
-    protected void writeToAuditFile(StringBuilder sb){
-        // The below line is for unit testing purposes since we don't want to create an audit file everytime we
-        // execute a test case for IRVoting
-        if (auditFilePath.length() == 0) return;
-        try{
-            // Write StringBuilder contents to audit file.
-            FileWriter fw = new FileWriter(auditFilePath, true);
-            BufferedWriter bw = new BufferedWriter(fw);
-            bw.write(sb.toString());
-            bw.close();
-        } catch (Exception e){
-            System.out.println("[SYSTEM]: Error occurred while writing to audit file. Exiting...");
-            System.exit(0);
+    private void openBallotTrace(){
+        if (ballotTracePath.length() == 0){
+            return;
         }
+
+        ballotNumbers = new int[ballots.size()];
+        for (int i = 0; i < ballots.size(); i++){
+            ballotNumbers[i] = i + 1;
+        }
+        ballotTrace = new BallotTraceWriter(ballotTracePath, candidates);
+        ballotTraceWritten = true;
     }
 
     /**
-     * This function is useful for building the string that details the number/% of votes a candidate
-     * scored as well as the candidate's name and party affiliation.
+     * This function records a ballot moving in the ballot trace, if one is written. A ballot is counted for the
+     * candidate at its front, and moving it replaces it with a new list at the same position, which keeps the
+     * ballot's number.
+     * @param position - The position of the ballot in "ballots".
+     * @param ballot - The ballot before it moved.
+     * @param movedBallot - The ballot after it moved, the same ballot in round 1, or null if the ballot was exhausted.
+     * @param round - The number of the round.
      */
-    protected void buildAndWriteInitialResultsToAuditFile(){
-        StringBuilder sb = new StringBuilder();
+    private void traceBallot(int position, ArrayList<Candidate> ballot, ArrayList<Candidate> movedBallot, int round){
+        if (ballotTrace == null){
+            return;
+        }
 
-        // If no winning candidate has been found yet, print initial messages to the audit file.
-        if (winningCandidate == null){
-            sb.append("Voting Protocol Name: Instant Runoff (IR) \n\n");
-            sb.append("Displaying Statistics after first round of vote calculations...\n\n");
+        int number = ballotNumbers[position];
+        int from = round == 1 ? BallotTraceWriter.NO_CANDIDATE : candidateId(ballot.get(0));
+        int to = movedBallot == null ? BallotTraceWriter.NO_CANDIDATE : candidateId(movedBallot.get(0));
+        ballotTrace.record(number, round, from, to);
+    }
+
+    /**
+     * This function returns the id of a candidate for the ballot trace, or NO_CANDIDATE if there is none.
+     */
+    private static int candidateId(Candidate candidate){
+        return candidate == null ? BallotTraceWriter.NO_CANDIDATE : candidate.getId();
+    }
+
+    /**
+     * This function closes the ballot trace, if one was written.
+     */
+    private void closeBallotTrace(){
+        if (ballotTrace == null){
+            return;
         }
-        else{
-            sb.append("\nFinal result of the election after completing all calculations including redistribution or tie-breakers:\n\n");
+        try {
+            ballotTrace.close();
+        } finally {
+            ballotTrace = null;
+            ballotNumbers = null;
         }
+    }
 
-        sb.append(String.format("%-30s %-30s %s%n", "Candidate & Party", "Number of Votes", "% of votes won"));
-
-        DecimalFormat df = new DecimalFormat("#.00");
-        for (Candidate candidate : candidates){
-            // Format 0.00% to write to the audit file
-            String percentOfVotes = df.format(((double)candidate.getNumVotes()/ballots.size()) * 100);
-            if (percentOfVotes.equals(".00")){
-                percentOfVotes = "0.00";
-            }
-            
-            // Build string containing candidate name and party affiliation information
-            String candidateString = candidate.getName() + " (" + candidate.getParty() + ")";
-            int candidateVotes = candidate.getNumVotes();
-
-            // Display candidate votes as 0 if they were eliminated during redistribution
-            if (candidate.isEliminated()){
-                candidateVotes = 0;
-                percentOfVotes = "0.00 (Eliminated)";
-            }
-            sb.append(String.format("%-37s %-28d %s\n", candidateString, candidateVotes, percentOfVotes));
+    /**
+     * This function writes the number/% of votes every candidate scored as well as the candidate's name and party
+     * affiliation to the audit. Before a winner is found these are the first round results; afterwards they are the
+     * final results along with the winning candidate.
+     */
+    protected void buildAndWriteInitialResultsToAuditFile(){
+        if (!isAuditEnabled(AuditLevel.SUMMARY)){
+            return;
         }
 
-        if (winningCandidate != null){
-            sb.append(String.format("\nWinning candidate is %s from the %s. party who wins with %d votes to their name.", winningCandidate.getName(), winningCandidate.getParty(), winningCandidate.getNumVotes()));
+        // If no winning candidate has been found yet, write the first round results to the audit.
+        if (winningCandidate == null){
+            writeAuditEvent(new AuditEvent(AuditEvent.Type.ELECTION_START, PROTOCOL)
+                .with("ballots", ballots.size()));
+            writeAuditEvent(new AuditEvent(AuditEvent.Type.TALLY, PROTOCOL)
+                .with("round", 1)
+                .with("ballots", ballots.size())
+                .with("candidates", candidateTable(false)));
+        }
+        else{
+            writeAuditEvent(new AuditEvent(AuditEvent.Type.RESULT, PROTOCOL)
+                .with("ballots", ballots.size())
+                .with("candidates", candidateTable(false))
+                .with("winner", AuditEvent.candidateFields(winningCandidate)));
         }
-        writeToAuditFile(sb);
     }
 
     /**
-     * This function is useful for building the string that details result of a tie to the audit file
+     * This function writes the candidates that were tied for the win and the winner of the tie to the audit,
+     * followed by the final results.
      */
     protected void buildAndWriteTieResultToAuditFile(){
+        if (!isAuditEnabled(AuditLevel.SUMMARY)){
+            return;
+        }
+
         // Store tied candidate information
-        StringBuilder sb = new StringBuilder();
-        sb.append("\nThe following candidates were tied: \n\n");
+        ArrayList<Candidate> tiedCandidates = new ArrayList<>();
         for (Candidate candidate : candidates){
             if (!candidate.isEliminated() && candidate.getNumVotes() != 0){
-                sb.append(candidate.getName() + "\n");
+                tiedCandidates.add(candidate);
             }
         }
-        sb.append(String.format("\nThe winner of the tie result is %s.\n", winningCandidate.getName()));
-        
-        // Write tie information to audit file
-        writeToAuditFile(sb);
 
-        // Write the final round results to the audit file once tie result has been written to it
+        // Write tie information to audit
+        writeAuditEvent(new AuditEvent(AuditEvent.Type.TIE_DRAW, PROTOCOL)
+            .with("kind", "candidate")
+            .with("tied", AuditEvent.candidateNames(tiedCandidates))
+            .with("winners", AuditEvent.candidateNames(Collections.singletonList(winningCandidate))));
+
+        // Write the final round results to the audit once tie result has been written to it
         buildAndWriteInitialResultsToAuditFile();
     }
 
     /**
-     * Write redistributed vote information for each candidate to the audit file
-     * @param eliminatedCandidate - The eliminated candidate whose votes are redistributed
+     * Write redistributed vote information for each candidate to the audit
+     * @param round - The number of the round, where the first round of calculations is round 1
+     * @param eliminatedCandidates - The eliminated candidates whose votes are redistributed
+     * @param tieWinnerCandidate - The candidate that won the tie for the lowest votes, or null if there was no tie
      */
-    private void buildAndWriteRedistributedVotesToAuditFile(ArrayList<Candidate> eliminatedCandidates, Candidate tieWinnerCandidate){
-        StringBuilder sb = new StringBuilder();
-        sb.append("\nCurrent Redistribution Round Results:\n");
+    private void buildAndWriteRedistributedVotesToAuditFile(int round, ArrayList<Candidate> eliminatedCandidates, Candidate tieWinnerCandidate){
+        if (!isAuditEnabled(AuditLevel.ROUND)){
+            return;
+        }
+
+        writeAuditEvent(new AuditEvent(AuditEvent.Type.ROUND_START, PROTOCOL).with("round", round));
 
         if (tieWinnerCandidate != null){
-            sb.append("\nFollowing Candidates are tied for the lowest votes:\n\n");
-            sb.append(tieWinnerCandidate.getName() + "\n");
-            for (Candidate candidate : eliminatedCandidates){
-                sb.append(candidate.getName() + "\n");
-            }
-            sb.append("\nWinner of tie breaker is " + tieWinnerCandidate.getName() + ".\n");
+            ArrayList<Candidate> tiedCandidates = new ArrayList<>();
+            tiedCandidates.add(tieWinnerCandidate);
+            tiedCandidates.addAll(eliminatedCandidates);
+            writeAuditEvent(new AuditEvent(AuditEvent.Type.TIE_DRAW, PROTOCOL)
+                .with("round", round)
+                .with("kind", "lowest votes")
+                .with("tied", AuditEvent.candidateNames(tiedCandidates))
+                .with("winners", AuditEvent.candidateNames(Collections.singletonList(tieWinnerCandidate))));
         }
-        sb.append("\nName(s) of candidate(s) eliminated during this round: \n\n");
 
-        for (Candidate candidate : eliminatedCandidates){
-            sb.append(candidate.getName() + "\n");
-        }
-        sb.append("\n");
-        sb.append(String.format("%-30s %-40s %-30s %s%n", "Candidate & Party", "Number of redistributed votes", "Number of Votes", "% of votes won"));
+        writeAuditEvent(new AuditEvent(AuditEvent.Type.ELIMINATION, PROTOCOL)
+            .with("round", round)
+            .with("reason", "lowest votes")
+            .with("candidates", AuditEvent.candidateNames(eliminatedCandidates)));
+        writeAuditEvent(withRoundRows(new AuditEvent(AuditEvent.Type.TRANSFER, PROTOCOL)
+            .with("round", round)
+            .with("ballots", ballots.size()), "candidates", candidateTable(true)));
+    }
 
-        DecimalFormat df = new DecimalFormat("#.00");
+    /**
+     * This function builds the row of every candidate for the audit: their name, party, number of votes and
+     * whether they were eliminated.
+     * @param withRedistributedVotes - True to also include the votes each candidate received in the current round.
+     * @return - The CandidateRow of every candidate, in ballot order.
+     */
+    private ArrayList<Object> candidateTable(boolean withRedistributedVotes){
+        ArrayList<Object> table = new ArrayList<>(candidates.size());
         for (Candidate candidate : candidates){
-            // Format 0.00% when writing to audit file
-            String percentOfVotes = df.format(((double)candidate.getNumVotes()/ballots.size()) * 100);
-            if (percentOfVotes.equals(".00")){
-                percentOfVotes = "0.00";
-            }
+            table.add(new CandidateRow(candidate, withRedistributedVotes));
+        }
+        return table;
+    }
 
-            // Build string containing candidate name and party affiliation information
-            String candidateString = candidate.getName() + " (" + candidate.getParty() + ")";
-            int candidateVotes = candidate.getNumVotes();
-            int redistributedVotes = candidate.getRedistributedVotes();
+    /**
+     * This function also writes a ballot trace recording where every ballot went in every round, which BallotTrace
+     * can follow ballot by ballot. It must be called before the election is run.
+     * @param ballotTracePath - Name and path of the ballot trace, or an empty string if no ballot trace is written.
+     */
+    public void setBallotTrace(String ballotTracePath){
+        this.ballotTracePath = ballotTracePath;
+    }
 
-            // Display candidate votes as 0 if they were eliminated during redistribution
-            if (candidate.isEliminated()){
-                candidateVotes = 0;
-                redistributedVotes = 0;
-                percentOfVotes = "0.00 (Eliminated)";
-            }
-            sb.append(String.format("%-37s %-40d %-28d %s\n", candidateString, redistributedVotes, candidateVotes, percentOfVotes));
+    /**
+     * This function lists the files the election wrote for its audit file and audit event log, followed by the
+     * ballot trace if one was written.
+     * @return - The names and paths of the files, or an empty list if no audit was written.
+     */
+    @Override
+    public List<String> getAuditFiles(){
+        List<String> files = super.getAuditFiles();
+        if (ballotTraceWritten){
+            files.add(ballotTracePath);
         }
-
-        // Write redistribution information to audit file
-        writeToAuditFile(sb);
+        return files;
     }
 
     /**
@@ -322,4 +322,72 @@ public class IRVotingTests {
         Assert.assertTrue((double)map.get("Rosen")/1000 >= low && (double)map.get("Rosen")/1000 <= high);
         Assert.assertTrue((double)map.get("Kleinberg")/1000 >= low && (double)map.get("Kleinberg")/1000 <= high);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test for ties broken with a tie-break seed. The same seed must always give the same winner, while different seeds
+     * must still give every tied candidate a fair chance, so each of the 4 tied candidates wins for about 20-30% of 1000 seeds.
+     */
+    @Test
+    public void testSeededTieBreaks(){
+        final FileParser file = new FileParser("./../testing/IR_test_four_candidate_tie.csv");
+        Map<String, Integer> map = new HashMap<>();
+        for (long seed = 1; seed <= 1000; seed++){
+            final IRVoting ir = new IRVoting(file.getCandidateLine(), new ArrayList<>(file.getBallotList()), "");
+            ir.setTieBreakSeed(seed);
+            ir.calculateBallots();
+            map.merge(ir.getWinningCandidate().getName(), 1, Integer::sum);
+
+            if (seed <= 10){ // The same seed gives the same winner
+                final IRVoting rerun = new IRVoting(file.getCandidateLine(), new ArrayList<>(file.getBallotList()), "");
+                rerun.setTieBreakSeed(seed);
+                rerun.calculateBallots();
+                Assert.assertEquals(ir.getWinningCandidate().getName(), rerun.getWinningCandidate().getName());
+            }
+        }
+
+        Assert.assertEquals(4, map.size());
+        for (int wins : map.values()){
+            Assert.assertTrue((double)wins/1000 >= 0.20 && (double)wins/1000 <= 0.30);
+        }
+    }
+
+    /**
+     * Test that the ties broken by a coin flip are counted, so a result that depends on a coin flip is not kept in
+     * the result cache, while an election without a tie counts none.
+     */
+    @Test
+    public void testTieDrawsAreCounted(){
+        final FileParser tie = new FileParser("./../testing/IR_test_two_candidate_tie.csv");
+        final IRVoting tied = new IRVoting(tie.getCandidateLine(), tie.getBallotList(), "");
+        tied.calculateBallots();
+        Assert.assertEquals(1, tied.getNumTieDraws());
+
+        final FileParser majority = new FileParser("./../testing/IR_test_first_round_majority_winner.csv");
+        final IRVoting won = new IRVoting(majority.getCandidateLine(), majority.getBallotList(), "");
+        won.calculateBallots();
+        Assert.assertEquals(0, won.getNumTieDraws());
+    }
+
+    /**
+     * Test that a redistributed ballot keeps its length. A moved ballot is shifted to the voter's next choice and
+     * padded back with empty rankings, so after any number of rounds every ballot still ranks as many places as
+     * there are candidates, rather than growing with the number of ballots.
+     */
+    @Test
+    public void testBallotLengthIsFixedAcrossRounds(){
+        final FileParser file = new FileParser("./../testing/IR_test_candidate_tie_after_multiple_rounds_of_redistribution.csv");
+        final IRVoting ir = new IRVoting(file.getCandidateLine(), file.getBallotList(), "");
+        ir.calculateBallots();
+
+        int numEliminated = 0;
+        for (Candidate candidate : ir.getCandidates()){
+            if (candidate.isEliminated()){
+                numEliminated++;
+            }
+        }
+        Assert.assertTrue(numEliminated >= 2); // More than one round of redistribution
+        for (ArrayList<Candidate> ballot : ir.getBallots()){
+            Assert.assertEquals(ir.getCandidates().size(), ballot.size());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * JsonLinesAuditRenderer.java
+ * This class writes every AuditEvent as one line of JSON (JSON Lines), so other tools can read the steps of an
+ * election without parsing the human-readable audit file. Every line is an object with the event's "type" and
+ * "protocol" followed by its fields, e.g. {"type":"ELIMINATION","protocol":"IR","reason":"no votes","candidate":"Royce"}.
+ */
+
+public class JsonLinesAuditRenderer extends AuditRenderer {
+    private final StringBuilder line; // Reused buffer holding the JSON of one event
+
+    /**
+     * Constructs a renderer that writes JSON Lines to a sink.
+     * @param sink - The destination of the event log.
+     */
+    public JsonLinesAuditRenderer(AuditSink sink){
+        super(sink);
+        this.line = new StringBuilder();
+    }
+
+    @Override
+    public void render(AuditEvent event){
+        line.setLength(0);
+        JsonWriter json = new JsonWriter(line);
+        json.beginObject();
+        json.name("type").value(event.getType().name());
+        json.name("protocol").value(event.getProtocol());
+        for (java.util.Map.Entry<String, Object> field : event.getFields().entrySet()){
+            json.name(field.getKey()).value(field.getValue());
+        }
+        json.endObject();
+        line.append('\n');
+        sink.write(line);
+    }
+}
@@ -0,0 +1,255 @@
+/**
+ * JsonReader.java
+ * This class reads the JSON text written by JsonWriter back into Java values: objects become LinkedHashMaps
+ * keeping the order of their names, arrays become ArrayLists, whole numbers become Longs, other numbers become
+ * Doubles, and strings, booleans and null become Strings, Booleans and null.
+ */
+
+import java.util.*;
+
+public class JsonReader {
+    private final String text; // JSON text being read
+    private int position; // Index of the next character to be read
+
+    /**
+     * Constructs a JsonReader over a JSON text.
+     * @param text - The JSON text.
+     */
+    private JsonReader(String text){
+        this.text = text;
+        this.position = 0;
+    }
+
+    /**
+     * This function reads a JSON text holding a single value, such as one line of an audit event log.
+     * @param text - The JSON text.
+     * @return - The value.
+     * @throws IllegalArgumentException - If the text is not valid JSON.
+     */
+    public static Object parse(String text){
+        JsonReader reader = new JsonReader(text);
+        Object value = reader.readValue();
+        reader.skipWhitespace();
+        if (reader.position != text.length()){
+            throw reader.error("Unexpected text after the value");
+        }
+        return value;
+    }
+
+    /**
+     * This function reads the value starting at the current position.
+     */
+    private Object readValue(){
+        skipWhitespace();
+        if (position >= text.length()){
+            throw error("Unexpected end of text");
+        }
+
+        char c = text.charAt(position);
+        switch (c){
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                return readLiteral("true", Boolean.TRUE);
+            case 'f':
+                return readLiteral("false", Boolean.FALSE);
+            case 'n':
+                return readLiteral("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')){
+                    return readNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    /**
+     * This function reads an object, keeping the order of its names.
+     */
+    private LinkedHashMap<String, Object> readObject(){
+        LinkedHashMap<String, Object> object = new LinkedHashMap<>();
+        position++; // Skip '{'
+        skipWhitespace();
+        if (peek() == '}'){
+            position++;
+            return object;
+        }
+
+        while (true){
+            skipWhitespace();
+            if (peek() != '"'){
+                throw error("Expected a name");
+            }
+            String name = readString();
+            skipWhitespace();
+            expect(':');
+            object.put(name, readValue());
+            skipWhitespace();
+            if (peek() == ','){
+                position++;
+            } else {
+                expect('}');
+                return object;
+            }
+        }
+    }
+
+    /**
+     * This function reads an array.
+     */
+    private ArrayList<Object> readArray(){
+        ArrayList<Object> array = new ArrayList<>();
+        position++; // Skip '['
+        skipWhitespace();
+        if (peek() == ']'){
+            position++;
+            return array;
+        }
+
+        while (true){
+            array.add(readValue());
+            skipWhitespace();
+            if (peek() == ','){
+                position++;
+            } else {
+                expect(']');
+                return array;
+            }
+        }
+    }
+
+    /**
+     * This function reads a quoted string, replacing its escape sequences.
+     */
+    private String readString(){
+        position++; // Skip the opening quote
+        StringBuilder sb = new StringBuilder();
+        while (true){
+            if (position >= text.length()){
+                throw error("Unterminated string");
+            }
+            char c = text.charAt(position++);
+            if (c == '"'){
+                return sb.toString();
+            } else if (c != '\\'){
+                sb.append(c);
+                continue;
+            }
+
+            if (position >= text.length()){
+                throw error("Unterminated string");
+            }
+            char escaped = text.charAt(position++);
+            switch (escaped){
+                case '"':
+                case '\\':
+                case '/':
+                    sb.append(escaped);
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()){
+                        throw error("Unterminated escape sequence");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e){
+                        throw error("Invalid escape sequence");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    throw error("Invalid escape sequence");
+            }
+        }
+    }
+
+    /**
+     * This function reads a number as a Long if it is a whole number, or as a Double otherwise.
+     */
+    private Object readNumber(){
+        int start = position;
+        boolean whole = true;
+        if (peek() == '-'){
+            position++;
+        }
+        while (position < text.length()){
+            char c = text.charAt(position);
+            if (c == '.' || c == 'e' || c == 'E' || c == '+' || (c == '-' && position > start)){
+                whole = false;
+            } else if (c < '0' || c > '9'){
+                break;
+            }
+            position++;
+        }
+
+        String number = text.substring(start, position);
+        try {
+            return whole ? (Object) Long.parseLong(number) : (Object) Double.parseDouble(number);
+        } catch (NumberFormatException e){
+            throw error("Invalid number " + number);
+        }
+    }
+
+    /**
+     * This function reads true, false or null.
+     */
+    private Object readLiteral(String literal, Object value){
+        if (!text.startsWith(literal, position)){
+            throw error("Unexpected text");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    /**
+     * This function skips the character c, which must be at the current position.
+     */
+    private void expect(char c){
+        if (peek() != c){
+            throw error("Expected '" + c + "'");
+        }
+        position++;
+    }
+
+    /**
+     * This function returns the character at the current position, or 0 at the end of the text.
+     */
+    private char peek(){
+        return position < text.length() ? text.charAt(position) : 0;
+    }
+
+    /**
+     * This function skips spaces, tabs and line breaks.
+     */
+    private void skipWhitespace(){
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))){
+            position++;
+        }
+    }
+
+    /**
+     * This function builds the exception thrown for text that is not valid JSON.
+     */
+    private IllegalArgumentException error(String message){
+        return new IllegalArgumentException(message + " at position " + position + " of the JSON text.");
+    }
+}
@@ -0,0 +1,66 @@
+import java.util.*;
+import org.junit.*;
+
+public class JsonReaderTests {
+    /**
+     * This test checks that objects keep the order of their names and that numbers, booleans and null are read as Java values.
+     */
+    @Test
+    public void testValues() {
+        Object value = JsonReader.parse(" {\"round\": 2, \"share\": 0.5, \"eliminated\": false, \"winner\": null, \"tied\": [\"Rosen\", \"Chou\"], \"empty\": {}} ");
+
+        Map<String, Object> fields = AuditEvent.asFields(value);
+        Assert.assertEquals(Arrays.asList("round", "share", "eliminated", "winner", "tied", "empty"), new ArrayList<>(fields.keySet()));
+        Assert.assertEquals(2L, fields.get("round"));
+        Assert.assertEquals(0.5, fields.get("share"));
+        Assert.assertEquals(Boolean.FALSE, fields.get("eliminated"));
+        Assert.assertNull(fields.get("winner"));
+        Assert.assertEquals(Arrays.asList("Rosen", "Chou"), fields.get("tied"));
+        Assert.assertTrue(AuditEvent.fieldsValue(fields, "empty").isEmpty());
+    }
+
+    /**
+     * This test checks that text written by JsonWriter is read back unchanged, including escaped characters.
+     */
+    @Test
+    public void testReadsJsonWriterOutput() {
+        LinkedHashMap<String, Object> fields = new LinkedHashMap<>();
+        fields.put("name", "O\"Brien\\\n\t\u0001");
+        fields.put("votes", -12L);
+        fields.put("seatHolders", new ArrayList<Object>(Arrays.asList("Pike", new ArrayList<Object>())));
+
+        StringBuilder sb = new StringBuilder();
+        new JsonWriter(sb).value((Object) fields);
+
+        Assert.assertEquals(fields, JsonReader.parse(sb.toString()));
+    }
+
+    /**
+     * This test checks that an audit event is read back from a line of an event log.
+     */
+    @Test
+    public void testAuditEventFromJson() {
+        AuditEvent event = AuditEvent.fromJson("{\"type\":\"ELIMINATION\",\"protocol\":\"IR\",\"reason\":\"no votes\",\"candidate\":\"Royce\"}");
+
+        Assert.assertEquals(AuditEvent.Type.ELIMINATION, event.getType());
+        Assert.assertEquals("IR", event.getProtocol());
+        Assert.assertEquals(Arrays.asList("reason", "candidate"), new ArrayList<>(event.getFields().keySet()));
+        Assert.assertEquals("Royce", event.getString("candidate"));
+    }
+
+    /**
+     * This test checks that text that is not valid JSON is reported.
+     */
+    @Test
+    public void testInvalidJson() {
+        String[] invalid = {"{\"round\":", "[1,2", "{\"round\" 2}", "\"unterminated", "tru", "{} {}"};
+        for (String text : invalid) {
+            try {
+                JsonReader.parse(text);
+                Assert.fail("Expected " + text + " to be rejected");
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(e.getMessage().contains("position"));
+            }
+        }
+    }
+}
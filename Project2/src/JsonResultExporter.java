@@ -0,0 +1,156 @@
+/**
+ * JsonResultExporter.java
+ * This class exports the results of an election as one JSON object, written token by token with a JsonWriter:
+ *
+ * {"protocol":"IR","ballots":6,"seats":0,
+ *  "rounds":[{"round":1,"candidates":[{"name":"Rosen","party":"D","votes":3,"seats":0},...]},...],
+ *  "result":{"candidates":[{"name":"Rosen","party":"D","votes":4,"seats":0,"status":"winner"},...]}}
+ *
+ * Party rows also hold their "remainingVotes". Rows without a status have no "status" field. Closing the exporter
+ * only ends the objects and arrays that were begun, so an export that never began an election is left empty.
+ */
+
+import java.io.Writer;
+import java.util.ArrayDeque;
+
+public class JsonResultExporter extends ResultExporter {
+    private final JsonWriter json; // Writes the JSON tokens to the export
+    private final ArrayDeque<Boolean> openScopes; // For every object (true) or array (false) begun and not yet ended, the innermost last
+    private boolean inRounds; // True while the array of rounds is open
+    private boolean inResult; // True while the object of the final result is open
+
+    /**
+     * Constructs an exporter that writes JSON to out.
+     * @param out - The destination of the JSON, which is closed with the exporter.
+     */
+    public JsonResultExporter(Writer out){
+        super(out);
+        this.json = new JsonWriter(out);
+        this.openScopes = new ArrayDeque<>();
+        this.inRounds = false;
+        this.inResult = false;
+    }
+
+    @Override
+    public void beginElection(String protocol, int numBallots, int numSeats){
+        beginObject();
+        json.name("protocol").value(protocol);
+        json.name("ballots").value(numBallots);
+        json.name("seats").value(numSeats);
+    }
+
+    @Override
+    protected void beginTable(int round, String kind){
+        if (round != FINAL_ROUND){
+            if (!inRounds){
+                json.name("rounds");
+                beginArray();
+                inRounds = true;
+            }
+            beginObject();
+            json.name("round").value(round);
+        } else {
+            endRounds();
+            if (!inResult){
+                json.name("result");
+                beginObject();
+                inResult = true;
+            }
+        }
+        json.name(kind);
+        beginArray();
+    }
+
+    @Override
+    protected void candidateRow(Candidate candidate, int votes, String status){
+        beginObject();
+        json.name("name").value(candidate.getName());
+        json.name("party").value(candidate.getParty());
+        json.name("votes").value(votes);
+        json.name("seats").value(candidate.getNumSeats());
+        endRow(status);
+    }
+
+    @Override
+    protected void partyRow(Party party, String status){
+        beginObject();
+        json.name("name").value(party.getPartyName());
+        json.name("votes").value(party.getInitialPartyVotes());
+        json.name("seats").value(party.getNumSeatsAllocated());
+        json.name("remainingVotes").value(party.getTotalPartyVotes());
+        endRow(status);
+    }
+
+    @Override
+    protected void endTable(){
+        endScope();
+        if (!inResult){ // A round is an object of its own
+            endScope();
+        }
+    }
+
+    /**
+     * This function ends every object and array still open, ending the JSON object of the election if it was
+     * begun, and closes the export.
+     */
+    @Override
+    public void close(){
+        try {
+            if (!openScopes.isEmpty()){
+                while (!openScopes.isEmpty()){
+                    endScope();
+                }
+                write("\n");
+            }
+        } finally {
+            super.close();
+        }
+    }
+
+    /**
+     * This function writes the status of a row, if it has one, and ends the row.
+     */
+    private void endRow(String status){
+        if (status.length() != 0){
+            json.name("status").value(status);
+        }
+        endScope();
+    }
+
+    /**
+     * This function ends the array of rounds, if it is open.
+     */
+    private void endRounds(){
+        if (inRounds){
+            endScope();
+            inRounds = false;
+        }
+    }
+
+    /**
+     * This function begins a JSON object and records it as open.
+     */
+    private void beginObject(){
+        json.beginObject();
+        openScopes.addLast(true);
+    }
+
+    /**
+     * This function begins a JSON array and records it as open.
+     */
+    private void beginArray(){
+        json.beginArray();
+        openScopes.addLast(false);
+    }
+
+    /**
+     * This function ends the innermost object or array that is open.
+     */
+    private void endScope(){
+        if (openScopes.removeLast()){
+            json.endObject();
+        } else {
+            json.endArray();
+        }
+    }
+}
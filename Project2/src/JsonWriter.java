@@ -0,0 +1,256 @@
+/**
+ * JsonWriter.java
+ * This class writes JSON text straight to an Appendable, one token at a time, so large results are never held
+ * in memory as a tree. Commas between values are added automatically. Strings, numbers, booleans, nulls, lists
+ * and maps can also be written as a whole with value(Object).
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+public class JsonWriter {
+    private final Appendable out; // Destination of the JSON text
+    private final ArrayDeque<Boolean> firstValue; // For every open object or array, whether no value was written to it yet
+    private boolean afterName; // True if a name was just written and its value is next
+
+    /**
+     * Constructs a JsonWriter that writes to out.
+     * @param out - The destination of the JSON text.
+     */
+    public JsonWriter(Appendable out){
+        this.out = out;
+        this.firstValue = new ArrayDeque<>();
+        this.afterName = false;
+    }
+
+    /**
+     * This function starts a JSON object.
+     * @return - This writer, so calls can be chained.
+     */
+    public JsonWriter beginObject(){
+        beforeValue();
+        append('{');
+        firstValue.push(true);
+        return this;
+    }
+
+    /**
+     * This function ends the current JSON object.
+     * @return - This writer, so calls can be chained.
+     */
+    public JsonWriter endObject(){
+        firstValue.pop();
+        append('}');
+        return this;
+    }
+
+    /**
+     * This function starts a JSON array.
+     * @return - This writer, so calls can be chained.
+     */
+    public JsonWriter beginArray(){
+        beforeValue();
+        append('[');
+        firstValue.push(true);
+        return this;
+    }
+
+    /**
+     * This function ends the current JSON array.
+     * @return - This writer, so calls can be chained.
+     */
+    public JsonWriter endArray(){
+        firstValue.pop();
+        append(']');
+        return this;
+    }
+
+    /**
+     * This function writes the name of the next value in the current JSON object.
+     * @param name - The name.
+     * @return - This writer, so calls can be chained.
+     */
+    public JsonWriter name(String name){
+        beforeValue();
+        writeString(name);
+        append(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * This function writes a string, or null.
+     * @param value - The string.
+     * @return - This writer, so calls can be chained.
+     */
+    public JsonWriter value(String value){
+        if (value == null){
+            return nullValue();
+        }
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    /**
+     * This function writes a whole number.
+     * @param value - The number.
+     * @return - This writer, so calls can be chained.
+     */
+    public JsonWriter value(long value){
+        beforeValue();
+        append(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * This function writes a decimal number. Numbers that are not finite are written as null.
+     * @param value - The number.
+     * @return - This writer, so calls can be chained.
+     */
+    public JsonWriter value(double value){
+        if (Double.isNaN(value) || Double.isInfinite(value)){
+            return nullValue();
+        }
+        beforeValue();
+        append(Double.toString(value));
+        return this;
+    }
+
+    /**
+     * This function writes true or false.
+     * @param value - The boolean.
+     * @return - This writer, so calls can be chained.
+     */
+    public JsonWriter value(boolean value){
+        beforeValue();
+        append(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * This function writes null.
+     * @return - This writer, so calls can be chained.
+     */
+    public JsonWriter nullValue(){
+        beforeValue();
+        append("null");
+        return this;
+    }
+
+    /**
+     * This function writes a string, number, boolean, null, list or map, including everything nested in it.
+     * The keys of a map are written with toString().
+     * @param value - The value.
+     * @return - This writer, so calls can be chained.
+     * @throws IllegalArgumentException - If the value or something nested in it cannot be written as JSON.
+     */
+    public JsonWriter value(Object value){
+        if (value == null){
+            return nullValue();
+        } else if (value instanceof String){
+            return value((String) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte){
+            return value(((Number) value).longValue());
+        } else if (value instanceof Number){
+            return value(((Number) value).doubleValue());
+        } else if (value instanceof Boolean){
+            return value(((Boolean) value).booleanValue());
+        } else if (value instanceof CandidateRow){ // Written without boxing its values
+            ((CandidateRow) value).writeTo(this);
+            return this;
+        } else if (value instanceof Map){
+            beginObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()){
+                name(String.valueOf(entry.getKey()));
+                value(entry.getValue());
+            }
+            return endObject();
+        } else if (value instanceof Collection){
+            beginArray();
+            for (Object element : (Collection<?>) value){
+                value(element);
+            }
+            return endArray();
+        }
+        throw new IllegalArgumentException("Cannot write " + value.getClass().getName() + " as JSON.");
+    }
+
+    /**
+     * This function adds the comma between values of the current object or array.
+     */
+    private void beforeValue(){
+        if (afterName){ // The value belongs to the name that was just written
+            afterName = false;
+            return;
+        }
+        if (!firstValue.isEmpty()){
+            if (!firstValue.peek()){
+                append(',');
+            } else {
+                firstValue.pop();
+                firstValue.push(false);
+            }
+        }
+    }
+
+    /**
+     * This function writes a quoted string, escaping the characters JSON does not allow inside a string.
+     * @param value - The string.
+     */
+    private void writeString(String value){
+        append('"');
+        for (int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            switch (c){
+                case '"':
+                    append("\\\"");
+                    break;
+                case '\\':
+                    append("\\\\");
+                    break;
+                case '\n':
+                    append("\\n");
+                    break;
+                case '\r':
+                    append("\\r");
+                    break;
+                case '\t':
+                    append("\\t");
+                    break;
+                default:
+                    if (c < 0x20){
+                        append(String.format("\\u%04x", (int) c));
+                    } else {
+                        append(c);
+                    }
+            }
+        }
+        append('"');
+    }
+
+    /**
+     * This function appends text to the destination.
+     * @param text - The text.
+     */
+    private void append(CharSequence text){
+        try {
+            out.append(text);
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * This function appends a character to the destination.
+     * @param c - The character.
+     */
+    private void append(char c){
+        try {
+            out.append(c);
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.*;
+import org.junit.*;
+
+public class JsonWriterTests {
+    /**
+     * This test checks that objects and arrays are written with commas only between their values.
+     */
+    @Test
+    public void testObjectsAndArrays() {
+        StringBuilder sb = new StringBuilder();
+        JsonWriter json = new JsonWriter(sb);
+        json.beginObject();
+        json.name("round").value(2);
+        json.name("eliminated").value(true);
+        json.name("candidates").beginArray().value("Rosen").value("Chou").endArray();
+        json.name("empty").beginArray().endArray();
+        json.name("winner").nullValue();
+        json.endObject();
+
+        Assert.assertEquals("{\"round\":2,\"eliminated\":true,\"candidates\":[\"Rosen\",\"Chou\"],\"empty\":[],\"winner\":null}", sb.toString());
+    }
+
+    /**
+     * This test checks that quotes, backslashes and control characters are escaped inside strings.
+     */
+    @Test
+    public void testEscaping() {
+        StringBuilder sb = new StringBuilder();
+        new JsonWriter(sb).value("O\"Brien\\\n\t\u0001");
+
+        Assert.assertEquals("\"O\\\"Brien\\\\\\n\\t\\u0001\"", sb.toString());
+    }
+
+    /**
+     * This test checks that nested maps and lists are written as a whole, keeping the order of the map.
+     */
+    @Test
+    public void testNestedValues() {
+        LinkedHashMap<String, Object> party = new LinkedHashMap<>();
+        party.put("name", "D");
+        party.put("votes", 5L);
+        party.put("share", 0.5);
+        party.put("seatHolders", Arrays.asList("Pike", "Foster"));
+
+        StringBuilder sb = new StringBuilder();
+        new JsonWriter(sb).value((Object) Collections.singletonList(party));
+
+        Assert.assertEquals("[{\"name\":\"D\",\"votes\":5,\"share\":0.5,\"seatHolders\":[\"Pike\",\"Foster\"]}]", sb.toString());
+    }
+
+    /**
+     * This test checks that values that cannot be written as JSON are reported.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedValue() {
+        new JsonWriter(new StringBuilder()).value(new Object());
+    }
+}
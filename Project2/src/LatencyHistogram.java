@@ -0,0 +1,135 @@
+/**
+ * LatencyHistogram.java
+ * This class is a histogram of how long a phase of an election takes, e.g. parsing a file or one redistribution
+ * round. Every time falls into a bucket whose upper bound is a power of two nanoseconds, so the histogram has a fixed
+ * 64 buckets, recording a time takes no lock and no allocation, and a percentile is exact to within a factor of 2.
+ * The buckets and totals are LongAdders, so elections running at the same time on the election server record
+ * their phases without contending on one counter.
+ */
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyHistogram implements LatencyHistogramMBean {
+    private static final int NUM_BUCKETS = 64; // Bucket i holds the times of less than 2^i nanoseconds that are not in bucket i - 1
+
+    private final String phase; // Name of the phase, e.g. "Allocating seats"
+    private final LongAdder[] buckets; // Number of times recorded in every bucket
+    private final LongAdder count; // Number of times recorded
+    private final LongAdder totalNanos; // Sum of the times recorded
+    private final LongAccumulator maxNanos; // Longest time recorded
+
+    /**
+     * Constructs an empty histogram of a phase.
+     * @param phase - The name of the phase.
+     */
+    public LatencyHistogram(String phase){
+        this.phase = phase;
+        this.buckets = new LongAdder[NUM_BUCKETS];
+        for (int i = 0; i < NUM_BUCKETS; i++){
+            buckets[i] = new LongAdder();
+        }
+        this.count = new LongAdder();
+        this.totalNanos = new LongAdder();
+        this.maxNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * This function records one time of the phase.
+     * @param nanos - The time the phase took, in nanoseconds. Negative times are recorded as 0.
+     */
+    public void record(long nanos){
+        nanos = Math.max(nanos, 0);
+        buckets[Math.min(NUM_BUCKETS - Long.numberOfLeadingZeros(nanos), NUM_BUCKETS - 1)].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    @Override
+    public String getPhase(){
+        return phase;
+    }
+
+    @Override
+    public long getCount(){
+        return count.sum();
+    }
+
+    @Override
+    public double getTotalMillis(){
+        return totalNanos.sum() / 1e6;
+    }
+
+    @Override
+    public double getMeanMillis(){
+        long numRecorded = count.sum();
+        return numRecorded == 0 ? 0 : totalNanos.sum() / 1e6 / numRecorded;
+    }
+
+    @Override
+    public double getMaxMillis(){
+        return maxNanos.get() / 1e6;
+    }
+
+    @Override
+    public double get50thPercentileMillis(){
+        return getPercentileMillis(50);
+    }
+
+    @Override
+    public double get90thPercentileMillis(){
+        return getPercentileMillis(90);
+    }
+
+    @Override
+    public double get99thPercentileMillis(){
+        return getPercentileMillis(99);
+    }
+
+    /**
+     * This function returns the upper bound of the bucket holding a percentile of the times, capped at the longest
+     * time recorded. Times recorded while it runs may or may not be included.
+     * @param percentile - The percentile, from 0 to 100.
+     * @return - The time the given percent of the phases took at most, in milliseconds, or 0 if none were recorded.
+     */
+    public double getPercentileMillis(double percentile){
+        long[] counts = new long[NUM_BUCKETS];
+        long numRecorded = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++){
+            counts[i] = buckets[i].sum();
+            numRecorded += counts[i];
+        }
+        if (numRecorded == 0){
+            return 0;
+        }
+
+        long rank = Math.max((long) Math.ceil(numRecorded * percentile / 100), 1); // Number of times at or below the percentile
+        long numSeen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++){
+            numSeen += counts[i];
+            if (numSeen >= rank){
+                long upperBound = i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                return Math.min(upperBound, maxNanos.get()) / 1e6;
+            }
+        }
+        return maxNanos.get() / 1e6;
+    }
+
+    /**
+     * This function returns the attributes of the histogram, for the metrics file.
+     * @return - The count, total, mean, maximum and percentiles of the phase, in milliseconds.
+     */
+    public LinkedHashMap<String, Object> toFields(){
+        LinkedHashMap<String, Object> fields = new LinkedHashMap<>();
+        fields.put("count", getCount());
+        fields.put("totalMillis", getTotalMillis());
+        fields.put("meanMillis", getMeanMillis());
+        fields.put("maxMillis", getMaxMillis());
+        fields.put("p50Millis", get50thPercentileMillis());
+        fields.put("p90Millis", get90thPercentileMillis());
+        fields.put("p99Millis", get99thPercentileMillis());
+        return fields;
+    }
+}
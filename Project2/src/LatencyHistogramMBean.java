@@ -0,0 +1,47 @@
+/**
+ * LatencyHistogramMBean.java
+ * This interface holds the attributes of a LatencyHistogram that are shown over JMX, e.g. in JConsole under
+ * "voteeasy" > "PhaseLatency". Every time is in milliseconds.
+ */
+
+public interface LatencyHistogramMBean {
+    /**
+     * @return - The name of the phase, e.g. "Redistributing votes".
+     */
+    String getPhase();
+
+    /**
+     * @return - The number of times the phase was recorded.
+     */
+    long getCount();
+
+    /**
+     * @return - The time spent in the phase, over every time it was recorded.
+     */
+    double getTotalMillis();
+
+    /**
+     * @return - The mean time of the phase, or 0 if it was never recorded.
+     */
+    double getMeanMillis();
+
+    /**
+     * @return - The longest time of the phase, or 0 if it was never recorded.
+     */
+    double getMaxMillis();
+
+    /**
+     * @return - The median time of the phase, to within a factor of 2.
+     */
+    double get50thPercentileMillis();
+
+    /**
+     * @return - The time 90% of the phases took at most, to within a factor of 2.
+     */
+    double get90thPercentileMillis();
+
+    /**
+     * @return - The time 99% of the phases took at most, to within a factor of 2.
+     */
+    double get99thPercentileMillis();
+}
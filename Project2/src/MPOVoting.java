@@ -7,22 +7,21 @@
  */
 
 import java.util.*;
-import java.security.SecureRandom;
-import java.text.DecimalFormat;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.BufferedWriter;
 
 /**
  * MPOVoting class represents the Multiple Preferential Ordering voting system.
  * It extends the Voting class and implements the functionality specific to the MPO voting protocol.
  */
 public class MPOVoting extends Voting {
+    private static final String PROTOCOL = "MPO"; // Protocol name written with every audit event
     private String candidatePartyInfo;
-    private ArrayList<String> ballotList;
+    private ArrayList<String> ballotList; // List of ballot strings, or null if the ballots were already tallied
+    private int[] ballotTallies; // Number of votes in every ballot column, or null if the ballots are still to be tallied
+    private int numBallots; // Number of ballots
     private int numSeats; // Number of seats
     private ArrayList<Candidate> candidates;
-    private ArrayList<Party> parties;
+    private ArrayList<Party> parties; // Parties of the candidates, where each party's position matches its id
+    private ArrayList<Party> candidateParties; // Party of every candidate, in the same order as candidates
     private ArrayList<Candidate> winningCandidates;
     private int initialNumberOfSeats;
 
@@ -35,10 +34,40 @@ public class MPOVoting extends Voting {
      * @param auditFilePath   Path to the audit file.
      */
     public MPOVoting(String candidateLine, ArrayList<String> ballotList, int numSeats, String auditFilePath) {
+        this(candidateLine, ballotList, null, numSeats, ballotList.size(), auditFilePath);
+    }
+
+    /**
+     * Constructor for MPOVoting class that takes ballots that were already tallied per ballot column
+     * while the CSV file was read (see FileParser.getBallotTallies()), so no ballot lines are needed.
+     *
+     * @param candidateLine   The line containing Candidate name and party affiliation information.
+     * @param ballotTallies   Number of votes in every ballot column.
+     * @param numSeats        Number of seats to be allocated.
+     * @param numBallots      Number of ballots cast for the election.
+     * @param auditFilePath   Path to the audit file.
+     */
+    public MPOVoting(String candidateLine, int[] ballotTallies, int numSeats, int numBallots, String auditFilePath) {
+        this(candidateLine, null, ballotTallies, numSeats, numBallots, auditFilePath);
+    }
+
+    /**
+     * Constructor shared by the public constructors, where exactly one of ballotList and ballotTallies is set.
+     *
+     * @param candidateLine   The line containing Candidate name and party affiliation information.
+     * @param ballotList      List of ballot strings, or null if the ballots were already tallied.
+     * @param ballotTallies   Number of votes in every ballot column, or null if the ballots are in ballotList.
+     * @param numSeats        Number of seats to be allocated.
+     * @param numBallots      Number of ballots cast for the election.
+     * @param auditFilePath   Path to the audit file.
+     */
+    private MPOVoting(String candidateLine, ArrayList<String> ballotList, int[] ballotTallies, int numSeats, int numBallots, String auditFilePath) {
         // Remove starting and ending brackets from candidateLine for ease of processing
         candidatePartyInfo = candidateLine;
         candidatePartyInfo = candidatePartyInfo.substring(1, candidatePartyInfo.length()-1);
         this.ballotList = ballotList;
+        this.ballotTallies = ballotTallies;
+        this.numBallots = numBallots;
         this.numSeats = numSeats;
         this.auditFilePath = auditFilePath;
         parties = new ArrayList<>();
@@ -49,19 +78,16 @@ public class MPOVoting extends Voting {
 
         // Process ballot list for all parties
         processBallots();
-
-        // Initialize audit file
-        File auditFile = new File(auditFilePath);
-        if (auditFile.exists()){
-            auditFile.delete();
-        }
     }
 
     /**
      * This function parses the line of the input CSV file containing the Candidate name and party affiliation information.
+     * Every candidate is also added to their party, so party totals can be kept while ballots are counted.
      */
     private void processCandidateInfo(){
         candidates = new ArrayList<>();
+        candidateParties = new ArrayList<>();
+        HashMap<String, Party> partyLookup = new HashMap<>(); // Parties added so far by name
         String[] candidateInfo = candidatePartyInfo.split("], \\[");
         
         for (int i = 0; i < candidateInfo.length; i++) {
@@ -72,16 +98,36 @@ public class MPOVoting extends Voting {
             String candidateName = element_split[0];
             String party = String.valueOf(element_split[1].charAt(0));
 
-            // Add new candidate to list of candidates
-            Candidate candidate = new Candidate(candidateName,party);
+            // Add new candidate to list of candidates, using their ballot column as their id
+            Candidate candidate = new Candidate(candidateName, party, i);
             candidates.add(candidate);
+
+            // Add the candidate to their party, creating the party the first time it appears
+            Party candidateParty = partyLookup.get(party);
+            if (candidateParty == null) {
+                candidateParty = new Party(party, parties.size());
+                parties.add(candidateParty);
+                partyLookup.put(party, candidateParty);
+            }
+            candidateParty.addCandidate(candidate);
+            candidateParties.add(candidateParty);
         }
     }
 
     /**
-     * This function calculates the number of votes each candidate receives.
+     * This function calculates the number of votes each candidate and each party receives.
      */
     private void processBallots() {
+        if (ballotList == null) { // Ballots were already tallied while the file was read
+            for (int i = 0; i < candidates.size() && i < ballotTallies.length; i++) {
+                candidates.get(i).addVotes(ballotTallies[i]);
+                Party party = candidateParties.get(i);
+                party.setPartyVote(party.getTotalPartyVotes() + ballotTallies[i]);
+            }
+            this.recordInitialPartyVotes();
+            return;
+        }
+
         for (String ballotLine : ballotList) { // Distribute all votes to their respective parties and candidates
             String[] ballotInfo = ballotLine.split(",");
             int indexToUpdate = -1; // Get the position of the candidate that the vote is going towards
@@ -93,245 +139,171 @@ public class MPOVoting extends Voting {
                 }
             }
 
-            // Increment candidate vote
+            // Increment candidate and party vote
             candidates.get(indexToUpdate).incrementVote();
+            candidateParties.get(indexToUpdate).incrementPartyVote();
         }
+        this.recordInitialPartyVotes();
     }
 
     /**
-     * Perform the seat allocation process using the MPO voting protocol.
+     * This function remembers each party's total votes once all ballots are counted.
      */
-    public void performSeatAllocations(){
-        // Sort list of candidates in descending order by the number of votes each have.
-        Collections.sort(candidates, (candidateOne, candidateTwo) -> {
-            return candidateTwo.getNumVotes() - candidateOne.getNumVotes();
-        });
-
-        for(int i = 0; i < candidates.size() - 1; i++) {
-            // If no seats are left to assign, just break out of the loop
-            if (numSeats == 0) {
-                break;
-            }
-
-            // Get first and second candidate for performing comparisons
-            Candidate firstCandidate = candidates.get(i);
-            Candidate secondCandidate = candidates.get(i + 1);
-
-            // If the Candidate at position i has received seats, then there is no point in comparing
-            // it with the second candidate
-            if (firstCandidate.getNumSeats() != 0){
-                continue;
-            }
-
-            // Write candidate information to the audit file
-            buildAndWriteRoundResultsToAuditFile();
-        
-            // If first Candidate's votes are greater than the second candidate's votes, then assign a seat to the first candidate
-            if (firstCandidate.getNumVotes() > secondCandidate.getNumVotes()) {
-                firstCandidate.incrementNumSeats();
-                winningCandidates.add(firstCandidate);
-                numSeats -= 1;
-        
-                // Display that a seat has been allocated to the first candidate
-                StringBuilder seatAllocationInfo = new StringBuilder();
-                seatAllocationInfo.append(String.format("\n1 seat allocated to %s since they have a higher number of votes than the candidate after them.\n\n", firstCandidate.getName()));
-                seatAllocationInfo.append(String.format("Remaining Seats: %d\n", numSeats));
-        
-                // Write seat allocation information to the audit file
-                writeToAuditFile(seatAllocationInfo);
-            } else {
-                // Handle tie breaker
-                handleTie(i, firstCandidate.getNumVotes());
-            }
+    private void recordInitialPartyVotes() {
+        for (Party party : parties) {
+            party.setInitialPartyVotes(party.getTotalPartyVotes());
         }
-
-        // Handle edge case where it's possible that the last candidate in the list doesn't receive a seat
-        // when the number of candidates is an odd number and a seat is still available
-        Candidate lastCandidate = candidates.get(candidates.size()-1);
-        if (numSeats > 0 && lastCandidate.getNumSeats() == 0 && lastCandidate.getNumVotes() != 0){
-            lastCandidate.incrementNumSeats();
-            winningCandidates.add(lastCandidate);
-            StringBuilder sb = new StringBuilder();
-            sb.append(String.format("\n1 last seat allocated to the last remaining candidate %s.\n", lastCandidate.getName()));
-            writeToAuditFile(sb);
-            numSeats -= 1;
-        }
-
-        // Write final results to audit file along with the winner candidate names
-        buildAndWriteRoundResultsToAuditFile();
     }
 
     /**
-     * Handles tie-breaking for candidates with the same number of votes.
-     * Retrieves candidates currently tied with the same number of votes and who haven't been assigned any seats yet.
-     * Performs seat allocations until no seats are left or no tied candidates are left to assign seats to.
+     * Perform the seat allocation process using the MPO voting protocol. The candidates with the most votes are
+     * selected with a bounded heap of numSeats candidates rather than sorting every candidate, and the group of
+     * candidates tied at the cutoff for the last seat(s) is found in the same pass and resolved with one draw.
+     * Candidates who received no votes never win a seat. The audit file is closed once the seats are allocated.
      *
-     * @param candidatePosition The position of the candidate in the sorted list.
-     * @param numVotes          The number of votes the tied candidates have.
+     * @throws java.io.UncheckedIOException If the audit file could not be written.
      */
-    protected void handleTie(int candidatePosition, int numVotes){
-        // Get all candidates currently tied with the same number of votes as the candidate at candidatePosition and who haven't been assigned any seats yet.
-        // Example, if list of candidates = [Pike, Borg, Foster, Deutsch, Harry] and Borg, Foster and Deutsch are tied at the same number of votes,
-        // in that case, candidatePosition will be 1 (i.e., Borg) and tiedCandidatess would contain [Borg, Foster, Deutsch] since they all have the same
-        // number of votes.
-        ArrayList<Candidate> tiedCandidatess = getTiedCandidatess(candidatePosition, numVotes);
-
-        // Perform seat allocations until no seats are left or no tied candidates are left to assign seats to
-        while (numSeats > 0 && tiedCandidatess.size() > 0) {
-            if (tiedCandidatess.size() > 1) {
-                buildAndWriteCandidateTieInformation(tiedCandidatess);
-
-                // Perform tie breaker to identify a winning candidate who receives seats
-                SecureRandom random = new SecureRandom();
-                int randomIdx = random.nextInt(tiedCandidatess.size());
-                Candidate chosenCandidate = tiedCandidatess.get(randomIdx);
-                chosenCandidate.incrementNumSeats();
-                winningCandidates.add(chosenCandidate);
-
-                // Write chosen candidate name to audit file as the winner of the tie breaker
-                StringBuilder sb = new StringBuilder();
-                sb.append(String.format("The winner of the tie result is %s and wins 1 seat.%n", chosenCandidate.getName()));
-                writeToAuditFile(sb);
-
-                // After a candidate has been assigned a seat, we don't want to include it in subsequent tie-breaker round(s).
-                tiedCandidatess.remove(randomIdx);
-            } else if (tiedCandidatess.size() == 1) {
-                // If there is only one candidate left in the tiedCandidatess list, assign them 1 seat
-                int lastIdx = tiedCandidatess.size() - 1;
-                Candidate lastCandidate = tiedCandidatess.get(lastIdx);
-                lastCandidate.incrementNumSeats();
-                winningCandidates.add(lastCandidate);
-                tiedCandidatess.remove(lastIdx);
-
-                StringBuilder sb = new StringBuilder();
-                sb.append(String.format("\n%s wins 1 seat since they aren't currently tied with any other candidate.\n", lastCandidate.getName()));
-                writeToAuditFile(sb);
-            }
-
-            // Decrement number of seats
-            numSeats -= 1;
+    public void performSeatAllocations(){
+        try {
+            allocateSeats();
+        } finally {
+            closeAuditFile();
         }
     }
 
     /**
-     * Retrieves all candidates that are tied with the same number of votes as the candidate at candidatePosition.
-     * @param candidatePosition The position of the candidate in the sorted list.
-     * @param numVotes          The number of votes the candidate at candidatePosition in the candidates arraylist has.
-     * @return                  List of candidates currently tied at the same number of votes as the candidate at candidatePosition in the list of candidates.
-     * 
+     * This function selects the seat winners, keeps every party's seats up to date and writes the 
+     * initial results, the seat allocation and the final results to the audit file.
      */
-    private ArrayList<Candidate> getTiedCandidatess(int candidatePosition, int numVotes){
-        ArrayList<Candidate> tiedCandidatess = new ArrayList<>();
-        for(int i = candidatePosition; i < candidates.size(); i++){
-            if (candidates.get(i).getNumVotes() == 0 || candidates.get(i).getNumVotes() != numVotes) {
-                break;
-            } else if (candidates.get(i).getNumVotes() == numVotes){
-                tiedCandidatess.add(candidates.get(i));
+    private void allocateSeats(){
+        if (progress != null){
+            progress.startPhase("Allocating seats", 0, 0);
+        }
+
+        // Write initial candidate information to the audit file
+        buildAndWriteRoundResultsToAuditFile();
+        flushAuditFile();
+        if (resultExporter != null){
+            resultExporter.beginElection("MPO", numBallots, numSeats);
+        }
+
+        // Only candidates who received votes compete for seats
+        ArrayList<Candidate> votedCandidates = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.getNumVotes() != 0) {
+                votedCandidates.add(candidate);
             }
         }
-        return tiedCandidatess;
-    }
 
-    /**
-     * This function write StringBuilder content to the audit file. This function is helpful 
-     * for writing party, candidate, rounds of seat allocation, and tie information to the 
-     * audit file.
-     * 
-     * @param sb StringBuilder object containing the content to be written to the audit file.
-     */
-    @Override
-    protected void writeToAuditFile(StringBuilder sb){
-        // The below line is for unit testing purposes since we don't want to create an audit file everytime we
-        // execute a test case for OPLVoting
-        if (auditFilePath.length() == 0) {
-            return;
+        SeatSelection selection; // Candidates who won a seat, and the tie for the last seats if any
+        try (ElectionPhase<ElectionEvents.Round> phase = ElectionPhase.round(PROTOCOL, "Allocating seats", 1)) {
+            selection = SeatSelection.selectTopCandidates(votedCandidates, numSeats, getTieBreakRandom());
+            if (selection.hasTie()) {
+                recordTieDraw(PROTOCOL, "seats", selection.getTiedCandidates().size(), ElectionEvents.candidateNames(selection.getTieWinners()));
+            }
+            for (Candidate candidate : selection.getWinners()) {
+                candidate.incrementNumSeats();
+                winningCandidates.add(candidate);
+                numSeats -= 1;
+
+                // Keep the party's seats and seat holders up to date as each seat is awarded
+                Party party = candidateParties.get(candidate.getId());
+                party.incrementNumSeatsAllocated(1);
+                party.getSeatHolders().add(candidate);
+            }
+
+            phase.getEvent().setResult(numBallots, winningCandidates.size());
         }
 
-        try{
-            // Write StringBuilder contents to audit file.
-            FileWriter fw = new FileWriter(auditFilePath, true);
-            BufferedWriter bw = new BufferedWriter(fw);
-            bw.write(sb.toString());
-            bw.close();
-        } catch (Exception e){
-            System.out.println("[SYSTEM]: Error occurred while writing to audit file. Exiting...");
-            System.exit(0);
+        // List the candidates with the most votes first, candidates with the same votes staying in ballot order, so the
+        // final results are shown in the same order as before the seats were selected with a heap
+        candidates.sort((candidateOne, candidateTwo) -> candidateTwo.getNumVotes() - candidateOne.getNumVotes());
+
+        // Write the seat allocation once, followed by the final results along with the winner candidate names
+        buildAndWriteSeatAllocationToAuditFile(selection);
+        buildAndWriteRoundResultsToAuditFile();
+        if (resultExporter != null){
+            resultExporter.result(this);
         }
     }
 
     /**
-     * This function uses a StringBuilder object to build a string containing 
-     * information such as the candidate's information, number/% of votes received,
-     * number/% of seats received and the number of seats left for the next round. This 
-     * StringBuilder object is later on passed to writeToAuditFile() to write 
-     * the round results to the audit file.
+     * This function writes every candidate's information, number/% of votes received and 
+     * number/% of seats received to the audit, along with the number of seats left. Once 
+     * every seat is allocated, the winning candidates and the results of every party are 
+     * written as well.
      */
     private void buildAndWriteRoundResultsToAuditFile() {
-        StringBuilder sb = new StringBuilder();
+        if (!isAuditEnabled(AuditLevel.SUMMARY)){
+            return;
+        }
+
+        ArrayList<Object> candidateTable = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            LinkedHashMap<String, Object> row = AuditEvent.candidateFields(candidate);
+            row.put("seats", candidate.getNumSeats());
+            candidateTable.add(row);
+        }
 
         // If the initial number of seats available and number of seats left to be allocated are the same number,
         // that means we have no started allocating seats yet.
         if (numSeats == initialNumberOfSeats){
-            sb.append("Voting Protocol Name: MPO (Multiple Popularity Only)\n");
-            sb.append("Initial Vote Calculation Results:\n");
-        } else if (numSeats == 0) {
-            sb.append("\nFinal Round of Seat Allocation Results:\n");
-        } else{
-            sb.append("\nCurrent Round Seat Allocation Results:\n");
+            writeAuditEvent(new AuditEvent(AuditEvent.Type.ELECTION_START, PROTOCOL)
+                .with("ballots", numBallots)
+                .with("seats", initialNumberOfSeats));
+            writeAuditEvent(new AuditEvent(AuditEvent.Type.TALLY, PROTOCOL)
+                .with("ballots", numBallots)
+                .with("seats", initialNumberOfSeats)
+                .with("remainingSeats", numSeats)
+                .with("candidates", candidateTable));
+            return;
         }
 
-        sb.append(String.format("\n%-30s %-30s %-30s %-30s %s\n", "Candidates", "Number of Votes", "Number of Seats Won", "% of Total Votes", "% of Total Seats"));
-
-        DecimalFormat df = new DecimalFormat("#.00");
-        for (Candidate candidate : candidates) {
-            // Build string containing candidate name and party affiliation information
-            String percentOfVotes = df.format(((double)candidate.getNumVotes() / ballotList.size()) * 100);
-            String percentOfSeats = df.format(((double)candidate.getNumSeats() / initialNumberOfSeats) * 100);
+        AuditEvent event = new AuditEvent(AuditEvent.Type.RESULT, PROTOCOL)
+            .with("ballots", numBallots)
+            .with("seats", initialNumberOfSeats)
+            .with("remainingSeats", numSeats)
+            .with("candidates", candidateTable);
 
-            if (percentOfVotes.equals(".00")){
-                percentOfVotes = "0.00";
-            }
-            if (percentOfSeats.equals(".00")) {
-                percentOfSeats = "0.00";
-            }
-
-            String candidateString = candidate.getName() + " (" + candidate.getParty() + ")";
-            int candidateVotes = candidate.getNumVotes();
-            int candidateSeats = candidate.getNumSeats();
-            sb.append(String.format("%-37s %-30d %-29d %-29s %s\n", candidateString, candidateVotes, candidateSeats, percentOfVotes, percentOfSeats));
-        }
-        
-        // All seats allocated, so write Winner candidate information to audit file
+        // All seats allocated, so write Winner candidate and party information to the audit
         if (numSeats == 0){
-            sb.append("\nThe following candidates won seats: \n\n");
+            ArrayList<Object> winnerTable = new ArrayList<>();
             for (Candidate candidate : winningCandidates){
-                sb.append(String.format("%s from the %s party.\n", candidate.getName(), candidate.getParty()));
+                winnerTable.add(AuditEvent.candidateFields(candidate));
             }
-        } else {
-            sb.append(String.format("\nRemaining Seats: %d\n", numSeats));
+
+            ArrayList<Object> partyTable = new ArrayList<>();
+            for (Party party : parties) {
+                partyTable.add(AuditEvent.partyFields(party));
+            }
+            event.with("winners", winnerTable).with("parties", partyTable);
         }
-        writeToAuditFile(sb);
+        writeAuditEvent(event);
     }
 
     /**
-     * This function uses a StringBuilder object to build a string containing
-     * information about candidates that are tied. This StringBuilder object 
-     * is later on passed to writeToAuditFile() to write 
-     * the round results to the audit file.
-     * @param tiedCandidatess
+     * This function writes the candidates who won a seat outright, and if candidates were 
+     * tied for the last seat(s), the tied candidates along with the winners of the tie 
+     * breaker, to the audit.
+     * @param selection The seat selection that was performed.
      */
-    private void buildAndWriteCandidateTieInformation( ArrayList<Candidate> tiedCandidatess){
-        StringBuilder tiedCandidatesInfo = new StringBuilder("\nList of candidates currently tied with the same number of votes: ");
-        for (Candidate candidate : tiedCandidatess) {
-            tiedCandidatesInfo.append(candidate.getName()).append(", ");
+    private void buildAndWriteSeatAllocationToAuditFile(SeatSelection selection){
+        if (!isAuditEnabled(AuditLevel.SUMMARY)){
+            return;
         }
-        tiedCandidatesInfo.delete(tiedCandidatesInfo.length() - 2, tiedCandidatesInfo.length()); // Remove the trailing comma and space
-        tiedCandidatesInfo.append("\n");
-        this.writeToAuditFile(tiedCandidatesInfo);
+
+        writeAuditEvent(new AuditEvent(AuditEvent.Type.SEAT_AWARD, PROTOCOL)
+            .with("kind", "selection")
+            .with("seats", initialNumberOfSeats)
+            .with("remainingSeats", numSeats)
+            .with("winners", AuditEvent.candidateNames(selection.getWinners()))
+            .with("tied", AuditEvent.candidateNames(selection.getTiedCandidates()))
+            .with("tieWinners", AuditEvent.candidateNames(selection.getTieWinners())));
     }
     
     /**
-     * This function returns the parties in the election.
+     * This function returns the parties in the election. Each party's total votes, seats 
+     * and seat holders are filled in while ballots are counted and seats are allocated.
      * 
      * @return The party array.
      */
@@ -340,7 +312,8 @@ public class MPOVoting extends Voting {
     }
 
      /**
-     * This function returns the candidates in the election.
+     * This function returns the candidates in the election. Once the seats are allocated, they are in descending 
+     * order of votes, with candidates who have the same votes in ballot order.
      * 
      * @return The candidate array.
      */
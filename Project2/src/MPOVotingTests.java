@@ -4,6 +4,18 @@ import java.util.Map;
 import java.util.HashMap;
 
 public class MPOVotingTests {
+    /**
+     * Finds a candidate by name, whatever the order of the candidates.
+     */
+    private Candidate findCandidate(ArrayList<Candidate> candidates, String name) {
+        for (Candidate candidate : candidates) {
+            if (candidate.getName().equals(name)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
     /**
      * This test checks that only one candidate wins a seat since there is only 1 seat available. The candidate
      * who wins the seat also has the highest number of votes.
@@ -220,4 +232,85 @@ public class MPOVotingTests {
         Assert.assertEquals(smith.getNumSeats(), 1);
         Assert.assertEquals(jai.getNumSeats(), 1);
     }
-}
\ No newline at end of file
+
+    /**
+     * This test checks that tallying the ballots while the file is read counts the votes of Jai, who is on the
+     * candidate line but beyond the number of candidates given in the header, the same as the ballot list.
+     */
+    @Test
+    public void testTalliesCountCandidatesBeyondHeader(){
+        final String filename = "./../testing/MPO_test_multiple_winners_with_multiple_tie_breakers.csv";
+        final FileParser listFile = new FileParser(filename);
+        final FileParser tallyFile = new FileParser(filename, true);
+        Assert.assertArrayEquals(new int[]{5, 3, 6, 3, 5, 5, 1}, tallyFile.getBallotTallies());
+        Assert.assertEquals(0, tallyFile.getNumberOfRejectedLines());
+
+        final MPOVoting listMPO = new MPOVoting(listFile.getCandidateLine(), listFile.getBallotList(), listFile.getNumberOfSeats(), "");
+        final MPOVoting tallyMPO = new MPOVoting(tallyFile.getCandidateLine(), tallyFile.getBallotTallies(), tallyFile.getNumberOfSeats(), tallyFile.getNumberOfBallots(), "");
+        listMPO.performSeatAllocations();
+        tallyMPO.performSeatAllocations();
+
+        for (Candidate candidate : listMPO.getCandidates()){
+            Candidate tallied = findCandidate(tallyMPO.getCandidates(), candidate.getName());
+            Assert.assertEquals(candidate.getName(), candidate.getNumVotes(), tallied.getNumVotes());
+            Assert.assertEquals(candidate.getName(), candidate.getNumSeats(), tallied.getNumSeats());
+        }
+        Assert.assertEquals(7, tallyMPO.getWinningCandidates().size());
+    }
+
+    /**
+     * This test checks that ballots tallied while the file is read give the same votes and seats as the ballot list.
+     */
+    @Test
+    public void testBallotTallies() {
+        // Read in test csv file, counting the ballots instead of storing them
+        final FileParser file = new FileParser("./../testing/MPO_test_multiple_winners_with_no_tie_breakers.csv", true);
+
+        // Perform seat allocations
+        final MPOVoting mpo = new MPOVoting(file.getCandidateLine(), file.getBallotTallies(), file.getNumberOfSeats(), file.getNumberOfBallots(), "");
+        mpo.performSeatAllocations();
+
+        ArrayList<Candidate> candidates = mpo.getCandidates();
+        Assert.assertEquals(findCandidate(candidates, "Pike").getNumVotes(), 3);
+        Assert.assertEquals(findCandidate(candidates, "Foster").getNumVotes(), 2);
+        Assert.assertEquals(findCandidate(candidates, "Jones").getNumVotes(), 1);
+        Assert.assertEquals(mpo.getWinningCandidates().size(), 3);
+        Assert.assertEquals(findCandidate(candidates, "Pike").getNumSeats(), 1);
+        Assert.assertEquals(findCandidate(candidates, "Foster").getNumSeats(), 1);
+        Assert.assertEquals(findCandidate(candidates, "Jones").getNumSeats(), 1);
+    }
+
+    /**
+     * This test checks that each party's votes, seats and seat holders are added up while the ballots are counted and
+     * the seats are allocated, with the parties kept in the order they first appear on the ballot.
+     */
+    @Test
+    public void testPartyTotals() {
+        // Read in test csv file
+        final FileParser file = new FileParser("./../testing/MPO_test_multiple_winners_with_no_tie_breakers.csv");
+
+        // Perform seat allocations
+        final MPOVoting mpo = new MPOVoting(file.getCandidateLine(), file.getBallotList(), file.getNumberOfSeats(), "");
+        mpo.performSeatAllocations();
+
+        // Parties stay in the order they first appear on the ballot
+        ArrayList<Party> parties = mpo.getParties();
+        Assert.assertEquals(parties.size(), 3);
+        Assert.assertEquals(parties.get(0).getPartyName(), "D");
+        Assert.assertEquals(parties.get(1).getPartyName(), "R");
+        Assert.assertEquals(parties.get(2).getPartyName(), "I");
+
+        Assert.assertEquals(parties.get(0).getInitialPartyVotes(), 5);
+        Assert.assertEquals(parties.get(1).getInitialPartyVotes(), 1);
+        Assert.assertEquals(parties.get(2).getInitialPartyVotes(), 0);
+
+        Assert.assertEquals(parties.get(0).getNumSeatsAllocated(), 2);
+        Assert.assertEquals(parties.get(1).getNumSeatsAllocated(), 1);
+        Assert.assertEquals(parties.get(2).getNumSeatsAllocated(), 0);
+
+        Assert.assertEquals(parties.get(0).getCandidates().size(), 2);
+        Assert.assertTrue(parties.get(0).getSeatHolders().contains(findCandidate(mpo.getCandidates(), "Pike")));
+        Assert.assertTrue(parties.get(0).getSeatHolders().contains(findCandidate(mpo.getCandidates(), "Foster")));
+        Assert.assertEquals(parties.get(1).getSeatHolders().get(0).getName(), "Jones");
+    }
+}
@@ -0,0 +1,305 @@
+/**
+ * MultiDistrictOPLVoting.java
+ * This class runs an Open Party List election made up of several districts that share the same parties.
+ * Every district file has its own seat count and is allocated in parallel by its own OPLVoting object.
+ * The national result is then rolled up from each district's party totals, so every district file is
+ * read only once and the ballots are never tallied again for the national totals.
+ */
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.io.File;
+
+public class MultiDistrictOPLVoting extends Voting {
+    private static final String PROTOCOL = "OPL"; // Protocol name written with every audit event
+    private ArrayList<String> districtFiles; // Paths of the district CSV files
+    private ArrayList<OPLVoting> districts; // OPLVoting object of every district, in the same order as districtFiles
+    private ArrayList<Party> nationalParties; // National totals of votes and seats for every party
+    private ArrayList<Party> tiedParties; // Parties tied for the most national seats
+    private Party winningParty; // Party with the most national seats
+    private int numSeats; // Total number of seats across all districts
+    private int numBallots; // Total number of ballots across all districts
+
+    /**
+     * This is the constructor that initializes the member variables of the class and
+     * the name of the audit file.
+     *
+     * @param districtFiles Paths of the OPL CSV files, one per district.
+     * @param auditFilePath Name and path of the national audit file. Each district writes its own audit
+     * file next to it, named after the national audit file and the district's number.
+     */
+    public MultiDistrictOPLVoting(ArrayList<String> districtFiles, String auditFilePath) {
+        this.districtFiles = districtFiles;
+        this.districts = new ArrayList<OPLVoting>();
+        this.nationalParties = new ArrayList<Party>();
+        this.tiedParties = new ArrayList<Party>();
+        this.auditFilePath = auditFilePath;
+    }
+
+    /**
+     * This function allocates the seats of every district in parallel, each from its own
+     * tally, and then rolls up the national votes and seats of every party. The national audit
+     * file is closed once the national result is known.
+     *
+     * @throws java.io.UncheckedIOException If an audit file could not be written.
+     */
+    public void performSeatAllocations() {
+        try {
+            this.allocateDistricts();
+            this.rollUpNationalResults();
+            this.buildAndWriteDistrictResultsToAuditFile();
+            this.flushAuditFile();
+            this.findPartyWithMostSeats();
+            this.buildAndWriteNationalResultsToAuditFile();
+            if (resultExporter != null) {
+                resultExporter.beginElection("OPL", numBallots, numSeats);
+                resultExporter.result(this);
+            }
+        } finally {
+            this.closeAuditFile();
+        }
+    }
+
+    /**
+     * This function parses every district file and performs its seat allocation on a fixed
+     * pool of threads. The districts are independent of each other, so no state is shared
+     * between the threads.
+     */
+    private void allocateDistricts() {
+        int numThreads = Math.max(1, Math.min(districtFiles.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        ArrayList<Future<OPLVoting>> futures = new ArrayList<Future<OPLVoting>>();
+
+        try {
+            for (int i = 0; i < districtFiles.size(); i++) {
+                final String districtFile = districtFiles.get(i);
+                final String districtAuditFilePath = getDistrictFilePath(auditFilePath, i + 1);
+                final String districtEventLogPath = getDistrictFilePath(auditEventLogPath, i + 1);
+                final int districtNumber = i + 1;
+
+                futures.add(executor.submit(() -> {
+                    FileParser file = new FileParser(districtFile, true);
+                    if (!"OPL".equals(file.getFileHeader())) {
+                        throw new IllegalArgumentException("District file " + districtFile + " is not an OPL election file.");
+                    }
+
+                    OPLVoting district = new OPLVoting(file.getCandidateLine(), file.getBallotTallies(), file.getNumberOfSeats(), file.getNumberOfBallots(), districtAuditFilePath);
+                    district.setAsyncAudit(asyncAudit, asyncAuditCapacity, asyncAuditBackPressure);
+                    district.setAuditHashChain(auditHashChain);
+                    district.setAuditGzip(auditGzip, auditSegmentSize);
+                    district.setAuditLevel(auditLevel);
+                    district.setAuditDeltas(auditSnapshotInterval);
+                    district.setAuditEventLog(districtEventLogPath);
+                    if (seededTieBreaks) { // Every district gets its own seed, so districts do not repeat each other's coin flips
+                        district.setTieBreakSeed(tieBreakSeed + districtNumber);
+                    }
+                    district.performSeatAllocations();
+                    return district;
+                }));
+            }
+
+            for (Future<OPLVoting> future : futures) { // Collect the districts in the order of their files
+                districts.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while allocating district seats.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to allocate district seats.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * This function builds the name of a district's audit file or audit event log from the national one,
+     * e.g. "./audit_file.txt" becomes "./audit_file_district_1.txt" for the first district.
+     *
+     * @param nationalPath The name and path of the national audit file or audit event log.
+     * @param districtNumber The number of the district, starting at 1.
+     * @return The name and path of the district's file, or an empty string if no national file is written.
+     */
+    private String getDistrictFilePath(String nationalPath, int districtNumber) {
+        if (nationalPath.length() == 0) {
+            return "";
+        }
+
+        int extensionIdx = nationalPath.lastIndexOf('.');
+        int directoryIdx = Math.max(nationalPath.lastIndexOf('/'), nationalPath.lastIndexOf(File.separatorChar));
+        if (extensionIdx <= directoryIdx) { // The file has no extension
+            return nationalPath + "_district_" + districtNumber;
+        }
+        return nationalPath.substring(0, extensionIdx) + "_district_" + districtNumber + nationalPath.substring(extensionIdx);
+    }
+
+    /**
+     * This function adds up the votes and seats each party received in every district. Only
+     * the district's party totals are read, so no ballots are counted again.
+     */
+    private void rollUpNationalResults() {
+        HashMap<String, Party> partyLookup = new HashMap<String, Party>(); // National parties by name
+
+        for (OPLVoting district : districts) {
+            numSeats += district.getNumSeats();
+            numBallots += district.getNumBallots();
+
+            for (Party districtParty : district.getParties()) {
+                Party nationalParty = partyLookup.get(districtParty.getPartyName());
+                if (nationalParty == null) { // First district the party appears in
+                    nationalParty = new Party(districtParty.getPartyName(), nationalParties.size());
+                    nationalParties.add(nationalParty);
+                    partyLookup.put(nationalParty.getPartyName(), nationalParty);
+                }
+
+                nationalParty.setInitialPartyVotes(nationalParty.getInitialPartyVotes() + districtParty.getInitialPartyVotes());
+                nationalParty.setPartyVote(nationalParty.getInitialPartyVotes());
+                nationalParty.incrementNumSeatsAllocated(districtParty.getNumSeatsAllocated());
+                nationalParty.getSeatHolders().addAll(districtParty.getSeatHolders());
+            }
+        }
+    }
+
+    /**
+     * This function finds the party with the most national seats. If more than one party
+     * has the most seats, a "coin flip" determines the winning party.
+     */
+    private void findPartyWithMostSeats() {
+        int maxSeats = -1;
+        for (Party party : nationalParties) {
+            if (party.getNumSeatsAllocated() > maxSeats) { // A new highest number of seats replaces any earlier ties
+                maxSeats = party.getNumSeatsAllocated();
+                tiedParties.clear();
+                tiedParties.add(party);
+            } else if (party.getNumSeatsAllocated() == maxSeats) {
+                tiedParties.add(party);
+            }
+        }
+
+        if (tiedParties.isEmpty()) {
+            return;
+        }
+
+        winningParty = tiedParties.get(getTieBreakRandom().nextInt(tiedParties.size()));
+
+        if (tiedParties.size() > 1) {
+            recordTieDraw(PROTOCOL, "national winning party", tiedParties.size(), winningParty.getPartyName());
+            this.buildAndWriteTieResultToAuditFile();
+        }
+    }
+
+    /**
+     * This function writes the number of ballots, seats and the winning party of every
+     * district to the national audit.
+     */
+    private void buildAndWriteDistrictResultsToAuditFile() {
+        if (!this.isAuditEnabled(AuditLevel.SUMMARY)) {
+            return;
+        }
+
+        ArrayList<Object> districtTable = new ArrayList<Object>();
+        for (int i = 0; i < districts.size(); i++) {
+            OPLVoting district = districts.get(i);
+            LinkedHashMap<String, Object> row = new LinkedHashMap<String, Object>();
+            row.put("name", new File(districtFiles.get(i)).getName());
+            row.put("ballots", district.getNumBallots());
+            row.put("seats", district.getNumSeats());
+            row.put("winningParty", district.getWinningParty() == null ? null : district.getWinningParty().getPartyName());
+            districtTable.add(row);
+        }
+
+        this.writeAuditEvent(new AuditEvent(AuditEvent.Type.ELECTION_START, PROTOCOL)
+            .with("districts", districts.size()));
+        this.writeAuditEvent(new AuditEvent(AuditEvent.Type.TALLY, PROTOCOL)
+            .with("districts", districtTable));
+    }
+
+    /**
+     * This function writes the national votes, seats and % of votes to % of seats of every
+     * party, along with the party that won the most seats, to the national audit.
+     */
+    private void buildAndWriteNationalResultsToAuditFile() {
+        if (!this.isAuditEnabled(AuditLevel.SUMMARY)) {
+            return;
+        }
+
+        ArrayList<Object> partyTable = new ArrayList<Object>();
+        for (Party party : nationalParties) {
+            partyTable.add(AuditEvent.partyFields(party));
+        }
+
+        AuditEvent event = new AuditEvent(AuditEvent.Type.RESULT, PROTOCOL)
+            .with("districts", districts.size())
+            .with("ballots", numBallots)
+            .with("seats", numSeats)
+            .with("parties", partyTable);
+        if (winningParty != null) {
+            event.with("winningParty", AuditEvent.partyFields(winningParty));
+        }
+        this.writeAuditEvent(event);
+    }
+
+    /**
+     * This function writes the names of the parties tied for the most national seats
+     * and the winner of the tie to the national audit.
+     */
+    @Override
+    protected void buildAndWriteTieResultToAuditFile() {
+        if (!this.isAuditEnabled(AuditLevel.SUMMARY)) {
+            return;
+        }
+
+        this.writeAuditEvent(new AuditEvent(AuditEvent.Type.TIE_DRAW, PROTOCOL)
+            .with("kind", "national party")
+            .with("tied", AuditEvent.partyNames(tiedParties))
+            .with("winners", AuditEvent.partyNames(Collections.singletonList(winningParty))));
+    }
+
+    /**
+     * This function returns the OPLVoting object of every district, in the order of the district files.
+     *
+     * @return An arraylist of the districts' OPLVoting objects.
+     */
+    public ArrayList<OPLVoting> getDistricts() {
+        return districts;
+    }
+
+    /**
+     * This function returns the national votes and seats of every party. The seat holders of
+     * a national party are the seat holders of all its districts.
+     *
+     * @return An arraylist of national Party objects.
+     */
+    public ArrayList<Party> getNationalParties() {
+        return nationalParties;
+    }
+
+    /**
+     * This function returns the party with the most national seats.
+     *
+     * @return The winning Party object.
+     */
+    public Party getWinningParty() {
+        return winningParty;
+    }
+
+    /**
+     * This function returns the total number of seats across all districts.
+     *
+     * @return The total number of seats.
+     */
+    public int getNumSeats() {
+        return numSeats;
+    }
+
+    /**
+     * This function returns the total number of ballots across all districts.
+     *
+     * @return The total number of ballots.
+     */
+    public int getNumBallots() {
+        return numBallots;
+    }
+}
@@ -0,0 +1,62 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.*;
+
+public class MultiDistrictOPLVotingTests {
+    /**
+     * This function tests that the national votes and seats of every party are the sums of the district results
+     * when two districts are allocated in parallel.
+     */
+    @Test
+    public void testNationalRollup() {
+        ArrayList<String> districtFiles = new ArrayList<>(Arrays.asList(
+            "./../testing/OPL_test_small_number_of_votes.csv",
+            "./../testing/OPL_test_first_round_winner.csv"));
+
+        final MultiDistrictOPLVoting opl = new MultiDistrictOPLVoting(districtFiles, "");
+        opl.performSeatAllocations();
+
+        Assert.assertEquals(2, opl.getDistricts().size());
+        Assert.assertEquals(6, opl.getNumSeats());
+        Assert.assertEquals(18, opl.getNumBallots());
+
+        int totalVotes = 0;
+        int totalSeats = 0;
+        for (Party party : opl.getNationalParties()) {
+            int districtVotes = 0;
+            int districtSeats = 0;
+            for (OPLVoting district : opl.getDistricts()) {
+                for (Party districtParty : district.getParties()) {
+                    if (districtParty.equals(party)) {
+                        districtVotes += districtParty.getInitialPartyVotes();
+                        districtSeats += districtParty.getNumSeatsAllocated();
+                    }
+                }
+            }
+
+            Assert.assertEquals(districtVotes, party.getInitialPartyVotes());
+            Assert.assertEquals(districtSeats, party.getNumSeatsAllocated());
+            Assert.assertEquals(districtSeats, party.getSeatHolders().size());
+            totalVotes += party.getInitialPartyVotes();
+            totalSeats += party.getNumSeatsAllocated();
+        }
+
+        Assert.assertEquals(18, totalVotes);
+        Assert.assertEquals(6, totalSeats);
+        Assert.assertEquals("D", opl.getWinningParty().getPartyName());
+        Assert.assertEquals(4, opl.getWinningParty().getNumSeatsAllocated());
+    }
+
+    /**
+     * This function tests that a district file using another voting protocol is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonOPLDistrictRejected() {
+        ArrayList<String> districtFiles = new ArrayList<>(Arrays.asList(
+            "./../testing/OPL_test_small_number_of_votes.csv",
+            "./../testing/MPO_test_one_winner.csv"));
+
+        final MultiDistrictOPLVoting opl = new MultiDistrictOPLVoting(districtFiles, "");
+        opl.performSeatAllocations();
+    }
+}
@@ -7,27 +7,30 @@
  */
 
 import java.util.*;
-import java.security.SecureRandom;
 import java.lang.Math;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.BufferedWriter;
-import java.text.DecimalFormat;
 
 public class OPLVoting extends Voting {
+    private static final String PROTOCOL = "OPL"; // Protocol name written with every audit event
     private String candidatePartyInfo; // Contains candidates' name and party
-    private ArrayList<String> ballotList; // ArrayList of all the ballots
-    private static ArrayList<Candidate> tiedCandidates; // ArrayList containing tied candidates
+    private ArrayList<String> ballotList; // ArrayList of all the ballots, or null if the ballots were already tallied
+    private int[] ballotTallies; // Number of votes in every ballot column, or null if the ballots are still to be tallied
+    private ArrayList<Candidate> tiedCandidates; // ArrayList containing tied candidates
     private ArrayList<Party> tiedParties; // ArrayList containing tied parties
     private ArrayList<Party> remainingVoteTies; // ArrayList containing parties with the same remaining votes
-    private ArrayList<Party> receivedRemainingSeats; // ArrayList to keep track of parties that received a remaining seat
-    private ArrayList<Party> seatsEqualToCandidates; // ArrayList to keep track of parties that received seats equal to candidates
+    private BitSet receivedRemainingSeats; // Bitset indexed by party id to keep track of parties that received a remaining seat
+    private BitSet seatsEqualToCandidates; // Bitset indexed by party id to keep track of parties that received seats equal to candidates
+    private Party lastRemainingSeatParty; // Party that received the most recent remaining seat
     private int numSeats; // Number of seats
     private int numBallots; // Number of ballots
-    private ArrayList<Party> parties; // ArrayList of all parties
-    private static Party winningParty; // Party that won
+    private ArrayList<Party> parties; // ArrayList of all parties, where each party's position matches its id
+    private Candidate[] ballotColumns; // Candidates indexed by their id, i.e. their column on a ballot line
+    private Party[] ballotColumnParties; // Parties of the candidates indexed by the candidate's column on a ballot line
+    private Party winningParty; // Party that won
     private Party partyWithAllVotes; // Party that has all the votes
     private int quota; // Calculated quota based of the number of ballots / number of seats
+    private LinkedHashMap<Party, SeatSelection> seatHolderDraws; // Parties whose last seat holder(s) had to be drawn, along with the draw
+    private boolean seatSensitivityAnalysis; // Whether to compute how close each party was to gaining or losing a seat
+    private ArrayList<SeatSensitivity> seatSensitivities; // Seat sensitivity of every party, filled when the analysis is enabled
 
     /**
      * This is the constructor that initializes the member variables of the class and 
@@ -44,53 +47,65 @@ public class OPLVoting extends Voting {
         this.ballotList = ballotList;
         this.tiedCandidates = new ArrayList<Candidate>();
         this.tiedParties = new ArrayList<Party>();
-        this.receivedRemainingSeats = new ArrayList<Party>();
-        this.seatsEqualToCandidates = new ArrayList<Party>();
         this.numSeats = numSeats;
         this.numBallots = numBallots;
         this.parties = processPartyInfo(candidatePartyInfo);
+        this.receivedRemainingSeats = new BitSet(parties.size());
+        this.seatsEqualToCandidates = new BitSet(parties.size());
         this.partyWithAllVotes = null;
+        this.seatHolderDraws = new LinkedHashMap<Party, SeatSelection>();
+        this.seatSensitivityAnalysis = false;
+        this.seatSensitivities = new ArrayList<SeatSensitivity>();
         this.quota = (int) Math.ceil((double) numBallots / (double) numSeats);
         this.auditFilePath = auditFilePath;
+    }
 
-        // Delete audit file created during a previous run
-        File auditFile = new File(auditFilePath);
-        if (auditFile.exists()){
-            auditFile.delete();
-        }
+    /**
+     * This constructor takes ballots that were already tallied per ballot column while the 
+     * CSV file was read (see FileParser.getBallotTallies()), so no ballot lines are needed.
+     * 
+     * @param candidateLine Line containing the candidate name and party affiliations.
+     * @param ballotTallies Number of votes in every ballot column.
+     * @param numSeats The total number of seats that are to be allocated.
+     * @param numBallots The total number of ballots cast for the election.
+     * @param auditFilePath Name and path of the audit file that is generated when running the entire system.
+     */
+    public OPLVoting(String candidateLine, int[] ballotTallies, int numSeats, int numBallots, String auditFilePath) {
+        this(candidateLine, (ArrayList<String>) null, numSeats, numBallots, auditFilePath);
+        this.ballotTallies = ballotTallies;
     }
 
     /**
      * This function create an arraylist of Party objects and sets up the Party object's
-     * member variables.
+     * member variables. Each party is given the id of its position in the arraylist and
+     * each candidate is given the id of its column on the ballot.
      * 
      * @param candidateLine Line containing the candidate name and party affiliations.
      * @return An arraylist of Party objects.
      */
     private ArrayList<Party> processPartyInfo(String candidateLine) {
         ArrayList<Party> parties = new ArrayList<Party>();
-        ArrayList<String> addedParties = new ArrayList<String>();
+        HashMap<String, Party> addedParties = new HashMap<String, Party>(); // Lookup of the parties added so far by name
         String[] candidateList = candidateLine.split(", ");
+        ballotColumns = new Candidate[candidateList.length];
+        ballotColumnParties = new Party[candidateList.length];
 
-        for (String candidate : candidateList) { // Create a list of all the parties and assign all candidates to their parties
-            String[] candidateInfo = candidate.split(" ");
+        for (int column = 0; column < candidateList.length; column++) { // Create a list of all the parties and assign all candidates to their parties
+            String[] candidateInfo = candidateList[column].split(" ");
             String candidateName = candidateInfo[0];
             String candidateParty = String.valueOf(candidateInfo[1].charAt(1));
 
-            if (!addedParties.contains(candidateParty)) { // If the party has not been added yet to parties
-                Party newParty = new Party(candidateParty);
-                Candidate newCandidate = new Candidate(candidateName, candidateParty);
-                newParty.addCandidate(newCandidate);
-                parties.add(newParty);
-                addedParties.add(candidateParty);
-            } else { // If the party has been added to parties
-                for (Party party : parties) {
-                    if (party.getPartyName().equals(candidateParty)) { // If the party is the candidate's party
-                        Candidate newCandidate = new Candidate(candidateName, candidateParty);
-                        party.addCandidate(newCandidate);
-                    }
-                }
+            Party party = addedParties.get(candidateParty);
+            if (party == null) { // If the party has not been added yet to parties
+                party = new Party(candidateParty, parties.size());
+                parties.add(party);
+                addedParties.put(candidateParty, party);
             }
+
+            Candidate newCandidate = new Candidate(candidateName, candidateParty, column);
+            party.addCandidate(newCandidate);
+            ballotColumns[column] = newCandidate;
+            ballotColumnParties[column] = party;
         }
 
         return parties;
@@ -103,6 +118,11 @@ public class OPLVoting extends Voting {
      * @param ballotList List of ballot lines in the CSV file.
      */
     private void processBallots(ArrayList<String> ballotList) {
+        if (ballotList == null) { // Ballots were already tallied while the file was read
+            this.processBallotTallies(ballotTallies);
+            return;
+        }
+
         for (String ballotLine : ballotList) { // Distribute all votes to their respective parties and candidates
             String[] ballotInfo = ballotLine.split(",");
             int indexToUpdate = -1; // Get the position of the candidate that the vote is going towards
@@ -114,100 +134,283 @@ public class OPLVoting extends Voting {
                 }
             }
 
-            String[] candidateList = this.candidatePartyInfo.split(", ");
-            String[] candidateInfo = candidateList[indexToUpdate].split(" ");
-            String candidateName = candidateInfo[0];
-            String candidateParty = String.valueOf(candidateInfo[1].charAt(1));
+            // Look up the candidate and their party directly by the column of the vote
+            ballotColumns[indexToUpdate].incrementVote();
+            ballotColumnParties[indexToUpdate].incrementPartyVote();
+        }
 
-            for (Party party : parties) { // Find the party that the candidate is associated to that got the vote
-                if (party.getPartyName().equals(candidateParty)) {
-                    for (Candidate candidate : party.getCandidates()) {
-                        if (candidate.getName().equals(candidateName)) {
-                            candidate.incrementVote();
-                            break;
-                        }
-                    }
-                    
-                    party.incrementPartyVote();
-                    party.setInitialPartyVotes(party.getTotalPartyVotes());
-                    break;
-                }
-            }
+        for (Party party : parties) { // Remember each party's total before seat allocation changes it into remaining votes
+            party.setInitialPartyVotes(party.getTotalPartyVotes());
+        }
+    }
+
+    /**
+     * This function adds the votes of every ballot column to its candidate and the 
+     * candidate's party.
+     * 
+     * @param ballotTallies Number of votes in every ballot column.
+     */
+    private void processBallotTallies(int[] ballotTallies) {
+        for (int column = 0; column < ballotColumns.length && column < ballotTallies.length; column++) {
+            ballotColumns[column].addVotes(ballotTallies[column]);
+            Party party = ballotColumnParties[column];
+            party.setPartyVote(party.getTotalPartyVotes() + ballotTallies[column]);
+        }
+
+        for (Party party : parties) { // Remember each party's total before seat allocation changes it into remaining votes
+            party.setInitialPartyVotes(party.getTotalPartyVotes());
         }
     }
 
     /**
      * This function performs the seat allocation calculations using the “Largest remainder 
      * formula," determines the winning Party and Candidate, and write each round of information 
-     * to the audit file.
+     * to the audit file. The audit file is closed once the seats are allocated.
+     *
+     * @throws java.io.UncheckedIOException If the audit file could not be written.
      */
     public void performSeatAllocations() {
-        this.processBallots(ballotList);
+        try {
+            this.allocateSeats();
+        } finally {
+            this.closeAuditFile();
+        }
+    }
+
+    /**
+     * This function tallies the ballots, allocates the seats round by round and determines the
+     * winning Party, Candidate and seat holders, flushing the audit file after every round.
+     */
+    private void allocateSeats() {
+        if (progress != null) {
+            progress.startPhase("Counting votes", 0, numBallots);
+        }
+        try (ElectionPhase<ElectionEvents.Round> phase = ElectionPhase.round(PROTOCOL, "Counting votes", 0)) {
+            this.processBallots(ballotList);
+            phase.getEvent().setResult(numBallots, 0);
+        }
+        if (progress != null) {
+            progress.setBallotsCounted(numBallots);
+            progress.startPhase("Allocating seats", 0, 0);
+        }
         this.buildAndWriteInitialResultsToAuditFile();
+        this.flushAuditFile();
+        if (resultExporter != null) {
+            resultExporter.beginElection("OPL", numBallots, numSeats);
+            resultExporter.partyRound(0, parties);
+        }
         int round = 1; // Keeps track of the current round
         int seatsAvailable = numSeats; // Keeps track of the seats that are available
         boolean partiesReceivedEnoughSeats = false;
+        int allocationRound = 0; // Number of rounds of seat allocation written to the audit
 
         while (seatsAvailable != 0 && !partiesReceivedEnoughSeats) { // While there are still seats left to allocate
             int totalAllocationsPerRound = 0; // Keeps track of the seats allocated to parties
-            
-            if (round == 1) { // First round seat allocation
-                if (this.checkPartyWithAllVotes()) { // If a party has all the votes
-                    for (Party party : parties) {
-                        if (party.getTotalPartyVotes() != 0) { // If party does not have zero votes
-                            partyWithAllVotes = party;
-                            break;
+            try (ElectionPhase<ElectionEvents.Round> phase = ElectionPhase.round(PROTOCOL, "Allocating seats", allocationRound + 1)) {
+                if (round == 1) { // First round seat allocation
+                    if (this.checkPartyWithAllVotes()) { // If a party has all the votes
+                        for (Party party : parties) {
+                            if (party.getTotalPartyVotes() != 0) { // If party does not have zero votes
+                                partyWithAllVotes = party;
+                                break;
+                            }
                         }
-                    }
 
-                    if (partyWithAllVotes.getCandidates().size() > seatsAvailable) { // If seats is less than the amount the party can receive
-                        partyWithAllVotes.incrementNumSeatsAllocated(seatsAvailable);
-                        totalAllocationsPerRound += seatsAvailable;
-                    } else { // If party received max seats
-                        partyWithAllVotes.incrementNumSeatsAllocated(partyWithAllVotes.getCandidates().size());
-                        totalAllocationsPerRound += partyWithAllVotes.getCandidates().size();
-                        seatsEqualToCandidates.add(partyWithAllVotes);
-                    }
-
-                    partyWithAllVotes.setPartyVote(0);
-                    partiesReceivedEnoughSeats = true;
-                } else {
-                    for (Party party : parties) { // Allocate seats using "largest remainder formula" 
-                        int seatsAllocated = party.getTotalPartyVotes() / quota;
-
-                        if (party.getCandidates().size() > seatsAllocated) { // If seats is less than the amount the party can receive
-                            party.incrementNumSeatsAllocated(seatsAllocated);
-                            totalAllocationsPerRound += seatsAllocated;
+                        if (partyWithAllVotes.getCandidates().size() > seatsAvailable) { // If seats is less than the amount the party can receive
+                            partyWithAllVotes.incrementNumSeatsAllocated(seatsAvailable);
+                            totalAllocationsPerRound += seatsAvailable;
                         } else { // If party received max seats
-                            party.incrementNumSeatsAllocated(party.getCandidates().size());
-                            totalAllocationsPerRound += party.getCandidates().size();
-                            seatsEqualToCandidates.add(party);
+                            partyWithAllVotes.incrementNumSeatsAllocated(partyWithAllVotes.getCandidates().size());
+                            totalAllocationsPerRound += partyWithAllVotes.getCandidates().size();
+                            seatsEqualToCandidates.set(partyWithAllVotes.getId());
                         }
 
-                        int remainingPartyVotes = party.getTotalPartyVotes() % quota;
-                        party.setPartyVote(remainingPartyVotes);
-                    }
+                        partyWithAllVotes.setPartyVote(0);
+                        partiesReceivedEnoughSeats = true;
+                    } else {
+                        for (Party party : parties) { // Allocate seats using "largest remainder formula" 
+                            int seatsAllocated = party.getTotalPartyVotes() / quota;
+
+                            if (party.getCandidates().size() > seatsAllocated) { // If seats is less than the amount the party can receive
+                                party.incrementNumSeatsAllocated(seatsAllocated);
+                                totalAllocationsPerRound += seatsAllocated;
+                            } else { // If party received max seats
+                                party.incrementNumSeatsAllocated(party.getCandidates().size());
+                                totalAllocationsPerRound += party.getCandidates().size();
+                                seatsEqualToCandidates.set(party.getId());
+                            }
+
+                            int remainingPartyVotes = party.getTotalPartyVotes() % quota;
+                            party.setPartyVote(remainingPartyVotes);
+                        }
     
-                    round++;
-                }
-            } else { // Allocate remaining seats
-                if (seatsEqualToCandidates.size() != parties.size()) {
-                    this.determineRemainingSeatAllocation();
-                    totalAllocationsPerRound++;
-                } else {
-                    partiesReceivedEnoughSeats = true;
+                        round++;
+                    }
+                } else { // Allocate remaining seats
+                    if (seatsEqualToCandidates.cardinality() != parties.size()) {
+                        this.determineRemainingSeatAllocation();
+                        totalAllocationsPerRound++;
+                    } else {
+                        partiesReceivedEnoughSeats = true;
+                    }
                 }
-            }
 
-            seatsAvailable -= totalAllocationsPerRound; // Decrement seats based on amount of seats that were allocated to parties
+                seatsAvailable -= totalAllocationsPerRound; // Decrement seats based on amount of seats that were allocated to parties
+                phase.getEvent().setResult(0, totalAllocationsPerRound);
+            }
 
-            this.buildAndWriteRoundResultsToAuditFile();
+            allocationRound++;
+            this.buildAndWriteRoundResultsToAuditFile(allocationRound);
+            this.flushAuditFile();
+            if (resultExporter != null) {
+                resultExporter.partyRound(allocationRound, parties);
+            }
         }
         
         this.findPartyWithMostSeats(); // Determine winning party
         this.findPopularCandidates(); // Determine winning candidate
-        this.buildAndWritePartyResultToAuditFile();
-        this.buildAndWriteCandidateResultToAuditFile();
+        this.findSeatHolders(); // Determine the candidates filling every party's seats
+        this.buildAndWriteFinalResultsToAuditFile();
+        this.buildAndWriteSeatHoldersToAuditFile();
+
+        if (seatSensitivityAnalysis) { // Determine how close each party was to gaining or losing a seat
+            this.computeSeatSensitivities();
+            this.buildAndWriteSeatSensitivitiesToAuditFile();
+        }
+
+        if (resultExporter != null) {
+            resultExporter.result(this);
+        }
+    }
+
+    /**
+     * This function enables or disables the seat sensitivity analysis, which works out how many more 
+     * votes each party needed to gain a seat and how few it could lose before dropping one. It has to 
+     * be set before performSeatAllocations() is called.
+     * 
+     * @param enabled True to compute the seat sensitivities during seat allocation.
+     */
+    public void setSeatSensitivityAnalysis(boolean enabled) {
+        this.seatSensitivityAnalysis = enabled;
+    }
+
+    /**
+     * This function computes the seat sensitivity of every party in closed form from the quota and the 
+     * remaining votes of the tally, without re-running the seat allocation. The quota and the votes of 
+     * every other party are held fixed. A party is only counted as holding a seat when it wins it 
+     * outright, since a tied remainder is decided by a "coin flip".
+     */
+    private void computeSeatSensitivities() {
+        int[] quotaSeats = new int[parties.size()]; // Seats each party wins from whole quotas, capped at its number of candidates
+        int[] remainders = new int[parties.size()]; // Remaining votes of each party, or -1 if it can't compete for remaining seats
+        int totalQuotaSeats = 0;
+
+        for (Party party : parties) {
+            int partyVotes = party.getInitialPartyVotes();
+            int partyCandidates = party.getCandidates().size();
+
+            if (partyVotes / quota >= partyCandidates) { // Party already received max seats from its quotas
+                quotaSeats[party.getId()] = partyCandidates;
+                remainders[party.getId()] = -1;
+            } else {
+                quotaSeats[party.getId()] = partyVotes / quota;
+                remainders[party.getId()] = partyVotes % quota;
+            }
+            totalQuotaSeats += quotaSeats[party.getId()];
+        }
+
+        // Remaining votes of the competing parties in descending order
+        int[] sortedRemainders = Arrays.stream(remainders).filter(remainder -> remainder >= 0).map(remainder -> -remainder).sorted().map(remainder -> -remainder).toArray();
+
+        seatSensitivities = new ArrayList<SeatSensitivity>();
+        for (Party party : parties) {
+            int partyVotes = party.getInitialPartyVotes();
+            int partySeats = party.getNumSeatsAllocated();
+            int otherQuotaSeats = totalQuotaSeats - quotaSeats[party.getId()];
+
+            int votesToGainSeat = -1;
+            if (partySeats < party.getCandidates().size() && partySeats < numSeats) { // Party can still gain a seat
+                int minVotes = this.findMinimumVotesForSeats(partySeats + 1, remainders[party.getId()], otherQuotaSeats, sortedRemainders);
+                votesToGainSeat = Math.max(1, minVotes - partyVotes);
+            }
+
+            int votesToLoseSeat = -1;
+            if (partySeats > 0) { // Party has a seat it could lose
+                int minVotes = this.findMinimumVotesForSeats(partySeats, remainders[party.getId()], otherQuotaSeats, sortedRemainders);
+                votesToLoseSeat = Math.max(1, partyVotes - minVotes + 1);
+            }
+
+            seatSensitivities.add(new SeatSensitivity(party, votesToGainSeat, votesToLoseSeat));
+        }
+    }
+
+    /**
+     * This function finds the fewest votes a party needs to win a number of seats outright. The party 
+     * either wins all the seats from whole quotas, or wins one seat less from quotas and then beats 
+     * enough other parties' remaining votes to receive one of the remaining seats.
+     * 
+     * @param targetSeats The number of seats the party should win.
+     * @param partyRemainder The party's current remaining votes, or -1 if it doesn't compete for remaining seats.
+     * @param otherQuotaSeats The number of seats the other parties win from whole quotas.
+     * @param sortedRemainders The remaining votes of all competing parties in descending order.
+     * @return The fewest votes that win targetSeats seats outright.
+     */
+    private int findMinimumVotesForSeats(int targetSeats, int partyRemainder, int otherQuotaSeats, int[] sortedRemainders) {
+        int minVotes = targetSeats * quota; // Win every seat from whole quotas
+        int remainingSeats = numSeats - otherQuotaSeats - (targetSeats - 1); // Remaining seats if the party wins one seat less from quotas
+
+        if (remainingSeats > 0) {
+            // The party has to beat the other party with the remainingSeats-th largest remaining votes. The 
+            // party's own remaining votes are skipped by looking one position further down the list.
+            int rivalIdx = remainingSeats - 1;
+            if (partyRemainder >= 0 && rivalIdx < sortedRemainders.length && sortedRemainders[rivalIdx] <= partyRemainder) {
+                rivalIdx++;
+            }
+            int rivalRemainder = rivalIdx < sortedRemainders.length ? sortedRemainders[rivalIdx] : -1;
+
+            if (rivalRemainder + 1 < quota) { // The remaining votes needed are less than a whole quota
+                minVotes = Math.min(minVotes, (targetSeats - 1) * quota + rivalRemainder + 1);
+            }
+        }
+
+        return minVotes;
+    }
+
+    /**
+     * This function determines, for every party, the candidates that fill the party's seats,
+     * which are the party's top N candidates by votes where N is the number of seats the party
+     * was allocated. Candidates are selected with SeatSelection so only the selected candidates
+     * are ranked, and candidates tied for a party's last seat(s) are resolved with a "coin flip".
+     * The winning candidate always holds one of the winning party's seats.
+     */
+    private void findSeatHolders() {
+        Random random = getTieBreakRandom();
+
+        for (Party party : parties) {
+            int partySeats = party.getNumSeatsAllocated();
+            SeatSelection selection;
+            ArrayList<Candidate> seatHolders = new ArrayList<Candidate>();
+
+            if (party == winningParty && winningCandidate != null && partySeats > 0) { // The winning candidate already won a draw if one was needed
+                ArrayList<Candidate> otherCandidates = new ArrayList<Candidate>(party.getCandidates());
+                otherCandidates.remove(winningCandidate);
+                selection = SeatSelection.selectTopCandidates(otherCandidates, partySeats - 1, random);
+                seatHolders.add(winningCandidate);
+            } else {
+                selection = SeatSelection.selectTopCandidates(party.getCandidates(), partySeats, random);
+            }
+            seatHolders.addAll(selection.getWinners());
+
+            for (Candidate candidate : seatHolders) {
+                candidate.setNumSeats(1);
+            }
+            party.setSeatHolders(seatHolders);
+
+            if (selection.hasTie()) {
+                seatHolderDraws.put(party, selection);
+                recordTieDraw(PROTOCOL, "seat holders of " + party.getPartyName(), selection.getTiedCandidates().size(), ElectionEvents.candidateNames(selection.getTieWinners()));
+            }
+        }
     }
 
     /**
@@ -219,12 +422,23 @@ public class OPLVoting extends Voting {
             this.handleRemainderTie(); // Perform a "coin flip" to determine the party that gets the seat
             this.buildAndWriteTieResultToAuditFile();
         } else { // If parties don't have the same most remaining votes
-            remainingVoteTies.get(0).incrementNumSeatsAllocated(1);
-            receivedRemainingSeats.add(remainingVoteTies.get(0));
+            this.allocateRemainingSeat(remainingVoteTies.get(0));
+        }
+    }
 
-            if (remainingVoteTies.get(0).getNumSeatsAllocated() == remainingVoteTies.get(0).getCandidates().size()) { // If party received max seats
-                seatsEqualToCandidates.add(remainingVoteTies.get(0));
-            }
+    /**
+     * This function gives one remaining seat to a party and keeps track of the parties that
+     * received a remaining seat or reached their maximum number of seats.
+     * 
+     * @param party The party that receives the remaining seat.
+     */
+    private void allocateRemainingSeat(Party party) {
+        party.incrementNumSeatsAllocated(1);
+        receivedRemainingSeats.set(party.getId());
+        lastRemainingSeatParty = party;
+
+        if (party.getNumSeatsAllocated() == party.getCandidates().size()) { // If party received max seats
+            seatsEqualToCandidates.set(party.getId());
         }
     }
 
@@ -239,13 +453,23 @@ public class OPLVoting extends Voting {
         remainingVoteTies = new ArrayList<Party>(); // Set to an empty arraylist
         int maxRemainder = -1;
 
-        if (receivedRemainingSeats.size() == parties.size()) { // If all parties have received a remaining seats but there are still seats left
-            receivedRemainingSeats = new ArrayList<Party>();
+        // If every party that can still take a seat has already received a remaining seat but there are still seats left
+        BitSet excludedParties = (BitSet) receivedRemainingSeats.clone();
+        excludedParties.or(seatsEqualToCandidates);
+        if (excludedParties.cardinality() == parties.size()) {
+            receivedRemainingSeats.clear();
         }
 
-        for (Party party : parties) { // Find the party that has the greatest remaining votes that haven't received a remaining seat
-            if (party.getTotalPartyVotes() >= maxRemainder && !receivedRemainingSeats.contains(party) && !seatsEqualToCandidates.contains(party)) {
+        for (Party party : parties) { // Find the parties that have the greatest remaining votes that haven't received a remaining seat
+            if (receivedRemainingSeats.get(party.getId()) || seatsEqualToCandidates.get(party.getId())) {
+                continue;
+            }
+
+            if (party.getTotalPartyVotes() > maxRemainder) { // A new greatest remainder replaces any earlier ties
                 maxRemainder = party.getTotalPartyVotes();
+                remainingVoteTies.clear();
+                remainingVoteTies.add(party);
+            } else if (party.getTotalPartyVotes() == maxRemainder) {
                 remainingVoteTies.add(party);
             }
         }
@@ -259,14 +483,9 @@ public class OPLVoting extends Voting {
      * the parties that got their seats incremented.
      */
     private void handleRemainderTie() {
-        SecureRandom random = new SecureRandom();
-        int randomIdx = random.nextInt(remainingVoteTies.size()); // Determine random party to receive a remaining seat
-        remainingVoteTies.get(randomIdx).incrementNumSeatsAllocated(1);
-        receivedRemainingSeats.add(remainingVoteTies.get(randomIdx)); // Add the party that received a remaining seat to receivedRemainingSeats member variable
-
-        if (remainingVoteTies.get(randomIdx).getNumSeatsAllocated() == remainingVoteTies.get(randomIdx).getCandidates().size()) { // If party received max seats
-            seatsEqualToCandidates.add(remainingVoteTies.get(randomIdx));
-        }
+        int randomIdx = getTieBreakRandom().nextInt(remainingVoteTies.size()); // Determine random party to receive a remaining seat
+        this.allocateRemainingSeat(remainingVoteTies.get(randomIdx));
+        recordTieDraw(PROTOCOL, "remaining seat", remainingVoteTies.size(), remainingVoteTies.get(randomIdx).getPartyName());
     }
 
     /**
@@ -344,9 +563,9 @@ public class OPLVoting extends Voting {
      * won the election.
      */
     private void handlePartyTie() {
-        SecureRandom random = new SecureRandom();
-        int randomIdx = random.nextInt(tiedParties.size()); // Determine random party to win
+        int randomIdx = getTieBreakRandom().nextInt(tiedParties.size()); // Determine random party to win
         winningParty = tiedParties.get(randomIdx);
+        recordTieDraw(PROTOCOL, "winning party", tiedParties.size(), winningParty.getPartyName());
     }
 
     /**
@@ -379,206 +598,182 @@ public class OPLVoting extends Voting {
      * that won the election.
      */
     protected void handleTie() {
-        SecureRandom random = new SecureRandom();
-        int randomIdx = random.nextInt(tiedCandidates.size()); // Determine random party to win
+        int randomIdx = getTieBreakRandom().nextInt(tiedCandidates.size()); // Determine random party to win
         winningCandidate = tiedCandidates.get(randomIdx);
+        recordTieDraw(PROTOCOL, "winning candidate", tiedCandidates.size(), winningCandidate.getName());
     }
     
     /**
-     * This function write StringBuilder content to the audit file. This function is helpful 
-     * for writing party, candidate, rounds of seat allocation, and tie information to the 
-     * audit file.
-     * 
-     * @param sb StringBuilder object containing the content to be written to the audit file.
+     * This function writes the protocol and the number of votes every party received 
+     * before seat allocation to the audit.
      */
-    protected void writeToAuditFile(StringBuilder sb){
-        // The below line is for unit testing purposes since we don't want to create an audit file everytime we
-        // execute a test case for OPLVoting
-        if (auditFilePath.length() == 0) {
+    @Override
+    protected void buildAndWriteInitialResultsToAuditFile(){
+        if (!this.isAuditEnabled(AuditLevel.SUMMARY)) {
             return;
         }
 
-        try{
-            // Write StringBuilder contents to audit file.
-            FileWriter fw = new FileWriter(auditFilePath, true);
-            BufferedWriter bw = new BufferedWriter(fw);
-            bw.write(sb.toString());
-            bw.close();
-        } catch (Exception e){
-            System.out.println("[SYSTEM]: Error occurred while writing to audit file. Exiting...");
-            System.exit(0);
+        ArrayList<Object> partyTable = new ArrayList<Object>();
+        for (Party party : parties) {
+            LinkedHashMap<String, Object> row = AuditEvent.partyFields(party);
+            row.put("votes", party.getTotalPartyVotes());
+            row.put("seats", 0);
+            partyTable.add(row);
         }
+
+        this.writeAuditEvent(new AuditEvent(AuditEvent.Type.ELECTION_START, PROTOCOL)
+            .with("ballots", numBallots)
+            .with("seats", numSeats)
+            .with("quota", quota));
+        this.writeAuditEvent(new AuditEvent(AuditEvent.Type.TALLY, PROTOCOL)
+            .with("round", 0)
+            .with("parties", partyTable));
     }
 
     /**
-     * This function uses a StringBuilder object to write the initial results of an 
-     * election before seat allocation is performed. Once the StringBuilder object 
-     * is constructed, we can pass to the writeToAuditFile() function to write the 
-     * initial results to the audit file.
+     * This function writes the number of seats every party was allocated so far and 
+     * the remaining votes left for the next round to the audit.
+     * 
+     * @param allocationRound The number of the round of seat allocation, starting at 1.
      */
-    @Override
-    protected void buildAndWriteInitialResultsToAuditFile(){
-        StringBuilder sb = new StringBuilder();
-
-        sb.append("Voting Protocol Name: Open Party List (OPL) \n\n");
-        sb.append("Displaying Statistics before seat allocation...\n\n");
-        sb.append(String.format("%-30s %-30s %s\n", "Party", "Number of Votes", "Seats Allocated"));
-
-        for (Party party : parties) {       
-            String partyString = party.getPartyName();
-            int partyVotes = party.getTotalPartyVotes();
+    private void buildAndWriteRoundResultsToAuditFile(int allocationRound) {
+        if (!this.isAuditEnabled(AuditLevel.ROUND)) {
+            return;
+        }
 
-            sb.append(String.format("%-37s %-30d %d\n", partyString, partyVotes, 0));
+        ArrayList<Object> partyTable = new ArrayList<Object>();
+        for (Party party : parties) {
+            LinkedHashMap<String, Object> row = AuditEvent.partyFields(party);
+            row.put("remainingVotes", party.getTotalPartyVotes());
+            partyTable.add(row);
         }
 
-        this.writeToAuditFile(sb);
+        this.writeAuditEvent(this.withRoundRows(new AuditEvent(AuditEvent.Type.SEAT_AWARD, PROTOCOL)
+            .with("round", allocationRound)
+            .with("kind", "round"), "parties", partyTable));
     }
-
+    
     /**
-     * This function uses a StringBuilder object to build a string containing 
-     * information from all parties such as number of seats allocated in 
-     * the current round and remaining votes left for the next round. This 
-     * StringBuilder object is later on passed to writeToAuditFile() to write 
-     * the round results to the audit file.
+     * This function writes the final result of the election to the audit: the number 
+     * of votes, seats and % of Votes to % of seats of every party, the winning party, 
+     * the number/% of votes of the winning party's candidates and the winning candidate.
      */
-    private void buildAndWriteRoundResultsToAuditFile() {
-        StringBuilder sb = new StringBuilder();
-
-        sb.append("\nAfter round of seat allocation:\n\n");
-        sb.append(String.format("%-30s %-30s %s\n", "Party", "Remaining Votes", "Seats Allocated"));
+    private void buildAndWriteFinalResultsToAuditFile() {
+        if (!this.isAuditEnabled(AuditLevel.SUMMARY)) {
+            return;
+        }
 
+        ArrayList<Object> partyTable = new ArrayList<Object>();
         for (Party party : parties) {
-            String partyString = party.getPartyName();
-            int partyVotes = party.getTotalPartyVotes();
-            int partySeats = party.getNumSeatsAllocated();
+            partyTable.add(AuditEvent.partyFields(party));
+        }
 
-            sb.append(String.format("%-37s %-30d %d\n", partyString, partyVotes, partySeats));
+        ArrayList<Object> candidateTable = new ArrayList<Object>();
+        for (Candidate candidate : winningParty.getCandidates()) {
+            candidateTable.add(AuditEvent.candidateFields(candidate));
         }
 
-        this.writeToAuditFile(sb);
+        this.writeAuditEvent(new AuditEvent(AuditEvent.Type.RESULT, PROTOCOL)
+            .with("ballots", numBallots)
+            .with("seats", numSeats)
+            .with("parties", partyTable)
+            .with("winningParty", AuditEvent.partyFields(winningParty))
+            .with("candidates", candidateTable)
+            .with("winner", AuditEvent.candidateFields(winningCandidate)));
     }
-    
+
     /**
-     * This function uses a StringBuilder object to build a string containing 
-     * information for all parties such as party name, number of votes, number 
-     * of seats allocated after seat allocation is complete and % of Votes to % of 
-     * seats. We also append a string containing the winning party’s name, number 
-     * seats won and number of votes received. This StringBuilder object is later 
-     * on passed to writeToAuditFile() to write the final seat allocation results 
-     * to the audit file.
+     * This function writes the candidates that fill each party's seats along with their 
+     * number of votes, and any "coin flip" that decided a party's last seat holder(s), 
+     * to the audit.
      */
-    private void buildAndWritePartyResultToAuditFile() {
-        StringBuilder sb = new StringBuilder();
-
-        sb.append("\nFinal result of the election after completing all seat allocations including tie-breakers:\n\n");
-        sb.append(String.format("%-30s %-30s %-30s %s\n", "Party", "Number of Votes", "Number of Seats", "% of Votes to % of Seats"));
+    private void buildAndWriteSeatHoldersToAuditFile() {
+        if (!this.isAuditEnabled(AuditLevel.SUMMARY)) {
+            return;
+        }
 
-        DecimalFormat df = new DecimalFormat("#.00");
+        ArrayList<Object> partyTable = new ArrayList<Object>();
         for (Party party : parties) {
-            String percentOfVotes = df.format(((double) party.getInitialPartyVotes() / numBallots) * 100);
-            String percentOfSeats = df.format(((double) party.getNumSeatsAllocated() / numSeats) * 100);
-            if (percentOfVotes.equals(".00")){
-                percentOfVotes = "0.00";
-            } else if (percentOfSeats.equals(".00")) {
-                percentOfSeats = "0.00";
+            if (party.getNumSeatsAllocated() == 0) {
+                continue;
             }
 
-            String partyString = party.getPartyName();
-            int partyTotalVotes = party.getInitialPartyVotes();
-            int partySeats = party.getNumSeatsAllocated();
-            String percentVotesAndString = percentOfVotes + "/" + percentOfSeats;
+            ArrayList<Object> seatHolders = new ArrayList<Object>();
+            for (Candidate candidate : party.getSeatHolders()) {
+                seatHolders.add(AuditEvent.candidateFields(candidate));
+            }
 
-            sb.append(String.format("%-37s %-30d %-29d %s\n", partyString, partyTotalVotes, partySeats, percentVotesAndString));
-        }
+            LinkedHashMap<String, Object> row = new LinkedHashMap<String, Object>();
+            row.put("name", party.getPartyName());
+            row.put("seats", party.getNumSeatsAllocated());
+            row.put("seatHolders", seatHolders);
 
-        sb.append(String.format("\nThe %s party has won the election with %d votes and %d seats.\n\n", winningParty.getPartyName(), winningParty.getInitialPartyVotes(), winningParty.getNumSeatsAllocated()));
+            SeatSelection draw = seatHolderDraws.get(party);
+            if (draw != null) { // If the party's last seat holder(s) were decided by a "coin flip"
+                row.put("tied", AuditEvent.candidateNames(draw.getTiedCandidates()));
+                row.put("tieWinners", AuditEvent.candidateNames(draw.getTieWinners()));
+            }
+            partyTable.add(row);
+        }
 
-        this.writeToAuditFile(sb);
+        this.writeAuditEvent(new AuditEvent(AuditEvent.Type.SEAT_AWARD, PROTOCOL)
+            .with("kind", "seat holders")
+            .with("parties", partyTable));
     }
 
     /**
-     * This function uses a StringBuilder object to build a string containing the 
-     * winning candidate’s information such as name, party name, number of votes, and
-     * % of votes won. We do the same for the rest of the candidates too. This StringBuilder 
-     * object is later on passed to writeToAuditFile() to write the final candidate popularity 
-     * results to the audit file.
+     * This function writes the seat sensitivity of every party, i.e. the votes it needed 
+     * to gain a seat and the fewest votes it could lose before risking one of its seats, 
+     * to the audit.
      */
-    private void buildAndWriteCandidateResultToAuditFile() {
-        StringBuilder sb = new StringBuilder();
-
-        sb.append(String.format("%-30s %-30s %s\n", "Candidate & Party", "Number of Votes", "% of votes won"));
-
-        DecimalFormat df = new DecimalFormat("#.00");
-        for (Candidate candidate : winningParty.getCandidates()) {
-            // Format 0.00% to write to the audit file
-            String percentOfVotes = df.format(((double) candidate.getNumVotes() / numBallots) * 100);
-            if (percentOfVotes.equals(".00")){
-                percentOfVotes = "0.00";
-            }
-            
-            // Build string containing candidate name and party affiliation information
-            String candidateString = candidate.getName() + " (" + candidate.getParty() + ")";
-            int candidateVotes = candidate.getNumVotes();
-
-            sb.append(String.format("%-37s %-28d %s\n", candidateString, candidateVotes, percentOfVotes));
+    private void buildAndWriteSeatSensitivitiesToAuditFile() {
+        if (!this.isAuditEnabled(AuditLevel.SUMMARY)) {
+            return;
         }
 
-        sb.append(String.format("\nWinning candidate is %s from the %s party who wins with %d votes to their name.", winningCandidate.getName(), winningCandidate.getParty(), winningCandidate.getNumVotes()));
+        ArrayList<Object> partyTable = new ArrayList<Object>();
+        for (SeatSensitivity sensitivity : seatSensitivities) {
+            LinkedHashMap<String, Object> row = AuditEvent.partyFields(sensitivity.getParty());
+            row.put("votesToGainSeat", sensitivity.getVotesToGainSeat());
+            row.put("votesToLoseSeat", sensitivity.getVotesToLoseSeat());
+            partyTable.add(row);
+        }
 
-        this.writeToAuditFile(sb);
+        this.writeAuditEvent(new AuditEvent(AuditEvent.Type.SEAT_SENSITIVITY, PROTOCOL)
+            .with("quota", quota)
+            .with("parties", partyTable));
     }
 
     /**
-     * This function uses a StringBuilder object to build a string with the names 
-     * of the tied candidates or parties and the winner of the tie. The StringBuilder 
-     * object can then be passed to the writeToAuditFile() function to write the tie 
-     * result to the audit file.
+     * This function writes the names of the tied candidates or parties and the winner 
+     * of the tie to the audit.
      */
     protected void buildAndWriteTieResultToAuditFile(){
-        StringBuilder sb = new StringBuilder();
+        // Ties for a remaining seat belong to a round, while candidate and party ties decide the winner
+        boolean remainderTie = tiedCandidates.isEmpty() && tiedParties.isEmpty();
+        if (!this.isAuditEnabled(remainderTie ? AuditLevel.ROUND : AuditLevel.SUMMARY)) {
+            return;
+        }
 
+        AuditEvent event = new AuditEvent(AuditEvent.Type.TIE_DRAW, PROTOCOL);
         if (tiedCandidates.size() > 0) { // If it is a candidate tie result
-            sb.append("\nThe following candidates were tied: \n\n");
-
-            for (Candidate candidate : tiedCandidates) {
-                sb.append(candidate.getName() + "\n");
-            }
-
-            sb.append(String.format("\nThe winner of the tie result is %s.\n", winningCandidate.getName()));
+            event.with("kind", "candidate")
+                .with("tied", AuditEvent.candidateNames(tiedCandidates))
+                .with("winners", AuditEvent.candidateNames(Collections.singletonList(winningCandidate)));
         } else if (tiedParties.size() > 0) { // If is a party tie result
-            sb.append("\nThe following parties were tied: \n\n");
-
-            for (Party party : tiedParties) {
-                sb.append(party.getPartyName() + "\n");
-            }
-
-            sb.append(String.format("\nThe winner of the tie result is %s.\n", winningParty.getPartyName()));
+            event.with("kind", "party")
+                .with("tied", AuditEvent.partyNames(tiedParties))
+                .with("winners", AuditEvent.partyNames(Collections.singletonList(winningParty)));
         } else if (remainingVoteTies.size() > 0) { // If it is a remaining votes tie result
-            sb.append("\nThe following parties' remaining votes were tied: \n\n");
-
-            for (Party party : remainingVoteTies) {
-                sb.append(party.getPartyName() + "\n");
-            }
-            
-            Party partyReceivedSeat = null;
-            for (int i = 0; i < receivedRemainingSeats.size(); i++) {
-                for (Party party : parties) {
-                    if (receivedRemainingSeats.get(i).getPartyName().equals(party.getPartyName())) {
-                        partyReceivedSeat = receivedRemainingSeats.get(i);
-                        break;
-                    }
-                }
-
-                if (partyReceivedSeat != null) {
-                    break;
-                }
-            }
-
-            sb.append(String.format("\nThe winner of the tie result is %s.\n", partyReceivedSeat.getPartyName()));
+            event.with("kind", "remaining votes")
+                .with("tied", AuditEvent.partyNames(remainingVoteTies))
+                .with("winners", AuditEvent.partyNames(Collections.singletonList(lastRemainingSeatParty)));
+        } else {
+            return;
         }
 
-        // Write tie information to audit file
-        writeToAuditFile(sb);
+        // Write tie information to audit
+        this.writeAuditEvent(event);
     }
 
     /**
@@ -591,7 +786,36 @@ public class OPLVoting extends Voting {
     }
 
     /**
-     * This function returns an arraylist of Party objects.
+     * This function returns the number of seats allocated in the election.
+     * 
+     * @return The total number of seats.
+     */
+    public int getNumSeats() {
+        return numSeats;
+    }
+
+    /**
+     * This function returns the number of ballots cast for the election.
+     * 
+     * @return The total number of ballots.
+     */
+    public int getNumBallots() {
+        return numBallots;
+    }
+
+    /**
+     * This function returns the seat sensitivity of every party. The list is only 
+     * filled when the analysis was enabled with setSeatSensitivityAnalysis().
+     * 
+     * @return An arraylist of SeatSensitivity objects in the same order as the parties.
+     */
+    public ArrayList<SeatSensitivity> getSeatSensitivities() {
+        return seatSensitivities;
+    }
+
+    /**
+     * This function returns an arraylist of Party objects. Each party's seat holders can be
+     * retrieved with Party.getSeatHolders() once seat allocation is complete.
      * 
      * @return An arraylist of Party objects.
      */
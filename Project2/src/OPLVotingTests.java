@@ -386,4 +386,83 @@ public class OPLVotingTests {
         Assert.assertTrue((double)map.get("G")/1000 >= low && (double)map.get("G")/1000 <= high);
         Assert.assertTrue((double)map.get("I")/1000 >= low && (double)map.get("I")/1000 <= high);
     }
+
+    /**
+     * This function tests that every party's seats are filled by its top candidates by votes, where the number
+     * of seat holders matches the number of seats the party was allocated.
+     */
+    @Test
+    public void testSeatHoldersForEveryParty() {
+        // Read in test csv file
+        final FileParser file = new FileParser("./../testing/OPL_test_small_number_of_votes.csv");
+        final String candidateLine = file.getCandidateLine();
+        final ArrayList<String> ballotList = file.getBallotList();
+        final int numSeats = file.getNumberOfSeats();
+        final int numBallots = file.getNumberOfBallots();
+
+        // Perform seat allocations
+        final OPLVoting opl = new OPLVoting(candidateLine, ballotList, numSeats, numBallots, "");
+        opl.performSeatAllocations();
+
+        Party d = opl.getParties().get(0);
+        Party r = opl.getParties().get(1);
+        Party i = opl.getParties().get(2);
+
+        Assert.assertEquals(2, d.getSeatHolders().size());
+        Assert.assertEquals("Pike", d.getSeatHolders().get(0).getName());
+        Assert.assertEquals("Foster", d.getSeatHolders().get(1).getName());
+        Assert.assertEquals(1, r.getSeatHolders().size());
+        Assert.assertEquals("Borg", r.getSeatHolders().get(0).getName());
+        Assert.assertEquals(0, i.getSeatHolders().size());
+    }
+
+    /**
+     * This function tests the seat sensitivity analysis. With a quota of 3, D (5 votes) wins its second seat with
+     * a remainder of 2 against I's remainder of 1, so losing a single vote would tie it. R (3 votes) needs 3 more
+     * votes for a second seat outright, and I (1 vote) needs 2 more votes to beat D's remainder.
+     */
+    @Test
+    public void testSeatSensitivityAnalysis() {
+        // Read in test csv file
+        final FileParser file = new FileParser("./../testing/OPL_test_small_number_of_votes.csv");
+        final String candidateLine = file.getCandidateLine();
+        final ArrayList<String> ballotList = file.getBallotList();
+        final int numSeats = file.getNumberOfSeats();
+        final int numBallots = file.getNumberOfBallots();
+
+        // Perform seat allocations with the analysis enabled
+        final OPLVoting opl = new OPLVoting(candidateLine, ballotList, numSeats, numBallots, "");
+        opl.setSeatSensitivityAnalysis(true);
+        opl.performSeatAllocations();
+
+        ArrayList<SeatSensitivity> sensitivities = opl.getSeatSensitivities();
+        Assert.assertEquals(3, sensitivities.size());
+        Assert.assertEquals("D", sensitivities.get(0).getParty().getPartyName());
+        Assert.assertEquals(-1, sensitivities.get(0).getVotesToGainSeat());
+        Assert.assertEquals(1, sensitivities.get(0).getVotesToLoseSeat());
+        Assert.assertEquals(3, sensitivities.get(1).getVotesToGainSeat());
+        Assert.assertEquals(2, sensitivities.get(1).getVotesToLoseSeat());
+        Assert.assertEquals(2, sensitivities.get(2).getVotesToGainSeat());
+        Assert.assertEquals(-1, sensitivities.get(2).getVotesToLoseSeat());
+    }
+
+    /**
+     * This function tests that ballots tallied while the file is read give the same seat allocation as the
+     * ballot list.
+     */
+    @Test
+    public void testBallotTallies() {
+        // Read in test csv file, counting the ballots instead of storing them
+        final FileParser file = new FileParser("./../testing/OPL_test_small_number_of_votes.csv", true);
+
+        // Perform seat allocations
+        final OPLVoting opl = new OPLVoting(file.getCandidateLine(), file.getBallotTallies(), file.getNumberOfSeats(), file.getNumberOfBallots(), "");
+        opl.performSeatAllocations();
+
+        Assert.assertEquals("D", opl.getWinningParty().getPartyName());
+        Assert.assertEquals(2, opl.getWinningParty().getNumSeatsAllocated());
+        Assert.assertEquals(5, opl.getWinningParty().getInitialPartyVotes());
+        Assert.assertEquals("Pike", opl.getWinningCandidate().getName());
+        Assert.assertEquals(3, opl.getWinningCandidate().getNumVotes());
+    }
 }
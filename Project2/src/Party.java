@@ -9,10 +9,12 @@ import java.util.List;
 
 public class Party {
     private String partyName; // Name of the political party
+    private int id; // Index of the party within its election, or -1 if the party was created without one
     private ArrayList<Candidate> candidates; // List of candidates associated with the party
     private int totalPartyVotes; // Total votes obtained by the party
     private int numSeatsAllocated; // Number of seats allocated to the party
     private int previousPartyVotes; // Previous total votes obtained by the party
+    private ArrayList<Candidate> seatHolders; // Candidates filling the party's seats, ranked by votes
 
     /**
      * Constructs a Party with a given party name.
@@ -20,11 +22,25 @@ public class Party {
      * @param partyName The name of the political party.
      */
     public Party(String partyName) {
+        this(partyName, -1);
+    }
+
+    /**
+     * Constructs a Party with a given party name and a stable id. The id is the position of
+     * the party in its election's list of parties, which lets the voting classes track parties
+     * in bitsets and arrays instead of searching lists.
+     *
+     * @param partyName The name of the political party.
+     * @param id        The index of the party within its election.
+     */
+    public Party(String partyName, int id) {
         this.partyName = partyName;
+        this.id = id;
         this.candidates = new ArrayList<>(); // Initializing the list of candidates
         this.totalPartyVotes = 0; // Initializing the total votes to zero
         this.numSeatsAllocated = 0; // Initializing the allocated seats to zero
         this.previousPartyVotes = 0; // Initializing the previous total votes to zero
+        this.seatHolders = new ArrayList<>(); // Initializing the list of seat holders
     }
 
     /**
@@ -36,6 +52,15 @@ public class Party {
         return this.partyName;
     }
 
+    /**
+     * Retrieves the stable id of the party within its election.
+     *
+     * @return The id of the party, or -1 if it was created without one.
+     */
+    public int getId() {
+        return this.id;
+    }
+
     /**
      * Retrieves the list of candidates associated with the party.
      *
@@ -116,18 +141,48 @@ public class Party {
     }
 
     /**
-     * Override equals() method.
+     * Retrieves the candidates filling the party's seats, ranked by the number of votes they received.
+     *
+     * @return The list of candidates holding the party's seats.
+     */
+    public List<Candidate> getSeatHolders() {
+        return this.seatHolders;
+    }
+
+    /**
+     * Sets the candidates filling the party's seats.
+     *
+     * @param seatHolders The candidates holding the party's seats, ranked by votes.
+     */
+    public void setSeatHolders(List<Candidate> seatHolders) {
+        this.seatHolders = new ArrayList<>(seatHolders);
+    }
+
+    /**
+     * Override equals() method. Two parties are equal if they have the same name.
      *
      * @param obj The object that is being compared.
      */
     @Override
     public boolean equals(Object obj) {
-        Party otherParty = (Party) obj;
-
-        if (otherParty.getPartyName().equals(this.getPartyName())) {
+        if (this == obj) {
             return true;
-        } else {
+        }
+        if (!(obj instanceof Party)) {
             return false;
         }
+
+        Party otherParty = (Party) obj;
+        return otherParty.getPartyName().equals(this.getPartyName());
+    }
+
+    /**
+     * Override hashCode() method so that it is consistent with equals().
+     *
+     * @return The hash code of the party's name.
+     */
+    @Override
+    public int hashCode() {
+        return this.partyName.hashCode();
     }
 }
@@ -56,4 +56,23 @@ public class PartyTests {
         
         Assert.assertEquals(testParty.getInitialPartyVotes(), 10);
     }
+
+    @Test
+    public void testGetId() {
+        Party testParty = new Party(partyName, 2);
+        
+        Assert.assertEquals(testParty.getId(), 2);
+        Assert.assertEquals(new Party(partyName).getId(), -1);
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        Party sameParty = new Party(partyName, 0);
+        Party otherParty = new Party("otherParty", 0);
+        
+        Assert.assertEquals(testParty, sameParty);
+        Assert.assertEquals(testParty.hashCode(), sameParty.hashCode());
+        Assert.assertNotEquals(testParty, otherParty);
+        Assert.assertNotEquals(testParty, partyName);
+    }
 }
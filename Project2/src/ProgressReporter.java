@@ -0,0 +1,133 @@
+/**
+ * ProgressReporter.java
+ * This class reports the progress of a long election at a fixed interval, so an operator can tell a large file is
+ * still being counted. Every report is one line holding the current phase and round, the bytes of the election file
+ * read, the ballots counted and how many per second, the time elapsed and, when the phase knows how much work is
+ * left, an estimate of the time remaining:
+ *
+ * [SYSTEM]: Parsing ballots | 512.0 MB of 1.9 GB (26%) | 13,421,772 ballots at 2,684,354 ballots/s | 0:05 elapsed, ETA 0:14
+ *
+ * The reporter only reads the counters of an ElectionProgress, on its own daemon thread, so the election never
+ * waits for it. Reports are written to stderr, leaving the results on stdout untouched.
+ */
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class ProgressReporter implements Closeable {
+    private final ElectionProgress progress; // Counters of the election being reported
+    private final long intervalMillis; // Milliseconds from one report to the next
+    private final PrintStream out; // Destination of the reports
+    private ScheduledExecutorService scheduler; // Thread writing the reports, created when the reporter is started
+
+    /**
+     * Constructs a reporter for an election. It starts reporting when start() is called.
+     * @param progress - The counters of the election.
+     * @param intervalMillis - The milliseconds from one report to the next.
+     * @param out - The destination of the reports, e.g. System.err.
+     */
+    public ProgressReporter(ElectionProgress progress, long intervalMillis, PrintStream out){
+        this.progress = progress;
+        this.intervalMillis = intervalMillis;
+        this.out = out;
+    }
+
+    /**
+     * This function starts writing a report every interval. The first report is written after one interval, so an
+     * election that finishes sooner writes no reports.
+     */
+    public void start(){
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "progress-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> out.println(buildReport(System.nanoTime())), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * This function stops the reports.
+     */
+    @Override
+    public void close(){
+        if (scheduler != null){
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * This function builds the report of the election's progress at a given time.
+     * @param now - The time of the report, from System.nanoTime().
+     * @return - The report as one line.
+     */
+    public String buildReport(long now){
+        String phase = progress.getPhase(); // Read first, so the counters are at least as recent as the phase
+        int round = progress.getRound();
+        long ballotsCounted = progress.getBallotsCounted();
+        long totalBallots = progress.getTotalBallots();
+        long bytesRead = progress.getBytesRead();
+        long totalBytes = progress.getTotalBytes();
+        double phaseSeconds = Math.max(now - progress.getPhaseStartNanos(), 1) / 1e9;
+        double ballotsPerSecond = ballotsCounted / phaseSeconds;
+
+        StringBuilder sb = new StringBuilder("[SYSTEM]: ").append(phase);
+        if (round > 0){
+            sb.append(", round ").append(round);
+        }
+
+        long secondsLeft = -1;
+        if (totalBytes > 0 && bytesRead < totalBytes){ // The file is still being read
+            sb.append(" | ").append(formatBytes(bytesRead)).append(" of ").append(formatBytes(totalBytes))
+                .append(" (").append(bytesRead * 100 / totalBytes).append("%)");
+            double bytesPerSecond = bytesRead / (Math.max(now - progress.getReadStartNanos(), 1) / 1e9);
+            if (bytesPerSecond > 0){
+                secondsLeft = (long) Math.ceil((totalBytes - bytesRead) / bytesPerSecond);
+            }
+        } else if (totalBallots > 0 && ballotsCounted < totalBallots && ballotsPerSecond > 0){
+            secondsLeft = (long) Math.ceil((totalBallots - ballotsCounted) / ballotsPerSecond);
+        }
+
+        sb.append(" | ").append(String.format("%,d", ballotsCounted));
+        if (totalBallots > 0){
+            sb.append(" of ").append(String.format("%,d", totalBallots));
+        }
+        sb.append(" ballots at ").append(String.format("%,d", (long) ballotsPerSecond)).append(" ballots/s");
+
+        sb.append(" | ").append(formatSeconds((now - progress.getStartNanos()) / 1000000000L)).append(" elapsed");
+        if (secondsLeft >= 0){
+            sb.append(", ETA ").append(formatSeconds(secondsLeft));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * This function formats a number of bytes with the largest unit that keeps it at 1 or more, e.g. "1.5 GB".
+     */
+    public static String formatBytes(long numBytes){
+        if (numBytes < 1024){
+            return numBytes + " B";
+        }
+        String[] units = {"KB", "MB", "GB", "TB"};
+        double value = numBytes / 1024.0;
+        int unit = 0;
+        while (value >= 1024 && unit < units.length - 1){
+            value /= 1024;
+            unit++;
+        }
+        return String.format("%.1f %s", value, units[unit]);
+    }
+
+    /**
+     * This function formats a number of seconds as minutes and seconds, or hours, minutes and seconds, e.g. "1:02:05".
+     */
+    private static String formatSeconds(long seconds){
+        if (seconds >= 3600){
+            return String.format("%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+        }
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+}
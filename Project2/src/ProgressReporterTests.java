@@ -0,0 +1,65 @@
+import java.io.*;
+import java.util.*;
+import org.junit.*;
+
+public class ProgressReporterTests {
+    /**
+     * This test checks that parsing a file publishes every byte read and every ballot line to the counters.
+     */
+    @Test
+    public void testParsePublishesBytesAndBallots(){
+        for (String fileName : Arrays.asList("./../testing/OPL_test_more_than_two_rounds_allocations.csv", "./../testing/IR_test_majority_winner_after_one_round_redistribution.csv")){
+            ElectionProgress progress = new ElectionProgress();
+            final FileParser file = new FileParser(fileName, true, progress);
+
+            Assert.assertEquals("Parsing ballots", progress.getPhase());
+            Assert.assertEquals(new File(fileName).length(), progress.getBytesRead());
+            Assert.assertEquals(new File(fileName).length(), progress.getTotalBytes());
+            Assert.assertEquals(file.getNumberOfBallots(), progress.getTotalBallots());
+            Assert.assertEquals(file.getNumberOfBallots(), progress.getBallotsCounted());
+        }
+    }
+
+    /**
+     * This test checks that an IR election publishes its first round and every redistribution round, along with the
+     * ballots moved in the round.
+     */
+    @Test
+    public void testIRPublishesRounds(){
+        final FileParser file = new FileParser("./../testing/IR_test_two_leading_candidate_loss_after_redistribution.csv");
+        final IRVoting ir = new IRVoting(file.getCandidateLine(), file.getBallotList(), "");
+        ElectionProgress progress = new ElectionProgress();
+        ir.setProgress(progress);
+        ir.calculateBallots();
+
+        Assert.assertEquals("Redistributing votes", progress.getPhase());
+        Assert.assertEquals(3, progress.getRound()); // Kleinberg or Chou is eliminated in round 2 by a coin flip, then Rosen in round 3
+        Assert.assertTrue(progress.getBallotsCounted() == 2 || progress.getBallotsCounted() == 3); // Rosen's ballots that are not exhausted move
+    }
+
+    /**
+     * This test checks the report of a phase with a known number of ballots, and of a file being read.
+     */
+    @Test
+    public void testReport() throws IOException {
+        ElectionProgress progress = new ElectionProgress();
+        ProgressReporter reporter = new ProgressReporter(progress, 1000, System.err);
+        progress.startPhase("Counting first choices", 1, 100);
+        progress.setBallotsCounted(50);
+        String report = reporter.buildReport(progress.getPhaseStartNanos() + 2000000000L);
+        Assert.assertTrue(report, report.startsWith("[SYSTEM]: Counting first choices, round 1 | 50 of 100 ballots at 25 ballots/s | "));
+        Assert.assertTrue(report, report.endsWith(" elapsed, ETA 0:02"));
+
+        InputStream in = progress.countBytes(new ByteArrayInputStream(new byte[4096]), 4096);
+        in.read(new byte[1024]);
+        report = reporter.buildReport(progress.getReadStartNanos() + 1000000000L);
+        Assert.assertTrue(report, report.contains(" | 1.0 KB of 4.0 KB (25%) | "));
+        Assert.assertTrue(report, report.endsWith(", ETA 0:03"));
+
+        in.read(new byte[4096]); // The file is read, so the report no longer shows it
+        progress.startPhase("Allocating seats", 0, 0);
+        report = reporter.buildReport(progress.getPhaseStartNanos() + 1000000000L);
+        Assert.assertTrue(report, report.startsWith("[SYSTEM]: Allocating seats | 0 ballots at 0 ballots/s | "));
+        Assert.assertFalse(report, report.contains("ETA"));
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * RecordingAuditSink.java
+ * This class is an audit sink for the unit tests that keeps everything written to it in memory and remembers how
+ * often it was flushed and whether it was closed, so a test can read the audit an election wrote without a file.
+ */
+
+public class RecordingAuditSink extends AuditSink {
+    private final StringBuilder content = new StringBuilder(); // Everything written to the sink
+    private int numFlushes = 0; // Number of times the sink was flushed
+    private boolean closed = false; // True once the sink was closed
+
+    @Override
+    public void write(CharSequence content){
+        this.content.append(content);
+    }
+
+    @Override
+    public void flush(){
+        numFlushes++;
+    }
+
+    @Override
+    public void close(){
+        closed = true;
+    }
+
+    /**
+     * Retrieves everything written to the sink.
+     * @return - The content written, in order.
+     */
+    public String getContent(){
+        return content.toString();
+    }
+
+    /**
+     * Retrieves the number of times the sink was flushed.
+     * @return - The number of flushes, not counting the close.
+     */
+    public int getNumFlushes(){
+        return numFlushes;
+    }
+
+    /**
+     * Checks whether the sink was closed.
+     * @return - True if the sink was closed; otherwise, False
+     */
+    public boolean isClosed(){
+        return closed;
+    }
+}
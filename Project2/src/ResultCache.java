@@ -0,0 +1,212 @@
+/**
+ * ResultCache.java
+ * This class keeps the results of elections on disk, so rerunning an election file that was already run with the
+ * same options restores its result and audit files instead of parsing and counting the ballots again. An entry is
+ * found by a key built from the SHA-256 hash of the election file's content, the options the election was run with
+ * and its tie-break seed, so a changed file or option is never served an old result.
+ *
+ * Every entry is a directory named after its key holding the displayed result, the audit files written by the
+ * election and a list of where they were written. The cache is limited to a number of bytes on disk; when it grows
+ * past the limit the least recently used entries are removed first. The order of use is kept in an index file in the
+ * cache directory. The cache is meant for one VoteEasy at a time.
+ */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.util.*;
+
+public class ResultCache {
+    public static final String INDEX_FILE = "cache_index.json"; // Name of the index file in the cache directory
+    private static final String OUTPUT_FILE = "output.txt"; // Name of the displayed result in an entry directory
+    private static final String FILES_FILE = "files.json"; // Name of the list of audit files in an entry directory
+
+    private final Path directory; // Directory of the cache
+    private final long maxBytes; // Most bytes the entries may take on disk
+    private final LinkedHashMap<String, Long> entries; // Bytes of every entry by key, from the least to the most recently used
+    private long numBytes; // Bytes taken by all entries
+
+    /**
+     * Constructs a ResultCache over a directory, creating the directory if it does not exist.
+     * @param directory - The directory of the cache.
+     * @param maxBytes - The most bytes the entries may take on disk.
+     * @throws IOException - If the directory could not be created or its index could not be read.
+     */
+    public ResultCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.numBytes = 0;
+        Files.createDirectories(directory);
+
+        Path indexPath = directory.resolve(INDEX_FILE);
+        if (Files.exists(indexPath)){
+            String index = new String(Files.readAllBytes(indexPath), StandardCharsets.UTF_8);
+            try {
+                for (Object element : AuditEvent.listValue(AuditEvent.asFields(JsonReader.parse(index)), "entries")){
+                    Map<String, Object> entry = AuditEvent.asFields(element);
+                    String key = AuditEvent.stringValue(entry, "key");
+                    if (Files.isDirectory(directory.resolve(key))){ // Entries removed by hand are forgotten
+                        long entryBytes = ((Number) entry.get("bytes")).longValue();
+                        entries.put(key, entryBytes);
+                        numBytes += entryBytes;
+                    }
+                }
+            } catch (IllegalArgumentException | ClassCastException | NullPointerException e){
+                throw new IOException("The result cache index " + indexPath + " is not valid.", e);
+            }
+        }
+    }
+
+    /**
+     * This function builds the key of an election's entry.
+     * @param contentHash - The SHA-256 hash of the election file's content, from FileParser.getContentHash().
+     * @param options - Every option that changes the result or the audit files, e.g. "level=trace;deltas=0".
+     * @param tieBreakSeed - The tie-break seed, or an empty string if ties are broken with a SecureRandom.
+     * @return - The key as a hexadecimal string.
+     */
+    public static String key(String contentHash, String options, String tieBreakSeed){
+        MessageDigest digest = Digests.newDigest();
+        digest.update((contentHash + '\n' + options + '\n' + tieBreakSeed).getBytes(StandardCharsets.UTF_8));
+        return Digests.toHex(digest.digest());
+    }
+
+    /**
+     * This function looks up an entry and, if it is found, copies its audit files back to where the election wrote them.
+     * @param key - The key of the entry.
+     * @return - The displayed result of the election, or null if the cache has no entry for the key.
+     * @throws IOException - If the entry could not be read or its audit files could not be restored.
+     */
+    public String get(String key) throws IOException {
+        if (!entries.containsKey(key)){
+            return null;
+        }
+
+        Path entryDirectory = directory.resolve(key);
+        String files = new String(Files.readAllBytes(entryDirectory.resolve(FILES_FILE)), StandardCharsets.UTF_8);
+        for (Object element : AuditEvent.listValue(AuditEvent.asFields(JsonReader.parse(files)), "files")){
+            Map<String, Object> file = AuditEvent.asFields(element);
+            Files.copy(entryDirectory.resolve(AuditEvent.stringValue(file, "entry")), Paths.get(AuditEvent.stringValue(file, "path")), StandardCopyOption.REPLACE_EXISTING);
+        }
+        String output = new String(Files.readAllBytes(entryDirectory.resolve(OUTPUT_FILE)), StandardCharsets.UTF_8);
+
+        entries.get(key); // Marks the entry as the most recently used
+        writeIndex();
+        return output;
+    }
+
+    /**
+     * This function adds the result of an election to the cache, then removes the least recently used entries
+     * until the cache is within its limit. A result that is larger than the whole cache is not added.
+     * @param key - The key of the entry.
+     * @param output - The displayed result of the election.
+     * @param auditFiles - The audit files written by the election, which are restored to the same paths.
+     * @throws IOException - If the entry could not be written.
+     */
+    public void put(String key, String output, List<Path> auditFiles) throws IOException {
+        byte[] outputBytes = output.getBytes(StandardCharsets.UTF_8);
+        long entryBytes = outputBytes.length;
+        for (Path file : auditFiles){
+            entryBytes += Files.size(file);
+        }
+        if (entryBytes > maxBytes){
+            return;
+        }
+
+        remove(key);
+        Path entryDirectory = Files.createDirectories(directory.resolve(key));
+        ArrayList<Object> files = new ArrayList<>();
+        for (int i = 0; i < auditFiles.size(); i++){
+            LinkedHashMap<String, Object> file = new LinkedHashMap<>();
+            file.put("path", auditFiles.get(i).toString());
+            file.put("entry", "file_" + i);
+            files.add(file);
+            Files.copy(auditFiles.get(i), entryDirectory.resolve("file_" + i));
+        }
+        LinkedHashMap<String, Object> fileList = new LinkedHashMap<>();
+        fileList.put("files", files);
+        StringBuilder sb = new StringBuilder();
+        new JsonWriter(sb).value((Object) fileList);
+        Files.write(entryDirectory.resolve(FILES_FILE), sb.toString().getBytes(StandardCharsets.UTF_8));
+        Files.write(entryDirectory.resolve(OUTPUT_FILE), outputBytes); // Written last, so an entry without output was not finished
+
+        entries.put(key, entryBytes);
+        numBytes += entryBytes;
+        Iterator<Map.Entry<String, Long>> leastRecentlyUsed = entries.entrySet().iterator();
+        while (numBytes > maxBytes && leastRecentlyUsed.hasNext()){
+            Map.Entry<String, Long> entry = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            numBytes -= entry.getValue();
+            deleteEntry(entry.getKey());
+        }
+        writeIndex();
+    }
+
+    /**
+     * Retrieves the number of entries in the cache.
+     * @return - The number of entries.
+     */
+    public int size(){
+        return entries.size();
+    }
+
+    /**
+     * Retrieves the number of bytes the entries take on disk.
+     * @return - The number of bytes.
+     */
+    public long getNumBytes(){
+        return numBytes;
+    }
+
+    /**
+     * This function removes an entry from the cache, if it is in it.
+     */
+    private void remove(String key) throws IOException {
+        Long entryBytes = entries.remove(key);
+        if (entryBytes != null){
+            numBytes -= entryBytes;
+        }
+        deleteEntry(key);
+    }
+
+    /**
+     * This function deletes the directory of an entry.
+     */
+    private void deleteEntry(String key) throws IOException {
+        Path entryDirectory = directory.resolve(key);
+        if (!Files.isDirectory(entryDirectory)){
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(entryDirectory)){
+            for (Path file : files){
+                Files.delete(file);
+            }
+        }
+        Files.delete(entryDirectory);
+    }
+
+    /**
+     * This function writes the index of the entries, from the least to the most recently used. The index is written
+     * under a temporary name first, so it is never left half written.
+     */
+    private void writeIndex() throws IOException {
+        ArrayList<Object> index = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : entries.entrySet()){
+            LinkedHashMap<String, Object> row = new LinkedHashMap<>();
+            row.put("key", entry.getKey());
+            row.put("bytes", entry.getValue());
+            index.add(row);
+        }
+        LinkedHashMap<String, Object> fields = new LinkedHashMap<>();
+        fields.put("maxBytes", maxBytes);
+        fields.put("entries", index);
+        StringBuilder sb = new StringBuilder();
+        new JsonWriter(sb).value((Object) fields);
+
+        Path indexPath = directory.resolve(INDEX_FILE);
+        Path temporaryPath = directory.resolve(INDEX_FILE + ".tmp");
+        Files.write(temporaryPath, sb.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temporaryPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
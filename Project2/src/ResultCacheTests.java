@@ -0,0 +1,102 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.*;
+
+public class ResultCacheTests {
+    private Path directory; // Directory of the cache and the audit files of the test
+
+    /**
+     * This function creates an empty directory for the test.
+     */
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("result_cache");
+    }
+
+    /**
+     * This function removes the directory once the test is run.
+     */
+    @After
+    public void removeDirectory() throws IOException {
+        Files.walk(directory).sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+
+    /**
+     * This function writes an audit file of the test.
+     */
+    private Path writeAuditFile(String name, String content) throws IOException {
+        return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This function hashes an election file through the parse, the same as a run with --result-cache.
+     */
+    private static String hashFile(String electionFile){
+        return new FileParser(electionFile, true, null, true).getContentHash();
+    }
+
+    /**
+     * This test checks that a cached result is found by its key and restores its audit files, and that a miss returns null.
+     */
+    @Test
+    public void testHitRestoresAuditFiles() throws IOException {
+        ResultCache cache = new ResultCache(directory.resolve("cache"), 1 << 20);
+        Path auditFile = writeAuditFile("audit_file.txt", "Winning candidate is Rosen\n");
+        String key = ResultCache.key(hashFile("./../testing/IR_test_first_round_majority_winner.csv"), "level=TRACE", "");
+        Assert.assertNull(cache.get(key));
+
+        cache.put(key, "Rosen wins\n", Arrays.asList(auditFile));
+        Files.delete(auditFile);
+
+        ResultCache reopened = new ResultCache(directory.resolve("cache"), 1 << 20);
+        Assert.assertEquals(1, reopened.size());
+        Assert.assertEquals("Rosen wins\n", reopened.get(key));
+        Assert.assertEquals("Winning candidate is Rosen\n", new String(Files.readAllBytes(auditFile), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This test checks that the key changes with the content, the options and the tie-break seed.
+     */
+    @Test
+    public void testKey() throws IOException {
+        String first = hashFile("./../testing/IR_test_first_round_majority_winner.csv");
+        String second = hashFile("./../testing/IR_test_two_candidate_tie.csv");
+        Assert.assertEquals(64, first.length());
+        Assert.assertEquals(Digests.toHex(Digests.newDigest().digest(Files.readAllBytes(Paths.get("./../testing/IR_test_first_round_majority_winner.csv")))), first);
+        Assert.assertEquals(first, hashFile("./../testing/IR_test_first_round_majority_winner.csv"));
+
+        Set<String> keys = new HashSet<>(Arrays.asList(
+            ResultCache.key(first, "level=TRACE", ""),
+            ResultCache.key(second, "level=TRACE", ""),
+            ResultCache.key(first, "level=SUMMARY", ""),
+            ResultCache.key(first, "level=TRACE", "7")));
+        Assert.assertEquals(4, keys.size());
+    }
+
+    /**
+     * This test checks that the least recently used entries are removed once the cache grows past its limit.
+     */
+    @Test
+    public void testLeastRecentlyUsedEviction() throws IOException {
+        ResultCache cache = new ResultCache(directory.resolve("cache"), 250);
+        char[] content = new char[100];
+        Arrays.fill(content, 'x');
+        cache.put("a", new String(content), Collections.emptyList());
+        cache.put("b", new String(content), Collections.emptyList());
+        Assert.assertNotNull(cache.get("a")); // "b" is now the least recently used
+        cache.put("c", new String(content), Collections.emptyList());
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(200, cache.getNumBytes());
+        Assert.assertNull(cache.get("b"));
+        Assert.assertFalse(Files.exists(directory.resolve("cache").resolve("b")));
+        Assert.assertNotNull(cache.get("a"));
+        Assert.assertNotNull(cache.get("c"));
+
+        cache.put("d", new String(new char[300]), Collections.emptyList()); // Larger than the whole cache
+        Assert.assertNull(cache.get("d"));
+        Assert.assertEquals(2, cache.size());
+    }
+}
@@ -0,0 +1,231 @@
+/**
+ * ResultExporter.java
+ * This abstract class exports the results of an election in a machine-readable format, so publishing tools do not
+ * have to parse the padded tables VoteEasy displays. The election streams every round to the exporter while it runs,
+ * followed by the final result, and every row is written as soon as it is exported, straight from the election's
+ * Candidate and Party objects, so no document is built in memory.
+ *
+ * A round or the final result is a table of candidates or parties. Every row holds the name, party, votes, seats and,
+ * for parties, remaining votes of a candidate or party, along with a status: "winner", "eliminated", "seated" (holds
+ * one of its party's seats) or none. JsonResultExporter and CsvResultExporter write the tables in their format.
+ */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+public abstract class ResultExporter implements Closeable {
+    public static final int FINAL_ROUND = -1; // Round of the tables of the final result
+    protected static final int BUFFER_SIZE = 1 << 16; // Number of characters buffered before they are written
+
+    protected final Writer out; // Destination of the exported results
+    private Path path; // File the results are exported to, or null if the exporter was not opened for a file
+
+    /**
+     * Constructs an exporter that writes to out.
+     * @param out - The destination of the exported results, which is closed with the exporter.
+     */
+    protected ResultExporter(Writer out){
+        this.out = out;
+    }
+
+    /**
+     * This function opens an exporter for a file in the given format.
+     * @param path - Name and path of the file.
+     * @param format - "json" or "csv" (not case sensitive).
+     * @return - The exporter writing to the file.
+     * @throws IllegalArgumentException - If the format is not json or csv.
+     * @throws UncheckedIOException - If the file could not be created.
+     */
+    public static ResultExporter open(String path, String format){
+        if (!format.equalsIgnoreCase("json") && !format.equalsIgnoreCase("csv")){
+            throw new IllegalArgumentException("The export format " + format + " is not valid. Please choose json or csv.");
+        }
+
+        Writer out;
+        try {
+            out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(Paths.get(path)), StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch (IOException e){
+            throw new UncheckedIOException("Could not create export file " + path, e);
+        }
+        ResultExporter exporter = format.equalsIgnoreCase("json") ? new JsonResultExporter(out) : new CsvResultExporter(out);
+        exporter.path = Paths.get(path);
+        return exporter;
+    }
+
+    /**
+     * This function starts the export of an election. The election calls it before its first round.
+     * @param protocol - The protocol of the election, e.g. "IR", "OPL" or "MPO".
+     * @param numBallots - The number of ballots cast.
+     * @param numSeats - The number of seats to be allocated, or 0 for IR.
+     */
+    public abstract void beginElection(String protocol, int numBallots, int numSeats);
+
+    /**
+     * This function starts a table of a round or of the final result.
+     * @param round - The number of the round, or FINAL_ROUND for the final result.
+     * @param kind - "candidates" or "parties".
+     */
+    protected abstract void beginTable(int round, String kind);
+
+    /**
+     * This function writes the row of a candidate to the current table.
+     * @param candidate - The candidate.
+     * @param votes - The votes of the candidate, which are 0 once an IR candidate is eliminated.
+     * @param status - "winner", "eliminated", "seated" or an empty string.
+     */
+    protected abstract void candidateRow(Candidate candidate, int votes, String status);
+
+    /**
+     * This function writes the row of a party to the current table.
+     * @param party - The party.
+     * @param status - "winner" or an empty string.
+     */
+    protected abstract void partyRow(Party party, String status);
+
+    /**
+     * This function ends the current table.
+     */
+    protected abstract void endTable();
+
+    /**
+     * This function finds the votes an IR candidate holds, which are 0 once they are eliminated, the same as the
+     * result displayed. An eliminated candidate keeps the votes they had when their ballots were transferred.
+     * @param candidate - The candidate.
+     * @return - The votes the candidate holds.
+     */
+    private static int heldVotes(Candidate candidate){
+        return candidate.isEliminated() ? 0 : candidate.getNumVotes();
+    }
+
+    /**
+     * This function exports the votes of every candidate at the end of a round.
+     * @param round - The number of the round, starting at 1.
+     * @param candidates - Every candidate of the election.
+     */
+    public void candidateRound(int round, List<Candidate> candidates){
+        beginTable(round, "candidates");
+        for (Candidate candidate : candidates){
+            candidateRow(candidate, heldVotes(candidate), candidate.isEliminated() ? "eliminated" : "");
+        }
+        endTable();
+    }
+
+    /**
+     * This function exports the votes and seats of every party at the end of a round of seat allocation.
+     * @param round - The number of the round, where round 0 holds the votes before any seat is allocated.
+     * @param parties - Every party of the election.
+     */
+    public void partyRound(int round, List<Party> parties){
+        beginTable(round, "parties");
+        for (Party party : parties){
+            partyRow(party, "");
+        }
+        endTable();
+    }
+
+    /**
+     * This function exports the final result of an IR election.
+     * @param ir - The election, once it is complete.
+     */
+    public void result(IRVoting ir){
+        beginTable(FINAL_ROUND, "candidates");
+        for (Candidate candidate : ir.getCandidates()){
+            candidateRow(candidate, heldVotes(candidate), candidate == ir.getWinningCandidate() ? "winner" : candidate.isEliminated() ? "eliminated" : "");
+        }
+        endTable();
+    }
+
+    /**
+     * This function exports the final result of an OPL election: every party, and every candidate holding a seat.
+     * @param opl - The election, once it is complete.
+     */
+    public void result(OPLVoting opl){
+        beginTable(FINAL_ROUND, "parties");
+        for (Party party : opl.getParties()){
+            partyRow(party, party == opl.getWinningParty() ? "winner" : "");
+        }
+        endTable();
+
+        beginTable(FINAL_ROUND, "candidates");
+        for (Party party : opl.getParties()){
+            for (Candidate candidate : party.getSeatHolders()){
+                candidateRow(candidate, candidate.getNumVotes(), candidate == opl.getWinningCandidate() ? "winner" : "seated");
+            }
+        }
+        endTable();
+    }
+
+    /**
+     * This function exports the final result of an MPO election.
+     * @param mpo - The election, once it is complete.
+     */
+    public void result(MPOVoting mpo){
+        Set<Candidate> winners = Collections.newSetFromMap(new IdentityHashMap<>());
+        winners.addAll(mpo.getWinningCandidates());
+
+        beginTable(FINAL_ROUND, "candidates");
+        for (Candidate candidate : mpo.getCandidates()){
+            candidateRow(candidate, candidate.getNumVotes(), winners.contains(candidate) ? "winner" : "");
+        }
+        endTable();
+    }
+
+    /**
+     * This function exports the national result of a multi-district OPL election.
+     * @param opl - The election, once it is complete.
+     */
+    public void result(MultiDistrictOPLVoting opl){
+        beginTable(FINAL_ROUND, "parties");
+        for (Party party : opl.getNationalParties()){
+            partyRow(party, party == opl.getWinningParty() ? "winner" : "");
+        }
+        endTable();
+    }
+
+    /**
+     * This function writes a string to the export.
+     * @throws UncheckedIOException - If the string could not be written.
+     */
+    protected void write(String content){
+        try {
+            out.write(content);
+        } catch (IOException e){
+            throw new UncheckedIOException("Could not write the result export", e);
+        }
+    }
+
+    /**
+     * This function ends the export and closes its file.
+     * @throws UncheckedIOException - If the export could not be written or closed.
+     */
+    @Override
+    public void close(){
+        try {
+            out.close();
+        } catch (IOException e){
+            throw new UncheckedIOException("Could not close the result export", e);
+        }
+    }
+
+    /**
+     * This function closes the export of an election that failed and deletes its file, so a partial export is not
+     * mistaken for a result. It can be called whether or not the exporter was already closed.
+     * @throws UncheckedIOException - If the file of the export could not be deleted.
+     */
+    public void abort(){
+        try {
+            out.close();
+        } catch (IOException e){
+            // The export is deleted either way
+        }
+        if (path != null){
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e){
+                throw new UncheckedIOException("Could not delete the partial result export " + path, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.*;
+
+public class ResultExporterTests {
+    /**
+     * This test checks that the JSON export of an IR election holds every round, the eliminated candidates and the
+     * winner, and that it is one valid JSON object.
+     */
+    @Test
+    public void testIRJsonExport(){
+        final FileParser file = new FileParser("./../testing/IR_test_majority_winner_after_one_round_redistribution.csv");
+        final IRVoting ir = new IRVoting(file.getCandidateLine(), file.getBallotList(), "");
+        StringWriter out = new StringWriter();
+        try (ResultExporter exporter = new JsonResultExporter(out)){
+            ir.setResultExporter(exporter);
+            ir.calculateBallots();
+        }
+
+        Map<String, Object> export = AuditEvent.asFields(JsonReader.parse(out.toString().trim()));
+        Assert.assertEquals("IR", export.get("protocol"));
+        Assert.assertEquals((long) file.getBallotList().size(), export.get("ballots")); // Counted before exhausted ballots are removed
+
+        List<Object> rounds = AuditEvent.listValue(export, "rounds");
+        Assert.assertEquals(2, rounds.size());
+        Assert.assertEquals(1L, AuditEvent.asFields(rounds.get(0)).get("round"));
+        Assert.assertEquals(2L, AuditEvent.asFields(rounds.get(1)).get("round"));
+
+        int numWinners = 0;
+        int numEliminated = 0;
+        for (Object element : AuditEvent.listValue(AuditEvent.asFields(export.get("result")), "candidates")){
+            Map<String, Object> row = AuditEvent.asFields(element);
+            if ("winner".equals(row.get("status"))){
+                numWinners++;
+                Assert.assertEquals(ir.getWinningCandidate().getName(), row.get("name"));
+                Assert.assertEquals((long) ir.getWinningCandidate().getNumVotes(), row.get("votes"));
+            } else if ("eliminated".equals(row.get("status"))){
+                numEliminated++;
+            }
+        }
+        Assert.assertEquals(1, numWinners);
+        Assert.assertTrue(numEliminated > 0);
+    }
+
+    /**
+     * This test checks that an eliminated IR candidate is exported with 0 votes, as in the result displayed, so the
+     * votes of every round add up to no more than the ballots cast.
+     */
+    @Test
+    public void testIRExportedVotesAreHeld(){
+        final FileParser file = new FileParser("./../testing/IR_test_two_leading_candidate_loss_after_redistribution.csv");
+        final IRVoting ir = new IRVoting(file.getCandidateLine(), file.getBallotList(), "");
+        StringWriter out = new StringWriter();
+        try (ResultExporter exporter = new JsonResultExporter(out)){
+            ir.setResultExporter(exporter);
+            ir.calculateBallots();
+        }
+
+        Map<String, Object> export = AuditEvent.asFields(JsonReader.parse(out.toString().trim()));
+        long ballots = (Long) export.get("ballots");
+        List<Object> tables = new ArrayList<>(AuditEvent.listValue(export, "rounds"));
+        tables.add(export.get("result"));
+        for (Object table : tables){
+            long votes = 0;
+            for (Object element : AuditEvent.listValue(AuditEvent.asFields(table), "candidates")){
+                Map<String, Object> row = AuditEvent.asFields(element);
+                if ("eliminated".equals(row.get("status"))){
+                    Assert.assertEquals(0L, row.get("votes"));
+                }
+                votes += (Long) row.get("votes");
+            }
+            Assert.assertTrue(votes + " votes of " + ballots + " ballots", votes <= ballots);
+        }
+    }
+
+    /**
+     * This test checks that the CSV export of an OPL election has a row for every party in every round of seat
+     * allocation, and that the final rows hold every seat and the winning party.
+     */
+    @Test
+    public void testOPLCsvExport(){
+        final FileParser file = new FileParser("./../testing/OPL_test_more_than_two_rounds_allocations.csv");
+        final OPLVoting opl = new OPLVoting(file.getCandidateLine(), file.getBallotList(), file.getNumberOfSeats(), file.getNumberOfBallots(), "");
+        StringWriter out = new StringWriter();
+        try (ResultExporter exporter = new CsvResultExporter(out)){
+            opl.setResultExporter(exporter);
+            opl.performSeatAllocations();
+        }
+
+        String[] lines = out.toString().split("\n");
+        Assert.assertEquals(CsvResultExporter.HEADER, lines[0]);
+        Assert.assertEquals(",election,OPL,," + file.getNumberOfBallots() + "," + file.getNumberOfSeats() + ",,", lines[1]);
+
+        int numRoundRows = 0;
+        int numSeats = 0;
+        String winningParty = null;
+        for (int i = 2; i < lines.length; i++){
+            String[] fields = lines[i].split(",", -1);
+            Assert.assertEquals(8, fields.length);
+            if (!fields[0].equals("final")){
+                numRoundRows++;
+            } else if (fields[1].equals("parties")){
+                numSeats += Integer.parseInt(fields[5]);
+                if (fields[7].equals("winner")){
+                    winningParty = fields[2];
+                }
+            }
+        }
+        Assert.assertTrue(numRoundRows > 2 * opl.getParties().size()); // The votes before any seat is allocated and at least two rounds
+        Assert.assertEquals(numRoundRows % opl.getParties().size(), 0);
+        Assert.assertEquals(file.getNumberOfSeats(), numSeats);
+        Assert.assertEquals(opl.getWinningParty().getPartyName(), winningParty);
+    }
+
+    /**
+     * This test checks that CSV fields holding a comma or quote are quoted, and that an unknown format is refused.
+     */
+    @Test
+    public void testCsvQuotingAndFormat(){
+        StringWriter out = new StringWriter();
+        try (ResultExporter exporter = new CsvResultExporter(out)){
+            exporter.beginElection("MPO", 1, 1);
+            exporter.candidateRound(1, Arrays.asList(new Candidate("Smith, Jr.", "Say \"Hi\"")));
+        }
+        Assert.assertTrue(out.toString().endsWith("1,candidates,\"Smith, Jr.\",\"Say \"\"Hi\"\"\",0,0,,\n"));
+
+        try {
+            ResultExporter.open("./results.xml", "xml");
+            Assert.fail("An unknown export format was accepted.");
+        } catch (IllegalArgumentException e){
+            Assert.assertFalse(new File("./results.xml").exists());
+        }
+    }
+
+    /**
+     * This test checks that closing a JSON exporter only ends what was begun: nothing if no election was begun, and
+     * every open array and object if the election stopped in the middle of a round.
+     */
+    @Test
+    public void testJsonCloseEndsOpenScopesOnly(){
+        StringWriter empty = new StringWriter();
+        new JsonResultExporter(empty).close();
+        Assert.assertEquals("", empty.toString());
+
+        final FileParser file = new FileParser("./../testing/IR_test_first_round_majority_winner.csv");
+        final IRVoting ir = new IRVoting(file.getCandidateLine(), file.getBallotList(), "");
+        StringWriter partial = new StringWriter();
+        try (ResultExporter exporter = new JsonResultExporter(partial)){
+            exporter.beginElection("IR", 6, 0);
+            exporter.candidateRound(1, ir.getCandidates());
+            exporter.beginTable(2, "candidates"); // Stopped before any row of round 2
+        }
+        Map<String, Object> export = AuditEvent.asFields(JsonReader.parse(partial.toString().trim()));
+        Assert.assertEquals(2, AuditEvent.listValue(export, "rounds").size());
+    }
+
+    /**
+     * This test checks that aborting an export deletes its file, whether or not it was closed first.
+     */
+    @Test
+    public void testAbortDeletesExport() throws IOException {
+        Path exportFile = Files.createTempFile("result_export", ".json");
+        ResultExporter exporter = ResultExporter.open(exportFile.toString(), "json");
+        exporter.beginElection("IR", 6, 0);
+        exporter.abort();
+        Assert.assertFalse(Files.exists(exportFile));
+
+        exporter = ResultExporter.open(exportFile.toString(), "csv");
+        exporter.close();
+        exporter.abort();
+        Assert.assertFalse(Files.exists(exportFile));
+    }
+}
@@ -2,7 +2,7 @@ import org.junit.runner.JUnitCore;
 import org.junit.runner.Result;
 
 // compile with: javac -cp ./../lib/junit-4.13.2.jar:. RunAllUnitTestCases.java
-// run with:     java -cp ./../lib/junit-4.13.2.jar:./../lib/hamcrest-core-1.3.jar:. RunAllUnitTestCases <Candidate|Party|FileParser|IRVoting|OPLVoting|MPOVoting>
+// run with:     java -cp ./../lib/junit-4.13.2.jar:./../lib/hamcrest-core-1.3.jar:. RunAllUnitTestCases <Candidate|Party|FileParser|IRVoting|OPLVoting|MPOVoting|MultiDistrictOPLVoting|SeatSelection|AuditSink|AsyncAuditSink|AuditLevel|AuditEvent|JsonWriter|TableRenderer|AuditDeltaTable|JsonReader|HashChainAuditSink|AuditVerifier|BallotTrace|GzipAuditSink|ElectionServer|ElectionFolderWatcher|ResultCache|ResultExporter|ProgressReporter|ElectionEvents|ElectionMetrics|ElectionProfile>
 public class RunAllUnitTestCases {
     public static void main(String[] args){
         if (args.length == 1){
@@ -26,8 +26,74 @@ public class RunAllUnitTestCases {
                 case "mpovoting":
                     runTests(MPOVotingTests.class, "MPOVoting");
                     break;
+                case "multidistrictoplvoting":
+                    runTests(MultiDistrictOPLVotingTests.class, "MultiDistrictOPLVoting");
+                    break;
+                case "seatselection":
+                    runTests(SeatSelectionTests.class, "SeatSelection");
+                    break;
+                case "auditsink":
+                    runTests(AuditSinkTests.class, "AuditSink");
+                    break;
+                case "asyncauditsink":
+                    runTests(AsyncAuditSinkTests.class, "AsyncAuditSink");
+                    break;
+                case "auditlevel":
+                    runTests(AuditLevelTests.class, "AuditLevel");
+                    break;
+                case "auditevent":
+                    runTests(AuditEventTests.class, "AuditEvent");
+                    break;
+                case "jsonwriter":
+                    runTests(JsonWriterTests.class, "JsonWriter");
+                    break;
+                case "tablerenderer":
+                    runTests(TableRendererTests.class, "TableRenderer");
+                    break;
+                case "auditdeltatable":
+                    runTests(AuditDeltaTableTests.class, "AuditDeltaTable");
+                    break;
+                case "jsonreader":
+                    runTests(JsonReaderTests.class, "JsonReader");
+                    break;
+                case "hashchainauditsink":
+                    runTests(HashChainAuditSinkTests.class, "HashChainAuditSink");
+                    break;
+                case "auditverifier":
+                    runTests(AuditVerifierTests.class, "AuditVerifier");
+                    break;
+                case "ballottrace":
+                    runTests(BallotTraceTests.class, "BallotTrace");
+                    break;
+                case "gzipauditsink":
+                    runTests(GzipAuditSinkTests.class, "GzipAuditSink");
+                    break;
+                case "electionserver":
+                    runTests(ElectionServerTests.class, "ElectionServer");
+                    break;
+                case "electionfolderwatcher":
+                    runTests(ElectionFolderWatcherTests.class, "ElectionFolderWatcher");
+                    break;
+                case "resultcache":
+                    runTests(ResultCacheTests.class, "ResultCache");
+                    break;
+                case "resultexporter":
+                    runTests(ResultExporterTests.class, "ResultExporter");
+                    break;
+                case "progressreporter":
+                    runTests(ProgressReporterTests.class, "ProgressReporter");
+                    break;
+                case "electionevents":
+                    runTests(ElectionEventsTests.class, "ElectionEvents");
+                    break;
+                case "electionmetrics":
+                    runTests(ElectionMetricsTests.class, "ElectionMetrics");
+                    break;
+                case "electionprofile":
+                    runTests(ElectionProfileTests.class, "ElectionProfile");
+                    break;
                 default:
-                    System.out.println("[SYSTEM]: You can only run tests from Candidate, Party, FileParser, IRVoting and OPLVoting classes.");
+                    System.out.println("[SYSTEM]: You can only run tests from Candidate, Party, FileParser, IRVoting, OPLVoting, MPOVoting, MultiDistrictOPLVoting, SeatSelection, AuditSink, AsyncAuditSink, AuditLevel, AuditEvent, JsonWriter, TableRenderer, AuditDeltaTable, JsonReader, HashChainAuditSink, AuditVerifier, BallotTrace, GzipAuditSink, ElectionServer, ElectionFolderWatcher, ResultCache, ResultExporter, ProgressReporter, ElectionEvents, ElectionMetrics and ElectionProfile classes.");
                     printUsageList();
                     System.exit(0);
             }
@@ -40,6 +106,28 @@ public class RunAllUnitTestCases {
             runTests(IRVotingTests.class, "IRVoting");
             runTests(OPLVotingTests.class, "OPLVoting");
             runTests(MPOVotingTests.class, "MPOVoting");
+            runTests(MultiDistrictOPLVotingTests.class, "MultiDistrictOPLVoting");
+            runTests(SeatSelectionTests.class, "SeatSelection");
+            runTests(AuditSinkTests.class, "AuditSink");
+            runTests(AsyncAuditSinkTests.class, "AsyncAuditSink");
+            runTests(AuditLevelTests.class, "AuditLevel");
+            runTests(AuditEventTests.class, "AuditEvent");
+            runTests(JsonWriterTests.class, "JsonWriter");
+            runTests(TableRendererTests.class, "TableRenderer");
+            runTests(AuditDeltaTableTests.class, "AuditDeltaTable");
+            runTests(JsonReaderTests.class, "JsonReader");
+            runTests(HashChainAuditSinkTests.class, "HashChainAuditSink");
+            runTests(AuditVerifierTests.class, "AuditVerifier");
+            runTests(BallotTraceTests.class, "BallotTrace");
+            runTests(GzipAuditSinkTests.class, "GzipAuditSink");
+            runTests(ElectionServerTests.class, "ElectionServer");
+            runTests(ElectionFolderWatcherTests.class, "ElectionFolderWatcher");
+            runTests(ResultCacheTests.class, "ResultCache");
+            runTests(ResultExporterTests.class, "ResultExporter");
+            runTests(ProgressReporterTests.class, "ProgressReporter");
+            runTests(ElectionEventsTests.class, "ElectionEvents");
+            runTests(ElectionMetricsTests.class, "ElectionMetrics");
+            runTests(ElectionProfileTests.class, "ElectionProfile");
         }
         else{
             System.out.println("[SYSTEM]: You can enter only one argument.");
@@ -50,7 +138,7 @@ public class RunAllUnitTestCases {
 
     private static void printUsageList(){
         System.out.println("[SYSTEM]: Compile with: javac -cp ./../lib/junit-4.13.2.jar:. RunAllUnitTestCases.java");
-        System.out.println("[SYSTEM]: Run with: java -cp ./../lib/junit-4.13.2.jar:./../lib/hamcrest-core-1.3.jar:. RunAllUnitTestCases <Candidate | Party | FileParser | IRVoting | OPLVoting | MPOVoting>");
+        System.out.println("[SYSTEM]: Run with: java -cp ./../lib/junit-4.13.2.jar:./../lib/hamcrest-core-1.3.jar:. RunAllUnitTestCases <Candidate | Party | FileParser | IRVoting | OPLVoting | MPOVoting | MultiDistrictOPLVoting | SeatSelection | AuditSink | AsyncAuditSink | AuditLevel | AuditEvent | JsonWriter | TableRenderer | AuditDeltaTable | JsonReader | HashChainAuditSink | AuditVerifier | BallotTrace | GzipAuditSink | ElectionServer | ElectionFolderWatcher | ResultCache | ResultExporter | ProgressReporter | ElectionEvents | ElectionMetrics | ElectionProfile>");
     }
 
     private static void runTests(Class<?> classType, String className){
@@ -0,0 +1,147 @@
+/**
+ * SeatSelection.java
+ * This class selects the candidates with the most votes for a fixed number of seats. It keeps a
+ * bounded heap of the current top candidates instead of sorting every candidate, finds the group
+ * of candidates tied at the cutoff in the same pass, and resolves that tie with a single draw.
+ */
+
+import java.util.*;
+
+public class SeatSelection {
+    private ArrayList<Candidate> winners; // Candidates that won a seat, ranked by number of votes
+    private ArrayList<Candidate> tiedCandidates; // Candidates tied at the cutoff for the last seat(s), empty if no draw was needed
+    private ArrayList<Candidate> tieWinners; // Candidates from tiedCandidates that won a seat in the draw
+
+    /**
+     * Constructs the result of a seat selection.
+     *
+     * @param winners        Candidates that won a seat, ranked by number of votes.
+     * @param tiedCandidates Candidates tied at the cutoff for the last seat(s).
+     * @param tieWinners     Candidates from tiedCandidates that won a seat in the draw.
+     */
+    private SeatSelection(ArrayList<Candidate> winners, ArrayList<Candidate> tiedCandidates, ArrayList<Candidate> tieWinners) {
+        this.winners = winners;
+        this.tiedCandidates = tiedCandidates;
+        this.tieWinners = tieWinners;
+    }
+
+    /**
+     * Selects the numSeats candidates with the most votes in a single pass over the candidates.
+     * A min-heap holds the current top numSeats candidates, and candidates that are not in the heap
+     * but have as many votes as the weakest candidate in it are remembered as possible tie candidates.
+     * If candidates are tied at the cutoff, the seats left after the candidates above the cutoff are
+     * drawn at random from the whole tied group, so each tied candidate has an equal chance of winning.
+     *
+     * @param candidates The candidates competing for the seats.
+     * @param numSeats   The number of seats to fill.
+     * @param random     The random number generator used for the tie draw.
+     * @return The selected candidates along with any tie that had to be drawn.
+     */
+    public static SeatSelection selectTopCandidates(List<Candidate> candidates, int numSeats, Random random) {
+        ArrayList<Candidate> winners = new ArrayList<>();
+        ArrayList<Candidate> tiedCandidates = new ArrayList<>();
+        ArrayList<Candidate> tieWinners = new ArrayList<>();
+        if (numSeats <= 0) {
+            return new SeatSelection(winners, tiedCandidates, tieWinners);
+        }
+
+        PriorityQueue<Candidate> topCandidates = new PriorityQueue<>(numSeats, Comparator.comparingInt(Candidate::getNumVotes));
+        ArrayList<Candidate> cutoffCandidates = new ArrayList<>(); // Candidates outside the heap with the same votes as the heap's weakest candidate
+
+        for (Candidate candidate : candidates) {
+            if (topCandidates.size() < numSeats) {
+                topCandidates.add(candidate);
+                continue;
+            }
+
+            int cutoffVotes = topCandidates.peek().getNumVotes();
+            if (candidate.getNumVotes() < cutoffVotes) {
+                continue;
+            } else if (candidate.getNumVotes() == cutoffVotes) {
+                cutoffCandidates.add(candidate);
+                continue;
+            }
+
+            // The candidate beats the weakest candidate in the heap, so replace it. The replaced candidate
+            // only stays a tie candidate if it still has as many votes as the new weakest candidate.
+            Candidate replacedCandidate = topCandidates.poll();
+            topCandidates.add(candidate);
+            if (replacedCandidate.getNumVotes() == topCandidates.peek().getNumVotes()) {
+                cutoffCandidates.add(replacedCandidate);
+            } else {
+                cutoffCandidates.clear();
+            }
+        }
+
+        // Drain the heap to rank the selected candidates by votes, which only sorts numSeats candidates
+        ArrayList<Candidate> rankedCandidates = new ArrayList<>(topCandidates.size());
+        while (!topCandidates.isEmpty()) {
+            rankedCandidates.add(topCandidates.poll());
+        }
+        Collections.reverse(rankedCandidates);
+
+        if (cutoffCandidates.isEmpty()) { // Nobody outside the heap is tied with the last selected candidate
+            winners.addAll(rankedCandidates);
+            return new SeatSelection(winners, tiedCandidates, tieWinners);
+        }
+
+        int cutoffVotes = cutoffCandidates.get(0).getNumVotes();
+        for (Candidate candidate : rankedCandidates) {
+            if (candidate.getNumVotes() > cutoffVotes) { // Candidates above the cutoff win their seat outright
+                winners.add(candidate);
+            } else {
+                tiedCandidates.add(candidate);
+            }
+        }
+        tiedCandidates.addAll(cutoffCandidates);
+
+        // Draw the remaining seats from the tied group with a partial Fisher-Yates shuffle
+        int seatsLeft = numSeats - winners.size();
+        ArrayList<Candidate> drawPool = new ArrayList<>(tiedCandidates);
+        for (int i = 0; i < seatsLeft; i++) {
+            int randomIdx = i + random.nextInt(drawPool.size() - i);
+            Collections.swap(drawPool, i, randomIdx);
+            tieWinners.add(drawPool.get(i));
+        }
+        winners.addAll(tieWinners);
+
+        return new SeatSelection(winners, tiedCandidates, tieWinners);
+    }
+
+    /**
+     * Returns the candidates that won a seat, ranked by number of votes. Candidates that won
+     * a seat in a tie draw are ranked in the order they were drawn.
+     *
+     * @return The winning candidates.
+     */
+    public ArrayList<Candidate> getWinners() {
+        return winners;
+    }
+
+    /**
+     * Returns the candidates that were tied at the cutoff for the last seat(s).
+     *
+     * @return The tied candidates, or an empty list if no draw was needed.
+     */
+    public ArrayList<Candidate> getTiedCandidates() {
+        return tiedCandidates;
+    }
+
+    /**
+     * Returns the tied candidates that won a seat in the draw.
+     *
+     * @return The candidates that won the draw, or an empty list if no draw was needed.
+     */
+    public ArrayList<Candidate> getTieWinners() {
+        return tieWinners;
+    }
+
+    /**
+     * Checks whether a tie draw was needed to fill the seats.
+     *
+     * @return True if the last seat(s) were drawn between tied candidates; otherwise, False
+     */
+    public boolean hasTie() {
+        return !tiedCandidates.isEmpty();
+    }
+}
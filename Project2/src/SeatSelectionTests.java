@@ -0,0 +1,93 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.security.SecureRandom;
+import org.junit.*;
+
+public class SeatSelectionTests {
+    /**
+     * Builds a list of candidates where the candidate at position i receives votes[i] votes.
+     */
+    private ArrayList<Candidate> buildCandidates(int... votes) {
+        ArrayList<Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < votes.length; i++) {
+            Candidate candidate = new Candidate("C" + i, "P", i);
+            for (int v = 0; v < votes[i]; v++) {
+                candidate.incrementVote();
+            }
+            candidates.add(candidate);
+        }
+        return candidates;
+    }
+
+    /**
+     * This test checks that the top candidates are selected and ranked by votes when no tie occurs at the cutoff.
+     */
+    @Test
+    public void testSelectTopCandidatesWithoutTie() {
+        ArrayList<Candidate> candidates = buildCandidates(4, 9, 1, 7, 3);
+        SeatSelection selection = SeatSelection.selectTopCandidates(candidates, 3, new SecureRandom());
+
+        Assert.assertFalse(selection.hasTie());
+        Assert.assertEquals(3, selection.getWinners().size());
+        Assert.assertEquals("C1", selection.getWinners().get(0).getName());
+        Assert.assertEquals("C3", selection.getWinners().get(1).getName());
+        Assert.assertEquals("C0", selection.getWinners().get(2).getName());
+    }
+
+    /**
+     * This test checks that candidates above the cutoff always win and the tied group at the cutoff is found
+     * even when some of the tied candidates were pushed out of the heap.
+     */
+    @Test
+    public void testSelectTopCandidatesWithCutoffTie() {
+        ArrayList<Candidate> candidates = buildCandidates(2, 5, 2, 8, 2, 1);
+        SeatSelection selection = SeatSelection.selectTopCandidates(candidates, 3, new SecureRandom());
+
+        Assert.assertTrue(selection.hasTie());
+        Assert.assertEquals(3, selection.getWinners().size());
+        Assert.assertEquals("C3", selection.getWinners().get(0).getName());
+        Assert.assertEquals("C1", selection.getWinners().get(1).getName());
+        Assert.assertEquals(3, selection.getTiedCandidates().size());
+        Assert.assertEquals(1, selection.getTieWinners().size());
+        Assert.assertEquals(2, selection.getTieWinners().get(0).getNumVotes());
+    }
+
+    /**
+     * This test checks that every candidate wins when there are at least as many seats as candidates, and that
+     * nobody wins when there are no seats.
+     */
+    @Test
+    public void testSelectTopCandidatesSeatLimits() {
+        ArrayList<Candidate> candidates = buildCandidates(3, 3, 3);
+
+        Assert.assertEquals(3, SeatSelection.selectTopCandidates(candidates, 5, new SecureRandom()).getWinners().size());
+        Assert.assertFalse(SeatSelection.selectTopCandidates(candidates, 3, new SecureRandom()).hasTie());
+        Assert.assertEquals(0, SeatSelection.selectTopCandidates(candidates, 0, new SecureRandom()).getWinners().size());
+    }
+
+    /**
+     * This test ensures that the tie draw at the cutoff is fair. Two seats are drawn between four tied candidates
+     * 1000 times, so each candidate should win a seat about 50% of the time (we assume a + or - 5% tolerance).
+     */
+    @Test
+    public void testCutoffTieFairness() {
+        Map<String, Integer> map = new HashMap<>();
+        SecureRandom random = new SecureRandom();
+
+        for (int i = 0; i < 1000; i++) {
+            ArrayList<Candidate> candidates = buildCandidates(6, 2, 2, 2, 2);
+            SeatSelection selection = SeatSelection.selectTopCandidates(candidates, 3, random);
+            for (Candidate candidate : selection.getTieWinners()) {
+                map.put(candidate.getName(), map.getOrDefault(candidate.getName(), 0) + 1);
+            }
+        }
+
+        double low = 0.45;
+        double high = 0.55;
+        for (int i = 1; i <= 4; i++) {
+            double winRate = (double) map.getOrDefault("C" + i, 0) / 1000;
+            Assert.assertTrue(winRate >= low && winRate <= high);
+        }
+    }
+}
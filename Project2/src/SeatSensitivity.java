@@ -0,0 +1,54 @@
+/**
+ * SeatSensitivity.java
+ * The SeatSensitivity class holds how close a party in an OPL election was to gaining or losing a seat.
+ * The thresholds are worked out directly from the quota and the remaining votes of a single tally, holding
+ * the quota and every other party's votes fixed.
+ */
+
+public class SeatSensitivity {
+    private Party party; // Party the thresholds belong to
+    private int votesToGainSeat; // Additional votes the party needed to be certain of one more seat, or -1 if it could not gain a seat
+    private int votesToLoseSeat; // Fewest votes the party could lose and risk dropping a seat, or -1 if it has no seats
+
+    /**
+     * Constructs the seat sensitivity of a party.
+     *
+     * @param party           The party the thresholds belong to.
+     * @param votesToGainSeat The additional votes needed to be certain of one more seat, or -1 if no more seats can be gained.
+     * @param votesToLoseSeat The fewest votes the party could lose and risk dropping a seat, or -1 if it has no seats.
+     */
+    public SeatSensitivity(Party party, int votesToGainSeat, int votesToLoseSeat) {
+        this.party = party;
+        this.votesToGainSeat = votesToGainSeat;
+        this.votesToLoseSeat = votesToLoseSeat;
+    }
+
+    /**
+     * Retrieves the party the thresholds belong to.
+     *
+     * @return The party.
+     */
+    public Party getParty() {
+        return this.party;
+    }
+
+    /**
+     * Retrieves the additional votes the party needed to be certain of one more seat.
+     *
+     * @return The number of votes, or -1 if the party could not gain another seat.
+     */
+    public int getVotesToGainSeat() {
+        return this.votesToGainSeat;
+    }
+
+    /**
+     * Retrieves the fewest votes the party could lose and risk dropping one of its seats. Losing
+     * one vote fewer than this keeps all of the party's seats for certain. A value of 1 means the
+     * party's last seat was won by the narrowest margin or by a tie breaker.
+     *
+     * @return The number of votes, or -1 if the party has no seats to lose.
+     */
+    public int getVotesToLoseSeat() {
+        return this.votesToLoseSeat;
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * TableRenderer.java
+ * This class writes the fixed-width tables of the audit file and the console straight into a reusable
+ * StringBuilder. Cells are padded in place and numbers and percentages are written digit by digit, so no
+ * format strings are parsed and no String is created per cell or per row.
+ *
+ * A row is written as row(), then text/number/percent calls for the cell, then pad(width) to end the cell
+ * (padding it to width characters followed by one space) and finally endRow() after the last cell, e.g.
+ * table.row().text(name).pad(37).number(votes).pad(28).percent(votes, ballots).endRow();
+ */
+
+public class TableRenderer {
+    private final StringBuilder out; // Destination of the table
+    private int cellStart; // Index in out where the current cell begins
+
+    /**
+     * Constructs a TableRenderer that writes to out.
+     * @param out - The destination of the table.
+     */
+    public TableRenderer(StringBuilder out){
+        this.out = out;
+        this.cellStart = out.length();
+    }
+
+    /**
+     * This function starts a new row at the current end of the destination.
+     * @return - This renderer, so calls can be chained.
+     */
+    public TableRenderer row(){
+        cellStart = out.length();
+        return this;
+    }
+
+    /**
+     * This function appends text to the current cell.
+     * @param text - The text.
+     * @return - This renderer, so calls can be chained.
+     */
+    public TableRenderer text(CharSequence text){
+        out.append(text);
+        return this;
+    }
+
+    /**
+     * This function appends a character to the current cell.
+     * @param c - The character.
+     * @return - This renderer, so calls can be chained.
+     */
+    public TableRenderer text(char c){
+        out.append(c);
+        return this;
+    }
+
+    /**
+     * This function appends a whole number to the current cell.
+     * @param value - The number.
+     * @return - This renderer, so calls can be chained.
+     */
+    public TableRenderer number(long value){
+        out.append(value);
+        return this;
+    }
+
+    /**
+     * This function appends a candidate as "name (party)" to the current cell.
+     * @param name - The name of the candidate.
+     * @param party - The party of the candidate.
+     * @return - This renderer, so calls can be chained.
+     */
+    public TableRenderer candidate(String name, String party){
+        out.append(name).append(" (").append(party).append(')');
+        return this;
+    }
+
+    /**
+     * This function appends part as a percentage of whole with two decimals, e.g. "25.00" or "0.50", to the
+     * current cell. The exact fraction is rounded half to even, so a percentage such as 14.375 is not rounded down
+     * by the error of a double, and 0.00 is written if whole is 0.
+     * @param part - The part, e.g. a candidate's number of votes.
+     * @param whole - The whole, e.g. the number of ballots.
+     * @return - This renderer, so calls can be chained.
+     */
+    public TableRenderer percent(long part, long whole){
+        long hundredths = 0; // The percentage in hundredths of a percent
+        if (whole != 0){
+            long numerator = part * 10000;
+            hundredths = numerator / whole;
+            long twiceRemainder = (numerator % whole) * 2;
+            if (twiceRemainder > whole || (twiceRemainder == whole && (hundredths & 1) == 1)){
+                hundredths++;
+            }
+        }
+
+        out.append(hundredths / 100).append('.');
+        long decimals = hundredths % 100;
+        if (decimals < 10){
+            out.append('0');
+        }
+        out.append(decimals);
+        return this;
+    }
+
+    /**
+     * This function ends the current cell, padding it with spaces to width characters followed by one space
+     * between it and the next cell. A cell longer than width is not cut off.
+     * @param width - The width of the cell.
+     * @return - This renderer, so calls can be chained.
+     */
+    public TableRenderer pad(int width){
+        for (int length = out.length() - cellStart; length < width; length++){
+            out.append(' ');
+        }
+        out.append(' ');
+        cellStart = out.length();
+        return this;
+    }
+
+    /**
+     * This function ends the current row after its last cell, which is not padded.
+     * @return - This renderer, so calls can be chained.
+     */
+    public TableRenderer endRow(){
+        out.append('\n');
+        cellStart = out.length();
+        return this;
+    }
+
+    /**
+     * This function writes a row of headings whose widths are all 30 characters, except the last one.
+     * @param headings - The headings of the columns.
+     * @return - This renderer, so calls can be chained.
+     */
+    public TableRenderer header(String... headings){
+        row();
+        for (int i = 0; i < headings.length - 1; i++){
+            text(headings[i]).pad(30);
+        }
+        return text(headings[headings.length - 1]).endRow();
+    }
+}
@@ -0,0 +1,68 @@
+import org.junit.*;
+
+public class TableRendererTests {
+    /**
+     * This test checks that cells are padded to their width followed by one space, matching String.format("%-Ns ").
+     */
+    @Test
+    public void testPadding() {
+        StringBuilder sb = new StringBuilder("Header\n");
+        TableRenderer table = new TableRenderer(sb);
+        table.row().candidate("Pike", "D").pad(37).number(25).pad(28).text("x").endRow();
+
+        Assert.assertEquals("Header\n" + String.format("%-37s %-28d %s\n", "Pike (D)", 25, "x"), sb.toString());
+    }
+
+    /**
+     * This test checks that a cell longer than its width is not cut off.
+     */
+    @Test
+    public void testLongCell() {
+        StringBuilder sb = new StringBuilder();
+        new TableRenderer(sb).row().text("Candidate & Party").pad(5).number(3).endRow();
+
+        Assert.assertEquals("Candidate & Party 3\n", sb.toString());
+    }
+
+    /**
+     * This test checks that headings are padded to 30 characters except the last one.
+     */
+    @Test
+    public void testHeader() {
+        StringBuilder sb = new StringBuilder();
+        new TableRenderer(sb).header("Party", "Number of Votes", "Seats Allocated");
+
+        Assert.assertEquals(String.format("%-30s %-30s %s\n", "Party", "Number of Votes", "Seats Allocated"), sb.toString());
+    }
+
+    /**
+     * This test checks that percentages are written with two decimals and a leading zero.
+     */
+    @Test
+    public void testPercent() {
+        Assert.assertEquals("0.00", percent(0, 7));
+        Assert.assertEquals("0.50", percent(1, 200));
+        Assert.assertEquals("33.33", percent(1, 3));
+        Assert.assertEquals("66.67", percent(2, 3));
+        Assert.assertEquals("100.00", percent(9, 9));
+        Assert.assertEquals("0.00", percent(0, 0));
+    }
+
+    /**
+     * This test checks that percentages exactly halfway between two hundredths are rounded half to even.
+     */
+    @Test
+    public void testPercentRoundsHalfToEven() {
+        Assert.assertEquals("14.38", percent(23, 160)); // 14.375
+        Assert.assertEquals("30.62", percent(49, 160)); // 30.625
+    }
+
+    /**
+     * This function writes part as a percentage of whole into a new buffer.
+     */
+    private String percent(long part, long whole) {
+        StringBuilder sb = new StringBuilder();
+        new TableRenderer(sb).percent(part, whole);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,404 @@
+/**
+ * TextAuditRenderer.java
+ * This class turns the AuditEvent objects of an IR, OPL or MPO election into the human-readable audit file,
+ * with the fixed-width tables and messages election officials read.
+ */
+
+import java.util.*;
+
+public class TextAuditRenderer extends AuditRenderer {
+    private final StringBuilder sb; // Reused buffer holding the text of one event
+    private final TableRenderer table; // Writes the fixed-width tables into sb
+
+    /**
+     * Constructs a renderer that writes the audit file to a sink.
+     * @param sink - The destination of the audit file.
+     */
+    public TextAuditRenderer(AuditSink sink){
+        super(sink);
+        this.sb = new StringBuilder();
+        this.table = new TableRenderer(sb);
+    }
+
+    @Override
+    public void render(AuditEvent event){
+        sb.setLength(0);
+
+        switch (event.getType()){
+            case ELECTION_START:
+                renderElectionStart(event, sb);
+                break;
+            case ROUND_START:
+                sb.append("\nCurrent Redistribution Round Results:\n");
+                break;
+            case TALLY:
+                renderTally(event, sb);
+                break;
+            case ELIMINATION:
+                renderElimination(event, sb);
+                break;
+            case TRANSFER:
+                renderTransfer(event, sb);
+                break;
+            case TIE_DRAW:
+                renderTieDraw(event, sb);
+                break;
+            case SEAT_AWARD:
+                renderSeatAward(event, sb);
+                break;
+            case SEAT_SENSITIVITY:
+                renderSeatSensitivity(event, sb);
+                break;
+            case RESULT:
+                renderResult(event, sb);
+                break;
+        }
+
+        sink.write(sb);
+    }
+
+    /**
+     * This function renders the name of the protocol at the top of the audit file.
+     */
+    private void renderElectionStart(AuditEvent event, StringBuilder sb){
+        if (event.has("districts")){
+            sb.append("Voting Protocol Name: Open Party List (OPL) across " + event.getInt("districts") + " districts \n\n");
+        } else if (event.getProtocol().equals("IR")){
+            sb.append("Voting Protocol Name: Instant Runoff (IR) \n\n");
+        } else if (event.getProtocol().equals("OPL")){
+            sb.append("Voting Protocol Name: Open Party List (OPL) \n\n");
+        } else {
+            sb.append("Voting Protocol Name: MPO (Multiple Popularity Only)\n");
+        }
+    }
+
+    /**
+     * This function renders the votes counted before any candidate is eliminated or seat is allocated.
+     */
+    private void renderTally(AuditEvent event, StringBuilder sb){
+        if (event.has("districts")){ // Every district of a multi-district OPL election
+            table.header("District", "Number of Ballots", "Number of Seats", "Winning Party");
+            for (Object element : event.getList("districts")){
+                Map<String, Object> district = AuditEvent.asFields(element);
+                String winningParty = AuditEvent.stringValue(district, "winningParty");
+                table.row().text(AuditEvent.stringValue(district, "name")).pad(37).number(AuditEvent.intValue(district, "ballots")).pad(30)
+                    .number(AuditEvent.intValue(district, "seats")).pad(29).text(winningParty == null ? "-" : winningParty).endRow();
+            }
+        } else if (event.getProtocol().equals("IR")){
+            sb.append("Displaying Statistics after first round of vote calculations...\n\n");
+            appendIRCandidates(event, sb);
+        } else if (event.getProtocol().equals("OPL")){
+            sb.append("Displaying Statistics before seat allocation...\n\n");
+            table.header("Party", "Number of Votes", "Seats Allocated");
+            for (Object element : event.getList("parties")){
+                Map<String, Object> party = AuditEvent.asFields(element);
+                table.row().text(AuditEvent.stringValue(party, "name")).pad(37).number(AuditEvent.intValue(party, "votes")).pad(30).number(AuditEvent.intValue(party, "seats")).endRow();
+            }
+        } else {
+            sb.append("Initial Vote Calculation Results:\n");
+            appendMPOCandidates(event, sb);
+            sb.append("\nRemaining Seats: ").append(event.getInt("remainingSeats")).append('\n');
+        }
+    }
+
+    /**
+     * This function renders candidates removed from the election.
+     */
+    private void renderElimination(AuditEvent event, StringBuilder sb){
+        if (event.has("candidate")){ // A candidate eliminated for receiving no votes
+            sb.append("\n\nCandidate ").append(event.getString("candidate")).append(" has been eliminated since they recieved 0 votes.\n");
+            return;
+        }
+
+        sb.append("\nName(s) of candidate(s) eliminated during this round: \n\n");
+        for (Object name : event.getList("candidates")){
+            sb.append(name).append('\n');
+        }
+        sb.append("\n");
+    }
+
+    /**
+     * This function renders the votes every candidate received from eliminated candidates in a redistribution round.
+     */
+    private void renderTransfer(AuditEvent event, StringBuilder sb){
+        int numBallots = event.getInt("ballots");
+        appendUnchangedRows(event, "candidates", sb);
+        table.row().text("Candidate & Party").pad(30).text("Number of redistributed votes").pad(40).text("Number of Votes").pad(30).text("% of votes won").endRow();
+
+        for (Object element : event.getList("candidates")){
+            Map<String, Object> candidate = AuditEvent.asFields(element);
+            candidateCell(candidate).pad(37);
+
+            // Display candidate votes as 0 if they were eliminated during redistribution
+            if (AuditEvent.booleanValue(candidate, "eliminated")){
+                table.number(0).pad(40).number(0).pad(28).text("0.00 (Eliminated)").endRow();
+            } else {
+                int candidateVotes = AuditEvent.intValue(candidate, "votes");
+                table.number(AuditEvent.intValue(candidate, "redistributedVotes")).pad(40).number(candidateVotes).pad(28).percent(candidateVotes, numBallots).endRow();
+            }
+        }
+    }
+
+    /**
+     * This function renders a "coin flip" between tied candidates or parties.
+     */
+    private void renderTieDraw(AuditEvent event, StringBuilder sb){
+        String kind = event.getString("kind");
+        List<Object> tied = event.getList("tied");
+        String winner = String.valueOf(event.getList("winners").get(0));
+
+        if (kind.equals("lowest votes")){ // Candidates tied for elimination in an IR redistribution round
+            sb.append("\nFollowing Candidates are tied for the lowest votes:\n\n");
+            for (Object name : tied){
+                sb.append(name).append('\n');
+            }
+            sb.append("\nWinner of tie breaker is " + winner + ".\n");
+            return;
+        }
+
+        if (kind.equals("candidate")){
+            sb.append("\nThe following candidates were tied: \n\n");
+        } else if (kind.equals("party")){
+            sb.append("\nThe following parties were tied: \n\n");
+        } else if (kind.equals("remaining votes")){
+            sb.append("\nThe following parties' remaining votes were tied: \n\n");
+        } else {
+            sb.append("\nThe following parties were tied for the most national seats: \n\n");
+        }
+
+        for (Object name : tied){
+            sb.append(name).append('\n');
+        }
+        sb.append("\nThe winner of the tie result is ").append(winner).append(".\n");
+    }
+
+    /**
+     * This function renders seats given to parties or candidates.
+     */
+    private void renderSeatAward(AuditEvent event, StringBuilder sb){
+        String kind = event.getString("kind");
+
+        if (kind.equals("round")){ // An OPL round of seat allocation
+            sb.append("\nAfter round of seat allocation:\n\n");
+            appendUnchangedRows(event, "parties", sb);
+            table.header("Party", "Remaining Votes", "Seats Allocated");
+            for (Object element : event.getList("parties")){
+                Map<String, Object> party = AuditEvent.asFields(element);
+                table.row().text(AuditEvent.stringValue(party, "name")).pad(37).number(AuditEvent.intValue(party, "remainingVotes")).pad(30).number(AuditEvent.intValue(party, "seats")).endRow();
+            }
+        } else if (kind.equals("seat holders")){ // The candidates filling every OPL party's seats
+            sb.append("\n\nCandidates filling each party's seats:\n");
+            for (Object element : event.getList("parties")){
+                Map<String, Object> party = AuditEvent.asFields(element);
+                sb.append("\nParty ").append(AuditEvent.stringValue(party, "name")).append(" (").append(AuditEvent.intValue(party, "seats")).append(" seats):\n");
+                table.header("Candidate & Party", "Number of Votes");
+
+                for (Object seatHolder : AuditEvent.listValue(party, "seatHolders")){
+                    Map<String, Object> candidate = AuditEvent.asFields(seatHolder);
+                    candidateCell(candidate).pad(37).number(AuditEvent.intValue(candidate, "votes")).endRow();
+                }
+
+                List<Object> tied = AuditEvent.listValue(party, "tied");
+                if (!tied.isEmpty()){ // If the party's last seat holder(s) were decided by a "coin flip"
+                    sb.append("\nThe following candidates were tied for the party's last seat(s): \n\n");
+                    for (Object name : tied){
+                        sb.append(name).append('\n');
+                    }
+
+                    sb.append("\nThe winner(s) of the tie result: ");
+                    List<Object> tieWinners = AuditEvent.listValue(party, "tieWinners");
+                    for (int i = 0; i < tieWinners.size(); i++){
+                        sb.append(i == 0 ? "" : ", ").append(tieWinners.get(i));
+                    }
+                    sb.append(".\n");
+                }
+            }
+        } else { // The MPO seat selection
+            sb.append("\nSeat Allocation:\n\n");
+            List<Object> tieWinners = event.getList("tieWinners");
+            for (Object name : event.getList("winners")){
+                if (!tieWinners.contains(name)){
+                    sb.append("1 seat allocated to ").append(name).append(" since they are one of the ").append(event.getInt("seats")).append(" candidates with the highest number of votes.\n");
+                }
+            }
+
+            List<Object> tied = event.getList("tied");
+            if (!tied.isEmpty()){
+                sb.append("\nList of candidates currently tied with the same number of votes for the last ").append(tieWinners.size()).append(" seat(s): ");
+                for (int i = 0; i < tied.size(); i++){
+                    sb.append(i == 0 ? "" : ", ").append(tied.get(i));
+                }
+                sb.append("\n");
+
+                for (Object name : tieWinners){
+                    sb.append("The winner of the tie result is ").append(name).append(" and wins 1 seat.\n");
+                }
+            }
+
+            sb.append("\nRemaining Seats: ").append(event.getInt("remainingSeats")).append('\n');
+        }
+    }
+
+    /**
+     * This function renders how close every OPL party was to gaining or losing a seat.
+     */
+    private void renderSeatSensitivity(AuditEvent event, StringBuilder sb){
+        sb.append("\n\nSeat sensitivity analysis (quota of " + event.getInt("quota") + " and other parties' votes held fixed):\n\n");
+        table.header("Party", "Number of Votes", "Number of Seats", "Votes to Gain a Seat", "Votes to Lose a Seat");
+
+        for (Object element : event.getList("parties")){
+            Map<String, Object> party = AuditEvent.asFields(element);
+            int votesToGainSeat = AuditEvent.intValue(party, "votesToGainSeat");
+            int votesToLoseSeat = AuditEvent.intValue(party, "votesToLoseSeat");
+            table.row().text(AuditEvent.stringValue(party, "name")).pad(37).number(AuditEvent.intValue(party, "votes")).pad(30).number(AuditEvent.intValue(party, "seats")).pad(29);
+            if (votesToGainSeat == -1){
+                table.text('-');
+            } else {
+                table.number(votesToGainSeat);
+            }
+            table.pad(30);
+            if (votesToLoseSeat == -1){
+                table.text('-');
+            } else {
+                table.number(votesToLoseSeat);
+            }
+            table.endRow();
+        }
+    }
+
+    /**
+     * This function renders the final result of the election.
+     */
+    private void renderResult(AuditEvent event, StringBuilder sb){
+        if (event.has("districts")){ // The national result of a multi-district OPL election
+            sb.append("\nNational result of the election after completing the seat allocations of every district:\n\n");
+            appendParties(event, sb);
+            if (event.has("winningParty")){
+                Map<String, Object> winningParty = event.getFields("winningParty");
+                appendWinningParty(winningParty, sb);
+                sb.append('\n');
+            }
+        } else if (event.getProtocol().equals("IR")){
+            sb.append("\nFinal result of the election after completing all calculations including redistribution or tie-breakers:\n\n");
+            appendIRCandidates(event, sb);
+            Map<String, Object> winner = event.getFields("winner");
+            sb.append("\nWinning candidate is ").append(AuditEvent.stringValue(winner, "name")).append(" from the ").append(AuditEvent.stringValue(winner, "party"))
+                .append(". party who wins with ").append(AuditEvent.intValue(winner, "votes")).append(" votes to their name.");
+        } else if (event.getProtocol().equals("OPL")){
+            sb.append("\nFinal result of the election after completing all seat allocations including tie-breakers:\n\n");
+            appendParties(event, sb);
+            Map<String, Object> winningParty = event.getFields("winningParty");
+            appendWinningParty(winningParty, sb);
+            sb.append("\n\n");
+
+            // The candidates of the winning party
+            int numBallots = event.getInt("ballots");
+            table.header("Candidate & Party", "Number of Votes", "% of votes won");
+            for (Object element : event.getList("candidates")){
+                Map<String, Object> candidate = AuditEvent.asFields(element);
+                int candidateVotes = AuditEvent.intValue(candidate, "votes");
+                candidateCell(candidate).pad(37).number(candidateVotes).pad(28).percent(candidateVotes, numBallots).endRow();
+            }
+
+            Map<String, Object> winner = event.getFields("winner");
+            sb.append("\nWinning candidate is ").append(AuditEvent.stringValue(winner, "name")).append(" from the ").append(AuditEvent.stringValue(winner, "party"))
+                .append(" party who wins with ").append(AuditEvent.intValue(winner, "votes")).append(" votes to their name.");
+        } else {
+            int remainingSeats = event.getInt("remainingSeats");
+            sb.append(remainingSeats == 0 ? "\nFinal Round of Seat Allocation Results:\n" : "\nCurrent Round Seat Allocation Results:\n");
+            appendMPOCandidates(event, sb);
+
+            if (remainingSeats == 0){ // All seats allocated, so write the winning candidates and the party results
+                sb.append("\nThe following candidates won seats: \n\n");
+                for (Object element : event.getList("winners")){
+                    Map<String, Object> candidate = AuditEvent.asFields(element);
+                    sb.append(AuditEvent.stringValue(candidate, "name")).append(" from the ").append(AuditEvent.stringValue(candidate, "party")).append(" party.\n");
+                }
+                sb.append("\n");
+                appendParties(event, sb);
+            } else {
+                sb.append("\nRemaining Seats: ").append(remainingSeats).append('\n');
+            }
+        }
+    }
+
+    /**
+     * This function appends the IR table of every candidate's votes and % of votes, showing eliminated candidates with 0 votes.
+     */
+    private void appendIRCandidates(AuditEvent event, StringBuilder sb){
+        int numBallots = event.getInt("ballots");
+        table.header("Candidate & Party", "Number of Votes", "% of votes won");
+
+        for (Object element : event.getList("candidates")){
+            Map<String, Object> candidate = AuditEvent.asFields(element);
+            candidateCell(candidate).pad(37);
+
+            // Display candidate votes as 0 if they were eliminated during redistribution
+            if (AuditEvent.booleanValue(candidate, "eliminated")){
+                table.number(0).pad(28).text("0.00 (Eliminated)").endRow();
+            } else {
+                int candidateVotes = AuditEvent.intValue(candidate, "votes");
+                table.number(candidateVotes).pad(28).percent(candidateVotes, numBallots).endRow();
+            }
+        }
+    }
+
+    /**
+     * This function appends the MPO table of every candidate's votes, seats and % of votes and seats.
+     */
+    private void appendMPOCandidates(AuditEvent event, StringBuilder sb){
+        int numBallots = event.getInt("ballots");
+        int numSeats = event.getInt("seats");
+        sb.append('\n');
+        table.header("Candidates", "Number of Votes", "Number of Seats Won", "% of Total Votes", "% of Total Seats");
+
+        for (Object element : event.getList("candidates")){
+            Map<String, Object> candidate = AuditEvent.asFields(element);
+            int candidateVotes = AuditEvent.intValue(candidate, "votes");
+            int candidateSeats = AuditEvent.intValue(candidate, "seats");
+            candidateCell(candidate).pad(37).number(candidateVotes).pad(30).number(candidateSeats).pad(29).percent(candidateVotes, numBallots).pad(29).percent(candidateSeats, numSeats).endRow();
+        }
+    }
+
+    /**
+     * This function appends the table of every party's votes, seats and % of votes to % of seats.
+     */
+    private void appendParties(AuditEvent event, StringBuilder sb){
+        int numBallots = event.getInt("ballots");
+        int numSeats = event.getInt("seats");
+        table.header("Party", "Number of Votes", "Number of Seats", "% of Votes to % of Seats");
+
+        for (Object element : event.getList("parties")){
+            Map<String, Object> party = AuditEvent.asFields(element);
+            int partyVotes = AuditEvent.intValue(party, "votes");
+            int partySeats = AuditEvent.intValue(party, "seats");
+            table.row().text(AuditEvent.stringValue(party, "name")).pad(37).number(partyVotes).pad(30).number(partySeats).pad(29)
+                .percent(partyVotes, numBallots).text('/').percent(partySeats, numSeats).endRow();
+        }
+    }
+
+    /**
+     * This function notes how many rows were left out of a round table written in delta audit mode.
+     */
+    private void appendUnchangedRows(AuditEvent event, String rows, StringBuilder sb){
+        if (event.has("unchanged")){
+            sb.append("Only ").append(rows).append(" whose results changed since the previous round are listed (")
+                .append(event.getInt("unchanged")).append(" unchanged).\n");
+        }
+    }
+
+    /**
+     * This function starts a table row with a candidate's name and party affiliation in its first cell.
+     */
+    private TableRenderer candidateCell(Map<String, Object> candidate){
+        return table.row().candidate(AuditEvent.stringValue(candidate, "name"), AuditEvent.stringValue(candidate, "party"));
+    }
+
+    /**
+     * This function appends the message naming the winning party with its votes and seats.
+     */
+    private void appendWinningParty(Map<String, Object> winningParty, StringBuilder sb){
+        sb.append("\nThe ").append(AuditEvent.stringValue(winningParty, "name")).append(" party has won the election with ")
+            .append(AuditEvent.intValue(winningParty, "votes")).append(" votes and ").append(AuditEvent.intValue(winningParty, "seats")).append(" seats.");
+    }
+}
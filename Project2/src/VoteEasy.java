@@ -6,49 +6,638 @@
  */
 
 import java.io.File;
-import java.text.DecimalFormat;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class VoteEasy{
+    private static final String RESULT_CACHE_DIRECTORY = "./result_cache"; // Directory of the result cache
     /**
      * The main entry point of the VoteEasy system.
      * @param args - Command line arguments passed to the VoteEasy system.
      */
     public static void main(String[] args){
+        // Write the audit file on a background writer thread if --async-audit was passed on the command line, buffering up
+        // to <n> writes if --async-audit=<n> was passed instead
+        final ArrayList<String> arguments = new ArrayList<>(Arrays.asList(args));
+        final boolean asyncAudit = arguments.remove("--async-audit") || arguments.stream().anyMatch(argument -> argument.startsWith("--async-audit="));
+        final int asyncAuditCapacity = parseAsyncAuditCapacity(arguments);
+        if (asyncAuditCapacity <= 0){
+            return;
+        }
+
+        // Choose whether the election waits or fails when the buffer of the writer thread is full if
+        // --audit-back-pressure=block|fail was passed on the command line
+        final AsyncAuditSink.BackPressure auditBackPressure = parseAuditBackPressure(arguments);
+        if (auditBackPressure == null){
+            return;
+        }
+
+        // Keep a hash chain over the audit files and write a manifest of its digests if --audit-hash-chain was passed on the command line
+        final boolean auditHashChain = arguments.remove("--audit-hash-chain");
+
+        // Choose how much detail is written to the audit file if --audit-level=<level> was passed on the command line
+        final AuditLevel auditLevel = parseAuditLevel(arguments);
+        if (auditLevel == null){
+            return;
+        }
+
+        // Also write every step of the election as JSON Lines if --audit-events=<file> was passed on the command line
+        final String auditEventLogPath = parseOption(arguments, "--audit-events=", "");
+
+        // Only write the rows of a round table that changed, with a full table every <n> rounds, if --audit-deltas=<n> was passed on the command line
+        final int auditSnapshotInterval = parseAuditDeltas(arguments);
+        if (auditSnapshotInterval < 0){
+            return;
+        }
+        if (auditSnapshotInterval > 0 && auditEventLogPath.length() == 0){ // The full round tables are only rebuilt from the event log
+            System.out.println("[SYSTEM]: --audit-deltas needs --audit-events=<file>, since the full round tables can only be rebuilt from the audit event log.");
+            return;
+        }
+
+        // Write the audit files gzip-compressed if --audit-gzip was passed on the command line, starting a new segment
+        // every <n> MB on disk if --audit-gzip=<n> was passed instead
+        final boolean auditGzip = arguments.remove("--audit-gzip") || arguments.stream().anyMatch(argument -> argument.startsWith("--audit-gzip="));
+        final long auditSegmentSize = parseAuditSegmentSize(arguments);
+        if (auditSegmentSize < 0){
+            return;
+        }
+
+        // Record where every IR ballot went in every round if --ballot-trace=<file> was passed on the command line
+        final String ballotTracePath = parseOption(arguments, "--ballot-trace=", "");
+
+        // Keep running and serve elections through a local HTTP API if --serve was passed on the command line, listening
+        // on port <n> if --serve=<n> was passed instead
+        final boolean serve = arguments.remove("--serve") || arguments.stream().anyMatch(argument -> argument.startsWith("--serve="));
+        final int servePort = parseServePort(arguments);
+        if (servePort < 0){
+            return;
+        }
+        // Keep running and run every election file dropped into <directory> if --watch=<directory> was passed on the command line
+        final String watchDirectory = parseOption(arguments, "--watch=", "");
+
+        // Break ties with coin flips seeded with <n>, so the same election always gives the same result, if --tie-break-seed=<n> was passed on the command line
+        final String tieBreakSeed = parseOption(arguments, "--tie-break-seed=", "");
+        if (tieBreakSeed.length() != 0 && !tieBreakSeed.matches("-?\\d{1,18}")){
+            System.out.println("[SYSTEM]: The tie-break seed " + tieBreakSeed + " is not valid. Please choose a whole number.");
+            return;
+        }
+
+        // Restore the result and audit files of an election file already run with the same options from a cache of up to 256 MB
+        // if --result-cache was passed on the command line, or of up to <n> MB if --result-cache=<n> was passed instead
+        final boolean resultCache = arguments.remove("--result-cache") || arguments.stream().anyMatch(argument -> argument.startsWith("--result-cache="));
+        final long resultCacheSize = parseResultCacheSize(arguments);
+        if (resultCacheSize < 0){
+            return;
+        }
+
+        // Also export every round and the final result to ./results.json or ./results.csv if --export=json or --export=csv was passed on the command line
+        final String exportFormat = parseOption(arguments, "--export=", "").toLowerCase();
+        if (exportFormat.length() != 0 && !exportFormat.equals("json") && !exportFormat.equals("csv")){
+            System.out.println("[SYSTEM]: The export format " + exportFormat + " is not valid. Please choose json or csv.");
+            return;
+        }
+        final String exportPath = exportFormat.length() != 0 ? "./results." + exportFormat : "";
+
+        // Report the phase, round, ballots counted and time left on stderr every 2 seconds while the election runs if --progress
+        // was passed on the command line, or every <n> seconds if --progress=<n> was passed instead
+        final boolean reportProgress = arguments.remove("--progress") || arguments.stream().anyMatch(argument -> argument.startsWith("--progress="));
+        final long progressInterval = parseProgressInterval(arguments);
+        if (progressInterval < 0){
+            return;
+        }
+
+        // Display the wall time, CPU time, bytes allocated and garbage collection time of every phase of the election after
+        // its result if --profile was passed on the command line
+        final boolean profile = arguments.remove("--profile");
+
+        // Show the counters and phase latencies of every election over JMX, and write them to ./metrics.json when the process
+        // exits, if --metrics was passed on the command line, or to <file> if --metrics=<file> was passed instead
+        final boolean metrics = arguments.remove("--metrics") || arguments.stream().anyMatch(argument -> argument.startsWith("--metrics="));
+        final String metricsPath = parseOption(arguments, "--metrics=", "./metrics.json");
+        if (metrics){
+            startMetrics(metricsPath);
+        }
+
+        final Consumer<Voting> auditSettings = voting -> {
+            voting.setAsyncAudit(asyncAudit, asyncAuditCapacity, auditBackPressure);
+            voting.setAuditHashChain(auditHashChain);
+            voting.setAuditGzip(auditGzip, auditSegmentSize);
+            voting.setAuditLevel(auditLevel);
+            voting.setAuditDeltas(auditSnapshotInterval);
+            if (tieBreakSeed.length() != 0){
+                voting.setTieBreakSeed(Long.parseLong(tieBreakSeed));
+            }
+        };
+        // The modes that run several elections do not report the progress or profile of one, so say so instead of ignoring them
+        final boolean severalElections = serve || watchDirectory.length() != 0 || (arguments.size() > 0 && arguments.get(0).equals("--districts"));
+        if (severalElections && reportProgress){
+            System.out.println("[SYSTEM]: --progress only reports a single election, so it is ignored with --districts, --serve and --watch.");
+        }
+        if (severalElections && profile){
+            System.out.println("[SYSTEM]: --profile only profiles a single election, so it is ignored with --districts, --serve and --watch.");
+        }
+
+        if (serve){
+            runServer(servePort, auditSettings, auditEventLogPath);
+            return;
+        }
+        if (watchDirectory.length() != 0){
+            runWatcher(watchDirectory, auditSettings, auditEventLogPath.length() != 0, exportFormat);
+            return;
+        }
+
+        // Run a multi-district OPL election if district files were passed on the command line
+        if (arguments.size() > 0 && arguments.get(0).equals("--districts")){
+            runDistricts(new ArrayList<>(arguments.subList(1, arguments.size())), auditSettings, auditEventLogPath, exportPath, exportFormat);
+            return;
+        }
+
         // Build Command Line Interface
         buildCLI();
 
         // Prompt user for CSV file name
         final String fileName = receiveAndValidateUserPrompt();
+        final String auditFilePath = "./audit_file.txt";
 
-        // Parse the file
-        final FileParser file = new FileParser(fileName);
+        // Report the progress of the election until it is done
+        final ElectionProgress progress = reportProgress ? new ElectionProgress() : null;
+        final ProgressReporter reporter = reportProgress ? new ProgressReporter(progress, progressInterval, System.err) : null;
+        if (reporter != null){
+            reporter.start();
+        }
 
-        // Retrieve pertinent information
+        // Profile every phase of the election from the parse on
+        final ElectionProfile profiler = profile ? ElectionProfile.start() : null;
+
+        // Parse the file, tallying OPL and MPO ballots while they are read and hashing it for the result cache
+        final FileParser file = new FileParser(fileName, true, progress, resultCache);
+
+        // Stop before anything is written if the file is not an election file
         final String fileHeader = file.getFileHeader();
+        if (fileHeader == null || !(fileHeader.equals("IR") || fileHeader.equals("OPL") || fileHeader.equals("MPO"))){
+            stopReporting(reporter, profiler);
+            System.out.println("[SYSTEM]: " + fileName + " is not an IR, OPL or MPO election file.");
+            return;
+        }
+
+        // Restore the result from the cache if the file was already run with the same options
+        ResultCache cache = null;
+        String cacheKey = null;
+        if (resultCache && file.getContentHash() != null){
+            try {
+                cache = new ResultCache(Paths.get(RESULT_CACHE_DIRECTORY), resultCacheSize);
+                String options = "level=" + auditLevel + ";hashChain=" + auditHashChain + ";gzip=" + auditGzip + ";segmentSize=" + auditSegmentSize
+                    + ";deltas=" + auditSnapshotInterval + ";events=" + auditEventLogPath + ";ballotTrace=" + ballotTracePath + ";export=" + exportFormat;
+                cacheKey = ResultCache.key(file.getContentHash(), options, tieBreakSeed);
+                String output = cache.get(cacheKey);
+                if (output != null){
+                    stopReporting(reporter, profiler);
+                    System.out.println("\n[SYSTEM]: " + fileName + " was already run with these options. Its result and audit files were restored from the result cache.");
+                    System.out.print(output);
+                    return;
+                }
+            } catch (IOException | IllegalArgumentException e){
+                System.out.println("[SYSTEM]: The result cache could not be read, so the election is run without it: " + e.getMessage());
+                cache = null;
+            }
+        }
+
+        // Retrieve pertinent information
         final String candidateLine = file.getCandidateLine();
         final ArrayList<String> ballotList = file.getBallotList();
-        final String auditFilePath = "./audit_file.txt";
+        String output = null; // Everything displayed about the result, which is kept in the result cache
+        Voting election = null; // Engine of the election, which lists the audit files it wrote
 
-        if (fileHeader.equals("IR")){
-            System.out.println("\n[SYSTEM]: Voting protocol chosen is Instant Runoff (IR)");
-            final IRVoting ir = new IRVoting(candidateLine, ballotList, auditFilePath);
-            ir.calculateBallots();
-            displayIRWinner(ir.getWinningCandidate(), ir.getCandidates(), ir.getBallots().size());
-        } else if (fileHeader.equals("OPL")) {
-            System.out.println("\n[SYSTEM]: Voting protocol chosen is Open Party List (OPL)");
-            final int numSeats = file.getNumberOfSeats();
-            final int numBallots = file.getNumberOfBallots();
-            final OPLVoting opl = new OPLVoting(candidateLine, ballotList, numSeats, numBallots, auditFilePath);
+        final ResultExporter exporter;
+        try {
+            exporter = exportPath.length() != 0 ? ResultExporter.open(exportPath, exportFormat) : null;
+        } catch (UncheckedIOException e){
+            stopReporting(reporter, profiler);
+            System.out.println("[SYSTEM]: " + e.getMessage());
+            return;
+        }
+
+        boolean completed = false; // True once the election was counted and its export closed
+        try {
+            if (fileHeader.equals("IR")){
+                output = "\n[SYSTEM]: Voting protocol chosen is Instant Runoff (IR)\n";
+                System.out.print(output);
+                if (progress != null){
+                    progress.startPhase("Ranking ballots", 0, ballotList.size());
+                }
+                final ElectionProfile.Sample rankingSample = ElectionProfile.beginPhase("Ranking ballots", 0);
+                final IRVoting ir = new IRVoting(candidateLine, ballotList, auditFilePath);
+                ElectionProfile.endPhase(rankingSample);
+                auditSettings.accept(ir);
+                ir.setProgress(progress);
+                ir.setAuditEventLog(auditEventLogPath);
+                ir.setBallotTrace(ballotTracePath);
+                ir.setResultExporter(exporter);
+                ir.calculateBallots();
+                election = ir;
+                output += displayIRWinner(ir.getWinningCandidate(), ir.getCandidates(), ir.getBallots().size());
+            } else if (fileHeader.equals("OPL")) {
+                output = "\n[SYSTEM]: Voting protocol chosen is Open Party List (OPL)\n";
+                System.out.print(output);
+                final int numSeats = file.getNumberOfSeats();
+                final int numBallots = file.getNumberOfBallots();
+                final OPLVoting opl = new OPLVoting(candidateLine, file.getBallotTallies(), numSeats, numBallots, auditFilePath);
+                opl.setSeatSensitivityAnalysis(true);
+                auditSettings.accept(opl);
+                opl.setAuditEventLog(auditEventLogPath);
+                opl.setResultExporter(exporter);
+                opl.setProgress(progress);
+                opl.performSeatAllocations();
+                election = opl;
+                output += displayOPLWinner(opl.getWinningParty(), opl.getWinningCandidate(), opl.getParties(), numBallots, numSeats);
+            } else if (fileHeader.equals("MPO")){
+                final int numSeats = file.getNumberOfSeats();
+                final int numBallots = file.getNumberOfBallots();
+                final MPOVoting mpo = new MPOVoting(candidateLine, file.getBallotTallies(), numSeats, numBallots, auditFilePath);
+                auditSettings.accept(mpo);
+                mpo.setAuditEventLog(auditEventLogPath);
+                mpo.setResultExporter(exporter);
+                mpo.setProgress(progress);
+                mpo.performSeatAllocations();
+                election = mpo;
+                output = displayMPOWinners(mpo.getWinningCandidates(), mpo.getCandidates(), numBallots, numSeats);
+            }
+            if (exporter != null){
+                exporter.close();
+            }
+            completed = true;
+        } catch (UncheckedIOException e){
+            System.out.println("[SYSTEM]: Error occurred while writing to audit file. Exiting...");
+            return;
+        } finally {
+            if (reporter != null){
+                reporter.close();
+            }
+            if (!completed){
+                abortExport(exporter);
+            }
+        }
+
+        // Only cache a result that is the same every time it is run, i.e. one whose ties were broken with a seed or that had none
+        if (cache != null && output != null && (tieBreakSeed.length() != 0 || election.getNumTieDraws() == 0)){
+            ArrayList<Path> writtenFiles = new ArrayList<>();
+            for (String writtenFile : election.getAuditFiles()){
+                writtenFiles.add(Paths.get(writtenFile));
+            }
+            if (exporter != null){
+                writtenFiles.add(Paths.get(exportPath));
+            }
+            try {
+                cache.put(cacheKey, output, writtenFiles);
+            } catch (IOException e){
+                System.out.println("[SYSTEM]: The result could not be added to the result cache: " + e.getMessage());
+            }
+        }
+
+        // Display the profile after the result, leaving it out of the result cache
+        if (profiler != null){
+            profiler.setNumBallots(file.getNumberOfBallots());
+            System.out.print(profiler.buildReport());
+        }
+    }
+
+    /**
+     * This function stops reporting the progress of an election and profiling it when the election is not run,
+     * e.g. because its result was restored from the result cache.
+     * @param reporter - The progress reporter, or null if the progress is not reported.
+     * @param profiler - The profile of the election, or null if it is not profiled.
+     */
+    private static void stopReporting(ProgressReporter reporter, ElectionProfile profiler){
+        if (reporter != null){
+            reporter.close();
+        }
+        if (profiler != null){
+            profiler.stop();
+        }
+    }
+
+    /**
+     * This function deletes the result export of an election that failed, so a partial export is not mistaken for
+     * a result.
+     * @param exporter - The exporter of the result, or null if the result is not exported.
+     */
+    private static void abortExport(ResultExporter exporter){
+        if (exporter == null){
+            return;
+        }
+        try {
+            exporter.abort();
+        } catch (UncheckedIOException e){
+            System.out.println("[SYSTEM]: " + e.getMessage());
+        }
+    }
+
+    /**
+     * This function shows the ElectionMetrics over JMX, where JConsole or a monitoring agent attached to the process
+     * finds them under "voteeasy", and writes them to a file when the process exits, including when a server or
+     * folder watcher is stopped with Ctrl+C.
+     * @param metricsPath - The name and path of the metrics file.
+     */
+    private static void startMetrics(String metricsPath){
+        ElectionMetrics.get().setEnabled(true);
+        try {
+            ElectionMetrics.get().registerMBeans();
+        } catch (IllegalStateException e){
+            System.out.println("[SYSTEM]: The metrics could not be shown over JMX: " + e.getMessage());
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                ElectionMetrics.get().writeTo(Paths.get(metricsPath));
+            } catch (IOException e){
+                System.out.println("[SYSTEM]: The metrics could not be written to " + metricsPath + ": " + e.getMessage());
+            }
+        }, "metrics-writer"));
+    }
+
+    /**
+     * This function runs an OPL election made up of several district files and displays the national result.
+     * Usage: java VoteEasy [--async-audit[=<n>]] [--audit-back-pressure=block|fail] [--audit-hash-chain] [--audit-gzip[=<n>]] [--audit-level=<level>] [--audit-events=<file>] [--audit-deltas=<n>] [--tie-break-seed=<n>] [--export=json|csv] --districts district1.csv district2.csv ...
+     * @param districtFiles - The OPL CSV files of every district.
+     * @param auditSettings - Applies the audit settings chosen on the command line, which are passed on to every district.
+     * @param auditEventLogPath - Name and path of the national audit event log, or an empty string if none is written.
+     * @param exportPath - Name and path of the export of the national result, or an empty string if it is not exported.
+     * @param exportFormat - "json" or "csv", or an empty string if the national result is not exported.
+     */
+    private static void runDistricts(ArrayList<String> districtFiles, Consumer<Voting> auditSettings, String auditEventLogPath, String exportPath, String exportFormat){
+        if (districtFiles.isEmpty()){
+            System.out.println("[SYSTEM]: Please list the district CSV files after --districts.");
+            return;
+        }
+
+        for (String districtFile : districtFiles){
+            if (!districtFile.endsWith("csv") || !new File(districtFile).exists()){
+                System.out.println("[SYSTEM]: The district file " + districtFile + " is not a CSV file in the current directory.");
+                return;
+            }
+        }
+
+        System.out.println("[SYSTEM]: Voting protocol chosen is Open Party List (OPL) across " + districtFiles.size() + " districts");
+        final MultiDistrictOPLVoting opl = new MultiDistrictOPLVoting(districtFiles, "./audit_file.txt");
+        auditSettings.accept(opl);
+        opl.setAuditEventLog(auditEventLogPath);
+        final ResultExporter exporter;
+        try {
+            exporter = exportPath.length() != 0 ? ResultExporter.open(exportPath, exportFormat) : null;
+        } catch (UncheckedIOException e){
+            System.out.println("[SYSTEM]: " + e.getMessage());
+            return;
+        }
+        try {
+            opl.setResultExporter(exporter);
             opl.performSeatAllocations();
-            displayOPLWinner(opl.getWinningParty(), opl.getWinningCandidate(), opl.getParties(), numBallots, numSeats);
-        } else if (fileHeader.equals("MPO")){
-            final int numSeats = file.getNumberOfSeats();
-            final int numBallots = file.getNumberOfBallots();
-            final MPOVoting mpo = new MPOVoting(candidateLine, ballotList, numSeats, auditFilePath);
-            mpo.performSeatAllocations();
-            displayMPOWinners(mpo.getWinningCandidates(), mpo.getCandidates(), numBallots, numSeats);
+            if (exporter != null){
+                exporter.close();
+            }
+        } catch (IllegalArgumentException e){
+            abortExport(exporter);
+            System.out.println("[SYSTEM]: " + e.getMessage());
+            return;
+        } catch (UncheckedIOException e){
+            abortExport(exporter);
+            System.out.println("[SYSTEM]: Error occurred while writing to audit file. Exiting...");
+            return;
         }
+        displayNationalOPLWinner(opl.getWinningParty(), opl.getNationalParties(), opl.getNumBallots(), opl.getNumSeats());
+    }
+
+    /**
+     * This function starts the election server and returns, leaving the server running until VoteEasy is stopped.
+     * Usage: java VoteEasy [--async-audit[=<n>]] [--audit-back-pressure=block|fail] [--audit-hash-chain] [--audit-gzip[=<n>]] [--audit-level=<level>] [--audit-events=<file>] [--audit-deltas=<n>] --serve[=<port>]
+     * @param port - The port the server listens on.
+     * @param auditSettings - Applies the audit settings chosen on the command line to every election.
+     * @param auditEventLogPath - Name and path the audit event log of every election is named after, or an empty string if none is written.
+     */
+    private static void runServer(int port, Consumer<Voting> auditSettings, String auditEventLogPath){
+        System.out.println("[SYSTEM]: Warming up the election engines...");
+        final ElectionServer server = new ElectionServer(port, Runtime.getRuntime().availableProcessors(), "./audit_file.txt", auditEventLogPath, auditSettings);
+        try {
+            server.start();
+        } catch (IOException e){
+            System.out.println("[SYSTEM]: The election server could not be started on port " + port + ": " + e.getMessage());
+            server.stop();
+            return;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        System.out.println("[SYSTEM]: Serving elections on http://127.0.0.1:" + server.getPort() + "/elections. Press Ctrl+C to stop.");
+    }
+
+    /**
+     * This function watches a directory and runs every election file dropped into it until VoteEasy is stopped.
+     * Usage: java VoteEasy [--async-audit[=<n>]] [--audit-back-pressure=block|fail] [--audit-hash-chain] [--audit-gzip[=<n>]] [--audit-level=<level>] [--audit-events=<file>] [--audit-deltas=<n>] [--export=json|csv] --watch=<directory>
+     * @param watchDirectory - The directory election files are dropped into.
+     * @param auditSettings - Applies the audit settings chosen on the command line to every election.
+     * @param auditEventLogs - True to also write an audit event log next to every election file.
+     * @param exportFormat - "json" or "csv" to also export the result of every election next to its file, or an empty string.
+     */
+    private static void runWatcher(String watchDirectory, Consumer<Voting> auditSettings, boolean auditEventLogs, String exportFormat){
+        if (!Files.isDirectory(Paths.get(watchDirectory))){
+            System.out.println("[SYSTEM]: The directory " + watchDirectory + " does not exist.");
+            return;
+        }
+
+        final ElectionFolderWatcher watcher = new ElectionFolderWatcher(Paths.get(watchDirectory), Runtime.getRuntime().availableProcessors(), 1000, auditEventLogs, auditSettings);
+        watcher.setExportFormat(exportFormat);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> { // Let the elections that are running finish
+            watcher.close();
+            try {
+                watcher.awaitTermination(30000);
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }));
+        System.out.println("[SYSTEM]: Watching " + watchDirectory + " for election files. Press Ctrl+C to stop.");
+        try {
+            watcher.run();
+        } catch (IOException e){
+            System.out.println("[SYSTEM]: The directory " + watchDirectory + " could not be watched: " + e.getMessage());
+        }
+    }
+
+    /**
+     * This function removes the --result-cache=<n> option from the command line arguments and returns its cache size
+     * of n MB in bytes. It is 256 MB if the option is missing.
+     * @param arguments - The command line arguments, which no longer contain the option once this function returns.
+     * @return - The cache size in bytes chosen on the command line, or -1 if it is not a valid number.
+     */
+    private static long parseResultCacheSize(ArrayList<String> arguments){
+        String megabytes = parseOption(arguments, "--result-cache=", "256");
+        long cacheSize = -1;
+        try {
+            cacheSize = Long.parseLong(megabytes) << 20;
+        } catch (NumberFormatException e){
+            cacheSize = -1;
+        }
+
+        if (cacheSize < 0){
+            System.out.println("[SYSTEM]: The result cache size " + megabytes + " is not valid. Please choose a positive number of MB.");
+        }
+        return cacheSize;
+    }
+
+    /**
+     * This function removes the --progress=<n> option from the command line arguments and returns its interval of
+     * n seconds in milliseconds. It is 2 seconds if the option is missing.
+     * @param arguments - The command line arguments, which no longer contain the option once this function returns.
+     * @return - The interval in milliseconds chosen on the command line, or -1 if it is not a valid number.
+     */
+    private static long parseProgressInterval(ArrayList<String> arguments){
+        String seconds = parseOption(arguments, "--progress=", "2");
+        long interval = -1;
+        try {
+            interval = Math.round(Double.parseDouble(seconds) * 1000);
+        } catch (NumberFormatException e){
+            interval = -1;
+        }
+
+        if (interval <= 0){
+            System.out.println("[SYSTEM]: The progress interval " + seconds + " is not valid. Please choose a positive number of seconds.");
+            return -1;
+        }
+        return interval;
+    }
+
+    /**
+     * This function removes the --serve=<n> option from the command line arguments and returns its port. It is 8080
+     * if the option is missing.
+     * @param arguments - The command line arguments, which no longer contain the option once this function returns.
+     * @return - The port chosen on the command line, or -1 if it is not a valid port.
+     */
+    private static int parseServePort(ArrayList<String> arguments){
+        String portName = parseOption(arguments, "--serve=", "8080");
+        int port = -1;
+        try {
+            port = Integer.parseInt(portName);
+        } catch (NumberFormatException e){
+            port = -1;
+        }
+
+        if (port < 0 || port > 65535){
+            System.out.println("[SYSTEM]: The port " + portName + " is not valid. Please choose a port from 0 to 65535.");
+            return -1;
+        }
+        return port;
+    }
+
+    /**
+     * This function removes the --audit-level=<level> option from the command line arguments and returns its level.
+     * The level can be off, summary, round or trace (not case sensitive), and is trace if the option is missing.
+     * @param arguments - The command line arguments, which no longer contain the option once this function returns.
+     * @return - The AuditLevel chosen on the command line, or null if the level is not valid.
+     */
+    private static AuditLevel parseAuditLevel(ArrayList<String> arguments){
+        String levelName = parseOption(arguments, "--audit-level=", "trace");
+        try {
+            return AuditLevel.valueOf(levelName.toUpperCase());
+        } catch (IllegalArgumentException e){
+            System.out.println("[SYSTEM]: The audit level " + levelName + " is not valid. Please choose off, summary, round or trace.");
+            return null;
+        }
+    }
+
+    /**
+     * This function removes the --async-audit=<n> option from the command line arguments and returns its number of
+     * writes the buffer of the writer thread holds. It is AsyncAuditSink.DEFAULT_CAPACITY if the option is missing.
+     * @param arguments - The command line arguments, which no longer contain the option once this function returns.
+     * @return - The number of writes chosen on the command line, or 0 if it is not a valid number.
+     */
+    private static int parseAsyncAuditCapacity(ArrayList<String> arguments){
+        String writes = parseOption(arguments, "--async-audit=", String.valueOf(AsyncAuditSink.DEFAULT_CAPACITY));
+        int capacity = 0;
+        try {
+            capacity = Integer.parseInt(writes);
+        } catch (NumberFormatException e){
+            capacity = 0;
+        }
+
+        if (capacity <= 0){
+            System.out.println("[SYSTEM]: The audit buffer capacity " + writes + " is not valid. Please choose a positive number of writes.");
+        }
+        return capacity;
+    }
+
+    /**
+     * This function removes the --audit-back-pressure=<mode> option from the command line arguments and returns its
+     * mode. It is BLOCK if the option is missing.
+     * @param arguments - The command line arguments, which no longer contain the option once this function returns.
+     * @return - The BackPressure chosen on the command line, or null if it is not a valid mode.
+     */
+    private static AsyncAuditSink.BackPressure parseAuditBackPressure(ArrayList<String> arguments){
+        String modeName = parseOption(arguments, "--audit-back-pressure=", "block");
+        try {
+            return AsyncAuditSink.BackPressure.valueOf(modeName.toUpperCase());
+        } catch (IllegalArgumentException e){
+            System.out.println("[SYSTEM]: The audit back-pressure mode " + modeName + " is not valid. Please choose block or fail.");
+            return null;
+        }
+    }
+
+    /**
+     * This function removes the --audit-deltas=<n> option from the command line arguments and returns its number of
+     * rounds from one full round table to the next. It is 0, writing every round table in full, if the option is missing.
+     * @param arguments - The command line arguments, which no longer contain the option once this function returns.
+     * @return - The number of rounds chosen on the command line, or -1 if it is not a valid number.
+     */
+    private static int parseAuditDeltas(ArrayList<String> arguments){
+        String interval = parseOption(arguments, "--audit-deltas=", "0");
+        int snapshotInterval = -1;
+        try {
+            snapshotInterval = Integer.parseInt(interval);
+        } catch (NumberFormatException e){
+            snapshotInterval = -1;
+        }
+
+        if (snapshotInterval < 0){
+            System.out.println("[SYSTEM]: The audit delta interval " + interval + " is not valid. Please choose zero or more rounds.");
+        }
+        return snapshotInterval;
+    }
+
+    /**
+     * This function removes the --audit-gzip=<n> option from the command line arguments and returns its segment size
+     * of n MB in bytes. It is 0, writing every audit file to one compressed file, if the option is missing.
+     * @param arguments - The command line arguments, which no longer contain the option once this function returns.
+     * @return - The segment size in bytes chosen on the command line, or -1 if it is not a valid number.
+     */
+    private static long parseAuditSegmentSize(ArrayList<String> arguments){
+        String megabytes = parseOption(arguments, "--audit-gzip=", "0");
+        long segmentSize = -1;
+        try {
+            segmentSize = Long.parseLong(megabytes) << 20;
+        } catch (NumberFormatException e){
+            segmentSize = -1;
+        }
+
+        if (segmentSize < 0){
+            System.out.println("[SYSTEM]: The audit segment size " + megabytes + " is not valid. Please choose a positive number of MB.");
+        }
+        return segmentSize;
+    }
+
+    /**
+     * This function removes an option of the form <prefix><value> from the command line arguments and returns its value.
+     * @param arguments - The command line arguments, which no longer contain the option once this function returns.
+     * @param prefix - The name of the option including the "=", e.g. "--audit-level=".
+     * @param defaultValue - The value returned if the option is missing.
+     * @return - The value of the option, or defaultValue if the option is missing.
+     */
+    private static String parseOption(ArrayList<String> arguments, String prefix, String defaultValue){
+        for (int i = 0; i < arguments.size(); i++){
+            if (arguments.get(i).startsWith(prefix)){
+                return arguments.remove(i).substring(prefix.length());
+            }
+        }
+        return defaultValue;
     }
 
     /**
@@ -99,32 +688,31 @@ public class VoteEasy{
      * @param candidates - The list of Candidate objects who particpated in the election. This is useful for displaying what % of votes
      * other candidates received along with their names and party affiliations.
      * @param numberOfBallots - The number of ballots cast for the election.
+     * @return - The text that was displayed, so it can be kept in the result cache.
      */
-    private static void displayIRWinner(Candidate winningCandidate, ArrayList<Candidate> candidates, int numberOfBallots){
+    private static String displayIRWinner(Candidate winningCandidate, ArrayList<Candidate> candidates, int numberOfBallots){
         StringBuilder sb = new StringBuilder();
-        sb.append(String.format("\n%-30s %-30s %s%n", "Candidate & Party", "Number of Votes", "% of votes won"));
+        TableRenderer table = new TableRenderer(sb);
+        sb.append('\n');
+        table.header("Candidate & Party", "Number of Votes", "% of votes won");
 
-        DecimalFormat df = new DecimalFormat("#.00");
         for (Candidate candidate : candidates){
-            String percentOfVotes = df.format(((double)candidate.getNumVotes() / numberOfBallots) * 100);
-            if (percentOfVotes.equals(".00")){
-                percentOfVotes = "0.00";
-            }
-            
-            String candidateString = candidate.getName() + " (" + candidate.getParty() + ")";
-            int candidateVotes = candidate.getNumVotes();
+            table.row().candidate(candidate.getName(), candidate.getParty()).pad(37);
 
             // Display candidate votes as 0 if they were eliminated during redistribution
             if (candidate.isEliminated()){
-                candidateVotes = 0;
-                percentOfVotes = "0.00 (Eliminated)";
+                table.number(0).pad(28).text("0.00 (Eliminated)").endRow();
+            } else {
+                table.number(candidate.getNumVotes()).pad(28).percent(candidate.getNumVotes(), numberOfBallots).endRow();
             }
-            sb.append(String.format("%-37s %-28d %s\n", candidateString, candidateVotes, percentOfVotes));
         }
 
-        sb.append(String.format("\nWinning candidate is %s from the %s. party who wins with %d votes to their name.\n", winningCandidate.getName(), winningCandidate.getParty(), winningCandidate.getNumVotes()));
+        sb.append("\nWinning candidate is ").append(winningCandidate.getName()).append(" from the ").append(winningCandidate.getParty())
+            .append(". party who wins with ").append(winningCandidate.getNumVotes()).append(" votes to their name.\n");
 
-        System.out.println(sb.toString());
+        final String text = sb.append('\n').toString();
+        System.out.print(text);
+        return text;
     }  
 
     /**
@@ -135,51 +723,68 @@ public class VoteEasy{
      * @param parties - The list of Parties that participated in the election. 
      * @param numBallots - The number of ballots cast for the election.
      * @param numSeats - The number of seats to be allocated.
+     * @return - The text that was displayed, so it can be kept in the result cache.
      */
-    private static void displayOPLWinner(Party winningParty, Candidate winningCandidate, ArrayList<Party> parties, int numBallots, int numSeats) {
+    private static String displayOPLWinner(Party winningParty, Candidate winningCandidate, ArrayList<Party> parties, int numBallots, int numSeats) {
         StringBuilder sb = new StringBuilder();
-        sb.append(String.format("\n%-30s %-30s %-30s %s\n", "Parties", "Number of Votes", "Number of Seats", "% of Votes to % of Seats"));
-
-        DecimalFormat df1 = new DecimalFormat("#.00");
-        for (Party party : parties) {
-            String percentOfVotes = df1.format(((double) party.getInitialPartyVotes() / numBallots) * 100);
-            String percentOfSeats = df1.format(((double) party.getNumSeatsAllocated() / numSeats) * 100);
-            if (percentOfVotes.equals(".00")){
-                percentOfVotes = "0.00";
-            } else if (percentOfSeats.equals(".00")) {
-                percentOfSeats = "0.00";
-            }
+        TableRenderer table = new TableRenderer(sb);
+        sb.append('\n');
+        appendPartyTable(table, parties, numBallots, numSeats);
 
-            String partyString = party.getPartyName();
-            int partyTotalVotes = party.getInitialPartyVotes();
-            int partySeats = party.getNumSeatsAllocated();
-            String percentVotesAndString = percentOfVotes + "/" + percentOfSeats;
+        sb.append("\nThe ").append(winningParty.getPartyName()).append(" party has won the election with ").append(winningParty.getInitialPartyVotes())
+            .append(" votes and ").append(winningParty.getNumSeatsAllocated()).append(" seats.\n\n");
+        sb.append("The winning party's candidates list details are below:\n\n");
+        table.header("Candidate & Party", "Number of Votes", "% of votes won");
 
-            sb.append(String.format("%-37s %-30d %-29d %s\n", partyString, partyTotalVotes, partySeats, percentVotesAndString));
+        for (Candidate candidate : winningParty.getCandidates()){
+            table.row().candidate(candidate.getName(), candidate.getParty()).pad(37).number(candidate.getNumVotes()).pad(28).percent(candidate.getNumVotes(), numBallots).endRow();
         }
 
-        sb.append(String.format("\nThe %s party has won the election with %d votes and %d seats.\n\n", winningParty.getPartyName(), winningParty.getInitialPartyVotes(), winningParty.getNumSeatsAllocated()));
-        sb.append("The winning party's candidates list details are below:\n");
-        sb.append(String.format("\n%-30s %-30s %s%n", "Candidate & Party", "Number of Votes", "% of votes won"));
+        sb.append("\nWinning candidate is ").append(winningCandidate.getName()).append(" from the ").append(winningCandidate.getParty())
+            .append(" party who wins with ").append(winningCandidate.getNumVotes()).append(" votes to their name.\n");
 
-        DecimalFormat df2 = new DecimalFormat("#.00");
-        for (Candidate candidate : winningParty.getCandidates()){
-            String percentOfVotes = df2.format(((double) candidate.getNumVotes() / numBallots) * 100);
-            if (percentOfVotes.equals(".00")){
-                percentOfVotes = "0.00";
-            }
-            
-            String candidateString = candidate.getName() + " (" + candidate.getParty() + ")";
-            int candidateVotes = candidate.getNumVotes();
+        final String text = sb.append('\n').toString();
+        System.out.print(text);
+        return text;
+    }
 
-            sb.append(String.format("%-37s %-28d %s\n", candidateString, candidateVotes, percentOfVotes));
-        }
 
-        sb.append(String.format("\nWinning candidate is %s from the %s party who wins with %d votes to their name.\n", winningCandidate.getName(), winningCandidate.getParty(), winningCandidate.getNumVotes()));
+    /**
+     * This function is helpful for displaying the national result of a multi-district OPL election along with
+     * the number of votes and seats each party received across all districts.
+     * @param winningParty - The party with the most national seats.
+     * @param parties - The national totals of every party.
+     * @param numBallots - The number of ballots cast across all districts.
+     * @param numSeats - The number of seats allocated across all districts.
+     */
+    private static void displayNationalOPLWinner(Party winningParty, ArrayList<Party> parties, int numBallots, int numSeats) {
+        StringBuilder sb = new StringBuilder();
+        TableRenderer table = new TableRenderer(sb);
+        sb.append('\n');
+        appendPartyTable(table, parties, numBallots, numSeats);
+
+        sb.append("\nThe ").append(winningParty.getPartyName()).append(" party has won the election with ").append(winningParty.getInitialPartyVotes())
+            .append(" votes and ").append(winningParty.getNumSeatsAllocated()).append(" seats across all districts.\n");
 
         System.out.println(sb.toString());
     }
 
+    /**
+     * This function writes the table of every party's votes, seats and % of votes to % of seats shown after an OPL election.
+     * @param table - The table renderer writing to the output.
+     * @param parties - The parties to be shown.
+     * @param numBallots - The number of ballots cast for the election.
+     * @param numSeats - The number of seats allocated.
+     */
+    private static void appendPartyTable(TableRenderer table, ArrayList<Party> parties, int numBallots, int numSeats) {
+        table.header("Parties", "Number of Votes", "Number of Seats", "% of Votes to % of Seats");
+        for (Party party : parties) {
+            int partyVotes = party.getInitialPartyVotes();
+            int partySeats = party.getNumSeatsAllocated();
+            table.row().text(party.getPartyName()).pad(37).number(partyVotes).pad(30).number(partySeats).pad(29)
+                .percent(partyVotes, numBallots).text('/').percent(partySeats, numSeats).endRow();
+        }
+    }
 
  /**
      * This function is helpful for displaying the winning Candidates for the election along with details of how many seats
@@ -188,35 +793,28 @@ public class VoteEasy{
      * @param candidates - The list of candidates that participated in the election. 
      * @param numBallots - The number of ballots cast for the election.
      * @param numSeats - The number of seats to be allocated.
+     * @return - The text that was displayed, so it can be kept in the result cache.
      */
-    private static void displayMPOWinners(ArrayList<Candidate> winningCandidates, ArrayList<Candidate> candidates, int numBallots, int numSeats) {
+    private static String displayMPOWinners(ArrayList<Candidate> winningCandidates, ArrayList<Candidate> candidates, int numBallots, int numSeats) {
         StringBuilder sb = new StringBuilder();
         sb.append("\nPercentage of votes and seats won each candidate received are shown below\n");
-        sb.append(String.format("\n%-30s %-30s %-30s %-30s %s\n", "Candidates", "Number of Votes", "Number of Seats Won", "% of Total Votes", "% of Total Seats"));
-        
-        DecimalFormat df1 = new DecimalFormat("#.00");
+        TableRenderer table = new TableRenderer(sb);
+        sb.append('\n');
+        table.header("Candidates", "Number of Votes", "Number of Seats Won", "% of Total Votes", "% of Total Seats");
 
         for(Candidate candidate : candidates){
-            String percentOfVotes = df1.format(((double)candidate.getNumVotes() / numBallots) * 100);
-            String percentOfSeats = df1.format(((double)candidate.getNumSeats() / numSeats) * 100);
-            if (percentOfVotes.equals(".00")){
-                percentOfVotes = "0.00";
-            }
-            if (percentOfSeats.equals(".00")) {
-                percentOfSeats = "0.00";
-            }
-
-            String candidateString = candidate.getName() + " (" + candidate.getParty() + ")";
             int candidateVotes = candidate.getNumVotes();
             int candidateSeats = candidate.getNumSeats();
-            sb.append(String.format("%-37s %-30d %-29d %-29s %s\n", candidateString, candidateVotes, candidateSeats, percentOfVotes, percentOfSeats));
+            table.row().candidate(candidate.getName(), candidate.getParty()).pad(37).number(candidateVotes).pad(30).number(candidateSeats).pad(29)
+                .percent(candidateVotes, numBallots).pad(29).percent(candidateSeats, numSeats).endRow();
         }
 
-        sb.append("\nList of all " + winningCandidates.size() + " candidates who won seats are shown below:\n");
+        sb.append("\nList of all ").append(winningCandidates.size()).append(" candidates who won seats are shown below:\n");
         for(Candidate candidate : winningCandidates){
-            String candidateString = candidate.getName() + " (" + candidate.getParty() + ")";
-            sb.append(String.format("%s\n", candidateString));
+            table.row().candidate(candidate.getName(), candidate.getParty()).endRow();
         }
-        System.out.println(sb.toString());
+        final String text = sb.append('\n').toString();
+        System.out.print(text);
+        return text;
     }
 }
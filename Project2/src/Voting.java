@@ -5,9 +5,34 @@
  * necessary functions they need to define.
  */
 
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 public abstract class Voting {
     protected Candidate winningCandidate; // This stores the information of the winning candidate such as name, party affialiation and number of votes received.
     protected String auditFilePath; // Name and path of the audit file that is generated when running the entire system.
+    protected AuditSink auditSink; // Destination of the audit file content, opened on the first write to the audit file.
+    protected boolean asyncAudit; // True if the audit file is written by a background writer thread.
+    protected int asyncAuditCapacity = AsyncAuditSink.DEFAULT_CAPACITY; // Number of writes the buffer of the writer thread holds.
+    protected AsyncAuditSink.BackPressure asyncAuditBackPressure = AsyncAuditSink.BackPressure.BLOCK; // What a write does when the buffer of the writer thread is full.
+    protected boolean auditHashChain; // True if a hash chain is kept over the audit files and written to a manifest next to them.
+    protected AuditLevel auditLevel = AuditLevel.TRACE; // How much detail is written to the audit file.
+    protected String auditEventLogPath = ""; // Name and path of the JSON Lines audit event log, or an empty string if none is written.
+    protected AuditSink auditEventSink; // Destination of the audit event log, opened on the first event.
+    private ArrayList<AuditRenderer> auditRenderers; // Renderers every audit event is written to, created on the first event.
+    protected int auditSnapshotInterval; // Number of rounds from one full round table in the audit to the next, or 0 to write every round table in full.
+    private AuditDeltaTable auditRoundTable; // Rows of the round table last written to the audit, created on the first round.
+    private int auditPhaseRound = AuditSink.NO_ROUND; // Last round written to the audit since the end of the previous phase.
+    protected boolean auditGzip; // True if the audit files are written gzip-compressed.
+    protected long auditSegmentSize; // Size in bytes of a compressed audit segment on disk from which a new segment is started, or 0 to write one file.
+    protected boolean seededTieBreaks; // True if ties are broken with a Random seeded with tieBreakSeed instead of a SecureRandom.
+    protected long tieBreakSeed; // Seed of the coin flips that break ties, if seededTieBreaks is true.
+    private Random tieBreakRandom; // Source of the coin flips that break ties, created on the first tie.
+    private int numTieDraws; // Number of ties broken by a coin flip so far.
+    protected ResultExporter resultExporter; // Exporter every round and the final result are streamed to, or null if the results are not exported.
+    protected ElectionProgress progress; // Counters the phase, round and ballots counted are published to, or null if the progress is not reported.
 
     /**
      * This function returns the Candidate object that won the election.
@@ -31,6 +56,64 @@ public abstract class Voting {
      */
     protected void handleTie(){};
 
+    /**
+     * This function returns the source of the "coin flips" every tie of the election is broken with. It is a
+     * SecureRandom, unless a tie-break seed was set, in which case the same election always breaks its ties the same way.
+     * @return - The source of the coin flips, shared by every tie of the election.
+     */
+    protected Random getTieBreakRandom(){
+        if (tieBreakRandom == null){
+            tieBreakRandom = seededTieBreaks ? new Random(mixSeed(tieBreakSeed)) : new SecureRandom();
+        }
+        return tieBreakRandom;
+    }
+
+    /**
+     * This function records a tie that was just broken by a coin flip, in the JDK Flight Recorder and the
+     * ElectionMetrics, and counts it for getNumTieDraws().
+     * @param protocol - The protocol of the election.
+     * @param kind - What the tie was for, e.g. "winning party".
+     * @param numTied - The number of candidates or parties tied.
+     * @param winner - The name of the candidate(s) or party that won the draw.
+     */
+    protected void recordTieDraw(String protocol, String kind, int numTied, String winner){
+        numTieDraws++;
+        ElectionMetrics.get().recordTieDraw();
+        ElectionEvents.Tie.record(protocol, kind, numTied, winner);
+    }
+
+    /**
+     * Retrieves the number of ties the election broke by a coin flip. Without a tie-break seed, an election that
+     * broke a tie may have a different result when it is run again.
+     * @return - The number of tie draws.
+     */
+    public int getNumTieDraws(){
+        return numTieDraws;
+    }
+
+    /**
+     * This function scrambles a tie-break seed with the SplitMix64 finalizer. The first coin flip of a Random is
+     * nearly the same for nearby seeds such as 1, 2 and 3, so the seed is scrambled before the Random is seeded.
+     * @param seed - The tie-break seed.
+     * @return - The scrambled seed.
+     */
+    private static long mixSeed(long seed){
+        long z = seed + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * This function breaks the ties of the election with coin flips seeded with the given seed, so running the
+     * same election with the same seed always gives the same result. It must be called before the election is run.
+     * @param tieBreakSeed - The seed of the coin flips.
+     */
+    public void setTieBreakSeed(long tieBreakSeed){
+        this.seededTieBreaks = true;
+        this.tieBreakSeed = tieBreakSeed;
+    }
+
     /**
      * This function is useful for building the string that details result of a tie to the audit file
      */
@@ -43,9 +126,305 @@ public abstract class Voting {
     protected void buildAndWriteInitialResultsToAuditFile(){};
 
     /**
-     * Write StringBuilder content to the audit file. This function is helpful for writing first round
-     * of calculation information, tie information and vote redistribution information to the audit file.
-     * @param sb - StringBuilder object containing the content to be written to the audit file.
+     * This function checks whether content of the given level is written to the audit. The build functions
+     * call it before building any event, so nothing is built when no audit file or event log is written or
+     * the level is off.
+     * @param level - The level of the content to be written.
+     * @return - True if the content is written to the audit; otherwise, False
+     */
+    protected boolean isAuditEnabled(AuditLevel level){
+        if (!hasAuditFile() && !hasAuditEventLog()){
+            return false;
+        }
+        return auditLevel.includes(level);
+    }
+
+    /**
+     * This function sets how much detail is written to the audit. It must be called before the election is run.
+     * @param auditLevel - The AuditLevel of the audit.
+     */
+    public void setAuditLevel(AuditLevel auditLevel){
+        this.auditLevel = auditLevel;
+    }
+
+    /**
+     * Write an event to the audit file and the audit event log. This function is helpful for writing first round
+     * of calculation information, tie information and vote redistribution information to the audit.
+     * @param event - AuditEvent object describing a step of the election.
+     * @throws java.io.UncheckedIOException - If the event could not be written.
+     */
+    protected void writeAuditEvent(AuditEvent event){
+        if (event.has("round")){
+            auditPhaseRound = event.getInt("round");
+        }
+        ElectionProfile.Sample profileSample = ElectionProfile.beginPhase(ElectionProfile.AUDIT_PHASE, 0);
+        for (AuditRenderer renderer : getAuditRenderers()){
+            renderer.render(event);
+        }
+        ElectionProfile.endPhase(profileSample);
+    }
+
+    /**
+     * This function writes any buffered audit content to the audit file and the audit event log. It is called
+     * at the end of every phase of the election.
+     * @throws java.io.UncheckedIOException - If the buffered content could not be written.
+     */
+    protected void flushAuditFile(){
+        if (auditRenderers == null){
+            return;
+        }
+        ElectionPhase<ElectionEvents.AuditFlush> phase = ElectionPhase.auditFlush(auditFilePath, auditPhaseRound, false);
+        try {
+            for (AuditRenderer renderer : auditRenderers){
+                renderer.flush(auditPhaseRound);
+            }
+        } finally {
+            phase.close();
+        }
+        auditPhaseRound = AuditSink.NO_ROUND;
+    }
+
+    /**
+     * This function flushes and closes the audit file and the audit event log once the election is complete.
+     * Both are closed even if closing one of them fails. When the audit level is off, nothing was written, so the
+     * audit file and audit event log of an earlier election at the same paths are deleted instead.
+     * @throws java.io.UncheckedIOException - If the audit could not be written, closed or deleted.
+     */
+    protected void closeAuditFile(){
+        if (auditLevel == AuditLevel.OFF && auditRenderers == null){
+            AuditSink.delete(auditFilePath);
+            AuditSink.delete(auditEventLogPath);
+            return;
+        }
+        if (auditRenderers == null){
+            return;
+        }
+
+        RuntimeException failure = null;
+        ElectionPhase<ElectionEvents.AuditFlush> phase = ElectionPhase.auditFlush(auditFilePath, auditPhaseRound, true);
+        try {
+            for (AuditRenderer renderer : auditRenderers){
+                try {
+                    renderer.close();
+                } catch (RuntimeException e){
+                    if (failure == null){
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        } finally {
+            phase.close();
+        }
+        if (failure != null){
+            throw failure;
+        }
+    }
+
+    /**
+     * This function returns the renderers of the audit, creating a text renderer for the audit file and a
+     * JSON Lines renderer for the audit event log the first time they are needed.
+     * @return - The AuditRenderer objects every event is written to.
+     */
+    private ArrayList<AuditRenderer> getAuditRenderers(){
+        if (auditRenderers == null){
+            auditRenderers = new ArrayList<>();
+            if (hasAuditFile()){
+                auditRenderers.add(new TextAuditRenderer(getAuditSink()));
+            }
+            if (hasAuditEventLog()){
+                if (auditEventSink == null){
+                    auditEventSink = openAuditSink(auditEventLogPath);
+                }
+                auditRenderers.add(new JsonLinesAuditRenderer(auditEventSink));
+            }
+        }
+        return auditRenderers;
+    }
+
+    /**
+     * This function returns the sink the audit file is written to, opening it for auditFilePath
+     * the first time it is needed.
+     * @return - The AuditSink of the audit file.
+     */
+    protected AuditSink getAuditSink(){
+        if (auditSink == null){
+            auditSink = openAuditSink(auditFilePath);
+        }
+        return auditSink;
+    }
+
+    /**
+     * This function opens a sink for a file of the audit. The file is written gzip-compressed if the gzip audit mode
+     * is on. If the hash chain is on, the sink hashes every write, and in async audit mode it hands every write
+     * (and the compression) to a background writer thread.
+     * @param path - Name and path of the file, or an empty string if nothing is written.
+     * @return - The AuditSink of the file.
+     */
+    private AuditSink openAuditSink(String path){
+        if (path == null || path.length() == 0){
+            return AuditSink.open(path);
+        }
+        AuditSink sink = auditGzip ? new GzipAuditSink(path, auditSegmentSize) : AuditSink.open(path);
+        if (auditHashChain){
+            sink = new HashChainAuditSink(sink, path, !path.equals(auditEventLogPath));
+        }
+        if (asyncAudit){
+            sink = new AsyncAuditSink(sink, asyncAuditCapacity, asyncAuditBackPressure);
+        }
+        return sink;
+    }
+
+    /**
+     * This function checks whether the human-readable audit file is written.
+     * @return - True if an audit file path or sink was given; otherwise, False
      */
-    protected void writeToAuditFile(StringBuilder sb){};
+    private boolean hasAuditFile(){
+        return auditSink != null || (auditFilePath != null && auditFilePath.length() != 0);
+    }
+
+    /**
+     * This function checks whether the JSON Lines audit event log is written.
+     * @return - True if an audit event log path or sink was given; otherwise, False
+     */
+    private boolean hasAuditEventLog(){
+        return auditEventSink != null || auditEventLogPath.length() != 0;
+    }
+
+    /**
+     * This function turns the async audit mode on or off. In async audit mode the election publishes its audit
+     * content to a bounded buffer that a background thread writes to the audit file, so the election does not
+     * wait on the disk. It must be called before the election is run.
+     * @param asyncAudit - True to write the audit file on a background writer thread.
+     */
+    public void setAsyncAudit(boolean asyncAudit){
+        this.asyncAudit = asyncAudit;
+    }
+
+    /**
+     * This function turns the async audit mode on or off, with the size of the buffer of the writer thread and what
+     * the election does when it is full. It must be called before the election is run.
+     * @param asyncAudit - True to write the audit file on a background writer thread.
+     * @param capacity - The number of writes the buffer holds.
+     * @param backPressure - Whether the election waits for space or fails when the buffer is full.
+     */
+    public void setAsyncAudit(boolean asyncAudit, int capacity, AsyncAuditSink.BackPressure backPressure){
+        this.asyncAudit = asyncAudit;
+        this.asyncAuditCapacity = capacity;
+        this.asyncAuditBackPressure = backPressure;
+    }
+
+    /**
+     * This function turns the audit hash chain on or off. With the hash chain on, every phase of the election
+     * written to the audit file and the audit event log gets a digest linked to the digests before it, and a
+     * trailer and a manifest of the digests are written when the election is complete. It must be called before
+     * the election is run.
+     * @param auditHashChain - True to keep a hash chain over the audit files.
+     */
+    public void setAuditHashChain(boolean auditHashChain){
+        this.auditHashChain = auditHashChain;
+    }
+
+    /**
+     * This function turns the gzip audit mode on or off. In gzip audit mode the audit file and the audit event log
+     * are written gzip-compressed, optionally split into segments with an index of the rounds each segment holds.
+     * It must be called before the election is run.
+     * @param auditGzip - True to write the audit files gzip-compressed.
+     * @param segmentSize - The size in bytes of a compressed segment on disk from which the next phase of the
+     * election starts a new segment, or 0 to write every audit file to one compressed file.
+     */
+    public void setAuditGzip(boolean auditGzip, long segmentSize){
+        this.auditGzip = auditGzip;
+        this.auditSegmentSize = segmentSize;
+    }
+
+    /**
+     * This function replaces the sink the audit file content is written to. It must be called before
+     * the election is run, and the election closes the sink once it is complete.
+     * @param auditSink - The AuditSink the audit file content is written to.
+     */
+    public void setAuditSink(AuditSink auditSink){
+        this.auditSink = auditSink;
+    }
+
+    /**
+     * This function also writes every step of the election as one line of JSON to an audit event log, next to
+     * the human-readable audit file. It must be called before the election is run.
+     * @param auditEventLogPath - Name and path of the audit event log, or an empty string if no event log is written.
+     */
+    public void setAuditEventLog(String auditEventLogPath){
+        this.auditEventLogPath = auditEventLogPath;
+    }
+
+    /**
+     * This function replaces the sink the audit event log is written to. It must be called before the election
+     * is run, and the election closes the sink once it is complete.
+     * @param auditEventSink - The AuditSink the audit event log is written to.
+     */
+    public void setAuditEventSink(AuditSink auditEventSink){
+        this.auditEventSink = auditEventSink;
+    }
+
+    /**
+     * This function lists the files the election wrote for its audit file and audit event log, by the names they
+     * actually have, e.g. the compressed segments and index of a gzip-compressed audit. It is complete once the
+     * election is run.
+     * @return - The names and paths of the files, or an empty list if no audit was written.
+     */
+    public List<String> getAuditFiles(){
+        ArrayList<String> files = new ArrayList<>();
+        if (auditSink != null){
+            files.addAll(auditSink.getFiles());
+        }
+        if (auditEventSink != null){
+            files.addAll(auditEventSink.getFiles());
+        }
+        return files;
+    }
+
+    /**
+     * This function turns the delta audit mode on or off. In delta audit mode the table of a redistribution or
+     * seat allocation round only lists the rows that changed since the previous round, apart from a full table
+     * every snapshotInterval rounds. AuditReplay rebuilds the full table of every round from the audit event log.
+     * It must be called before the election is run.
+     * @param snapshotInterval - The number of rounds from one full table to the next, or 0 to write every table in full.
+     */
+    public void setAuditDeltas(int snapshotInterval){
+        this.auditSnapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * This function streams every round and the final result of the election to a ResultExporter. The exporter is
+     * not closed by the election. It must be called before the election is run.
+     * @param resultExporter - The exporter, or null to not export the results.
+     */
+    public void setResultExporter(ResultExporter resultExporter){
+        this.resultExporter = resultExporter;
+    }
+
+    /**
+     * This function publishes the phase, round and ballots counted of the election to a set of counters while it
+     * runs, so a ProgressReporter can report its progress. It must be called before the election is run.
+     * @param progress - The counters of the election, or null to not report the progress.
+     */
+    public void setProgress(ElectionProgress progress){
+        this.progress = progress;
+    }
+
+    /**
+     * This function adds the rows of the current round's table to an audit event, leaving out the rows that did
+     * not change since the previous round if the delta audit mode is on.
+     * @param event - The event of the round.
+     * @param name - The name of the field holding the rows, e.g. "candidates".
+     * @param rows - Every row of the round.
+     * @return - The event, so it can be written straight away.
+     */
+    protected AuditEvent withRoundRows(AuditEvent event, String name, ArrayList<Object> rows){
+        if (auditRoundTable == null){
+            auditRoundTable = new AuditDeltaTable(auditSnapshotInterval);
+        }
+        auditRoundTable.addRows(event, name, rows);
+        return event;
+    }
 }